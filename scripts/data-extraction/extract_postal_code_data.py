@@ -0,0 +1,106 @@
+#!/usr/bin/env python3
+"""
+Extract Thai postal code data from a CSV file and generate SQL INSERT statements
+
+The CSV file has a postal_code and a subdistrict_code column (5-digit Thailand Post
+postcode and 6-digit TISI subdistrict code); other columns are ignored.
+"""
+
+import csv
+import os
+import re
+import sys
+
+def extract_postal_codes(csv_file):
+    """Extract (postal_code, subdistrict_code) pairs from CSV file"""
+
+    print(f"Parsing {csv_file}...")
+    pairs = set()
+    with open(csv_file, newline='', encoding='utf-8-sig') as f:
+        reader = csv.DictReader(f)
+        for line_number, row in enumerate(reader, start=2):
+            postal_code = (row.get('postal_code') or '').strip()
+            subdistrict_code = (row.get('subdistrict_code') or '').strip()
+
+            if not re.fullmatch(r'\d{5}', postal_code):
+                raise ValueError(f"Line {line_number}: invalid postal code '{postal_code}'")
+            if not re.fullmatch(r'\d{6}', subdistrict_code):
+                raise ValueError(f"Line {line_number}: invalid subdistrict code '{subdistrict_code}'")
+
+            pairs.add((postal_code, subdistrict_code))
+
+    return sorted(pairs)
+
+def generate_sql_insert(postal_codes, source, output_file, batch_size=1000):
+    """Generate SQL INSERT statements in batches"""
+
+    with open(output_file, 'w', encoding='utf-8') as f:
+        f.write("-- Thai Postal Code Data Insert Statements\n")
+        f.write(f"-- Generated from {source}\n")
+        f.write(f"-- Total records: {len(postal_codes)}\n\n")
+
+        # Process in batches for better performance
+        total_batches = (len(postal_codes) + batch_size - 1) // batch_size
+
+        for batch_num in range(total_batches):
+            start_idx = batch_num * batch_size
+            end_idx = min((batch_num + 1) * batch_size, len(postal_codes))
+            batch = postal_codes[start_idx:end_idx]
+
+            f.write(f"-- Batch {batch_num + 1}/{total_batches} (records {start_idx + 1}-{end_idx})\n")
+            f.write("INSERT INTO postal_code (postal_code, subdistrict_code) VALUES\n")
+
+            for i, (postal_code, subdistrict_code) in enumerate(batch):
+                # Add comma except for last record in batch
+                comma = ',' if i < len(batch) - 1 else ';'
+
+                f.write(f"('{postal_code}', '{subdistrict_code}'){comma}\n")
+
+            f.write("\n")
+
+        f.write("-- End of insert statements\n")
+
+def analyze_data(postal_codes):
+    """Analyze the data structure"""
+    print("\n=== Data Analysis ===")
+
+    subdistricts_per_postal_code = {}
+    postal_codes_per_subdistrict = {}
+
+    for postal_code, subdistrict_code in postal_codes:
+        subdistricts_per_postal_code[postal_code] = subdistricts_per_postal_code.get(postal_code, 0) + 1
+        postal_codes_per_subdistrict[subdistrict_code] = postal_codes_per_subdistrict.get(subdistrict_code, 0) + 1
+
+    print(f"Total records: {len(postal_codes)}")
+    print(f"Unique postal codes: {len(subdistricts_per_postal_code)}")
+    print(f"Unique subdistricts: {len(postal_codes_per_subdistrict)}")
+
+    shared = sum(1 for count in postal_codes_per_subdistrict.values() if count > 1)
+    if shared > 0:
+        print(f"\nSubdistricts with more than one postal code: {shared}")
+
+def main():
+    if len(sys.argv) != 2:
+        print("Usage: extract_postal_code_data.py <postal code CSV file>")
+        sys.exit(2)
+
+    csv_file = sys.argv[1]
+    output_file = 'postal_code_data.sql'
+
+    print(f"Extracting postal codes from {csv_file}...")
+    postal_codes = extract_postal_codes(csv_file)
+
+    print(f"Found {len(postal_codes)} postal code records")
+    print(f"Generating SQL insert statements to {output_file}...")
+
+    generate_sql_insert(postal_codes, os.path.basename(csv_file), output_file, batch_size=1000)
+
+    print("Done!")
+    print(f"\nFirst 5 records:")
+    for postal_code, subdistrict_code in postal_codes[:5]:
+        print(f"  {postal_code}: {subdistrict_code}")
+
+    analyze_data(postal_codes)
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,122 @@
+package com.wpanther.etax.benchmark;
+
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code unmarshal} of each database-backed adapter with a code present in the H2 data.
+ *
+ * {@code lookup=registry} resolves codes from the in-memory {@link CodeListRegistry};
+ * {@code lookup=repository} detaches the registry so every call queries the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdapterBenchmark {
+
+    private static final String ADAPTER_PACKAGE = "com.wpanther.etax.core.adapter.common.";
+
+    /**
+     * A code present in the data for each adapter.
+     */
+    private static final Map<String, String> CODES = Map.ofEntries(
+            Map.entry("AddressTypeAdapter", "1"),
+            Map.entry("AllowanceChargeIdentificationCodeAdapter", "1"),
+            Map.entry("AllowanceChargeReasonCodeAdapter", "1"),
+            Map.entry("DeliveryTermsCodeAdapter", "EXW"),
+            Map.entry("DutyTaxFeeTypeCodeAdapter", "VAT"),
+            Map.entry("FreightCostCodeAdapter", "100000"),
+            Map.entry("ISOCountryCodeAdapter", "TH"),
+            Map.entry("ISOCurrencyCodeAdapter", "THB"),
+            Map.entry("ISOLanguageCodeAdapter", "th"),
+            Map.entry("MessageFunctionCodeAdapter", "9"),
+            Map.entry("PaymentTermsDescriptionIdentifierAdapter", "1"),
+            Map.entry("PaymentTermsTypeCodeAdapter", "1"),
+            Map.entry("TISICityNameAdapter", "1001"),
+            Map.entry("TISISubdistrictAdapter", "100101"),
+            Map.entry("ThaiCategoryCodeAdapter", "01"),
+            Map.entry("ThaiDocumentNameCodeAdapter", "80"),
+            Map.entry("ThaiMessageFunctionCodeAdapter", "DBNG01"),
+            Map.entry("ThaiProvinceCodeAdapter", "10"),
+            Map.entry("UNECEDocumentNameCodeInvoiceAdapter", "80"),
+            Map.entry("UNECEReferenceTypeCodeAdapter", "AAA"));
+
+    @Param({
+            "AddressTypeAdapter",
+            "AllowanceChargeIdentificationCodeAdapter",
+            "AllowanceChargeReasonCodeAdapter",
+            "DeliveryTermsCodeAdapter",
+            "DutyTaxFeeTypeCodeAdapter",
+            "FreightCostCodeAdapter",
+            "ISOCountryCodeAdapter",
+            "ISOCurrencyCodeAdapter",
+            "ISOLanguageCodeAdapter",
+            "MessageFunctionCodeAdapter",
+            "PaymentTermsDescriptionIdentifierAdapter",
+            "PaymentTermsTypeCodeAdapter",
+            "TISICityNameAdapter",
+            "TISISubdistrictAdapter",
+            "ThaiCategoryCodeAdapter",
+            "ThaiDocumentNameCodeAdapter",
+            "ThaiMessageFunctionCodeAdapter",
+            "ThaiProvinceCodeAdapter",
+            "UNECEDocumentNameCodeInvoiceAdapter",
+            "UNECEReferenceTypeCodeAdapter"
+    })
+    public String adapter;
+
+    @Param({"registry", "repository"})
+    public String lookup;
+
+    private XmlAdapter<String, ?> instance;
+    private CodeListRegistry registry;
+    private String code;
+
+    @Setup
+    public void setUp(BenchmarkDatabase database) throws Exception {
+        Class<?> adapterType = Class.forName(ADAPTER_PACKAGE + adapter);
+        instance = cast(database.getBean(adapterType));
+        registry = database.getBean(CodeListRegistry.class);
+        code = CODES.get(adapter);
+        if ("repository".equals(lookup)) {
+            setRegistry(null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        setRegistry(registry);
+    }
+
+    @Benchmark
+    public Object unmarshal() throws Exception {
+        return instance.unmarshal(code);
+    }
+
+    private void setRegistry(CodeListRegistry value) throws ReflectiveOperationException {
+        instance.getClass().getMethod("setRegistry", CodeListRegistry.class).invoke(instance, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static XmlAdapter<String, ?> cast(Object adapter) {
+        return (XmlAdapter<String, ?>) adapter;
+    }
+}
@@ -0,0 +1,87 @@
+package com.wpanther.etax.benchmark;
+
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.config.TestApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Spring context backed by an embedded H2 database loaded with the {@code db/*.sql} data.
+ *
+ * Hibernate creates the tables from the entities, then the schema and data scripts are
+ * run in PostgreSQL mode. Statements H2 does not support (functions, triggers, views,
+ * regex check constraints) are skipped; the tables and their rows are what the
+ * repositories need.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    private static final String H2_URL = "jdbc:h2:mem:etax_benchmark;MODE=PostgreSQL;"
+            + "DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Command line arguments take precedence over the test application.properties (PostgreSQL)
+        context = new SpringApplicationBuilder(TestApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .run(
+                        "--spring.datasource.url=" + H2_URL,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        loadData(context.getBean(DataSource.class));
+        // The registry was loaded before the data
+        context.getBean(CodeListRegistry.class).refreshAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private static void loadData(DataSource dataSource) {
+        Resource[] scripts;
+        try {
+            scripts = new PathMatchingResourcePatternResolver().getResources("classpath:db/*.sql");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Schema files (with their built-in rows) first, then the *_data.sql files
+        Arrays.sort(scripts, Comparator
+                .comparing((Resource script) -> script.getFilename().endsWith("_data.sql"))
+                .thenComparing(Resource::getFilename));
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(scripts);
+        populator.setSeparator(";;");
+        populator.setContinueOnError(true);
+        populator.execute(dataSource);
+    }
+}
@@ -0,0 +1,48 @@
+package com.wpanther.etax.benchmark;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Access to the ETDA example files under {@code ETDA/ExampleFile}.
+ */
+final class ExampleFiles {
+
+    static final String EXAMPLE_DIR = "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/";
+
+    private ExampleFiles() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Read an example file from the classpath.
+     */
+    static byte[] read(String fileName) throws IOException {
+        try (InputStream is = ExampleFiles.class.getClassLoader().getResourceAsStream(EXAMPLE_DIR + fileName)) {
+            if (is == null) {
+                throw new IOException("Example file not found: " + fileName);
+            }
+            return is.readAllBytes();
+        }
+    }
+
+    /**
+     * Get the document type of an example file from its name.
+     */
+    static DocumentSchematron documentType(String fileName) {
+        if (fileName.contains("AbbreviatedTaxInvo")) {
+            return DocumentSchematron.ABBREVIATED_TAX_INVOICE;
+        } else if (fileName.contains("TaxInvoice")) {
+            return DocumentSchematron.TAX_INVOICE;
+        } else if (fileName.contains("Receipt")) {
+            return DocumentSchematron.RECEIPT;
+        } else if (fileName.contains("DebitNote") || fileName.contains("CreditNote")) {
+            return DocumentSchematron.DEBIT_CREDIT_NOTE;
+        } else if (fileName.contains("Invoice")) {
+            return DocumentSchematron.INVOICE;
+        }
+        throw new IllegalArgumentException("Unknown example file: " + fileName);
+    }
+}
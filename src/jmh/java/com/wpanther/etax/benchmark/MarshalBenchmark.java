@@ -0,0 +1,89 @@
+package com.wpanther.etax.benchmark;
+
+import com.wpanther.etax.core.jaxb.EtaxJaxbContexts;
+import com.wpanther.etax.core.jaxb.LineItemStreamWriter;
+import com.wpanther.etax.core.jaxb.StreamingDocument;
+import com.wpanther.etax.generated.taxinvoice.ram.SupplyChainTradeLineItemType;
+import com.wpanther.etax.generated.taxinvoice.ram.SupplyChainTradeTransactionType;
+import com.wpanther.etax.generated.taxinvoice.rsm.ObjectFactory;
+import com.wpanther.etax.generated.taxinvoice.rsm.TaxInvoice_CrossIndustryInvoiceType;
+import com.wpanther.etax.validation.DocumentSchematron;
+import jakarta.xml.bind.JAXBElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshalling of synthetic tax invoices with 1 to 10,000 line items, built from the
+ * ETDA example by repeating its first line item.
+ *
+ * {@link #marshal()} marshals the complete object tree; {@link #marshalStreaming()}
+ * writes the same document with {@link LineItemStreamWriter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarshalBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int lineItems;
+
+    private EtaxJaxbContexts contexts;
+    private LineItemStreamWriter streamWriter;
+    private JAXBElement<TaxInvoice_CrossIndustryInvoiceType> document;
+    private Map<String, Object> headerElements;
+    private SupplyChainTradeLineItemType lineItem;
+
+    @Setup
+    public void setUp(BenchmarkDatabase database) throws Exception {
+        contexts = database.getBean(EtaxJaxbContexts.class);
+        streamWriter = database.getBean(LineItemStreamWriter.class);
+
+        TaxInvoice_CrossIndustryInvoiceType invoice = contexts.unmarshal(DocumentSchematron.TAX_INVOICE,
+                new ByteArrayInputStream(ExampleFiles.read("Example_TaxInvoice_2p1_v1.xml")),
+                TaxInvoice_CrossIndustryInvoiceType.class);
+        SupplyChainTradeTransactionType transaction = invoice.getSupplyChainTradeTransaction();
+        List<SupplyChainTradeLineItemType> items = transaction.getIncludedSupplyChainTradeLineItem();
+        lineItem = items.get(0);
+        items.clear();
+        items.addAll(Collections.nCopies(lineItems, lineItem));
+        document = new ObjectFactory().createTaxInvoice_CrossIndustryInvoice(invoice);
+
+        headerElements = new LinkedHashMap<>();
+        headerElements.put(StreamingDocument.EXCHANGED_DOCUMENT_CONTEXT, invoice.getExchangedDocumentContext());
+        headerElements.put(StreamingDocument.EXCHANGED_DOCUMENT, invoice.getExchangedDocument());
+        headerElements.put(StreamingDocument.HEADER_TRADE_AGREEMENT, transaction.getApplicableHeaderTradeAgreement());
+        headerElements.put(StreamingDocument.HEADER_TRADE_DELIVERY, transaction.getApplicableHeaderTradeDelivery());
+        headerElements.put(StreamingDocument.HEADER_TRADE_SETTLEMENT, transaction.getApplicableHeaderTradeSettlement());
+    }
+
+    @Benchmark
+    public void marshal() throws Exception {
+        contexts.marshal(DocumentSchematron.TAX_INVOICE, document, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public long marshalStreaming() throws Exception {
+        return streamWriter.write(DocumentSchematron.TAX_INVOICE, headerElements,
+                Collections.nCopies(lineItems, lineItem).iterator(), OutputStream.nullOutputStream());
+    }
+}
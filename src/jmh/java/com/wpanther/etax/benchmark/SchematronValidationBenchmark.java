@@ -0,0 +1,76 @@
+package com.wpanther.etax.benchmark;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+import com.wpanther.etax.validation.SchematronValidationResult;
+import com.wpanther.etax.validation.SchematronValidatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SchematronValidatorImpl#validate(String, DocumentSchematron)} per document type,
+ * with the compiled Schematron already cached.
+ *
+ * Each document type is validated against its ETDA example file. The cancellation note has
+ * no example, so it is validated against the tax invoice example (its Schematron is empty,
+ * so this measures the fixed cost of a validation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchematronValidationBenchmark {
+
+    @Param({
+            "TAX_INVOICE",
+            "RECEIPT",
+            "DEBIT_CREDIT_NOTE",
+            "INVOICE",
+            "CANCELLATION_NOTE",
+            "ABBREVIATED_TAX_INVOICE"
+    })
+    public DocumentSchematron docType;
+
+    private SchematronValidatorImpl validator;
+    private String xml;
+
+    @Setup
+    public void setUp() throws Exception {
+        validator = new SchematronValidatorImpl();
+        validator.warmUp(docType);
+        xml = new String(ExampleFiles.read(exampleFile(docType)), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public SchematronValidationResult validate() {
+        return validator.validate(xml, docType);
+    }
+
+    private static String exampleFile(DocumentSchematron docType) {
+        switch (docType) {
+            case RECEIPT:
+                return "Example_Receipt_2p1_v1.xml";
+            case DEBIT_CREDIT_NOTE:
+                return "Example_DebitNote_2p1_v1.xml";
+            case INVOICE:
+                return "Example_Invoice_2p1_v1.xml";
+            case ABBREVIATED_TAX_INVOICE:
+                return "Example_AbbreviatedTaxInvocie_2p1_v1.xml";
+            default:
+                return "Example_TaxInvoice_2p1_v1.xml";
+        }
+    }
+}
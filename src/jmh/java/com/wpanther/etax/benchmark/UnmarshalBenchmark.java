@@ -0,0 +1,58 @@
+package com.wpanther.etax.benchmark;
+
+import com.wpanther.etax.core.jaxb.EtaxJaxbContexts;
+import com.wpanther.etax.validation.DocumentSchematron;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unmarshalling of each ETDA example file, with code values resolved by the database-backed adapters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnmarshalBenchmark {
+
+    @Param({
+            "Example_TaxInvoice_2p1_v1.xml",
+            "Example_Receipt_2p1_v1.xml",
+            "Example_Receipt_2p1_v1-caseBuyer-TXID.xml",
+            "Example_Receipt_2p1_v1_test.xml",
+            "Example_Invoice_2p1_v1.xml",
+            "Example_DebitNote_2p1_v1.xml",
+            "Example_CreditNote_2p1_v1.xml",
+            "Example_AbbreviatedTaxInvocie_2p1_v1.xml"
+    })
+    public String exampleFile;
+
+    private EtaxJaxbContexts contexts;
+    private DocumentSchematron docType;
+    private byte[] xml;
+
+    @Setup
+    public void setUp(BenchmarkDatabase database) throws Exception {
+        contexts = database.getBean(EtaxJaxbContexts.class);
+        docType = ExampleFiles.documentType(exampleFile);
+        xml = ExampleFiles.read(exampleFile);
+    }
+
+    @Benchmark
+    public Object unmarshal() throws Exception {
+        return contexts.unmarshal(docType, new ByteArrayInputStream(xml));
+    }
+}
@@ -0,0 +1,109 @@
+package com.wpanther.etax.validation;
+
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.schematron.pure.SchematronResourcePure;
+import com.helger.schematron.svrl.jaxb.SchematronOutputType;
+import com.helger.schematron.svrl.jaxb.SuccessfulReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of ph-schematron's SVRL output into a {@link SchematronValidationResult}:
+ * {@link SchematronValidatorImpl#parseSchematronOutput} (typed access) against the
+ * reflection-based extraction it replaced.
+ *
+ * The SVRL output holds a real TaxInvoice report repeated {@code reports} times, so the
+ * Schematron evaluation itself is not measured.
+ *
+ * This benchmark is in the validation package to reach the package-private parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SvrlExtractionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int reports;
+
+    private SchematronOutputType output;
+
+    @Setup
+    public void setUp() throws Exception {
+        SchematronResourcePure schematron =
+                new SchematronResourcePure(new ClassPathResource(DocumentSchematron.TAX_INVOICE.getSchematronPath()));
+        SchematronOutputType svrl = schematron.applySchematronValidationToSVRL(new StreamSource(new StringReader("<root/>")));
+        Object report = svrl.getActivePatternAndFiredRuleAndFailedAssert().stream()
+                .filter(SuccessfulReport.class::isInstance)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No report for <root/>"));
+
+        output = new SchematronOutputType();
+        for (int i = 0; i < reports; i++) {
+            output.getActivePatternAndFiredRuleAndFailedAssert().add(report);
+        }
+    }
+
+    @Benchmark
+    public SchematronValidationResult typed() {
+        return SchematronValidatorImpl.parseSchematronOutput(output, DocumentSchematron.TAX_INVOICE);
+    }
+
+    @Benchmark
+    public SchematronValidationResult reflective() {
+        List<SchematronError> errors = new ArrayList<>();
+        List<SchematronError> warnings = new ArrayList<>();
+        for (Object obj : output.getActivePatternAndFiredRuleAndFailedAssert()) {
+            String className = obj.getClass().getSimpleName();
+            if (className.contains("FailedAssert")) {
+                errors.add(extractReflectively(obj, SchematronError.ErrorLevel.ERROR));
+            } else if (className.contains("SuccessfulReport")) {
+                warnings.add(extractReflectively(obj, SchematronError.ErrorLevel.WARNING));
+            }
+        }
+        return errors.isEmpty()
+                ? SchematronValidationResult.validWithWarnings(warnings)
+                : SchematronValidationResult.invalid(errors, warnings);
+    }
+
+    /**
+     * The extraction formerly used by SchematronValidatorImpl.
+     */
+    private static SchematronError extractReflectively(Object obj, SchematronError.ErrorLevel level) {
+        try {
+            String ruleId = (String) obj.getClass().getMethod("getId").invoke(obj);
+            String location = (String) obj.getClass().getMethod("getLocation").invoke(obj);
+            String testExpression = (String) obj.getClass().getMethod("getTest").invoke(obj);
+
+            String message = "";
+            Object textObj = obj.getClass().getMethod("getText").invoke(obj);
+            if (textObj != null) {
+                try {
+                    message = (String) textObj.getClass().getMethod("getValue").invoke(textObj);
+                } catch (NoSuchMethodException e) {
+                    message = textObj.toString();
+                }
+            }
+            return new SchematronError(ruleId, message, location, level, testExpression);
+        } catch (ReflectiveOperationException e) {
+            return new SchematronError("UNKNOWN", "Failed to extract details", "", level, "");
+        }
+    }
+}
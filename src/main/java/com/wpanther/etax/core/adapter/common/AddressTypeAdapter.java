@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.AddressTypeRepository;
 import com.wpanther.etax.core.entity.AddressType;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed AddressType entities
  *
@@ -35,6 +40,37 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
         AddressTypeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        AddressTypeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "address_type";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        AddressTypeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<AddressType> findByCode(String code) {
+        if (registry != null && registry.isLoaded(AddressType.class)) {
+            return registry.find(AddressType.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(AddressType.class)) {
+            return registry.contains(AddressType.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert AddressType entity to XML String (code)
      *
@@ -66,15 +102,19 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<AddressType> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Address type code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -86,6 +126,7 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private AddressType createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         AddressType placeholder = new AddressType(code);
         placeholder.setName("Unknown Address Type: " + code);
         placeholder.setDescription("Placeholder for unknown address type code");
@@ -102,7 +143,7 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -115,7 +156,7 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(AddressType::getName)
                 .orElse(null);
     }
@@ -130,7 +171,7 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(AddressType::getDescription)
                 .orElse(null);
     }
@@ -145,7 +186,7 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(AddressType::isPostalAddress)
                 .orElse(false);
     }
@@ -160,7 +201,7 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(AddressType::isFiscalAddress)
                 .orElse(false);
     }
@@ -175,7 +216,7 @@ public class AddressTypeAdapter extends XmlAdapter<String, AddressType> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(AddressType::isPhysicalAddress)
                 .orElse(false);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.AllowanceChargeIdentificationCodeRepository;
 import com.wpanther.etax.core.entity.AllowanceChargeIdentificationCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed AllowanceChargeIdentificationCode entities
  *
@@ -35,6 +40,37 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         AllowanceChargeIdentificationCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        AllowanceChargeIdentificationCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "allowance_charge_identification_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        AllowanceChargeIdentificationCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<AllowanceChargeIdentificationCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(AllowanceChargeIdentificationCode.class)) {
+            return registry.find(AllowanceChargeIdentificationCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(AllowanceChargeIdentificationCode.class)) {
+            return registry.contains(AllowanceChargeIdentificationCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert AllowanceChargeIdentificationCode entity to XML String (code)
      *
@@ -67,15 +103,19 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<AllowanceChargeIdentificationCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Allowance/charge identification code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -87,6 +127,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private AllowanceChargeIdentificationCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         AllowanceChargeIdentificationCode placeholder = new AllowanceChargeIdentificationCode(code);
         placeholder.setName("Unknown Allowance/Charge ID: " + code);
         placeholder.setDescription("Placeholder for unknown allowance/charge identification code");
@@ -106,7 +147,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim().toUpperCase());
+        return existsByCode(code.trim().toUpperCase());
     }
 
     /**
@@ -119,7 +160,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::getName)
                 .orElse(null);
     }
@@ -134,7 +175,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::getCategory)
                 .orElse(null);
     }
@@ -149,7 +190,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::getDescription)
                 .orElse(null);
     }
@@ -164,7 +205,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isDocumentaryCreditCommission)
                 .orElse(false);
     }
@@ -179,7 +220,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isCollectionCommission)
                 .orElse(false);
     }
@@ -194,7 +235,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isProcessingFee)
                 .orElse(false);
     }
@@ -209,7 +250,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isDiscount)
                 .orElse(false);
     }
@@ -224,7 +265,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isPenalty)
                 .orElse(false);
     }
@@ -239,7 +280,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isBonus)
                 .orElse(false);
     }
@@ -254,7 +295,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isFreightCharges)
                 .orElse(false);
     }
@@ -269,7 +310,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isStandardCode)
                 .orElse(false);
     }
@@ -284,7 +325,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isThaiExtension)
                 .orElse(false);
     }
@@ -299,7 +340,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isCommission)
                 .orElse(false);
     }
@@ -314,7 +355,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isCharge)
                 .orElse(false);
     }
@@ -329,7 +370,7 @@ public class AllowanceChargeIdentificationCodeAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeIdentificationCode::isAllowance)
                 .orElse(false);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.AllowanceChargeReasonCodeRepository;
 import com.wpanther.etax.core.entity.AllowanceChargeReasonCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed AllowanceChargeReasonCode entities
  *
@@ -35,6 +40,37 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         AllowanceChargeReasonCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        AllowanceChargeReasonCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "allowance_charge_reason_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        AllowanceChargeReasonCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<AllowanceChargeReasonCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(AllowanceChargeReasonCode.class)) {
+            return registry.find(AllowanceChargeReasonCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(AllowanceChargeReasonCode.class)) {
+            return registry.contains(AllowanceChargeReasonCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert AllowanceChargeReasonCode entity to XML String (code)
      *
@@ -67,15 +103,19 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<AllowanceChargeReasonCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Allowance charge reason code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -87,6 +127,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private AllowanceChargeReasonCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         AllowanceChargeReasonCode placeholder = new AllowanceChargeReasonCode(code);
         placeholder.setName("Unknown Allowance/Charge Reason: " + code);
         placeholder.setDescription("Placeholder for unknown allowance charge reason code");
@@ -104,7 +145,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim().toUpperCase());
+        return existsByCode(code.trim().toUpperCase());
     }
 
     /**
@@ -117,7 +158,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::getName)
                 .orElse(null);
     }
@@ -132,7 +173,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::getCategory)
                 .orElse(null);
     }
@@ -147,7 +188,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::getDescription)
                 .orElse(null);
     }
@@ -162,7 +203,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isQualityIssue)
                 .orElse(false);
     }
@@ -177,7 +218,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isDeliveryIssue)
                 .orElse(false);
     }
@@ -192,7 +233,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isAdministrativeError)
                 .orElse(false);
     }
@@ -207,7 +248,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isDiscountOrAllowance)
                 .orElse(false);
     }
@@ -222,7 +263,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isFinancialCharge)
                 .orElse(false);
     }
@@ -237,7 +278,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isClaimOrDispute)
                 .orElse(false);
     }
@@ -252,7 +293,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isFreightOrLogistics)
                 .orElse(false);
     }
@@ -267,7 +308,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isPaymentTerms)
                 .orElse(false);
     }
@@ -282,7 +323,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isHRRelated)
                 .orElse(false);
     }
@@ -297,7 +338,7 @@ public class AllowanceChargeReasonCodeAdapter extends XmlAdapter<String, Allowan
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(AllowanceChargeReasonCode::isMutuallyDefined)
                 .orElse(false);
     }
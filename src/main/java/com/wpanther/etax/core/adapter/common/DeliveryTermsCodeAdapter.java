@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.DeliveryTermsCodeRepository;
 import com.wpanther.etax.core.entity.DeliveryTermsCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed DeliveryTermsCode entities
  *
@@ -35,6 +40,37 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         DeliveryTermsCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        DeliveryTermsCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "delivery_terms_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        DeliveryTermsCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<DeliveryTermsCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(DeliveryTermsCode.class)) {
+            return registry.find(DeliveryTermsCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(DeliveryTermsCode.class)) {
+            return registry.contains(DeliveryTermsCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert DeliveryTermsCode entity to XML String (code)
      *
@@ -67,15 +103,19 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<DeliveryTermsCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Delivery terms code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -87,6 +127,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private DeliveryTermsCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         DeliveryTermsCode placeholder = new DeliveryTermsCode(code);
         placeholder.setName("Unknown Delivery Terms: " + code);
         placeholder.setDescription("Placeholder for unknown delivery terms code");
@@ -104,7 +145,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim().toUpperCase());
+        return existsByCode(code.trim().toUpperCase());
     }
 
     /**
@@ -117,7 +158,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::getName)
                 .orElse(null);
     }
@@ -132,7 +173,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::getIncotermGroup)
                 .orElse(null);
     }
@@ -147,7 +188,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::getSellerObligation)
                 .orElse(null);
     }
@@ -162,7 +203,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::isIncoterm)
                 .orElse(false);
     }
@@ -177,7 +218,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::isGroupE)
                 .orElse(false);
     }
@@ -192,7 +233,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::isGroupF)
                 .orElse(false);
     }
@@ -207,7 +248,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::isGroupC)
                 .orElse(false);
     }
@@ -222,7 +263,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::isGroupD)
                 .orElse(false);
     }
@@ -237,7 +278,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::includesInsurance)
                 .orElse(false);
     }
@@ -252,7 +293,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::includesFreight)
                 .orElse(false);
     }
@@ -267,7 +308,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::isSeaTransportOnly)
                 .orElse(false);
     }
@@ -282,7 +323,7 @@ public class DeliveryTermsCodeAdapter extends XmlAdapter<String, DeliveryTermsCo
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DeliveryTermsCode::isAnyTransportMode)
                 .orElse(false);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.DutyTaxFeeTypeCodeRepository;
 import com.wpanther.etax.core.entity.DutyTaxFeeTypeCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed DutyTaxFeeTypeCode entities
  *
@@ -35,6 +40,38 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         DutyTaxFeeTypeCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        DutyTaxFeeTypeCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "duty_tax_fee_type_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        DutyTaxFeeTypeCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<DutyTaxFeeTypeCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(DutyTaxFeeTypeCode.class)) {
+            return registry.find(DutyTaxFeeTypeCode.class, code)
+                    .filter(entity -> Boolean.TRUE.equals(entity.isActive()));
+        }
+        return repository.findByCodeAndActive(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(DutyTaxFeeTypeCode.class)) {
+            return registry.contains(DutyTaxFeeTypeCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert DutyTaxFeeTypeCode entity to XML String (code)
      *
@@ -67,15 +104,19 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCodeAndActive(trimmedCode)
+        Optional<DutyTaxFeeTypeCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Duty tax fee type code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -87,6 +128,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private DutyTaxFeeTypeCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         DutyTaxFeeTypeCode placeholder = new DutyTaxFeeTypeCode(code);
         placeholder.setName("Unknown Duty Tax Fee Type: " + code);
         placeholder.setDescription("Placeholder for unknown duty tax fee type code");
@@ -104,7 +146,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim().toUpperCase());
+        return existsByCode(code.trim().toUpperCase());
     }
 
     /**
@@ -117,7 +159,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::getName)
                 .orElse(null);
     }
@@ -132,7 +174,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::getCategory)
                 .orElse(null);
     }
@@ -147,7 +189,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::isVat)
                 .orElse(false);
     }
@@ -162,7 +204,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::isExempt)
                 .orElse(false);
     }
@@ -177,7 +219,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::isSummary)
                 .orElse(false);
     }
@@ -192,7 +234,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::isCustomsDuty)
                 .orElse(false);
     }
@@ -207,7 +249,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::isExciseTax)
                 .orElse(false);
     }
@@ -222,7 +264,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::isGST)
                 .orElse(false);
     }
@@ -237,7 +279,7 @@ public class DutyTaxFeeTypeCodeAdapter extends XmlAdapter<String, DutyTaxFeeType
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(DutyTaxFeeTypeCode::isSpecialTax)
                 .orElse(false);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.FreightCostCodeRepository;
 import com.wpanther.etax.core.entity.FreightCostCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed FreightCostCode entities
  *
@@ -35,6 +40,37 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         FreightCostCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        FreightCostCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "freight_cost_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        FreightCostCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<FreightCostCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(FreightCostCode.class)) {
+            return registry.find(FreightCostCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(FreightCostCode.class)) {
+            return registry.contains(FreightCostCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert FreightCostCode entity to XML String (code)
      *
@@ -67,15 +103,19 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<FreightCostCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Freight cost code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -87,6 +127,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private FreightCostCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         FreightCostCode placeholder = new FreightCostCode(code);
         placeholder.setName("Unknown Freight Cost Code: " + code);
         placeholder.setCategory("Unknown");
@@ -103,7 +144,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -116,7 +157,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::getName)
                 .orElse(null);
     }
@@ -131,7 +172,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::getCategory)
                 .orElse(null);
     }
@@ -146,7 +187,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::getCodeGroup)
                 .orElse(null);
     }
@@ -161,7 +202,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isBasicFreight)
                 .orElse(false);
     }
@@ -176,7 +217,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isFreightSurcharge)
                 .orElse(false);
     }
@@ -191,7 +232,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isContainerService)
                 .orElse(false);
     }
@@ -206,7 +247,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isTerminalCharge)
                 .orElse(false);
     }
@@ -221,7 +262,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isHandlingCharge)
                 .orElse(false);
     }
@@ -236,7 +277,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isStorageOrDemurrage)
                 .orElse(false);
     }
@@ -251,7 +292,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isCustomsOrDocumentation)
                 .orElse(false);
     }
@@ -266,7 +307,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isDangerousGoods)
                 .orElse(false);
     }
@@ -281,7 +322,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isSpecialFreight)
                 .orElse(false);
     }
@@ -296,7 +337,7 @@ public class FreightCostCodeAdapter extends XmlAdapter<String, FreightCostCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(FreightCostCode::isInsurance)
                 .orElse(false);
     }
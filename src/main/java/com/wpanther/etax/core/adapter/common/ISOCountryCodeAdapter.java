@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.ISOCountryCodeRepository;
 import com.wpanther.etax.core.entity.ISOCountryCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XML Adapter for ISO 3166-1 Two-letter Country Code
  *
@@ -40,6 +45,31 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
         ISOCountryCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        ISOCountryCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "iso_country_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        ISOCountryCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<ISOCountryCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(ISOCountryCode.class)) {
+            return registry.find(ISOCountryCode.class, code)
+                    .filter(entity -> Boolean.TRUE.equals(entity.isActive()));
+        }
+        return repository.findByCode(code);
+    }
+
     /**
      * Marshal: Convert ISOCountryCode entity to XML String (country code)
      *
@@ -73,14 +103,18 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
             return null;
         }
 
+        long start = System.nanoTime();
         String upperCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", upperCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(upperCode);
         }
 
-        return repository.findByCode(upperCode)
+        Optional<ISOCountryCode> entity = findByCode(upperCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Country code '{}' not found in database, creating placeholder", upperCode);
                     return createPlaceholder(upperCode);
@@ -92,6 +126,7 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private static ISOCountryCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         ISOCountryCode placeholder = new ISOCountryCode(code);
         placeholder.setName("Unknown Country: " + code);
         placeholder.setDescription("Placeholder for unknown country code");
@@ -112,7 +147,7 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
         if (repository == null) {
             return createPlaceholder(upperCode);
         }
-        return repository.findByCode(upperCode)
+        return findByCode(upperCode)
                 .orElseGet(() -> createPlaceholder(upperCode));
     }
 
@@ -133,7 +168,7 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase()).isPresent();
+        return findByCode(code.trim().toUpperCase()).isPresent();
     }
 
     /**
@@ -146,7 +181,7 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCountryCode::getName)
                 .orElse(null);
     }
@@ -184,7 +219,7 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCountryCode::isASEANCountry)
                 .orElse(false);
     }
@@ -199,7 +234,7 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCountryCode::isMajorTradingPartner)
                 .orElse(false);
     }
@@ -214,7 +249,7 @@ public class ISOCountryCodeAdapter extends XmlAdapter<String, ISOCountryCode> {
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCountryCode::isETDAExtension)
                 .orElse(false);
     }
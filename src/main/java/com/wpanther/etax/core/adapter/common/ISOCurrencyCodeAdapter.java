@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.ISOCurrencyCodeRepository;
 import com.wpanther.etax.core.entity.ISOCurrencyCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XML Adapter for ISO 4217 Three-letter Currency Code
  *
@@ -37,6 +42,31 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         ISOCurrencyCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        ISOCurrencyCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "iso_currency_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        ISOCurrencyCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<ISOCurrencyCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(ISOCurrencyCode.class)) {
+            return registry.find(ISOCurrencyCode.class, code)
+                    .filter(entity -> Boolean.TRUE.equals(entity.isActive()));
+        }
+        return repository.findByCode(code);
+    }
+
     /**
      * Marshal: Convert ISOCurrencyCode entity to XML String (currency code)
      *
@@ -71,14 +101,18 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
             return null;
         }
 
+        long start = System.nanoTime();
         String upperCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", upperCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(upperCode);
         }
 
-        return repository.findByCode(upperCode)
+        Optional<ISOCurrencyCode> entity = findByCode(upperCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Currency code '{}' not found in database, creating placeholder", upperCode);
                     return createPlaceholder(upperCode);
@@ -90,6 +124,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private static ISOCurrencyCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         ISOCurrencyCode placeholder = new ISOCurrencyCode(code);
         placeholder.setName("Unknown Currency: " + code);
         placeholder.setActive(false);
@@ -110,7 +145,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null) {
             return createPlaceholder(upperCode);
         }
-        return repository.findByCode(upperCode)
+        return findByCode(upperCode)
                 .orElseGet(() -> createPlaceholder(upperCode));
     }
 
@@ -131,7 +166,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase()).isPresent();
+        return findByCode(code.trim().toUpperCase()).isPresent();
     }
 
     /**
@@ -144,7 +179,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCurrencyCode::getName)
                 .orElse(null);
     }
@@ -159,7 +194,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCurrencyCode::getNumericCode)
                 .orElse(null);
     }
@@ -174,7 +209,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return 2;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCurrencyCode::getDecimalPlaces)
                 .orElse(2);
     }
@@ -242,7 +277,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCurrencyCode::isMajorCurrency)
                 .orElse(false);
     }
@@ -257,7 +292,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCurrencyCode::isASEANCurrency)
                 .orElse(false);
     }
@@ -272,7 +307,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOCurrencyCode::hasNoDecimalPlaces)
                 .orElse(false);
     }
@@ -288,7 +323,7 @@ public class ISOCurrencyCodeAdapter extends XmlAdapter<String, ISOCurrencyCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return String.format("%,.2f %s", amount, code);
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(c -> c.formatAmount(amount))
                 .orElse(String.format("%,.2f %s", amount, code));
     }
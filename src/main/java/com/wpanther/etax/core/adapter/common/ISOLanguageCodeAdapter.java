@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.ISOLanguageCodeRepository;
 import com.wpanther.etax.core.entity.ISOLanguageCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed ISOLanguageCode entities
  *
@@ -36,6 +41,40 @@ public class ISOLanguageCodeAdapter extends XmlAdapter<String, ISOLanguageCode>
         ISOLanguageCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        ISOLanguageCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "iso_language_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        ISOLanguageCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<ISOLanguageCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(ISOLanguageCode.class)) {
+            return registry.find(ISOLanguageCode.class, code)
+                    .filter(entity -> Boolean.TRUE.equals(entity.getIsActive()));
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(ISOLanguageCode.class)) {
+            return registry.find(ISOLanguageCode.class, code)
+                    .map(entity -> Boolean.TRUE.equals(entity.getIsActive()))
+                    .orElse(false);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert ISOLanguageCode entity to XML String (code)
      *
@@ -67,16 +106,20 @@ public class ISOLanguageCodeAdapter extends XmlAdapter<String, ISOLanguageCode>
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
         String normalizedCode = trimmedCode.toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", normalizedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(normalizedCode);
         }
 
         // Normalize to uppercase for lookup (supports both 'th' and 'TH')
-        return repository.findByCode(normalizedCode)
+        Optional<ISOLanguageCode> entity = findByCode(normalizedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Language code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(normalizedCode);
@@ -88,6 +131,7 @@ public class ISOLanguageCodeAdapter extends XmlAdapter<String, ISOLanguageCode>
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private ISOLanguageCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         ISOLanguageCode placeholder = new ISOLanguageCode(code);
         placeholder.setName("Unknown Language: " + code);
         placeholder.setIsActive(false);
@@ -104,7 +148,7 @@ public class ISOLanguageCodeAdapter extends XmlAdapter<String, ISOLanguageCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim().toUpperCase());
+        return existsByCode(code.trim().toUpperCase());
     }
 
     /**
@@ -117,7 +161,7 @@ public class ISOLanguageCodeAdapter extends XmlAdapter<String, ISOLanguageCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOLanguageCode::getName)
                 .orElse(null);
     }
@@ -185,7 +229,7 @@ public class ISOLanguageCodeAdapter extends XmlAdapter<String, ISOLanguageCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOLanguageCode::isASEANLanguage)
                 .orElse(false);
     }
@@ -200,7 +244,7 @@ public class ISOLanguageCodeAdapter extends XmlAdapter<String, ISOLanguageCode>
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(ISOLanguageCode::isMajorTradingLanguage)
                 .orElse(false);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.MessageFunctionCodeRepository;
 import com.wpanther.etax.core.entity.MessageFunctionCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed MessageFunctionCode entities
  *
@@ -35,6 +40,37 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         MessageFunctionCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        MessageFunctionCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "message_function_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        MessageFunctionCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<MessageFunctionCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(MessageFunctionCode.class)) {
+            return registry.find(MessageFunctionCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(MessageFunctionCode.class)) {
+            return registry.contains(MessageFunctionCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert MessageFunctionCode entity to XML String (code)
      *
@@ -67,15 +103,19 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<MessageFunctionCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Message function code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -87,6 +127,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private MessageFunctionCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         MessageFunctionCode placeholder = new MessageFunctionCode(code);
         placeholder.setName("Unknown Message Function: " + code);
         placeholder.setDescription("Placeholder for unknown message function code");
@@ -104,7 +145,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -117,7 +158,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::getName)
                 .orElse(null);
     }
@@ -132,7 +173,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::getCategory)
                 .orElse(null);
     }
@@ -147,7 +188,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::isModification)
                 .orElse(false);
     }
@@ -162,7 +203,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::isOriginal)
                 .orElse(false);
     }
@@ -177,7 +218,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::isAcceptance)
                 .orElse(false);
     }
@@ -192,7 +233,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::isCancellation)
                 .orElse(false);
     }
@@ -207,7 +248,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::isChange)
                 .orElse(false);
     }
@@ -222,7 +263,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::isReplacement)
                 .orElse(false);
     }
@@ -237,7 +278,7 @@ public class MessageFunctionCodeAdapter extends XmlAdapter<String, MessageFuncti
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(MessageFunctionCode::isConfirmation)
                 .orElse(false);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.PaymentTermsDescriptionIdentifierRepository;
 import com.wpanther.etax.core.entity.PaymentTermsDescriptionIdentifier;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed PaymentTermsDescriptionIdentifier entities
  *
@@ -35,6 +40,37 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
         PaymentTermsDescriptionIdentifierAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        PaymentTermsDescriptionIdentifierAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "payment_terms_description_identifier";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        PaymentTermsDescriptionIdentifierAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<PaymentTermsDescriptionIdentifier> findByCode(String code) {
+        if (registry != null && registry.isLoaded(PaymentTermsDescriptionIdentifier.class)) {
+            return registry.find(PaymentTermsDescriptionIdentifier.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(PaymentTermsDescriptionIdentifier.class)) {
+            return registry.contains(PaymentTermsDescriptionIdentifier.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert PaymentTermsDescriptionIdentifier entity to XML String (code)
      *
@@ -66,15 +102,19 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<PaymentTermsDescriptionIdentifier> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Payment terms description identifier '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -86,6 +126,7 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private PaymentTermsDescriptionIdentifier createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         PaymentTermsDescriptionIdentifier placeholder = new PaymentTermsDescriptionIdentifier(code);
         placeholder.setName("Unknown Payment Terms Description: " + code);
         placeholder.setDescription("Placeholder for unknown payment terms description identifier");
@@ -103,7 +144,7 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -116,7 +157,7 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(PaymentTermsDescriptionIdentifier::getName)
                 .orElse(null);
     }
@@ -131,7 +172,7 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(PaymentTermsDescriptionIdentifier::isDraftRequired)
                 .orElse(false);
     }
@@ -146,7 +187,7 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(PaymentTermsDescriptionIdentifier::isBankingDraft)
                 .orElse(false);
     }
@@ -161,7 +202,7 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(PaymentTermsDescriptionIdentifier::isIssuingBank)
                 .orElse(false);
     }
@@ -176,7 +217,7 @@ public class PaymentTermsDescriptionIdentifierAdapter extends XmlAdapter<String,
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(PaymentTermsDescriptionIdentifier::isNoDraft)
                 .orElse(false);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.PaymentTermsTypeCodeRepository;
 import com.wpanther.etax.core.entity.PaymentTermsTypeCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed PaymentTermsTypeCode entities
  *
@@ -35,6 +40,37 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
         PaymentTermsTypeCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        PaymentTermsTypeCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "payment_terms_type_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        PaymentTermsTypeCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<PaymentTermsTypeCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(PaymentTermsTypeCode.class)) {
+            return registry.find(PaymentTermsTypeCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(PaymentTermsTypeCode.class)) {
+            return registry.contains(PaymentTermsTypeCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert PaymentTermsTypeCode entity to XML String (payment terms type code)
      *
@@ -67,15 +103,19 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
             return null;
         }
 
+        long start = System.nanoTime();
         String upperCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", upperCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(upperCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(upperCode)
+        Optional<PaymentTermsTypeCode> entity = findByCode(upperCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Payment terms type code '{}' not found in database, creating placeholder", upperCode);
                     return createPlaceholder(upperCode);
@@ -87,6 +127,7 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private PaymentTermsTypeCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         PaymentTermsTypeCode placeholder = new PaymentTermsTypeCode(code);
         placeholder.setName("Unknown Payment Terms: " + code);
         placeholder.setDescription("Placeholder for unknown payment terms type code");
@@ -104,7 +145,7 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim().toUpperCase());
+        return existsByCode(code.trim().toUpperCase());
     }
 
     /**
@@ -117,7 +158,7 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(PaymentTermsTypeCode::getName)
                 .orElse(null);
     }
@@ -132,7 +173,7 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(PaymentTermsTypeCode::getCategory)
                 .orElse(null);
     }
@@ -147,7 +188,7 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(PaymentTermsTypeCode::isImmediate)
                 .orElse(false);
     }
@@ -162,7 +203,7 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(PaymentTermsTypeCode::isDeferred)
                 .orElse(false);
     }
@@ -177,7 +218,7 @@ public class PaymentTermsTypeCodeAdapter extends XmlAdapter<String, PaymentTerms
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(PaymentTermsTypeCode::hasDiscount)
                 .orElse(false);
     }
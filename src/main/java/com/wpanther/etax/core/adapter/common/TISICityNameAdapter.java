@@ -1,5 +1,9 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.TISICityNameRepository;
 import com.wpanther.etax.core.entity.TISICityName;
 
@@ -9,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed TISICityName entities
  *
@@ -17,6 +23,8 @@ import org.springframework.stereotype.Component;
  * - Unmarshals XML code strings to TISICityName entities from database
  * - Maintains full JAXB namespace compatibility
  * - Handles missing codes gracefully by creating placeholder entities
+ * - Resolves codes from the memory-mapped ThaiAddressGazetteer when one is configured,
+ *   with or without a database
  */
 @Component
 public class TISICityNameAdapter extends XmlAdapter<String, TISICityName> {
@@ -31,6 +39,52 @@ public class TISICityNameAdapter extends XmlAdapter<String, TISICityName> {
         TISICityNameAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        TISICityNameAdapter.registry = registry;
+    }
+
+    // Optional memory-mapped gazetteer; without a loaded registry, lookups no longer query the database
+    private static ThaiAddressGazetteer gazetteer;
+
+    @Autowired(required = false)
+    public void setGazetteer(ThaiAddressGazetteer gazetteer) {
+        TISICityNameAdapter.gazetteer = gazetteer;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "tisi_city_name";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        TISICityNameAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<TISICityName> findByCode(String code) {
+        if (registry != null && registry.isLoaded(TISICityName.class)) {
+            return registry.find(TISICityName.class, code);
+        }
+        if (gazetteer != null) {
+            return Optional.ofNullable(gazetteer.cityName(ThaiAddressGazetteer.parseCode(code, 4)))
+                    .map(nameTh -> TISICityName.of(code, nameTh));
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(TISICityName.class)) {
+            return registry.contains(TISICityName.class, code);
+        }
+        if (gazetteer != null) {
+            return gazetteer.containsCity(ThaiAddressGazetteer.parseCode(code, 4));
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert TISICityName entity to XML String (city code)
      *
@@ -62,15 +116,19 @@ public class TISICityNameAdapter extends XmlAdapter<String, TISICityName> {
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
-        if (repository == null) {
+        if (repository == null && gazetteer == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<TISICityName> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("City code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -82,6 +140,7 @@ public class TISICityNameAdapter extends XmlAdapter<String, TISICityName> {
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private TISICityName createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         TISICityName placeholder = new TISICityName(code);
         placeholder.setNameTh("Unknown City: " + code);
         return placeholder;
@@ -94,10 +153,10 @@ public class TISICityNameAdapter extends XmlAdapter<String, TISICityName> {
      * @return true if code exists
      */
     public static boolean isValid(String code) {
-        if (repository == null || code == null || code.trim().isEmpty()) {
+        if ((repository == null && gazetteer == null) || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -107,10 +166,10 @@ public class TISICityNameAdapter extends XmlAdapter<String, TISICityName> {
      * @return City Thai name, or null if not found
      */
     public static String getCityName(String code) {
-        if (repository == null || code == null || code.trim().isEmpty()) {
+        if ((repository == null && gazetteer == null) || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(TISICityName::getNameTh)
                 .orElse(null);
     }
@@ -1,5 +1,9 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.TISISubdistrictRepository;
 import com.wpanther.etax.core.entity.TISISubdistrict;
 
@@ -9,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed TISISubdistrict entities
  *
@@ -17,6 +23,8 @@ import org.springframework.stereotype.Component;
  * - Unmarshals XML code strings to TISISubdistrict entities from database
  * - Maintains full JAXB namespace compatibility
  * - Handles missing codes gracefully by creating placeholder entities
+ * - Resolves codes from the memory-mapped ThaiAddressGazetteer when one is configured,
+ *   with or without a database
  * - Handles 8,940+ subdistrict codes efficiently
  */
 @Component
@@ -32,6 +40,52 @@ public class TISISubdistrictAdapter extends XmlAdapter<String, TISISubdistrict>
         TISISubdistrictAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        TISISubdistrictAdapter.registry = registry;
+    }
+
+    // Optional memory-mapped gazetteer; without a loaded registry, lookups no longer query the database
+    private static ThaiAddressGazetteer gazetteer;
+
+    @Autowired(required = false)
+    public void setGazetteer(ThaiAddressGazetteer gazetteer) {
+        TISISubdistrictAdapter.gazetteer = gazetteer;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "tisi_subdistrict";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        TISISubdistrictAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<TISISubdistrict> findByCode(String code) {
+        if (registry != null && registry.isLoaded(TISISubdistrict.class)) {
+            return registry.find(TISISubdistrict.class, code);
+        }
+        if (gazetteer != null) {
+            return Optional.ofNullable(gazetteer.subdistrictName(ThaiAddressGazetteer.parseCode(code, 6)))
+                    .map(nameTh -> TISISubdistrict.of(code, nameTh));
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(TISISubdistrict.class)) {
+            return registry.contains(TISISubdistrict.class, code);
+        }
+        if (gazetteer != null) {
+            return gazetteer.containsSubdistrict(ThaiAddressGazetteer.parseCode(code, 6));
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert TISISubdistrict entity to XML String (subdistrict code)
      *
@@ -63,15 +117,19 @@ public class TISISubdistrictAdapter extends XmlAdapter<String, TISISubdistrict>
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
-        if (repository == null) {
+        if (repository == null && gazetteer == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<TISISubdistrict> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Subdistrict code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -83,6 +141,7 @@ public class TISISubdistrictAdapter extends XmlAdapter<String, TISISubdistrict>
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private TISISubdistrict createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         TISISubdistrict placeholder = new TISISubdistrict(code);
         placeholder.setNameTh("Unknown Subdistrict: " + code);
         return placeholder;
@@ -95,10 +154,10 @@ public class TISISubdistrictAdapter extends XmlAdapter<String, TISISubdistrict>
      * @return true if code exists
      */
     public static boolean isValid(String code) {
-        if (repository == null || code == null || code.trim().isEmpty()) {
+        if ((repository == null && gazetteer == null) || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -108,10 +167,10 @@ public class TISISubdistrictAdapter extends XmlAdapter<String, TISISubdistrict>
      * @return Subdistrict Thai name, or null if not found
      */
     public static String getSubdistrictName(String code) {
-        if (repository == null || code == null || code.trim().isEmpty()) {
+        if ((repository == null && gazetteer == null) || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(TISISubdistrict::getNameTh)
                 .orElse(null);
     }
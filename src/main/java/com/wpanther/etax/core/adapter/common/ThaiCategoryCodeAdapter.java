@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.ThaiCategoryCodeRepository;
 import com.wpanther.etax.core.entity.ThaiCategoryCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed ThaiCategoryCode entities
  *
@@ -32,6 +37,37 @@ public class ThaiCategoryCodeAdapter extends XmlAdapter<String, ThaiCategoryCode
         ThaiCategoryCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        ThaiCategoryCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "thai_category_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        ThaiCategoryCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<ThaiCategoryCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(ThaiCategoryCode.class)) {
+            return registry.find(ThaiCategoryCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(ThaiCategoryCode.class)) {
+            return registry.contains(ThaiCategoryCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert ThaiCategoryCode entity to XML String (category code)
      *
@@ -63,15 +99,19 @@ public class ThaiCategoryCodeAdapter extends XmlAdapter<String, ThaiCategoryCode
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<ThaiCategoryCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Category code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -83,6 +123,7 @@ public class ThaiCategoryCodeAdapter extends XmlAdapter<String, ThaiCategoryCode
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private ThaiCategoryCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         ThaiCategoryCode placeholder = new ThaiCategoryCode(code);
         placeholder.setNameTh("Unknown Category Code: " + code);
         placeholder.setNameEn("Unknown Category Code: " + code);
@@ -100,7 +141,7 @@ public class ThaiCategoryCodeAdapter extends XmlAdapter<String, ThaiCategoryCode
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -113,7 +154,7 @@ public class ThaiCategoryCodeAdapter extends XmlAdapter<String, ThaiCategoryCode
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiCategoryCode::getNameTh)
                 .orElse(null);
     }
@@ -128,7 +169,7 @@ public class ThaiCategoryCodeAdapter extends XmlAdapter<String, ThaiCategoryCode
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiCategoryCode::getNameEn)
                 .orElse(null);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.ThaiDocumentNameCodeRepository;
 import com.wpanther.etax.core.entity.ThaiDocumentNameCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed ThaiDocumentNameCode entities
  *
@@ -31,6 +36,37 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
         ThaiDocumentNameCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        ThaiDocumentNameCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "thai_document_name_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        ThaiDocumentNameCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<ThaiDocumentNameCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(ThaiDocumentNameCode.class)) {
+            return registry.find(ThaiDocumentNameCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(ThaiDocumentNameCode.class)) {
+            return registry.contains(ThaiDocumentNameCode.class, code);
+        }
+        return repository.existsByCode(code);
+    }
+
     /**
      * Marshal: Convert ThaiDocumentNameCode entity to XML String (document code)
      *
@@ -63,15 +99,19 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<ThaiDocumentNameCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Document code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -83,6 +123,7 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private ThaiDocumentNameCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         ThaiDocumentNameCode placeholder = new ThaiDocumentNameCode(code);
         placeholder.setNameEn("Unknown Document Type: " + code);
         placeholder.setNameTh("ประเภทเอกสารไม่ทราบ: " + code);
@@ -102,7 +143,7 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCode(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -115,7 +156,7 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiDocumentNameCode::getNameEn)
                 .orElse(null);
     }
@@ -130,7 +171,7 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiDocumentNameCode::getNameTh)
                 .orElse(null);
     }
@@ -145,7 +186,7 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiDocumentNameCode::getStandardCode)
                 .orElse(false);
     }
@@ -160,7 +201,7 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiDocumentNameCode::getThaiExtension)
                 .orElse(false);
     }
@@ -175,7 +216,7 @@ public class ThaiDocumentNameCodeAdapter extends XmlAdapter<String, ThaiDocument
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiDocumentNameCode::isTaxInvoice)
                 .orElse(false);
     }
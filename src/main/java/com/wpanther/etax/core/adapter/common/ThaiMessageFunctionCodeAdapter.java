@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.ThaiMessageFunctionCodeRepository;
 import com.wpanther.etax.core.entity.ThaiMessageFunctionCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB adapter for converting between XML String values and database-backed ThaiMessageFunctionCode entities.
  *
@@ -30,6 +35,30 @@ public class ThaiMessageFunctionCodeAdapter extends XmlAdapter<String, ThaiMessa
         ThaiMessageFunctionCodeAdapter.repository = repo;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        ThaiMessageFunctionCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "thai_message_function_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        ThaiMessageFunctionCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<ThaiMessageFunctionCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(ThaiMessageFunctionCode.class)) {
+            return registry.find(ThaiMessageFunctionCode.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
     /**
      * Marshal: Convert ThaiMessageFunctionCode entity to XML String (message function code)
      *
@@ -62,15 +91,19 @@ public class ThaiMessageFunctionCodeAdapter extends XmlAdapter<String, ThaiMessa
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<ThaiMessageFunctionCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Thai message function code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -85,6 +118,7 @@ public class ThaiMessageFunctionCodeAdapter extends XmlAdapter<String, ThaiMessa
      * @return A placeholder entity
      */
     private static ThaiMessageFunctionCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         log.warn("Thai message function code '{}' not found in database, creating placeholder", code);
 
         ThaiMessageFunctionCode placeholder = new ThaiMessageFunctionCode();
@@ -146,7 +180,7 @@ public class ThaiMessageFunctionCodeAdapter extends XmlAdapter<String, ThaiMessa
         if (repository == null) {
             return createPlaceholder(code.trim());
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .orElseGet(() -> createPlaceholder(code.trim()));
     }
 
@@ -164,7 +198,7 @@ public class ThaiMessageFunctionCodeAdapter extends XmlAdapter<String, ThaiMessa
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCode(code.trim()).isPresent();
+        return findByCode(code.trim()).isPresent();
     }
 
     /**
@@ -174,7 +208,7 @@ public class ThaiMessageFunctionCodeAdapter extends XmlAdapter<String, ThaiMessa
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiMessageFunctionCode::getDescriptionEn)
                 .orElse(null);
     }
@@ -186,7 +220,7 @@ public class ThaiMessageFunctionCodeAdapter extends XmlAdapter<String, ThaiMessa
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCode(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiMessageFunctionCode::getDescriptionTh)
                 .orElse(null);
     }
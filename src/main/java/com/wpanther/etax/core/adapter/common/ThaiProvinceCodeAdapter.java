@@ -1,5 +1,9 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.ThaiProvinceCodeRepository;
 import com.wpanther.etax.core.entity.ThaiProvinceCode;
 
@@ -9,6 +13,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed ThaiProvinceCode entities
  *
@@ -17,6 +23,8 @@ import org.springframework.stereotype.Component;
  * - Unmarshals XML code strings to ThaiProvinceCode entities from database
  * - Maintains full JAXB namespace compatibility
  * - Handles missing codes gracefully by creating placeholder entities
+ * - Resolves codes from the memory-mapped ThaiAddressGazetteer when one is configured,
+ *   with or without a database
  */
 @Component
 public class ThaiProvinceCodeAdapter extends XmlAdapter<String, ThaiProvinceCode> {
@@ -31,6 +39,62 @@ public class ThaiProvinceCodeAdapter extends XmlAdapter<String, ThaiProvinceCode
         ThaiProvinceCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        ThaiProvinceCodeAdapter.registry = registry;
+    }
+
+    // Optional memory-mapped gazetteer; without a loaded registry, lookups no longer query the database
+    private static ThaiAddressGazetteer gazetteer;
+
+    @Autowired(required = false)
+    public void setGazetteer(ThaiAddressGazetteer gazetteer) {
+        ThaiProvinceCodeAdapter.gazetteer = gazetteer;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "thai_province_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        ThaiProvinceCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<ThaiProvinceCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(ThaiProvinceCode.class)) {
+            return registry.find(ThaiProvinceCode.class, code)
+                    .filter(entity -> Boolean.TRUE.equals(entity.isActive()));
+        }
+        if (gazetteer != null) {
+            // The province data script only holds active provinces
+            int provinceCode = ThaiAddressGazetteer.parseCode(code, 2);
+            return Optional.ofNullable(gazetteer.provinceName(provinceCode))
+                    .map(nameTh -> {
+                        ThaiProvinceCode entity = new ThaiProvinceCode(code, nameTh,
+                                gazetteer.provinceNameEn(provinceCode));
+                        entity.setRegion(gazetteer.provinceRegion(provinceCode));
+                        return entity;
+                    });
+        }
+        return repository.findByCodeAndActive(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(ThaiProvinceCode.class)) {
+            return registry.find(ThaiProvinceCode.class, code)
+                    .map(entity -> Boolean.TRUE.equals(entity.isActive()))
+                    .orElse(false);
+        }
+        if (gazetteer != null) {
+            return gazetteer.containsProvince(ThaiAddressGazetteer.parseCode(code, 2));
+        }
+        return repository.existsByCodeAndActive(code);
+    }
+
     /**
      * Marshal: Convert ThaiProvinceCode entity to XML String (province code)
      *
@@ -62,15 +126,19 @@ public class ThaiProvinceCodeAdapter extends XmlAdapter<String, ThaiProvinceCode
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
-        if (repository == null) {
+        if (repository == null && gazetteer == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCodeAndActive(trimmedCode)
+        Optional<ThaiProvinceCode> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Province code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -82,6 +150,7 @@ public class ThaiProvinceCodeAdapter extends XmlAdapter<String, ThaiProvinceCode
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private ThaiProvinceCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         ThaiProvinceCode placeholder = new ThaiProvinceCode(code);
         placeholder.setNameTh("Unknown Province: " + code);
         placeholder.setNameEn("Unknown Province: " + code);
@@ -96,10 +165,10 @@ public class ThaiProvinceCodeAdapter extends XmlAdapter<String, ThaiProvinceCode
      * @return true if code exists and is active
      */
     public static boolean isValid(String code) {
-        if (repository == null || code == null || code.trim().isEmpty()) {
+        if ((repository == null && gazetteer == null) || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCodeAndActive(code.trim());
+        return existsByCode(code.trim());
     }
 
     /**
@@ -109,10 +178,10 @@ public class ThaiProvinceCodeAdapter extends XmlAdapter<String, ThaiProvinceCode
      * @return Province Thai name, or null if not found
      */
     public static String getProvinceName(String code) {
-        if (repository == null || code == null || code.trim().isEmpty()) {
+        if ((repository == null && gazetteer == null) || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCodeAndActive(code.trim())
+        return findByCode(code.trim())
                 .map(ThaiProvinceCode::getNameTh)
                 .orElse(null);
     }
@@ -1,6 +1,9 @@
 package com.wpanther.etax.core.adapter.common;
 
 import com.wpanther.etax.core.entity.UNECEDocumentNameCodeInvoice;
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.UNECEDocumentNameCodeInvoiceRepository;
 import jakarta.xml.bind.annotation.adapters.XmlAdapter;
 import org.slf4j.Logger;
@@ -8,6 +11,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed UNECEDocumentNameCodeInvoice entities
  *
@@ -34,6 +39,37 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
         UNECEDocumentNameCodeInvoiceAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        UNECEDocumentNameCodeInvoiceAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "document_name_code_invoice";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        UNECEDocumentNameCodeInvoiceAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<UNECEDocumentNameCodeInvoice> findByCode(String code) {
+        if (registry != null && registry.isLoaded(UNECEDocumentNameCodeInvoice.class)) {
+            return registry.find(UNECEDocumentNameCodeInvoice.class, code);
+        }
+        return repository.findByCode(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(UNECEDocumentNameCodeInvoice.class)) {
+            return registry.contains(UNECEDocumentNameCodeInvoice.class, code);
+        }
+        return repository.existsById(code);
+    }
+
     @Override
     public String marshal(UNECEDocumentNameCodeInvoice entity) throws Exception {
         if (entity == null) {
@@ -53,15 +89,19 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
             return null;
         }
 
+        long start = System.nanoTime();
         String trimmedCode = code.trim();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", trimmedCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(trimmedCode);
         }
 
         // Try to fetch from database
-        return repository.findByCode(trimmedCode)
+        Optional<UNECEDocumentNameCodeInvoice> entity = findByCode(trimmedCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Document name code '{}' not found in database, creating placeholder", trimmedCode);
                     return createPlaceholder(trimmedCode);
@@ -69,6 +109,7 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
     }
 
     private static UNECEDocumentNameCodeInvoice createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         UNECEDocumentNameCodeInvoice placeholder = new UNECEDocumentNameCodeInvoice(code);
         placeholder.setName("Unknown Document: " + code);
         placeholder.setDescription("Unknown document name code");
@@ -81,14 +122,14 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
         if (repository == null || code == null) {
             return false;
         }
-        return repository.existsById(code);
+        return existsByCode(code);
     }
 
     public static String getDocumentName(String code) {
         if (repository == null || code == null) {
             return null;
         }
-        return repository.findByCode(code)
+        return findByCode(code)
                 .map(UNECEDocumentNameCodeInvoice::getName)
                 .orElse(null);
     }
@@ -97,7 +138,7 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
         if (repository == null || code == null) {
             return null;
         }
-        return repository.findByCode(code)
+        return findByCode(code)
                 .map(UNECEDocumentNameCodeInvoice::getDescription)
                 .orElse(null);
     }
@@ -106,7 +147,7 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
         if (repository == null || code == null) {
             return false;
         }
-        return repository.findByCode(code)
+        return findByCode(code)
                 .map(UNECEDocumentNameCodeInvoice::isCreditNote)
                 .orElse(false);
     }
@@ -115,7 +156,7 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
         if (repository == null || code == null) {
             return false;
         }
-        return repository.findByCode(code)
+        return findByCode(code)
                 .map(UNECEDocumentNameCodeInvoice::isDebitNote)
                 .orElse(false);
     }
@@ -124,7 +165,7 @@ public class UNECEDocumentNameCodeInvoiceAdapter extends XmlAdapter<String, UNEC
         if (repository == null || code == null) {
             return true; // Default to true for safety
         }
-        return repository.findByCode(code)
+        return findByCode(code)
                 .map(doc -> Boolean.TRUE.equals(doc.getRequiresPayment()))
                 .orElse(true);
     }
@@ -1,5 +1,8 @@
 package com.wpanther.etax.core.adapter.common;
 
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
 import com.wpanther.etax.core.repository.UNECEReferenceTypeCodeRepository;
 import com.wpanther.etax.core.entity.UNECEReferenceTypeCode;
 
@@ -9,6 +12,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 /**
  * JAXB XmlAdapter to convert between XML String values and database-backed UNECEReferenceTypeCode entities
  *
@@ -32,6 +37,40 @@ public class UNECEReferenceTypeCodeAdapter extends XmlAdapter<String, UNECERefer
         UNECEReferenceTypeCodeAdapter.repository = repository;
     }
 
+    // Optional in-memory code list; once loaded, lookups no longer query the database
+    private static CodeListRegistry registry;
+
+    @Autowired(required = false)
+    public void setRegistry(CodeListRegistry registry) {
+        UNECEReferenceTypeCodeAdapter.registry = registry;
+    }
+
+    // Optional metrics; recording is a no-op without a MeterRegistry
+    private static final String CODE_LIST = "unece_reference_type_code";
+    private static EtaxMetrics metrics = EtaxMetrics.NOOP;
+
+    @Autowired(required = false)
+    public void setMetrics(EtaxMetrics metrics) {
+        UNECEReferenceTypeCodeAdapter.metrics = metrics != null ? metrics : EtaxMetrics.NOOP;
+    }
+
+    private static Optional<UNECEReferenceTypeCode> findByCode(String code) {
+        if (registry != null && registry.isLoaded(UNECEReferenceTypeCode.class)) {
+            return registry.find(UNECEReferenceTypeCode.class, code)
+                    .filter(entity -> Boolean.TRUE.equals(entity.isActive()));
+        }
+        return repository.findByCodeAndActive(code);
+    }
+
+    private static boolean existsByCode(String code) {
+        if (registry != null && registry.isLoaded(UNECEReferenceTypeCode.class)) {
+            return registry.find(UNECEReferenceTypeCode.class, code)
+                    .map(entity -> Boolean.TRUE.equals(entity.isActive()))
+                    .orElse(false);
+        }
+        return repository.existsByCodeAndActive(code);
+    }
+
     /**
      * Marshal: Convert UNECEReferenceTypeCode entity to XML String (reference type code)
      *
@@ -63,15 +102,19 @@ public class UNECEReferenceTypeCodeAdapter extends XmlAdapter<String, UNECERefer
             return null;
         }
 
+        long start = System.nanoTime();
         String upperCode = code.trim().toUpperCase();
 
         if (repository == null) {
             log.warn("Repository not initialized, creating placeholder for code: {}", upperCode);
+            metrics.recordLookup(CODE_LIST, Outcome.PLACEHOLDER, System.nanoTime() - start);
             return createPlaceholder(upperCode);
         }
 
         // Try to fetch from database
-        return repository.findByCodeAndActive(upperCode)
+        Optional<UNECEReferenceTypeCode> entity = findByCode(upperCode);
+        metrics.recordLookup(CODE_LIST, entity.isPresent() ? Outcome.HIT : Outcome.MISS, System.nanoTime() - start);
+        return entity
                 .orElseGet(() -> {
                     log.warn("Reference type code '{}' not found in database, creating placeholder", upperCode);
                     return createPlaceholder(upperCode);
@@ -83,6 +126,7 @@ public class UNECEReferenceTypeCodeAdapter extends XmlAdapter<String, UNECERefer
      * This allows XML unmarshalling to continue even with unknown codes
      */
     private UNECEReferenceTypeCode createPlaceholder(String code) {
+        metrics.recordPlaceholder(CODE_LIST);
         UNECEReferenceTypeCode placeholder = new UNECEReferenceTypeCode(code);
         placeholder.setName("Unknown Reference Type: " + code);
         placeholder.setDescription("Placeholder for unknown reference type code");
@@ -100,7 +144,7 @@ public class UNECEReferenceTypeCodeAdapter extends XmlAdapter<String, UNECERefer
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.existsByCodeAndActive(code.trim().toUpperCase());
+        return existsByCode(code.trim().toUpperCase());
     }
 
     /**
@@ -113,7 +157,7 @@ public class UNECEReferenceTypeCodeAdapter extends XmlAdapter<String, UNECERefer
         if (repository == null || code == null || code.trim().isEmpty()) {
             return null;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(UNECEReferenceTypeCode::getName)
                 .orElse(null);
     }
@@ -128,7 +172,7 @@ public class UNECEReferenceTypeCodeAdapter extends XmlAdapter<String, UNECERefer
         if (repository == null || code == null || code.trim().isEmpty()) {
             return false;
         }
-        return repository.findByCodeAndActive(code.trim().toUpperCase())
+        return findByCode(code.trim().toUpperCase())
                 .map(UNECEReferenceTypeCode::getEtdaExtension)
                 .orElse(false);
     }
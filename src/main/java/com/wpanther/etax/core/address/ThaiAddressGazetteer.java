@@ -0,0 +1,457 @@
+package com.wpanther.etax.core.address;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.IntConsumer;
+
+/**
+ * Read-only gazetteer of Thai provinces, TISI cities (districts) and TISI subdistricts,
+ * backed by a compact binary file that is memory-mapped outside the Java heap.
+ *
+ * The file is generated at build time by {@link ThaiAddressGazetteerWriter} from the
+ * {@code thai_province_code}, {@code tisi_city_name} and {@code tisi_subdistrict} data
+ * scripts and packaged as {@code gazetteer/thai-address.gaz}. It holds fixed-size records
+ * sorted by numeric code, each with a link to its parent record, an index of records
+ * sorted by Thai name, and a pool of UTF-8 names. Lookups are binary searches on the
+ * mapped buffer: no database, and no Java object per entry. Processes that map the same
+ * file share its pages through the operating system page cache; {@link #load()} copies
+ * a gazetteer packaged in a jar to a content-addressed file in {@code java.io.tmpdir}
+ * once so that it can be mapped, and checks the content of an existing copy before
+ * reusing it.
+ *
+ * Codes are the numeric values of the code list strings: provinces have 2 digits
+ * ({@code 10}), cities 4 ({@code 1001}) and subdistricts 6 ({@code 100101}).
+ * Instances are immutable and thread-safe.
+ *
+ * Usage:
+ * <pre>
+ * ThaiAddressGazetteer gazetteer = ThaiAddressGazetteer.load();
+ * gazetteer.subdistrictName(100101);     // "พระบรมมหาราชวัง"
+ * gazetteer.cityOfSubdistrict(100101);   // 1001
+ * gazetteer.findProvinces("กรุงเทพมหานคร"); // [10]
+ * </pre>
+ *
+ * The {@code TISISubdistrictAdapter}, {@code TISICityNameAdapter} and
+ * {@code ThaiProvinceCodeAdapter} resolve codes from the gazetteer when it is
+ * registered as a bean:
+ * <pre>
+ * &#64;Bean
+ * public ThaiAddressGazetteer thaiAddressGazetteer() throws IOException {
+ *     return ThaiAddressGazetteer.load();
+ * }
+ * </pre>
+ */
+public final class ThaiAddressGazetteer {
+
+    private static final Logger log = LoggerFactory.getLogger(ThaiAddressGazetteer.class);
+
+    /** Classpath location of the gazetteer generated at build time. */
+    public static final String RESOURCE = "gazetteer/thai-address.gaz";
+
+    /** Returned by code lookups for codes that are not in the gazetteer. */
+    public static final int NOT_FOUND = -1;
+
+    // File layout; all values are big-endian ints unless noted
+    static final int MAGIC = 0x54474158; // "TGAX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12 * Integer.BYTES;
+    // code, name_th, name_en, region (string references)
+    static final int PROVINCE_RECORD = 4 * Integer.BYTES;
+    // code, name_th (string reference), parent record index
+    static final int CITY_RECORD = 3 * Integer.BYTES;
+    static final int SUBDISTRICT_RECORD = 3 * Integer.BYTES;
+    // String reference of a NULL value; strings are an unsigned short length and UTF-8 bytes
+    static final int NO_STRING = -1;
+
+    private final ByteBuffer buffer;
+    private final int provinceCount;
+    private final int cityCount;
+    private final int subdistrictCount;
+    private final int provinces;
+    private final int cities;
+    private final int subdistricts;
+    private final int provinceNames;
+    private final int cityNames;
+    private final int subdistrictNames;
+    private final int strings;
+
+    private ThaiAddressGazetteer(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a Thai address gazetteer");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported gazetteer version: " + buffer.getInt(4));
+        }
+        this.provinceCount = buffer.getInt(8);
+        this.cityCount = buffer.getInt(12);
+        this.subdistrictCount = buffer.getInt(16);
+        this.provinces = buffer.getInt(20);
+        this.cities = buffer.getInt(24);
+        this.subdistricts = buffer.getInt(28);
+        this.provinceNames = buffer.getInt(32);
+        this.cityNames = buffer.getInt(36);
+        this.subdistrictNames = buffer.getInt(40);
+        this.strings = buffer.getInt(44);
+        if (strings > buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated gazetteer: " + buffer.capacity() + " bytes");
+        }
+    }
+
+    /**
+     * Use a gazetteer held in a buffer, from its position to its limit.
+     */
+    public static ThaiAddressGazetteer wrap(ByteBuffer gazetteer) {
+        return new ThaiAddressGazetteer(gazetteer.slice().asReadOnlyBuffer());
+    }
+
+    /**
+     * Memory-map a gazetteer file read-only.
+     */
+    public static ThaiAddressGazetteer open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ThaiAddressGazetteer gazetteer = new ThaiAddressGazetteer(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            log.debug("Mapped {} from {}", gazetteer, file);
+            return gazetteer;
+        }
+    }
+
+    /**
+     * Load the gazetteer packaged on the classpath.
+     *
+     * A gazetteer in a directory is mapped in place; one in a jar is first copied to
+     * {@code java.io.tmpdir}. A copy left there by an earlier run is only mapped if it is
+     * owned by the current user and holds exactly the packaged bytes; otherwise it is
+     * rewritten, or the gazetteer is kept in an unshared direct buffer. Without a
+     * packaged gazetteer (e.g. when running from an IDE that skips the Maven build) it
+     * is built from the {@code db/} data scripts into a direct buffer.
+     */
+    public static ThaiAddressGazetteer load() throws IOException {
+        URL url = ThaiAddressGazetteer.class.getClassLoader().getResource(RESOURCE);
+        if (url == null) {
+            log.warn("{} not found on the classpath, building the gazetteer from the db scripts", RESOURCE);
+            ByteBuffer built = ThaiAddressGazetteerWriter.buildFromClasspath();
+            return wrap(ByteBuffer.allocateDirect(built.remaining()).put(built).flip());
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return open(Paths.get(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid gazetteer location: " + url, e);
+            }
+        }
+        return extract(url, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Copy a packaged gazetteer to a content-named file in a directory and map it, reusing
+     * a copy that is owned by the current user and holds the same bytes.
+     */
+    static ThaiAddressGazetteer extract(URL url, Path directory) throws IOException {
+        byte[] data;
+        try (InputStream is = url.openStream()) {
+            data = is.readAllBytes();
+        }
+        Path file = directory.resolve("thai-address-" + digest(data) + ".gaz");
+        if (Files.exists(file, LinkOption.NOFOLLOW_LINKS)) {
+            if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) || !isOwnedByCurrentUser(file)) {
+                log.warn("{} is not a file of the current user, using an unshared copy of the gazetteer", file);
+                return unshared(data);
+            }
+            ThaiAddressGazetteer existing = openIfContains(file, data);
+            if (existing != null) {
+                return existing;
+            }
+            log.warn("{} does not match the packaged gazetteer, replacing it", file);
+        }
+        try {
+            ThaiAddressGazetteerWriter.write(ByteBuffer.wrap(data), file);
+        } catch (IOException e) {
+            log.warn("Failed to copy the gazetteer to {}, using an unshared copy", file, e);
+            return unshared(data);
+        }
+        return open(file);
+    }
+
+    /**
+     * Map a file if it holds exactly the given bytes, comparing them through the mapping
+     * that is returned so that the checked content is the content used.
+     *
+     * @return the gazetteer, or null if the file content differs
+     */
+    private static ThaiAddressGazetteer openIfContains(Path file, byte[] data) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS)) {
+            if (channel.size() != data.length) {
+                return null;
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return mapped.equals(ByteBuffer.wrap(data)) ? new ThaiAddressGazetteer(mapped) : null;
+        }
+    }
+
+    private static boolean isOwnedByCurrentUser(Path file) throws IOException {
+        String owner = Files.getOwner(file, LinkOption.NOFOLLOW_LINKS).getName();
+        String user = System.getProperty("user.name");
+        // Windows owners are qualified with a domain, as DOMAIN-backslash-user
+        return owner.equals(user) || owner.endsWith("\\" + user);
+    }
+
+    private static ThaiAddressGazetteer unshared(byte[] data) {
+        return wrap(ByteBuffer.allocateDirect(data.length).put(data).flip());
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public int provinceCount() {
+        return provinceCount;
+    }
+
+    public int cityCount() {
+        return cityCount;
+    }
+
+    public int subdistrictCount() {
+        return subdistrictCount;
+    }
+
+    public boolean containsProvince(int code) {
+        return indexOf(provinces, provinceCount, PROVINCE_RECORD, code) >= 0;
+    }
+
+    public boolean containsCity(int code) {
+        return indexOf(cities, cityCount, CITY_RECORD, code) >= 0;
+    }
+
+    public boolean containsSubdistrict(int code) {
+        return indexOf(subdistricts, subdistrictCount, SUBDISTRICT_RECORD, code) >= 0;
+    }
+
+    /**
+     * @return the Thai province name, or null if the code is not found
+     */
+    public String provinceName(int code) {
+        return provinceString(code, 4);
+    }
+
+    /**
+     * @return the English province name, or null if the code is not found
+     */
+    public String provinceNameEn(int code) {
+        return provinceString(code, 8);
+    }
+
+    /**
+     * @return the region of the province, or null if the code is not found or has no region
+     */
+    public String provinceRegion(int code) {
+        return provinceString(code, 12);
+    }
+
+    /**
+     * @return the Thai city name, or null if the code is not found
+     */
+    public String cityName(int code) {
+        int index = indexOf(cities, cityCount, CITY_RECORD, code);
+        return index >= 0 ? string(buffer.getInt(cities + index * CITY_RECORD + 4)) : null;
+    }
+
+    /**
+     * @return the Thai subdistrict name, or null if the code is not found
+     */
+    public String subdistrictName(int code) {
+        int index = indexOf(subdistricts, subdistrictCount, SUBDISTRICT_RECORD, code);
+        return index >= 0 ? string(buffer.getInt(subdistricts + index * SUBDISTRICT_RECORD + 4)) : null;
+    }
+
+    /**
+     * @return the code of the province containing a city, or {@link #NOT_FOUND}
+     */
+    public int provinceOfCity(int code) {
+        int index = indexOf(cities, cityCount, CITY_RECORD, code);
+        int parent = index >= 0 ? buffer.getInt(cities + index * CITY_RECORD + 8) : NOT_FOUND;
+        return parent >= 0 ? buffer.getInt(provinces + parent * PROVINCE_RECORD) : NOT_FOUND;
+    }
+
+    /**
+     * @return the code of the city containing a subdistrict, or {@link #NOT_FOUND}
+     */
+    public int cityOfSubdistrict(int code) {
+        int index = indexOf(subdistricts, subdistrictCount, SUBDISTRICT_RECORD, code);
+        int parent = index >= 0 ? buffer.getInt(subdistricts + index * SUBDISTRICT_RECORD + 8) : NOT_FOUND;
+        return parent >= 0 ? buffer.getInt(cities + parent * CITY_RECORD) : NOT_FOUND;
+    }
+
+    /**
+     * Call an action with every province code, in code order.
+     */
+    public void forEachProvince(IntConsumer action) {
+        forEachCode(provinces, provinceCount, PROVINCE_RECORD, action);
+    }
+
+    /**
+     * Call an action with every city code, in code order.
+     */
+    public void forEachCity(IntConsumer action) {
+        forEachCode(cities, cityCount, CITY_RECORD, action);
+    }
+
+    /**
+     * Call an action with every subdistrict code, in code order.
+     */
+    public void forEachSubdistrict(IntConsumer action) {
+        forEachCode(subdistricts, subdistrictCount, SUBDISTRICT_RECORD, action);
+    }
+
+    /**
+     * @return the codes of the provinces with exactly this Thai name, in code order
+     */
+    public int[] findProvinces(String nameTh) {
+        return findByName(provinces, PROVINCE_RECORD, provinceNames, provinceCount, nameTh);
+    }
+
+    /**
+     * @return the codes of the cities with exactly this Thai name, in code order
+     */
+    public int[] findCities(String nameTh) {
+        return findByName(cities, CITY_RECORD, cityNames, cityCount, nameTh);
+    }
+
+    /**
+     * @return the codes of the subdistricts with exactly this Thai name, in code order
+     */
+    public int[] findSubdistricts(String nameTh) {
+        return findByName(subdistricts, SUBDISTRICT_RECORD, subdistrictNames, subdistrictCount, nameTh);
+    }
+
+    /**
+     * Parse a code list string of exactly {@code length} ASCII digits.
+     *
+     * @return the numeric code, or {@link #NOT_FOUND} if the string is not such a code
+     */
+    public static int parseCode(CharSequence code, int length) {
+        if (code == null || code.length() != length || length > 9) {
+            return NOT_FOUND;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_FOUND;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private String provinceString(int code, int field) {
+        int index = indexOf(provinces, provinceCount, PROVINCE_RECORD, code);
+        return index >= 0 ? string(buffer.getInt(provinces + index * PROVINCE_RECORD + field)) : null;
+    }
+
+    private void forEachCode(int table, int count, int recordSize, IntConsumer action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(buffer.getInt(table + i * recordSize));
+        }
+    }
+
+    private int indexOf(int table, int count, int recordSize, int code) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midCode = buffer.getInt(table + mid * recordSize);
+            if (midCode < code) {
+                low = mid + 1;
+            } else if (midCode > code) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private int[] findByName(int table, int recordSize, int names, int count, String name) {
+        if (name == null) {
+            return new int[0];
+        }
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        // Lower bound of the name in the name-sorted index
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareName(table, recordSize, buffer.getInt(names + mid * Integer.BYTES), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = low;
+        while (end < count && compareName(table, recordSize, buffer.getInt(names + end * Integer.BYTES), key) == 0) {
+            end++;
+        }
+        int[] codes = new int[end - low];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = buffer.getInt(table + buffer.getInt(names + (low + i) * Integer.BYTES) * recordSize);
+        }
+        return codes;
+    }
+
+    /**
+     * Compare the UTF-8 name of a record with a key, byte by byte, without decoding it.
+     */
+    private int compareName(int table, int recordSize, int index, byte[] key) {
+        int reference = buffer.getInt(table + index * recordSize + 4);
+        int length = reference == NO_STRING ? 0 : buffer.getShort(strings + reference) & 0xFFFF;
+        int start = strings + reference + Short.BYTES;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String string(int reference) {
+        if (reference == NO_STRING) {
+            return null;
+        }
+        int length = buffer.getShort(strings + reference) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(strings + reference + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "ThaiAddressGazetteer[provinces=" + provinceCount + ", cities=" + cityCount
+                + ", subdistricts=" + subdistrictCount + "]";
+    }
+}
@@ -0,0 +1,326 @@
+package com.wpanther.etax.core.address;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the binary {@link ThaiAddressGazetteer} file from the TISI and province
+ * code list data scripts in {@code src/main/resources/db}.
+ *
+ * Runs at build time (exec-maven-plugin, {@code process-classes} phase) and writes
+ * {@code gazetteer/thai-address.gaz} into the build output directory:
+ * <pre>
+ * java ThaiAddressGazetteerWriter src/main/resources/db target/classes/gazetteer/thai-address.gaz
+ * </pre>
+ *
+ * The data scripts are read as generated by {@code scripts/data-extraction}: one
+ * {@code INSERT ... VALUES} row per line, with single-quoted strings and {@code NULL}.
+ */
+public final class ThaiAddressGazetteerWriter {
+
+    public static final String PROVINCE_DATA = "thai_province_code_data.sql";
+    public static final String CITY_DATA = "tisi_city_name_data.sql";
+    public static final String SUBDISTRICT_DATA = "tisi_subdistrict_data.sql";
+
+    private ThaiAddressGazetteerWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ThaiAddressGazetteerWriter <db script directory> <output file>");
+            System.exit(2);
+        }
+        Path output = Paths.get(args[1]);
+        ByteBuffer gazetteer = build(Paths.get(args[0]));
+        write(gazetteer, output);
+        System.out.println("Wrote " + gazetteer.remaining() + " bytes to " + output);
+    }
+
+    /**
+     * Build the gazetteer from the data scripts in a directory.
+     */
+    public static ByteBuffer build(Path directory) throws IOException {
+        try (Reader provinces = Files.newBufferedReader(directory.resolve(PROVINCE_DATA), StandardCharsets.UTF_8);
+             Reader cities = Files.newBufferedReader(directory.resolve(CITY_DATA), StandardCharsets.UTF_8);
+             Reader subdistricts = Files.newBufferedReader(directory.resolve(SUBDISTRICT_DATA), StandardCharsets.UTF_8)) {
+            return build(provinces, cities, subdistricts);
+        }
+    }
+
+    /**
+     * Build the gazetteer from the data scripts on the classpath (under {@code db/}).
+     */
+    static ByteBuffer buildFromClasspath() throws IOException {
+        try (Reader provinces = classpathReader(PROVINCE_DATA);
+             Reader cities = classpathReader(CITY_DATA);
+             Reader subdistricts = classpathReader(SUBDISTRICT_DATA)) {
+            return build(provinces, cities, subdistricts);
+        }
+    }
+
+    /**
+     * Build the gazetteer from the three data scripts.
+     *
+     * @return a heap buffer holding the complete gazetteer file
+     * @throws IllegalArgumentException if a row has a malformed or duplicate code
+     */
+    public static ByteBuffer build(Reader provinces, Reader cities, Reader subdistricts) throws IOException {
+        List<String[]> provinceRows = sortedByCode(parseRows(provinces), 2, 4);
+        List<String[]> cityRows = sortedByCode(parseRows(cities), 4, 2);
+        List<String[]> subdistrictRows = sortedByCode(parseRows(subdistricts), 6, 2);
+
+        StringPool strings = new StringPool();
+        int[] provinceCodes = codes(provinceRows);
+        int[] cityCodes = codes(cityRows);
+        int[] subdistrictCodes = codes(subdistrictRows);
+
+        int provincesOffset = ThaiAddressGazetteer.HEADER_SIZE;
+        int citiesOffset = provincesOffset + provinceRows.size() * ThaiAddressGazetteer.PROVINCE_RECORD;
+        int subdistrictsOffset = citiesOffset + cityRows.size() * ThaiAddressGazetteer.CITY_RECORD;
+        int provinceNamesOffset = subdistrictsOffset + subdistrictRows.size() * ThaiAddressGazetteer.SUBDISTRICT_RECORD;
+        int cityNamesOffset = provinceNamesOffset + provinceRows.size() * Integer.BYTES;
+        int subdistrictNamesOffset = cityNamesOffset + cityRows.size() * Integer.BYTES;
+        int stringsOffset = subdistrictNamesOffset + subdistrictRows.size() * Integer.BYTES;
+
+        ByteBuffer records = ByteBuffer.allocate(stringsOffset);
+        records.putInt(ThaiAddressGazetteer.MAGIC)
+                .putInt(ThaiAddressGazetteer.VERSION)
+                .putInt(provinceRows.size())
+                .putInt(cityRows.size())
+                .putInt(subdistrictRows.size())
+                .putInt(provincesOffset)
+                .putInt(citiesOffset)
+                .putInt(subdistrictsOffset)
+                .putInt(provinceNamesOffset)
+                .putInt(cityNamesOffset)
+                .putInt(subdistrictNamesOffset)
+                .putInt(stringsOffset);
+        records.position(provincesOffset);
+
+        for (String[] row : provinceRows) {
+            records.putInt(Integer.parseInt(row[0]))
+                    .putInt(strings.add(row[1]))
+                    .putInt(strings.add(row[2]))
+                    .putInt(strings.add(row[3]));
+        }
+        for (String[] row : cityRows) {
+            int code = Integer.parseInt(row[0]);
+            records.putInt(code)
+                    .putInt(strings.add(row[1]))
+                    .putInt(indexOf(provinceCodes, code / 100));
+        }
+        for (String[] row : subdistrictRows) {
+            int code = Integer.parseInt(row[0]);
+            records.putInt(code)
+                    .putInt(strings.add(row[1]))
+                    .putInt(indexOf(cityCodes, code / 100));
+        }
+        putNameIndex(records, provinceRows, provinceCodes);
+        putNameIndex(records, cityRows, cityCodes);
+        putNameIndex(records, subdistrictRows, subdistrictCodes);
+
+        byte[] pool = strings.toByteArray();
+        ByteBuffer gazetteer = ByteBuffer.allocate(stringsOffset + pool.length);
+        gazetteer.put(records.array()).put(pool).flip();
+        return gazetteer;
+    }
+
+    /**
+     * Write a gazetteer to a file, replacing it atomically.
+     */
+    public static void write(ByteBuffer gazetteer, Path output) throws IOException {
+        Path directory = output.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, output.getFileName().toString(), ".tmp");
+        try {
+            // Writable only by the owner, so that other users cannot change a copy mapped by its readers
+            if (Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-r--r--"));
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer data = gazetteer.duplicate();
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Parse the value rows of the INSERT statements in a data script.
+     *
+     * @return one array per row; {@code NULL} values are returned as null
+     */
+    static List<String[]> parseRows(Reader script) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(script);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.startsWith("(")) {
+                rows.add(parseRow(trimmed, lineNumber));
+            }
+        }
+        return rows;
+    }
+
+    private static String[] parseRow(String line, int lineNumber) {
+        List<String> values = new ArrayList<>();
+        int i = 1;
+        while (true) {
+            while (i < line.length() && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i >= line.length()) {
+                throw new IllegalArgumentException("Unterminated row at line " + lineNumber + ": " + line);
+            }
+            if (line.charAt(i) == '\'') {
+                StringBuilder value = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("Unterminated string at line " + lineNumber + ": " + line);
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '\'') {
+                        value.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '\'') {
+                        value.append('\'');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                values.add(value.toString());
+            } else {
+                int end = i;
+                while (end < line.length() && line.charAt(end) != ',' && line.charAt(end) != ')') {
+                    end++;
+                }
+                String literal = line.substring(i, end).trim();
+                values.add("NULL".equalsIgnoreCase(literal) ? null : literal);
+                i = end;
+            }
+            while (i < line.length() && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i < line.length() && line.charAt(i) == ',') {
+                i++;
+            } else if (i < line.length() && line.charAt(i) == ')') {
+                return values.toArray(new String[0]);
+            } else {
+                throw new IllegalArgumentException("Malformed row at line " + lineNumber + ": " + line);
+            }
+        }
+    }
+
+    private static List<String[]> sortedByCode(List<String[]> rows, int codeLength, int columns) {
+        for (String[] row : rows) {
+            if (row.length < columns) {
+                throw new IllegalArgumentException("Expected " + columns + " columns: " + Arrays.toString(row));
+            }
+            if (ThaiAddressGazetteer.parseCode(row[0], codeLength) < 0) {
+                throw new IllegalArgumentException("Invalid " + codeLength + "-digit code: " + row[0]);
+            }
+        }
+        List<String[]> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingInt(row -> Integer.parseInt(row[0])));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i)[0].equals(sorted.get(i - 1)[0])) {
+                throw new IllegalArgumentException("Duplicate code: " + sorted.get(i)[0]);
+            }
+        }
+        return sorted;
+    }
+
+    private static int[] codes(List<String[]> rows) {
+        return rows.stream().mapToInt(row -> Integer.parseInt(row[0])).toArray();
+    }
+
+    /**
+     * Record indexes ordered by UTF-8 name bytes (then code), for binary search by name.
+     */
+    private static void putNameIndex(ByteBuffer records, List<String[]> rows, int[] codes) {
+        byte[][] names = new byte[rows.size()][];
+        Integer[] order = new Integer[rows.size()];
+        for (int i = 0; i < order.length; i++) {
+            names[i] = rows.get(i)[1] != null ? rows.get(i)[1].getBytes(StandardCharsets.UTF_8) : new byte[0];
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byName = Arrays.compareUnsigned(names[a], names[b]);
+            return byName != 0 ? byName : Integer.compare(codes[a], codes[b]);
+        });
+        for (Integer index : order) {
+            records.putInt(index);
+        }
+    }
+
+    private static int indexOf(int[] codes, int code) {
+        int index = Arrays.binarySearch(codes, code);
+        return index >= 0 ? index : ThaiAddressGazetteer.NOT_FOUND;
+    }
+
+    private static Reader classpathReader(String name) throws IOException {
+        InputStream is = ThaiAddressGazetteerWriter.class.getClassLoader().getResourceAsStream("db/" + name);
+        if (is == null) {
+            throw new IOException("Resource not found: db/" + name);
+        }
+        return new InputStreamReader(is, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * De-duplicated pool of length-prefixed UTF-8 strings.
+     */
+    private static final class StringPool {
+
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+        int add(String value) {
+            if (value == null) {
+                return ThaiAddressGazetteer.NO_STRING;
+            }
+            return offsets.computeIfAbsent(value, v -> {
+                byte[] bytes = v.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF) {
+                    throw new IllegalArgumentException("Name too long: " + v);
+                }
+                int offset = pool.size();
+                pool.write(bytes.length >>> 8);
+                pool.write(bytes.length);
+                pool.write(bytes, 0, bytes.length);
+                return offset;
+            });
+        }
+
+        byte[] toByteArray() {
+            return pool.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.wpanther.etax.core.address;
+
+/**
+ * Checks that the province, city and subdistrict codes of an address are mutually
+ * consistent: subdistrict {@code PPDDSS} belongs to city {@code PPDD}, which belongs
+ * to province {@code PP}.
+ *
+ * The codes of a {@link ThaiAddressGazetteer} are copied once into arrays indexed by
+ * code (a flag per province and city code, a bit per subdistrict code; about 140 KB),
+ * so a check is a few array reads and integer divisions. It creates no entities,
+ * strings or other objects, and replaces a query of the {@code v_thai_address_hierarchy}
+ * view or three entity lookups per address. Instances are immutable and thread-safe.
+ *
+ * Codes are passed as ints, or as character sequences of exactly 2, 4 and 6 digits.
+ * {@link #ABSENT}, or a null or blank character sequence, marks a code as absent; absent
+ * codes are skipped, so an address with only a province and a subdistrict is checked
+ * for those two.
+ *
+ * Usage:
+ * <pre>
+ * ThaiAddressHierarchy hierarchy = ThaiAddressHierarchy.of(gazetteer);
+ * hierarchy.check(10, 1017, 101701);         // CONSISTENT
+ * hierarchy.check("10", "1004", "101701");   // SUBDISTRICT_NOT_IN_CITY
+ * </pre>
+ */
+public final class ThaiAddressHierarchy {
+
+    /** Marks an absent code in the int-based checks; no province, city or subdistrict code is 0. */
+    public static final int ABSENT = 0;
+
+    private static final int PROVINCE_CODES = 100;
+    private static final int CITY_CODES = 10_000;
+    private static final int SUBDISTRICT_CODES = 1_000_000;
+
+    /**
+     * Outcome of a consistency check. Unknown codes are reported before mismatches,
+     * from the province down.
+     */
+    public enum Consistency {
+        CONSISTENT,
+        UNKNOWN_PROVINCE,
+        UNKNOWN_CITY,
+        UNKNOWN_SUBDISTRICT,
+        CITY_NOT_IN_PROVINCE,
+        SUBDISTRICT_NOT_IN_CITY,
+        SUBDISTRICT_NOT_IN_PROVINCE;
+
+        public boolean isConsistent() {
+            return this == CONSISTENT;
+        }
+    }
+
+    private final boolean[] provinces = new boolean[PROVINCE_CODES];
+    private final boolean[] cities = new boolean[CITY_CODES];
+    private final long[] subdistricts = new long[(SUBDISTRICT_CODES + 63) >>> 6];
+
+    private ThaiAddressHierarchy(ThaiAddressGazetteer gazetteer) {
+        gazetteer.forEachProvince(code -> provinces[code] = true);
+        gazetteer.forEachCity(code -> cities[code] = true);
+        gazetteer.forEachSubdistrict(code -> subdistricts[code >>> 6] |= 1L << code);
+    }
+
+    /**
+     * Precompute the hierarchy of all codes in a gazetteer.
+     */
+    public static ThaiAddressHierarchy of(ThaiAddressGazetteer gazetteer) {
+        return new ThaiAddressHierarchy(gazetteer);
+    }
+
+    public boolean containsProvince(int code) {
+        return code >= 0 && code < PROVINCE_CODES && provinces[code];
+    }
+
+    public boolean containsCity(int code) {
+        return code >= 0 && code < CITY_CODES && cities[code];
+    }
+
+    public boolean containsSubdistrict(int code) {
+        return code >= 0 && code < SUBDISTRICT_CODES && (subdistricts[code >>> 6] & (1L << code)) != 0;
+    }
+
+    /**
+     * Check the codes of an address.
+     *
+     * @param province    the 2-digit province code, or {@link #ABSENT}
+     * @param city        the 4-digit city code, or {@link #ABSENT}
+     * @param subdistrict the 6-digit subdistrict code, or {@link #ABSENT}
+     */
+    public Consistency check(int province, int city, int subdistrict) {
+        if (province != ABSENT && !containsProvince(province)) {
+            return Consistency.UNKNOWN_PROVINCE;
+        }
+        if (city != ABSENT && !containsCity(city)) {
+            return Consistency.UNKNOWN_CITY;
+        }
+        if (subdistrict != ABSENT && !containsSubdistrict(subdistrict)) {
+            return Consistency.UNKNOWN_SUBDISTRICT;
+        }
+        if (city != ABSENT && province != ABSENT && city / 100 != province) {
+            return Consistency.CITY_NOT_IN_PROVINCE;
+        }
+        if (subdistrict != ABSENT && city != ABSENT && subdistrict / 100 != city) {
+            return Consistency.SUBDISTRICT_NOT_IN_CITY;
+        }
+        if (subdistrict != ABSENT && province != ABSENT && subdistrict / 10_000 != province) {
+            return Consistency.SUBDISTRICT_NOT_IN_PROVINCE;
+        }
+        return Consistency.CONSISTENT;
+    }
+
+    /**
+     * Check the codes of an address as they appear in a document. Surrounding whitespace
+     * is ignored; a code that is not 2, 4 or 6 digits respectively is unknown.
+     */
+    public Consistency check(CharSequence province, CharSequence city, CharSequence subdistrict) {
+        return check(parse(province, 2), parse(city, 4), parse(subdistrict, 6));
+    }
+
+    public boolean isConsistent(int province, int city, int subdistrict) {
+        return check(province, city, subdistrict).isConsistent();
+    }
+
+    public boolean isConsistent(CharSequence province, CharSequence city, CharSequence subdistrict) {
+        return check(province, city, subdistrict).isConsistent();
+    }
+
+    /**
+     * Parse a trimmed code without creating a string.
+     *
+     * @return the code, {@link #ABSENT} for null or blank input, or
+     *         {@link ThaiAddressGazetteer#NOT_FOUND} if it is not a code of {@code length} digits
+     */
+    public static int parse(CharSequence code, int length) {
+        if (code == null) {
+            return ABSENT;
+        }
+        int start = 0;
+        int end = code.length();
+        while (start < end && Character.isWhitespace(code.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(code.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return ABSENT;
+        }
+        if (end - start != length) {
+            return ThaiAddressGazetteer.NOT_FOUND;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return ThaiAddressGazetteer.NOT_FOUND;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value != ABSENT ? value : ThaiAddressGazetteer.NOT_FOUND;
+    }
+}
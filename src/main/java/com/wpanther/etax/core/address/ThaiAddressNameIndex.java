@@ -0,0 +1,456 @@
+package com.wpanther.etax.core.address;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * In-memory trigram index over the Thai names of provinces, TISI cities and TISI subdistricts,
+ * for fuzzy search and address-entry autocomplete.
+ * <p>
+ * {@code findByNameThContaining} runs {@code LIKE %name%} over every row, which no B-tree index
+ * can serve. This index is built once from a {@link ThaiAddressGazetteer} and answers a query
+ * from its posting lists, typically in a few microseconds.
+ * <p>
+ * Thai script is segmented into character clusters before trigrams are taken: a leading vowel
+ * (เ แ โ ใ ไ) joins the following consonant, and above/below vowels, tone marks and sara am
+ * join the preceding one. A misplaced vowel then changes one cluster, not the alignment of
+ * every trigram after it. Tone marks and the thanthakhat are left out of the trigrams, so a
+ * missing or wrong tone mark still matches fully; the exact and prefix comparisons keep them.
+ * Names and queries are normalised the same way:
+ * <ul>
+ *   <li>Administrative prefixes are removed: ตำบล, แขวง, อำเภอ, กิ่งอำเภอ, เขต and จังหวัด, and in
+ *       queries also the abbreviations ต. อ. and จ. (names such as "จ.ป.ร." keep theirs), so
+ *       "เขตบางรัก", "แขวงบางรัก" and "บางรัก" are the same key</li>
+ *   <li>Whitespace, punctuation and the {@code *} that marks dissolved codes are removed</li>
+ *   <li>Latin letters are lower-cased</li>
+ * </ul>
+ * Trigrams are padded at the start of the key only, so a one- or two-cluster query finds the
+ * names that start with it, and a longer query also finds names that contain it or nearly
+ * match it.
+ * <p>
+ * Matches are ranked by a score in [0, 1]: exact matches score 1, then prefix matches, then
+ * names containing the query, then fuzzy matches, each band ordered by trigram similarity.
+ * Ties go to the name closest in length to the query, then to provinces before cities before
+ * subdistricts. Instances are immutable and thread-safe.
+ * <p>
+ * Usage:
+ * <pre>
+ * ThaiAddressNameIndex index = ThaiAddressNameIndex.of(gazetteer);
+ * index.search("ตำบลบางรัก", 10);                               // subdistricts and cities named บางรัก
+ * index.search("บางร", ThaiAddressNameIndex.Level.SUBDISTRICT, 10); // autocomplete
+ * </pre>
+ */
+public final class ThaiAddressNameIndex {
+
+    /**
+     * The kind of administrative area of a match.
+     */
+    public enum Level {
+        PROVINCE,
+        CITY,
+        SUBDISTRICT
+    }
+
+    /**
+     * A ranked search result.
+     */
+    public static final class Match {
+        private final Level level;
+        private final int code;
+        private final String name;
+        private final double score;
+
+        Match(Level level, int code, String name, double score) {
+            this.level = level;
+            this.code = code;
+            this.name = name;
+            this.score = score;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        /**
+         * Get the province, city or subdistrict code
+         */
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * Get the Thai name as stored in the code list
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the score, from 1 for an exact match down to 0
+         */
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Match that = (Match) o;
+            return code == that.code && level == that.level;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, code);
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" +
+                   "level=" + level +
+                   ", code=" + code +
+                   ", name='" + name + '\'' +
+                   ", score=" + score +
+                   '}';
+        }
+    }
+
+    /** Prefixes removed from names and queries; longer prefixes first. */
+    private static final String[] NAME_PREFIXES = {"กิ่งอำเภอ", "อำเภอ", "จังหวัด", "ตำบล", "แขวง", "เขต"};
+
+    /** Abbreviations removed from queries only. */
+    private static final String[] QUERY_PREFIXES = {"ต.", "อ.", "จ."};
+
+    private static final char PAD = '^';
+    private static final int SCORE_SCALE = 1_000_000;
+    private static final Level[] LEVELS = Level.values();
+
+    private final int size;
+    private final byte[] levels;
+    private final int[] codes;
+    private final String[] names;
+    private final String[] keys;
+    private final int[] gramCounts;
+    private final Map<String, int[]> postings;
+
+    private ThaiAddressNameIndex(ThaiAddressGazetteer gazetteer) {
+        int capacity = gazetteer.provinceCount() + gazetteer.cityCount() + gazetteer.subdistrictCount();
+        this.levels = new byte[capacity];
+        this.codes = new int[capacity];
+        this.names = new String[capacity];
+        this.keys = new String[capacity];
+        this.gramCounts = new int[capacity];
+
+        int[] next = {0};
+        gazetteer.forEachProvince(code -> add(next, Level.PROVINCE, code, gazetteer.provinceName(code)));
+        gazetteer.forEachCity(code -> add(next, Level.CITY, code, gazetteer.cityName(code)));
+        gazetteer.forEachSubdistrict(code -> add(next, Level.SUBDISTRICT, code, gazetteer.subdistrictName(code)));
+        this.size = next[0];
+
+        Map<String, Postings> building = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            String[] grams = grams(keys[id]);
+            gramCounts[id] = grams.length;
+            for (String gram : grams) {
+                building.computeIfAbsent(gram, g -> new Postings()).add(id);
+            }
+        }
+        this.postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        building.forEach((gram, ids) -> postings.put(gram, ids.toArray()));
+    }
+
+    /**
+     * Build the index over all names in a gazetteer.
+     */
+    public static ThaiAddressNameIndex of(ThaiAddressGazetteer gazetteer) {
+        return new ThaiAddressNameIndex(gazetteer);
+    }
+
+    /**
+     * @return the number of indexed names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Search provinces, cities and subdistricts.
+     *
+     * @param query a full or partial Thai name, with or without an administrative prefix
+     * @param limit the maximum number of matches
+     * @return the matches, best first; empty for a blank query
+     */
+    public List<Match> search(String query, int limit) {
+        return search(query, null, limit);
+    }
+
+    /**
+     * Search one level.
+     *
+     * @param query a full or partial Thai name, with or without an administrative prefix
+     * @param level the level to search, or null for all levels
+     * @param limit the maximum number of matches
+     * @return the matches, best first; empty for a blank query
+     */
+    public List<Match> search(String query, Level level, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        String key = normalize(query, true);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String[] grams = grams(key);
+
+        int[] shared = new int[size];
+        int[] touched = new int[size];
+        int touchedCount = 0;
+        for (String gram : grams) {
+            int[] ids = postings.get(gram);
+            if (ids == null) {
+                continue;
+            }
+            for (int id : ids) {
+                if (level != null && levels[id] != level.ordinal()) {
+                    continue;
+                }
+                if (shared[id]++ == 0) {
+                    touched[touchedCount++] = id;
+                }
+            }
+        }
+
+        // Require a third of the query trigrams, so one typo in a short query still matches
+        int minShared = Math.max(1, (grams.length + 2) / 3);
+        long[] ranked = new long[touchedCount];
+        int rankedCount = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int id = touched[i];
+            if (shared[id] >= minShared) {
+                int score = (int) Math.round(score(key, grams.length, id, shared[id]) * SCORE_SCALE);
+                ranked[rankedCount++] = rank(score, id, key.length());
+            }
+        }
+        Arrays.sort(ranked, 0, rankedCount);
+
+        int count = Math.min(limit, rankedCount);
+        List<Match> matches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = (int) (ranked[i] & 0xFFFFFF);
+            double score = (double) (SCORE_SCALE - (ranked[i] >>> 40)) / SCORE_SCALE;
+            matches.add(new Match(LEVELS[levels[id]], codes[id], names[id], score));
+        }
+        return matches;
+    }
+
+    private void add(int[] next, Level level, int code, String name) {
+        if (name == null) {
+            return;
+        }
+        String key = normalize(name, false);
+        if (key.isEmpty()) {
+            return;
+        }
+        int id = next[0]++;
+        levels[id] = (byte) level.ordinal();
+        codes[id] = code;
+        names[id] = name;
+        keys[id] = key;
+    }
+
+    /**
+     * Scores fall in four bands of width 0.25: fuzzy, contains, prefix and exact.
+     * Within a band, the share of trigrams in common, relative to the larger trigram set,
+     * orders the matches.
+     */
+    private double score(String key, int queryGrams, int id, int shared) {
+        String candidate = keys[id];
+        int band;
+        if (candidate.equals(key)) {
+            return 1.0;
+        } else if (candidate.startsWith(key)) {
+            band = 2;
+        } else if (candidate.contains(key)) {
+            band = 1;
+        } else {
+            band = 0;
+        }
+        double similarity = (double) shared / Math.max(queryGrams, gramCounts[id]);
+        return (band + Math.min(similarity, 0.999)) / 4;
+    }
+
+    /**
+     * Sort key, ascending: best score, then the key closest in length to the query, then
+     * level and code order (ids follow gazetteer order).
+     */
+    private long rank(int score, int id, int queryLength) {
+        long lengthDifference = Math.min(Math.abs(keys[id].length() - queryLength), 0xFFFF);
+        return ((long) (SCORE_SCALE - score) << 40) | (lengthDifference << 24) | id;
+    }
+
+    /**
+     * Normalise a name or query to a search key.
+     *
+     * @param query whether to also remove the abbreviated prefixes ต. อ. and จ.
+     */
+    static String normalize(String text, boolean query) {
+        if (text == null) {
+            return "";
+        }
+        int start = skipPrefixes(text, query);
+        StringBuilder key = new StringBuilder(text.length() - start);
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || isFollowing(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    private static int skipPrefixes(String text, boolean query) {
+        int start = skipWhitespace(text, 0);
+        boolean stripped = true;
+        while (stripped) {
+            stripped = false;
+            for (String prefix : NAME_PREFIXES) {
+                if (text.startsWith(prefix, start) && hasNameAfter(text, start + prefix.length())) {
+                    start = skipWhitespace(text, start + prefix.length());
+                    stripped = true;
+                }
+            }
+            if (query) {
+                for (String prefix : QUERY_PREFIXES) {
+                    if (text.startsWith(prefix, start) && hasNameAfter(text, start + prefix.length())
+                            && !isAbbreviation(text, skipWhitespace(text, start + prefix.length()))) {
+                        start = skipWhitespace(text, start + prefix.length());
+                        stripped = true;
+                    }
+                }
+            }
+        }
+        return start;
+    }
+
+    private static boolean hasNameAfter(String text, int index) {
+        for (int i = index; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether an abbreviation such as the ป. of "จ.ป.ร." starts at an index, in which case
+     * the preceding letter and dot are part of the name rather than a prefix.
+     */
+    private static boolean isAbbreviation(String text, int index) {
+        return index + 1 < text.length() && text.charAt(index + 1) == '.';
+    }
+
+    private static int skipWhitespace(String text, int index) {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Split a key into Thai character clusters.
+     *
+     * @return the start offset of each cluster, followed by the key length
+     */
+    static int[] clusters(String key) {
+        int[] starts = new int[key.length() + 1];
+        int count = 0;
+        int i = 0;
+        while (i < key.length()) {
+            starts[count++] = i;
+            if (isLeading(key.charAt(i)) && i + 1 < key.length()) {
+                i++;
+            }
+            i++;
+            while (i < key.length() && isFollowing(key.charAt(i))) {
+                i++;
+            }
+        }
+        starts[count] = key.length();
+        return Arrays.copyOf(starts, count + 1);
+    }
+
+    /**
+     * @return the distinct cluster trigrams of a key without its tone marks, padded at the start
+     */
+    static String[] grams(String key) {
+        key = withoutToneMarks(key);
+        int[] starts = clusters(key);
+        int clusterCount = starts.length - 1;
+        Set<String> grams = new LinkedHashSet<>();
+        for (int end = 1; end <= clusterCount; end++) {
+            int first = end - 3;
+            StringBuilder gram = new StringBuilder(8);
+            for (int pad = first; pad < 0; pad++) {
+                gram.append(PAD);
+            }
+            gram.append(key, starts[Math.max(first, 0)], starts[end]);
+            grams.add(gram.toString());
+        }
+        return grams.toArray(new String[0]);
+    }
+
+    private static String withoutToneMarks(String key) {
+        StringBuilder skeleton = null;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c >= '่' && c <= '์') {
+                if (skeleton == null) {
+                    skeleton = new StringBuilder(key.length()).append(key, 0, i);
+                }
+            } else if (skeleton != null) {
+                skeleton.append(c);
+            }
+        }
+        return skeleton != null ? skeleton.toString() : key;
+    }
+
+    /** Leading vowels เ แ โ ใ ไ, written before the consonant they follow in speech. */
+    private static boolean isLeading(char c) {
+        return c >= 'เ' && c <= 'ไ';
+    }
+
+    /** Above and below vowels, tone marks and sara am, which join the preceding consonant. */
+    static boolean isFollowing(char c) {
+        return c == 'ั' || (c >= 'ำ' && c <= 'ฺ') || (c >= '็' && c <= '๎');
+    }
+
+    /**
+     * Growable list of ascending entry ids for one trigram.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,605 @@
+package com.wpanther.etax.core.address;
+
+import com.wpanther.etax.core.address.ThaiAddressNameIndex.Level;
+import com.wpanther.etax.core.address.ThaiAddressNameIndex.Match;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves a free-text Thai postal address to its province, TISI city and TISI subdistrict
+ * codes, with a confidence score.
+ * <p>
+ * The names of a {@link ThaiAddressGazetteer} are compiled into a trie of primitive arrays.
+ * Parsing an address walks the trie from every Thai character cluster of the text, so every
+ * name in the address is found in one pass without a database query. Each name found is
+ * evidence for a (province, city, subdistrict) candidate; a subdistrict implies its city and
+ * province through its code. The candidate with the most evidence wins:
+ * <ul>
+ *   <li>A subdistrict name counts 0.4, a city name 0.35 and a province name 0.25. One stretch
+ *       of text is evidence for one level only</li>
+ *   <li>A name preceded by the marker of its level (ต. ตำบล แขวง, อ. อำเภอ เขต, จ. จังหวัด)
+ *       counts fully, an unmarked name 0.8 and a name marked as another level 0.4. Where
+ *       several names start at the same place, only the longest of each level counts</li>
+ *   <li>Codes marked {@code *} (dissolved) count 0.95 of a current code with the same name</li>
+ *   <li>A misspelled name after a marker is looked up in a {@link ThaiAddressNameIndex} and
+ *       counts 0.4 to 0.8 depending on its similarity</li>
+ *   <li>The confidence is the score times a logistic function of its margin over the best
+ *       conflicting candidate: halved when they tie, for example for a bare subdistrict name
+ *       that exists in two provinces, and close to unchanged for a clear margin</li>
+ * </ul>
+ * "กรุงเทพฯ" and "กทม." are recognised as Bangkok. Names of roads, sois and villages
+ * (after ถ. ถนน ซ. ซอย หมู่บ้าน), house numbers, postcodes and other text are ignored.
+ * <p>
+ * Instances are immutable and thread-safe; {@link #parseAll(List)} parses a batch in parallel.
+ * <p>
+ * Usage:
+ * <pre>
+ * ThaiAddressParser parser = ThaiAddressParser.of(gazetteer);
+ * ThaiAddressParser.Result result =
+ *         parser.parse("99/1 ถ.สีลม แขวงสุริยวงศ์ เขตบางรัก กรุงเทพฯ 10500");
+ * result.getSubdistrictCode();   // 100403
+ * result.getConfidence();        // 0.947
+ * </pre>
+ * The confidence is below 1: กรุงเทพฯ has no จ. marker, so the province counts 0.8 (a
+ * score of 0.95), and กรุงเทพ is also a subdistrict of ศรีสะเกษ, which conflicts with it.
+ */
+public final class ThaiAddressParser {
+
+    /**
+     * The codes resolved from one address. Unresolved levels are
+     * {@link ThaiAddressGazetteer#NOT_FOUND}.
+     */
+    public static final class Result {
+        private static final Result UNRESOLVED = new Result(ThaiAddressGazetteer.NOT_FOUND,
+                ThaiAddressGazetteer.NOT_FOUND, ThaiAddressGazetteer.NOT_FOUND, 0.0);
+
+        private final int provinceCode;
+        private final int cityCode;
+        private final int subdistrictCode;
+        private final double confidence;
+
+        Result(int provinceCode, int cityCode, int subdistrictCode, double confidence) {
+            this.provinceCode = provinceCode;
+            this.cityCode = cityCode;
+            this.subdistrictCode = subdistrictCode;
+            this.confidence = confidence;
+        }
+
+        public int getProvinceCode() {
+            return provinceCode;
+        }
+
+        public int getCityCode() {
+            return cityCode;
+        }
+
+        public int getSubdistrictCode() {
+            return subdistrictCode;
+        }
+
+        /**
+         * Get the confidence, from 1 for an address with a marked name at every level down to 0
+         */
+        public double getConfidence() {
+            return confidence;
+        }
+
+        /**
+         * @return whether at least the province was resolved
+         */
+        public boolean isResolved() {
+            return provinceCode != ThaiAddressGazetteer.NOT_FOUND;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Result that = (Result) o;
+            return provinceCode == that.provinceCode &&
+                   cityCode == that.cityCode &&
+                   subdistrictCode == that.subdistrictCode &&
+                   Double.compare(confidence, that.confidence) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(provinceCode, cityCode, subdistrictCode, confidence);
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                   "province=" + provinceCode +
+                   ", city=" + cityCode +
+                   ", subdistrict=" + subdistrictCode +
+                   ", confidence=" + confidence +
+                   '}';
+        }
+    }
+
+    private static final int BANGKOK = 10;
+    private static final String[] BANGKOK_ALIASES = {"กรุงเทพ", "กทม"};
+
+    /** Characters other than whitespace that separate the parts of an address. */
+    private static final String WORD_BREAKS = ",;()";
+
+    private static final int NO_MARKER = -1;
+    /** Marks the word after a road, soi or village marker, which is not an administrative name. */
+    private static final int STREET = -2;
+    private static final int PROVINCE = Level.PROVINCE.ordinal();
+    private static final int CITY = Level.CITY.ordinal();
+    private static final int SUBDISTRICT = Level.SUBDISTRICT.ordinal();
+
+    /** Markers and the level of the name that follows; longer markers first, abbreviations last. */
+    private static final String[] MARKERS = {
+        "กิ่งอำเภอ", "อำเภอ", "จังหวัด", "ตำบล", "แขวง", "เขต", "หมู่บ้าน", "ถนน", "ซอย",
+        "ต.", "อ.", "จ.", "ถ.", "ซ."
+    };
+    private static final int[] MARKER_LEVELS = {
+        CITY, CITY, PROVINCE, SUBDISTRICT, SUBDISTRICT, CITY, STREET, STREET, STREET,
+        SUBDISTRICT, CITY, PROVINCE, STREET, STREET
+    };
+
+    private static final double[] LEVEL_WEIGHTS = {0.25, 0.35, 0.4};
+    private static final double MARKED = 1.0;
+    private static final double UNMARKED = 0.8;
+    private static final double MISMARKED = 0.4;
+    private static final double DISSOLVED = 0.95;
+    private static final double FUZZY = 0.4;
+    private static final int FUZZY_CANDIDATES = 3;
+    private static final double MARGIN_SLOPE = 10;
+
+    private static final int CODE_BITS = 20;
+    private static final int CODE_MASK = (1 << CODE_BITS) - 1;
+    private static final int LEVEL_MASK = 0x3;
+    private static final int DISSOLVED_FLAG = 1 << (CODE_BITS + 2);
+    private static final int ABSENT = ThaiAddressHierarchy.ABSENT;
+
+    private final ThaiAddressNameIndex nameIndex;
+
+    // Trie: the edges of node n are edgeLabels/edgeTargets[firstEdge[n] .. firstEdge[n + 1]),
+    // sorted by label; its values (dissolved flag | level << CODE_BITS | code) are
+    // values[firstValue[n] .. firstValue[n + 1])
+    private final int[] firstEdge;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+    private final int[] firstValue;
+    private final int[] values;
+
+    private ThaiAddressParser(ThaiAddressGazetteer gazetteer, ThaiAddressNameIndex nameIndex) {
+        this.nameIndex = nameIndex;
+
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<int[]> nodeValues = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        nodeValues.add(new int[0]);
+        gazetteer.forEachProvince(code -> insert(edges, nodeValues, gazetteer.provinceName(code), Level.PROVINCE, code));
+        gazetteer.forEachCity(code -> insert(edges, nodeValues, gazetteer.cityName(code), Level.CITY, code));
+        gazetteer.forEachSubdistrict(code ->
+                insert(edges, nodeValues, gazetteer.subdistrictName(code), Level.SUBDISTRICT, code));
+        if (gazetteer.containsProvince(BANGKOK)) {
+            for (String alias : BANGKOK_ALIASES) {
+                insert(edges, nodeValues, alias, Level.PROVINCE, BANGKOK);
+            }
+        }
+
+        int nodes = edges.size();
+        int edgeCount = 0;
+        int valueCount = 0;
+        for (int n = 0; n < nodes; n++) {
+            edgeCount += edges.get(n).size();
+            valueCount += nodeValues.get(n).length;
+        }
+        this.firstEdge = new int[nodes + 1];
+        this.edgeLabels = new char[edgeCount];
+        this.edgeTargets = new int[edgeCount];
+        this.firstValue = new int[nodes + 1];
+        this.values = new int[valueCount];
+        int e = 0;
+        int v = 0;
+        for (int n = 0; n < nodes; n++) {
+            firstEdge[n] = e;
+            for (Map.Entry<Character, Integer> edge : edges.get(n).entrySet()) {
+                edgeLabels[e] = edge.getKey();
+                edgeTargets[e++] = edge.getValue();
+            }
+            firstValue[n] = v;
+            for (int value : nodeValues.get(n)) {
+                values[v++] = value;
+            }
+        }
+        firstEdge[nodes] = e;
+        firstValue[nodes] = v;
+    }
+
+    /**
+     * Build a parser over all names in a gazetteer.
+     */
+    public static ThaiAddressParser of(ThaiAddressGazetteer gazetteer) {
+        return of(gazetteer, ThaiAddressNameIndex.of(gazetteer));
+    }
+
+    /**
+     * Build a parser that shares an existing name index for misspelled names.
+     */
+    public static ThaiAddressParser of(ThaiAddressGazetteer gazetteer, ThaiAddressNameIndex nameIndex) {
+        return new ThaiAddressParser(gazetteer, Objects.requireNonNull(nameIndex, "nameIndex"));
+    }
+
+    /**
+     * Resolve one address.
+     *
+     * @param address the free-text address
+     * @return the resolved codes; unresolved with confidence 0 if no name was found
+     */
+    public Result parse(String address) {
+        if (address == null || address.isBlank()) {
+            return Result.UNRESOLVED;
+        }
+        Text text = new Text(address);
+        Evidence evidence = new Evidence();
+        findNames(text, evidence);
+        findMisspelledNames(text, evidence);
+        return resolve(evidence);
+    }
+
+    /**
+     * Resolve a batch of addresses in parallel.
+     *
+     * @return one result per address, in order
+     */
+    public List<Result> parseAll(List<String> addresses) {
+        return addresses.parallelStream().map(this::parse).collect(Collectors.toList());
+    }
+
+    private static void insert(List<TreeMap<Character, Integer>> edges, List<int[]> nodeValues,
+                               String name, Level level, int code) {
+        String key = ThaiAddressNameIndex.normalize(name, false);
+        if (key.isEmpty()) {
+            return;
+        }
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            Integer next = edges.get(node).get(key.charAt(i));
+            if (next == null) {
+                next = edges.size();
+                edges.get(node).put(key.charAt(i), next);
+                edges.add(new TreeMap<>());
+                nodeValues.add(new int[0]);
+            }
+            node = next;
+        }
+        int[] existing = nodeValues.get(node);
+        int[] extended = Arrays.copyOf(existing, existing.length + 1);
+        extended[existing.length] = (name.endsWith("*") ? DISSOLVED_FLAG : 0) | level.ordinal() << CODE_BITS | code;
+        nodeValues.set(node, extended);
+    }
+
+    /**
+     * Walk the trie from every cluster and record the longest name of each level that
+     * ends on a cluster boundary. Names do not span a space, comma or bracket.
+     */
+    private void findNames(Text text, Evidence evidence) {
+        int[] longestNode = new int[LEVEL_WEIGHTS.length];
+        int[] longestEnd = new int[LEVEL_WEIGHTS.length];
+        for (int start = 0; start < text.length; start++) {
+            if (!text.boundary[start] || text.ignored[start]) {
+                continue;
+            }
+            Arrays.fill(longestNode, -1);
+            int node = 0;
+            for (int i = start; i < text.length && (i == start || !text.wordBreak[i]); i++) {
+                node = child(node, text.chars[i]);
+                if (node < 0) {
+                    break;
+                }
+                if (text.boundary[i + 1]) {
+                    for (int v = firstValue[node]; v < firstValue[node + 1]; v++) {
+                        int level = values[v] >>> CODE_BITS & LEVEL_MASK;
+                        longestNode[level] = node;
+                        longestEnd[level] = i + 1;
+                    }
+                }
+            }
+            for (int level = 0; level < longestNode.length; level++) {
+                int longest = longestNode[level];
+                if (longest < 0) {
+                    continue;
+                }
+                for (int v = firstValue[longest]; v < firstValue[longest + 1]; v++) {
+                    if ((values[v] >>> CODE_BITS & LEVEL_MASK) == level) {
+                        double weight = weight(text.marker[start], level);
+                        if ((values[v] & DISSOLVED_FLAG) != 0) {
+                            weight *= DISSOLVED;
+                        }
+                        evidence.add(level, values[v] & CODE_MASK, start, longestEnd[level], weight);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Look up the word after each marker in the name index if no name of that level covers it.
+     */
+    private void findMisspelledNames(Text text, Evidence evidence) {
+        for (int start = 0; start < text.length; start++) {
+            int level = text.marker[start];
+            if (level < 0) {
+                continue;
+            }
+            int end = text.wordEnd(start);
+            if (evidence.hasName(level, start, end)) {
+                continue;
+            }
+            String word = new String(text.chars, start, end - start);
+            for (Match match : nameIndex.search(word, Level.values()[level], FUZZY_CANDIDATES)) {
+                double weight = FUZZY + FUZZY * Math.min(match.getScore(), 0.999);
+                if (match.getName().endsWith("*")) {
+                    weight *= DISSOLVED;
+                }
+                evidence.add(level, match.getCode(), start, end, weight);
+            }
+        }
+    }
+
+    private int child(int node, char label) {
+        int low = firstEdge[node];
+        int high = firstEdge[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midLabel = edgeLabels[mid];
+            if (midLabel < label) {
+                low = mid + 1;
+            } else if (midLabel > label) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static double weight(int marker, int level) {
+        if (marker == NO_MARKER) {
+            return UNMARKED;
+        }
+        return marker == level ? MARKED : MISMARKED;
+    }
+
+    /**
+     * Score the candidate implied by each name and pick the best; the best candidate that
+     * conflicts with it reduces the confidence.
+     */
+    private static Result resolve(Evidence evidence) {
+        int count = evidence.size;
+        if (count == 0) {
+            return Result.UNRESOLVED;
+        }
+        int[][] candidates = new int[count][];
+        double[] scores = new double[count];
+        int best = 0;
+        for (int m = 0; m < count; m++) {
+            candidates[m] = candidate(evidence.levels[m], evidence.codes[m]);
+            scores[m] = evidence.score(candidates[m]);
+            if (scores[m] > scores[best]) {
+                best = m;
+            }
+        }
+        double runnerUp = 0;
+        for (int m = 0; m < count; m++) {
+            if (!compatible(candidates[m], candidates[best])) {
+                runnerUp = Math.max(runnerUp, scores[m]);
+            }
+        }
+        double confidence = scores[best];
+        if (runnerUp > 0) {
+            confidence /= 1 + Math.exp(-MARGIN_SLOPE * (scores[best] - runnerUp));
+        }
+        int[] codes = candidates[best];
+        return new Result(orNotFound(codes[0]), orNotFound(codes[1]), orNotFound(codes[2]),
+                Math.round(confidence * 1000) / 1000.0);
+    }
+
+    /**
+     * @return the province, city and subdistrict codes implied by a name; {@link ThaiAddressHierarchy#ABSENT} if not implied
+     */
+    private static int[] candidate(int level, int code) {
+        if (level == Level.SUBDISTRICT.ordinal()) {
+            return new int[] {code / 10_000, code / 100, code};
+        } else if (level == Level.CITY.ordinal()) {
+            return new int[] {code / 100, code, ABSENT};
+        }
+        return new int[] {code, ABSENT, ABSENT};
+    }
+
+    private static boolean compatible(int[] a, int[] b) {
+        for (int level = 0; level < a.length; level++) {
+            if (a[level] != ABSENT && b[level] != ABSENT && a[level] != b[level]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int orNotFound(int code) {
+        return code != ABSENT ? code : ThaiAddressGazetteer.NOT_FOUND;
+    }
+
+    /**
+     * The address reduced to letters, digits and combining marks, with cluster boundaries,
+     * word breaks, the level of the marker, if any, that precedes each position, and the
+     * positions of markers and of road, soi and village names, where no name starts.
+     */
+    private static final class Text {
+        final char[] chars;
+        final int length;
+        final boolean[] boundary;
+        final boolean[] wordBreak;
+        final int[] marker;
+        final boolean[] ignored;
+
+        Text(String address) {
+            char[] kept = new char[address.length()];
+            int[] keptAt = new int[address.length() + 1];
+            boolean[] breaks = new boolean[address.length() + 1];
+            int n = 0;
+            boolean pendingBreak = false;
+            for (int i = 0; i < address.length(); i++) {
+                keptAt[i] = n;
+                char c = address.charAt(i);
+                if (Character.isLetterOrDigit(c) || ThaiAddressNameIndex.isFollowing(c)) {
+                    breaks[n] = pendingBreak;
+                    kept[n++] = Character.toLowerCase(c);
+                    pendingBreak = false;
+                } else if (Character.isWhitespace(c) || WORD_BREAKS.indexOf(c) >= 0) {
+                    pendingBreak = true;
+                }
+            }
+            keptAt[address.length()] = n;
+            breaks[n] = true;
+            this.chars = kept;
+            this.length = n;
+            this.wordBreak = Arrays.copyOf(breaks, n + 1);
+
+            this.boundary = new boolean[n + 1];
+            for (int start : ThaiAddressNameIndex.clusters(new String(kept, 0, n))) {
+                boundary[start] = true;
+            }
+
+            this.marker = new int[n + 1];
+            this.ignored = new boolean[n + 1];
+            Arrays.fill(marker, NO_MARKER);
+            for (int i = 0; i < address.length(); i++) {
+                boolean wordStart = i == 0 || !Character.isLetter(address.charAt(i - 1));
+                for (int k = 0; k < MARKERS.length; k++) {
+                    // Abbreviations only count at the start of a word, so "ซ.ต." is not a marker
+                    boolean abbreviation = MARKERS[k].endsWith(".");
+                    // A road marker right after a level marker is a name, as in "ต.ถนน",
+                    // and so is an abbreviation followed by another, as in "จ.ป.ร."
+                    boolean named = MARKER_LEVELS[k] == STREET && marker[keptAt[i]] >= 0
+                            || abbreviation && isAbbreviation(address, i + MARKERS[k].length());
+                    if ((wordStart || !abbreviation) && !named && address.startsWith(MARKERS[k], i)) {
+                        int next = i + MARKERS[k].length();
+                        Arrays.fill(ignored, keptAt[i], keptAt[next], true);
+                        while (next < address.length() && Character.isWhitespace(address.charAt(next))) {
+                            next++;
+                        }
+                        marker[keptAt[next]] = MARKER_LEVELS[k];
+                        break;
+                    }
+                }
+            }
+
+            for (int start = 0; start < n; start++) {
+                if (marker[start] == STREET) {
+                    Arrays.fill(ignored, start, wordEnd(start), true);
+                }
+            }
+        }
+
+        /**
+         * @return the end of the word at a position: the next word break, marker or non-Thai letter
+         */
+        int wordEnd(int start) {
+            int end = start + 1;
+            while (end < length && !wordBreak[end] && marker[end] == NO_MARKER && isThai(chars[end])) {
+                end++;
+            }
+            return end;
+        }
+
+        private static boolean isAbbreviation(String address, int index) {
+            return index + 1 < address.length() && Character.isLetter(address.charAt(index))
+                    && address.charAt(index + 1) == '.';
+        }
+
+        private static boolean isThai(char c) {
+            return c >= 'ก' && c <= '๛';
+        }
+    }
+
+    /**
+     * The names found in an address: level, code, span of the text and weight.
+     */
+    private static final class Evidence {
+        int[] levels = new int[16];
+        int[] codes = new int[16];
+        int[] starts = new int[16];
+        int[] ends = new int[16];
+        double[] weights = new double[16];
+        int size;
+
+        void add(int level, int code, int start, int end, double weight) {
+            if (size == levels.length) {
+                int capacity = size * 2;
+                levels = Arrays.copyOf(levels, capacity);
+                codes = Arrays.copyOf(codes, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            levels[size] = level;
+            codes[size] = code;
+            starts[size] = start;
+            ends[size] = end;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean hasName(int level, int start, int end) {
+            for (int m = 0; m < size; m++) {
+                if (levels[m] == level && starts[m] == start && ends[m] >= end) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Sum the best weight of each level of a candidate, from the subdistrict up, using
+         * each stretch of text for one level only.
+         */
+        double score(int[] candidate) {
+            double score = 0;
+            int[] usedStarts = new int[3];
+            int[] usedEnds = new int[3];
+            int used = 0;
+            for (int level = candidate.length - 1; level >= 0; level--) {
+                if (candidate[level] == ABSENT) {
+                    continue;
+                }
+                int bestMatch = -1;
+                for (int m = 0; m < size; m++) {
+                    if (levels[m] == level && codes[m] == candidate[level]
+                            && !overlaps(starts[m], ends[m], usedStarts, usedEnds, used)
+                            && (bestMatch < 0 || weights[m] > weights[bestMatch])) {
+                        bestMatch = m;
+                    }
+                }
+                if (bestMatch >= 0) {
+                    score += LEVEL_WEIGHTS[level] * weights[bestMatch];
+                    usedStarts[used] = starts[bestMatch];
+                    usedEnds[used++] = ends[bestMatch];
+                }
+            }
+            return score;
+        }
+
+        private static boolean overlaps(int start, int end, int[] usedStarts, int[] usedEnds, int used) {
+            for (int u = 0; u < used; u++) {
+                if (start < usedEnds[u] && usedStarts[u] < end) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.wpanther.etax.core.address;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * In-memory lookup between 5-digit Thailand Post postcodes and TISI subdistrict codes,
+ * read from the optional {@code db/postal_code_data.sql} script.
+ *
+ * A postcode usually covers several subdistricts, and a few subdistricts have more than
+ * one postcode, so both directions return candidates. Postcodes are looked up in an
+ * {@code int[]} of offsets indexed by postcode (about 400 KB) into the subdistrict codes
+ * sorted by postcode; subdistricts are looked up by binary search of the pairs sorted by
+ * subdistrict code. Instances are immutable and thread-safe.
+ *
+ * The postcode list is not distributed with the code lists; without the data script,
+ * or with one without rows, {@link #load()} returns an empty lookup.
+ *
+ * Usage:
+ * <pre>
+ * ThaiPostalCodes postalCodes = ThaiPostalCodes.load();
+ * postalCodes.subdistrictsOf("10500");   // the subdistricts of เขตบางรัก
+ * postalCodes.postalCodesOf(100403);     // [10500]
+ * </pre>
+ */
+public final class ThaiPostalCodes {
+
+    public static final String DATA = "postal_code_data.sql";
+
+    private static final Logger log = LoggerFactory.getLogger(ThaiPostalCodes.class);
+
+    private static final int POSTAL_CODES = 100_000;
+    private static final int SUBDISTRICT_CODES = 1_000_000;
+    private static final int[] NONE = new int[0];
+
+    /** Offset of the first subdistrict of each postcode in {@link #subdistricts}; one extra entry ends the last. */
+    private final int[] firstSubdistrict = new int[POSTAL_CODES + 1];
+    /** Subdistrict codes in (postcode, subdistrict code) order. */
+    private final int[] subdistricts;
+    /** Subdistrict codes and postcodes in (subdistrict code, postcode) order. */
+    private final int[] reverseSubdistricts;
+    private final int[] reversePostalCodes;
+
+    private ThaiPostalCodes(long[] pairs) {
+        int count = pairs.length;
+        subdistricts = new int[count];
+        reverseSubdistricts = new int[count];
+        reversePostalCodes = new int[count];
+
+        Arrays.sort(pairs);
+        for (int i = 0; i < count; i++) {
+            int postalCode = (int) (pairs[i] / SUBDISTRICT_CODES);
+            subdistricts[i] = (int) (pairs[i] % SUBDISTRICT_CODES);
+            firstSubdistrict[postalCode + 1]++;
+        }
+        for (int postalCode = 0; postalCode < POSTAL_CODES; postalCode++) {
+            firstSubdistrict[postalCode + 1] += firstSubdistrict[postalCode];
+        }
+
+        long[] reverse = new long[count];
+        for (int i = 0; i < count; i++) {
+            reverse[i] = (pairs[i] % SUBDISTRICT_CODES) * POSTAL_CODES + pairs[i] / SUBDISTRICT_CODES;
+        }
+        Arrays.sort(reverse);
+        for (int i = 0; i < count; i++) {
+            reverseSubdistricts[i] = (int) (reverse[i] / POSTAL_CODES);
+            reversePostalCodes[i] = (int) (reverse[i] % POSTAL_CODES);
+        }
+    }
+
+    /**
+     * Load the postcodes from the data script packaged on the classpath.
+     *
+     * @return the lookup, empty if the data script is not on the classpath
+     */
+    public static ThaiPostalCodes load() throws IOException {
+        InputStream is = ThaiPostalCodes.class.getClassLoader().getResourceAsStream("db/" + DATA);
+        if (is == null) {
+            log.warn("db/{} not found on the classpath, postcode lookups will find nothing", DATA);
+            return new ThaiPostalCodes(new long[0]);
+        }
+        try (Reader script = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+            return read(script);
+        }
+    }
+
+    /**
+     * Read the postcodes from a data script with {@code (postal_code, subdistrict_code)}
+     * rows, as generated by {@code scripts/data-extraction/extract_postal_code_data.py}.
+     *
+     * @throws IllegalArgumentException if a row is malformed or duplicated
+     */
+    public static ThaiPostalCodes read(Reader script) throws IOException {
+        List<String[]> rows = ThaiAddressGazetteerWriter.parseRows(script);
+        long[] pairs = new long[rows.size()];
+        for (int i = 0; i < pairs.length; i++) {
+            String[] row = rows.get(i);
+            if (row.length < 2) {
+                throw new IllegalArgumentException("Expected 2 columns: " + Arrays.toString(row));
+            }
+            int postalCode = ThaiAddressHierarchy.parse(row[0], 5);
+            int subdistrict = ThaiAddressHierarchy.parse(row[1], 6);
+            if (postalCode <= 0) {
+                throw new IllegalArgumentException("Invalid 5-digit postal code: " + row[0]);
+            }
+            if (subdistrict <= 0) {
+                throw new IllegalArgumentException("Invalid 6-digit subdistrict code: " + row[1]);
+            }
+            pairs[i] = (long) postalCode * SUBDISTRICT_CODES + subdistrict;
+        }
+        long[] sorted = pairs.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Duplicate row: (" + sorted[i] / SUBDISTRICT_CODES
+                        + ", " + sorted[i] % SUBDISTRICT_CODES + ")");
+            }
+        }
+        return new ThaiPostalCodes(sorted);
+    }
+
+    /**
+     * @return the number of (postcode, subdistrict) pairs
+     */
+    public int size() {
+        return subdistricts.length;
+    }
+
+    public boolean isEmpty() {
+        return subdistricts.length == 0;
+    }
+
+    public boolean containsPostalCode(int postalCode) {
+        return postalCode >= 0 && postalCode < POSTAL_CODES
+                && firstSubdistrict[postalCode] < firstSubdistrict[postalCode + 1];
+    }
+
+    /**
+     * @return the codes of the subdistricts with this postcode, in code order
+     */
+    public int[] subdistrictsOf(int postalCode) {
+        if (postalCode < 0 || postalCode >= POSTAL_CODES) {
+            return NONE;
+        }
+        int from = firstSubdistrict[postalCode];
+        int to = firstSubdistrict[postalCode + 1];
+        return from < to ? Arrays.copyOfRange(subdistricts, from, to) : NONE;
+    }
+
+    /**
+     * @return the codes of the subdistricts with this postcode, in code order, or none
+     *         if it is not a 5-digit code
+     */
+    public int[] subdistrictsOf(CharSequence postalCode) {
+        return subdistrictsOf(ThaiAddressHierarchy.parse(postalCode, 5));
+    }
+
+    /**
+     * @return the postcodes of this subdistrict, in ascending order
+     */
+    public int[] postalCodesOf(int subdistrict) {
+        int from = lowerBound(subdistrict);
+        int to = from;
+        while (to < reverseSubdistricts.length && reverseSubdistricts[to] == subdistrict) {
+            to++;
+        }
+        return from < to ? Arrays.copyOfRange(reversePostalCodes, from, to) : NONE;
+    }
+
+    /**
+     * @return the postcodes of this subdistrict, in ascending order, or none if it is
+     *         not a 6-digit code
+     */
+    public int[] postalCodesOf(CharSequence subdistrict) {
+        return postalCodesOf(ThaiAddressHierarchy.parse(subdistrict, 6));
+    }
+
+    /**
+     * Index of the first pair of a subdistrict, or of the pair it would be inserted before.
+     */
+    private int lowerBound(int subdistrict) {
+        int low = 0;
+        int high = reverseSubdistricts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (reverseSubdistricts[mid] < subdistrict) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public String toString() {
+        return "ThaiPostalCodes{size=" + size() + "}";
+    }
+}
@@ -0,0 +1,401 @@
+package com.wpanther.etax.core.codelist;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory view of a single code table.
+ *
+ * In {@link LoadMode#EAGER} mode, entries are loaded from the database in one query and
+ * kept in an unmodifiable map keyed by normalized code. Lookups never touch the database.
+ * {@link #refresh()} replaces the whole snapshot atomically, so readers always see a
+ * consistent table. {@link #reload(String)} and {@link #invalidate(String)} replace a
+ * single entry (copy-on-write) when only one row has changed.
+ *
+ * In {@link LoadMode#LAZY} mode, intended for large tables such as the TISI subdistricts,
+ * {@link #refresh()} only clears the cache. Entries are loaded on first lookup and kept
+ * until they are invalidated or the code list is refreshed. {@link #resolveAll(Collection)}
+ * loads all missing codes of a document in one query. Entries are loaded outside the
+ * update lock, so every refresh, reload and invalidation bumps a version, and a loaded
+ * row is only cached if no change was applied while it was being read. Otherwise a
+ * change notified during the query would be overwritten by the row read before it.
+ *
+ * Codes are normalized with the same rule the repository query applies
+ * (e.g. UPPER for currency codes, LOWER for language codes), both when entries
+ * are stored and when they are queried.
+ *
+ * Updates are serialized with a {@link ReentrantLock} rather than {@code synchronized},
+ * so a virtual thread waiting for the database does not pin its carrier thread.
+ *
+ * @param <E> the JPA entity type of the code table
+ */
+public final class CodeList<E> {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeList.class);
+
+    /**
+     * Maximum number of codes per batch query, well below the bind parameter limit
+     * of PostgreSQL.
+     */
+    static final int MAX_BATCH_SIZE = 1_000;
+
+    /**
+     * How the entries of a code list are loaded.
+     */
+    public enum LoadMode {
+        /** Load the whole table on {@link #refresh()} */
+        EAGER,
+        /** Load entries on demand and cache them */
+        LAZY
+    }
+
+    private final String name;
+    private final Class<E> entityType;
+    private final CodeListLoader<E> loader;
+    private final Function<E, String> codeExtractor;
+    private final UnaryOperator<String> normalizer;
+    private final LoadMode loadMode;
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile Map<String, E> entries = Collections.emptyMap();
+    private volatile boolean loaded;
+    /** Bumped under the update lock by every change, to detect changes racing a lazy load */
+    private volatile long version;
+
+    /**
+     * Create an eagerly loaded code list.
+     *
+     * @see #CodeList(String, Class, CodeListLoader, Function, UnaryOperator, LoadMode)
+     */
+    public CodeList(String name,
+                    Class<E> entityType,
+                    CodeListLoader<E> loader,
+                    Function<E, String> codeExtractor,
+                    UnaryOperator<String> normalizer) {
+        this(name, entityType, loader, codeExtractor, normalizer, LoadMode.EAGER);
+    }
+
+    /**
+     * @param name          table name, used for logging and diagnostics (e.g. "iso_currency_code")
+     * @param entityType    the entity class
+     * @param loader        loads rows of the table (typically {@link CodeListLoader#of} the repository)
+     * @param codeExtractor extracts the code from an entity
+     * @param normalizer    normalizes codes before storing and looking up
+     * @param loadMode      whether the whole table is loaded up front or entries on demand
+     */
+    public CodeList(String name,
+                    Class<E> entityType,
+                    CodeListLoader<E> loader,
+                    Function<E, String> codeExtractor,
+                    UnaryOperator<String> normalizer,
+                    LoadMode loadMode) {
+        this.name = name;
+        this.entityType = entityType;
+        this.loader = loader;
+        this.codeExtractor = codeExtractor;
+        this.normalizer = normalizer;
+        this.loadMode = loadMode;
+    }
+
+    /**
+     * Reload the whole table from the database and atomically replace the snapshot.
+     * For lazy code lists, only the cached entries are discarded.
+     */
+    public void refresh() {
+        updateLock.lock();
+        try {
+            if (loadMode == LoadMode.LAZY) {
+                version++;
+                entries = new ConcurrentHashMap<>();
+                loaded = true;
+                log.debug("Cleared lazy code list {}", name);
+                return;
+            }
+            Collection<E> rows = loader.loadAll();
+            Map<String, E> snapshot = new LinkedHashMap<>(rows.size() * 4 / 3 + 1);
+            for (E row : rows) {
+                String key = normalize(codeExtractor.apply(row));
+                if (key != null) {
+                    snapshot.put(key, row);
+                }
+            }
+            entries = Collections.unmodifiableMap(snapshot);
+            loaded = true;
+            log.debug("Loaded {} entries into code list {}", snapshot.size(), name);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Reload a single entry from the database.
+     * <p>
+     * The entry is replaced if the row exists and removed otherwise. Does nothing
+     * if the code list has not been loaded yet, since the first {@link #refresh()}
+     * will pick up the change. Lazy code lists only reload entries they have cached,
+     * and discard any load of the code that is still in progress.
+     *
+     * @param code the stored code of the changed row
+     */
+    public void reload(String code) {
+        updateLock.lock();
+        try {
+            String key = normalize(code);
+            if (key == null || !loaded) {
+                return;
+            }
+            if (loadMode == LoadMode.LAZY) {
+                version++;
+                if (entries.containsKey(key)) {
+                    Optional<E> entry = loader.load(code.trim());
+                    if (entry.isPresent()) {
+                        entries.put(key, entry.get());
+                    } else {
+                        entries.remove(key);
+                    }
+                    log.debug("Reloaded entry {} of code list {}", key, name);
+                }
+                return;
+            }
+            Optional<E> entry = loader.load(code.trim());
+            Map<String, E> snapshot = new LinkedHashMap<>(entries);
+            if (entry.isPresent()) {
+                snapshot.put(key, entry.get());
+            } else {
+                snapshot.remove(key);
+            }
+            entries = Collections.unmodifiableMap(snapshot);
+            log.debug("Reloaded entry {} of code list {}", key, name);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Remove a single entry without querying the database (e.g. after a DELETE).
+     * Lazy code lists also discard any load of the code that is still in progress.
+     *
+     * @param code the stored code of the deleted row
+     */
+    public void invalidate(String code) {
+        updateLock.lock();
+        try {
+            String key = normalize(code);
+            if (key == null) {
+                return;
+            }
+            if (loadMode == LoadMode.LAZY) {
+                version++;
+            }
+            if (!entries.containsKey(key)) {
+                return;
+            }
+            if (loadMode == LoadMode.LAZY) {
+                entries.remove(key);
+            } else {
+                Map<String, E> snapshot = new LinkedHashMap<>(entries);
+                snapshot.remove(key);
+                entries = Collections.unmodifiableMap(snapshot);
+            }
+            log.debug("Invalidated entry {} of code list {}", key, name);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Find an entry by code.
+     * <p>
+     * Lazy code lists load a missing entry from the database and cache it.
+     * Unknown codes are not cached, so they are queried again on the next lookup.
+     *
+     * @param code the code (normalized before lookup)
+     * @return the entity, or empty if the code is unknown
+     */
+    public Optional<E> find(String code) {
+        String key = normalize(code);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Map<String, E> current = entries;
+        E entry = current.get(key);
+        if (entry == null && loadMode == LoadMode.LAZY && loaded) {
+            long loadVersion = version;
+            entry = loader.load(key).orElse(null);
+            if (entry != null) {
+                cacheLoaded(current, Map.of(key, entry), loadVersion);
+            }
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Check whether a code exists in this code list.
+     */
+    public boolean contains(String code) {
+        if (loadMode == LoadMode.LAZY) {
+            return find(code).isPresent();
+        }
+        String key = normalize(code);
+        return key != null && entries.containsKey(key);
+    }
+
+    /**
+     * Resolve several codes at once.
+     * <p>
+     * Lazy code lists load all codes that are not cached yet with one
+     * {@code IN} query (split into batches of {@value #MAX_BATCH_SIZE}) instead of
+     * one query per code. Eager code lists answer from the snapshot.
+     *
+     * @param codes the codes to resolve (normalized before lookup; null and blank codes are ignored)
+     * @return the entities found, keyed by normalized code, in the order of the given codes
+     */
+    public Map<String, E> resolveAll(Collection<String> codes) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String code : codes) {
+            String key = normalize(code);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+
+        Map<String, E> current = entries;
+        Map<String, E> fetched = Collections.emptyMap();
+        if (loadMode == LoadMode.LAZY && loaded) {
+            List<String> missing = new ArrayList<>();
+            for (String key : keys) {
+                if (!current.containsKey(key)) {
+                    missing.add(key);
+                }
+            }
+            if (!missing.isEmpty()) {
+                long loadVersion = version;
+                fetched = new LinkedHashMap<>();
+                for (int from = 0; from < missing.size(); from += MAX_BATCH_SIZE) {
+                    List<String> batch = missing.subList(from, Math.min(from + MAX_BATCH_SIZE, missing.size()));
+                    for (E row : loader.loadAll(batch)) {
+                        String key = normalize(codeExtractor.apply(row));
+                        if (key != null) {
+                            fetched.putIfAbsent(key, row);
+                        }
+                    }
+                }
+                cacheLoaded(current, fetched, loadVersion);
+                log.debug("Resolved {} uncached code(s) of code list {} in batch", missing.size(), name);
+            }
+        }
+
+        Map<String, E> resolved = new LinkedHashMap<>(keys.size() * 4 / 3 + 1);
+        for (String key : keys) {
+            E entry = current.get(key);
+            if (entry == null) {
+                entry = fetched.get(key);
+            }
+            if (entry != null) {
+                resolved.put(key, entry);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Cache rows of a lazy code list read outside the update lock, unless the cache
+     * was replaced or an entry was changed since {@code loadVersion} was read. The rows
+     * are still returned to the caller, whose lookup started before the change.
+     */
+    private void cacheLoaded(Map<String, E> current, Map<String, E> rows, long loadVersion) {
+        updateLock.lock();
+        try {
+            if (version != loadVersion || current != entries) {
+                log.debug("Not caching {} entries of code list {} changed while loading", rows.size(), name);
+                return;
+            }
+            for (Map.Entry<String, E> row : rows.entrySet()) {
+                current.putIfAbsent(row.getKey(), row.getValue());
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Check whether the code list has been loaded (or, if lazy, initialized) at least once.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Get the load mode of this code list.
+     */
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    /**
+     * Get all entries of the current snapshot (unmodifiable).
+     * For lazy code lists, these are the entries cached so far.
+     */
+    public Collection<E> values() {
+        if (loadMode == LoadMode.LAZY) {
+            return Collections.unmodifiableCollection(new ArrayList<>(entries.values()));
+        }
+        return entries.values();
+    }
+
+    /**
+     * Get the number of entries in the current snapshot.
+     * For lazy code lists, this is the number of entries cached so far.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the table name of this code list.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the entity class of this code list.
+     */
+    public Class<E> getEntityType() {
+        return entityType;
+    }
+
+    private String normalize(String code) {
+        if (code == null) {
+            return null;
+        }
+        String trimmed = code.trim();
+        return trimmed.isEmpty() ? null : normalizer.apply(trimmed);
+    }
+
+    @Override
+    public String toString() {
+        return "CodeList{" +
+                "name='" + name + '\'' +
+                ", entityType=" + entityType.getSimpleName() +
+                ", loadMode=" + loadMode +
+                ", size=" + entries.size() +
+                ", loaded=" + loaded +
+                '}';
+    }
+}
@@ -0,0 +1,277 @@
+package com.wpanther.etax.core.codelist;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Applies committed code table changes to a {@link CodeListRegistry} using
+ * PostgreSQL LISTEN/NOTIFY.
+ *
+ * The triggers in {@code db/code_list_notify.sql} publish one notification per
+ * changed row on the {@value #CHANNEL} channel. This listener holds one dedicated
+ * connection, receives the notifications and updates only the affected entries:
+ * <ul>
+ *   <li>INSERT / UPDATE - the entry is reloaded by primary key</li>
+ *   <li>DELETE - the entry is removed without querying the database</li>
+ *   <li>TRUNCATE, or more than {@code bulkRefreshThreshold} changes to one table
+ *       in a single batch (e.g. a data load) - the whole code list is reloaded</li>
+ * </ul>
+ * Notifications are only delivered after commit, so rolled-back changes never
+ * reach the cache. Changes committed while no LISTEN is active are never
+ * delivered, so every time the listener (re)connects it reloads the code lists
+ * that are already loaded, after issuing LISTEN. This covers changes made
+ * between the startup load and the first LISTEN, and while disconnected.
+ *
+ * The listener requires the PostgreSQL JDBC driver and is not registered
+ * automatically. Define it as a bean in the consuming application:
+ * <pre>
+ * &#64;Bean(initMethod = "start", destroyMethod = "stop")
+ * public CodeListChangeListener codeListChangeListener(DataSource dataSource, CodeListRegistry registry) {
+ *     return new CodeListChangeListener(dataSource, registry);
+ * }
+ * </pre>
+ */
+public class CodeListChangeListener implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeListChangeListener.class);
+
+    /**
+     * Notification channel used by {@code notify_code_list_change()}.
+     */
+    public static final String CHANNEL = "code_list_changed";
+
+    static final int DEFAULT_POLL_TIMEOUT_MILLIS = 500;
+    static final long DEFAULT_RETRY_DELAY_MILLIS = 5_000;
+    static final int DEFAULT_BULK_REFRESH_THRESHOLD = 100;
+
+    private final DataSource dataSource;
+    private final CodeListRegistry registry;
+    private final int pollTimeoutMillis;
+    private final long retryDelayMillis;
+    private final int bulkRefreshThreshold;
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread thread;
+
+    public CodeListChangeListener(DataSource dataSource, CodeListRegistry registry) {
+        this(dataSource, registry, DEFAULT_POLL_TIMEOUT_MILLIS, DEFAULT_RETRY_DELAY_MILLIS,
+                DEFAULT_BULK_REFRESH_THRESHOLD);
+    }
+
+    /**
+     * @param dataSource           data source for the dedicated LISTEN connection
+     * @param registry             registry whose code lists are updated
+     * @param pollTimeoutMillis    how long to wait for notifications before checking for shutdown
+     * @param retryDelayMillis     delay before reconnecting after a connection failure
+     * @param bulkRefreshThreshold number of changes to one table in a batch above which the
+     *                             whole code list is reloaded instead of single entries
+     */
+    public CodeListChangeListener(DataSource dataSource,
+                                  CodeListRegistry registry,
+                                  int pollTimeoutMillis,
+                                  long retryDelayMillis,
+                                  int bulkRefreshThreshold) {
+        this.dataSource = dataSource;
+        this.registry = registry;
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.retryDelayMillis = retryDelayMillis;
+        this.bulkRefreshThreshold = bulkRefreshThreshold;
+    }
+
+    /**
+     * Start listening on a background daemon thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "code-list-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Started code list change listener on channel {}", CHANNEL);
+    }
+
+    /**
+     * Stop listening and release the connection.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(pollTimeoutMillis + 1_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        log.info("Stopped code list change listener");
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Check whether the listener has been started and not stopped.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Check whether the listener currently holds a connection with an active LISTEN.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listening = true;
+
+                // Changes committed before LISTEN took effect were not notified
+                refreshLoaded();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null && notifications.length > 0) {
+                        List<String> payloads = new ArrayList<>(notifications.length);
+                        for (PGNotification notification : notifications) {
+                            payloads.add(notification.getParameter());
+                        }
+                        handleNotifications(payloads);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                listening = false;
+                if (!running) {
+                    break;
+                }
+                log.warn("Code list change listener failed, retrying in {} ms: {}", retryDelayMillis, e.getMessage());
+                sleepBeforeRetry();
+            }
+        }
+        listening = false;
+    }
+
+    private void refreshLoaded() {
+        for (CodeList<?> codeList : registry.getCodeLists()) {
+            if (codeList.isLoaded()) {
+                refresh(codeList);
+            }
+        }
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(retryDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Apply a batch of notification payloads ({@code table|operation|code}) to the registry.
+     * Changes are grouped per table, and repeated changes to the same code are applied once.
+     */
+    void handleNotifications(List<String> payloads) {
+        Map<String, Map<String, String>> changesByTable = new LinkedHashMap<>();
+        Set<String> truncatedTables = new LinkedHashSet<>();
+
+        for (String payload : payloads) {
+            String[] parts = payload == null ? new String[0] : payload.split("\\|", 3);
+            if (parts.length != 3 || parts[0].isEmpty() || parts[1].isEmpty()) {
+                log.warn("Ignoring malformed code list notification: {}", payload);
+                continue;
+            }
+            String table = parts[0];
+            String operation = parts[1];
+            if ("TRUNCATE".equals(operation)) {
+                truncatedTables.add(table);
+            } else if (!parts[2].isEmpty()) {
+                changesByTable.computeIfAbsent(table, t -> new LinkedHashMap<>()).put(parts[2], operation);
+            }
+        }
+
+        for (String table : truncatedTables) {
+            changesByTable.remove(table);
+            codeList(table).ifPresent(this::refresh);
+        }
+
+        for (Map.Entry<String, Map<String, String>> tableChanges : changesByTable.entrySet()) {
+            Optional<CodeList<?>> codeList = codeList(tableChanges.getKey());
+            if (codeList.isEmpty()) {
+                continue;
+            }
+            Map<String, String> changes = tableChanges.getValue();
+            if (changes.size() > bulkRefreshThreshold) {
+                refresh(codeList.get());
+            } else {
+                apply(codeList.get(), changes);
+            }
+        }
+    }
+
+    private Optional<CodeList<?>> codeList(String table) {
+        Optional<CodeList<?>> codeList = registry.getByTableName(table);
+        if (codeList.isEmpty()) {
+            log.debug("Ignoring notification for unknown code table {}", table);
+            return Optional.empty();
+        }
+        if (!codeList.get().isLoaded()) {
+            // The first load will read the current table contents
+            return Optional.empty();
+        }
+        return codeList;
+    }
+
+    private void refresh(CodeList<?> codeList) {
+        try {
+            codeList.refresh();
+            log.info("Reloaded code list {} after change notification", codeList.getName());
+        } catch (RuntimeException e) {
+            log.error("Failed to reload code list {}", codeList.getName(), e);
+        }
+    }
+
+    private void apply(CodeList<?> codeList, Map<String, String> changes) {
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            try {
+                if ("DELETE".equals(change.getValue())) {
+                    codeList.invalidate(change.getKey());
+                } else {
+                    codeList.reload(change.getKey());
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to apply {} of code {} to code list {}",
+                        change.getValue(), change.getKey(), codeList.getName(), e);
+            }
+        }
+        log.debug("Applied {} change(s) to code list {}", changes.size(), codeList.getName());
+    }
+}
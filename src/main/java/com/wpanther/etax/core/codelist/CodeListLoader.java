@@ -0,0 +1,55 @@
+package com.wpanther.etax.core.codelist;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads the rows of a code table for a {@link CodeList}.
+ *
+ * @param <E> the JPA entity type of the code table
+ */
+public interface CodeListLoader<E> {
+
+    /**
+     * Load all rows of the table.
+     */
+    List<E> loadAll();
+
+    /**
+     * Load a single row by its stored code.
+     */
+    Optional<E> load(String code);
+
+    /**
+     * Load the rows for the given stored codes in one query. Unknown codes are skipped.
+     */
+    List<E> loadAll(Collection<String> codes);
+
+    /**
+     * Create a loader backed by a repository ({@code findAll}, {@code findById}, {@code findAllById}).
+     *
+     * @param repository the code table repository (code is the primary key)
+     * @return the loader
+     */
+    static <E> CodeListLoader<E> of(JpaRepository<E, String> repository) {
+        return new CodeListLoader<>() {
+            @Override
+            public List<E> loadAll() {
+                return repository.findAll();
+            }
+
+            @Override
+            public Optional<E> load(String code) {
+                return repository.findById(code);
+            }
+
+            @Override
+            public List<E> loadAll(Collection<String> codes) {
+                return repository.findAllById(codes);
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.wpanther.etax.core.codelist;
+
+import com.wpanther.etax.core.entity.TISICityName;
+import com.wpanther.etax.core.entity.TISISubdistrict;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves all codes of a document before it is unmarshalled.
+ *
+ * The adapters resolve one code per element, so unmarshalling a document with many
+ * addresses issues one query per subdistrict and city name on the lazily loaded TISI
+ * code lists. The prefetcher makes one StAX pass over the raw XML, collects the codes
+ * of the mapped elements and resolves them with one batch query per code table via
+ * {@link CodeListRegistry#resolveAll(Class, Collection)}. The adapters then find
+ * every code in the cache.
+ *
+ * Elements are matched by local name, so the same mapping works for all document types.
+ * By default only the lazily loaded tables are mapped, since eager code lists are
+ * already fully in memory:
+ * <ul>
+ *   <li>{@code CitySubDivisionName} - {@link TISISubdistrict}</li>
+ *   <li>{@code CityName} - {@link TISICityName}</li>
+ * </ul>
+ *
+ * Usage:
+ * <pre>
+ * prefetcher.prefetch(xml);
+ * TaxInvoice_CrossIndustryInvoiceType invoice = unmarshal(xml);
+ * </pre>
+ */
+@Component
+public class CodeListPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeListPrefetcher.class);
+
+    /**
+     * Default element mapping: local element name to code table entity class.
+     */
+    public static final Map<String, Class<?>> DEFAULT_ELEMENT_MAPPING;
+
+    static {
+        Map<String, Class<?>> mapping = new LinkedHashMap<>();
+        mapping.put("CitySubDivisionName", TISISubdistrict.class);
+        mapping.put("CityName", TISICityName.class);
+        DEFAULT_ELEMENT_MAPPING = Collections.unmodifiableMap(mapping);
+    }
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final CodeListRegistry registry;
+    private final Map<String, Class<?>> elementMapping;
+
+    @Autowired
+    public CodeListPrefetcher(CodeListRegistry registry) {
+        this(registry, DEFAULT_ELEMENT_MAPPING);
+    }
+
+    /**
+     * @param registry       the registry whose code lists are warmed
+     * @param elementMapping local element name to code table entity class
+     */
+    public CodeListPrefetcher(CodeListRegistry registry, Map<String, Class<?>> elementMapping) {
+        this.registry = registry;
+        this.elementMapping = new LinkedHashMap<>(elementMapping);
+    }
+
+    /**
+     * Collect the codes of all mapped elements in a document.
+     *
+     * @param xml the XML document
+     * @return the distinct codes per code table entity class, in document order
+     * @throws IllegalArgumentException if the document is not well-formed XML
+     */
+    public Map<Class<?>, Set<String>> collectCodes(InputStream xml) {
+        Map<Class<?>, Set<String>> codes = new LinkedHashMap<>();
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(xml);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                Class<?> entityType = elementMapping.get(reader.getLocalName());
+                if (entityType == null) {
+                    continue;
+                }
+                String code = reader.getElementText().trim();
+                if (!code.isEmpty()) {
+                    codes.computeIfAbsent(entityType, type -> new LinkedHashSet<>()).add(code);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Failed to read XML for code list prefetch: " + e.getMessage(), e);
+        } finally {
+            close(reader);
+        }
+        return codes;
+    }
+
+    /**
+     * Resolve all mapped codes of a document into the registry caches.
+     *
+     * @param xml the XML document
+     * @return the number of codes found in the code lists
+     * @throws IllegalArgumentException if the document is not well-formed XML
+     */
+    public int prefetch(InputStream xml) {
+        return prefetch(collectCodes(xml));
+    }
+
+    /**
+     * Resolve all mapped codes of a document into the registry caches.
+     *
+     * @param xml the XML document
+     * @return the number of codes found in the code lists
+     * @throws IllegalArgumentException if the document is not well-formed XML
+     */
+    public int prefetch(String xml) {
+        return prefetch(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Resolve collected codes with one batch query per code table.
+     *
+     * @param codes codes per code table entity class (e.g. from {@link #collectCodes(InputStream)})
+     * @return the number of codes found in the code lists
+     */
+    public int prefetch(Map<Class<?>, ? extends Collection<String>> codes) {
+        int resolved = 0;
+        for (Map.Entry<Class<?>, ? extends Collection<String>> entry : codes.entrySet()) {
+            if (!registry.isLoaded(entry.getKey())) {
+                // Adapters query the repository until the code list is loaded
+                continue;
+            }
+            resolved += registry.resolveAll(entry.getKey(), entry.getValue()).size();
+        }
+        log.debug("Prefetched {} code(s) from {} code table(s)", resolved, codes.size());
+        return resolved;
+    }
+
+    /**
+     * Get the element mapping used by this prefetcher.
+     */
+    public Map<String, Class<?>> getElementMapping() {
+        return Collections.unmodifiableMap(elementMapping);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            log.debug("Failed to close XML reader: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.wpanther.etax.core.codelist;
+
+import com.wpanther.etax.core.codelist.CodeList.LoadMode;
+import com.wpanther.etax.core.entity.*;
+import com.wpanther.etax.core.repository.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Registry of in-memory code lists for all 20 database-backed code tables.
+ *
+ * Each code table is loaded once at startup into an immutable {@link CodeList}.
+ * The large TISI subdistrict and city name tables are loaded lazily: entries are
+ * cached on first lookup, and {@link #resolveAll(Class, Collection)} (used by
+ * {@link CodeListPrefetcher}) loads all codes of a document in one query.
+ * The JAXB adapters in {@code com.wpanther.etax.core.adapter.common} resolve codes
+ * from this registry when it is available, which takes the database off the
+ * marshalling/unmarshalling hot path. Without a registry the adapters fall back
+ * to per-lookup repository queries.
+ *
+ * Call {@link #refresh(Class)} or {@link #refreshAll()} after updating code tables
+ * via SQL, or run a {@link CodeListChangeListener} to apply database changes as
+ * they are committed.
+ *
+ * Usage:
+ * <pre>
+ * registry.find(ISOCurrencyCode.class, "THB").ifPresent(...);
+ * registry.refresh(TISISubdistrict.class);
+ * </pre>
+ */
+@Component
+public class CodeListRegistry implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeListRegistry.class);
+
+    private static final UnaryOperator<String> EXACT = UnaryOperator.identity();
+    private static final UnaryOperator<String> UPPER = code -> code.toUpperCase(Locale.ROOT);
+    private static final UnaryOperator<String> LOWER = code -> code.toLowerCase(Locale.ROOT);
+
+    private final Map<Class<?>, CodeList<?>> codeLists = new LinkedHashMap<>();
+    private final Map<String, CodeList<?>> codeListsByName = new LinkedHashMap<>();
+
+    public CodeListRegistry(AddressTypeRepository addressTypeRepository,
+                            AllowanceChargeIdentificationCodeRepository allowanceChargeIdentificationCodeRepository,
+                            AllowanceChargeReasonCodeRepository allowanceChargeReasonCodeRepository,
+                            DeliveryTermsCodeRepository deliveryTermsCodeRepository,
+                            DutyTaxFeeTypeCodeRepository dutyTaxFeeTypeCodeRepository,
+                            FreightCostCodeRepository freightCostCodeRepository,
+                            ISOCountryCodeRepository isoCountryCodeRepository,
+                            ISOCurrencyCodeRepository isoCurrencyCodeRepository,
+                            ISOLanguageCodeRepository isoLanguageCodeRepository,
+                            MessageFunctionCodeRepository messageFunctionCodeRepository,
+                            PaymentTermsDescriptionIdentifierRepository paymentTermsDescriptionIdentifierRepository,
+                            PaymentTermsTypeCodeRepository paymentTermsTypeCodeRepository,
+                            TISICityNameRepository tisiCityNameRepository,
+                            TISISubdistrictRepository tisiSubdistrictRepository,
+                            ThaiCategoryCodeRepository thaiCategoryCodeRepository,
+                            ThaiDocumentNameCodeRepository thaiDocumentNameCodeRepository,
+                            ThaiMessageFunctionCodeRepository thaiMessageFunctionCodeRepository,
+                            ThaiProvinceCodeRepository thaiProvinceCodeRepository,
+                            UNECEDocumentNameCodeInvoiceRepository uneceDocumentNameCodeInvoiceRepository,
+                            UNECEReferenceTypeCodeRepository uneceReferenceTypeCodeRepository) {
+        // Normalizers mirror the code comparison used by each repository's findByCode query
+        register("address_type", AddressType.class,
+                addressTypeRepository,
+                AddressType::getCode, EXACT);
+        register("allowance_charge_identification_code", AllowanceChargeIdentificationCode.class,
+                allowanceChargeIdentificationCodeRepository,
+                AllowanceChargeIdentificationCode::getCode, UPPER);
+        register("allowance_charge_reason_code", AllowanceChargeReasonCode.class,
+                allowanceChargeReasonCodeRepository,
+                AllowanceChargeReasonCode::getCode, UPPER);
+        register("delivery_terms_code", DeliveryTermsCode.class,
+                deliveryTermsCodeRepository,
+                DeliveryTermsCode::getCode, UPPER);
+        register("duty_tax_fee_type_code", DutyTaxFeeTypeCode.class,
+                dutyTaxFeeTypeCodeRepository,
+                DutyTaxFeeTypeCode::getCode, UPPER);
+        register("freight_cost_code", FreightCostCode.class,
+                freightCostCodeRepository,
+                FreightCostCode::getCode, EXACT);
+        register("iso_country_code", ISOCountryCode.class,
+                isoCountryCodeRepository,
+                ISOCountryCode::getCode, UPPER);
+        register("iso_currency_code", ISOCurrencyCode.class,
+                isoCurrencyCodeRepository,
+                ISOCurrencyCode::getCode, UPPER);
+        register("iso_language_code", ISOLanguageCode.class,
+                isoLanguageCodeRepository,
+                ISOLanguageCode::getCode, LOWER);
+        register("message_function_code", MessageFunctionCode.class,
+                messageFunctionCodeRepository,
+                MessageFunctionCode::getCode, EXACT);
+        register("payment_terms_description_identifier", PaymentTermsDescriptionIdentifier.class,
+                paymentTermsDescriptionIdentifierRepository,
+                PaymentTermsDescriptionIdentifier::getCode, EXACT);
+        register("payment_terms_type_code", PaymentTermsTypeCode.class,
+                paymentTermsTypeCodeRepository,
+                PaymentTermsTypeCode::getCode, UPPER);
+        register("tisi_city_name", TISICityName.class,
+                tisiCityNameRepository,
+                TISICityName::getCode, EXACT, LoadMode.LAZY);
+        register("tisi_subdistrict", TISISubdistrict.class,
+                tisiSubdistrictRepository,
+                TISISubdistrict::getCode, EXACT, LoadMode.LAZY);
+        register("thai_category_code", ThaiCategoryCode.class,
+                thaiCategoryCodeRepository,
+                ThaiCategoryCode::getCode, UPPER);
+        register("thai_document_name_code", ThaiDocumentNameCode.class,
+                thaiDocumentNameCodeRepository,
+                ThaiDocumentNameCode::getCode, EXACT);
+        register("thai_message_function_code", ThaiMessageFunctionCode.class,
+                thaiMessageFunctionCodeRepository,
+                ThaiMessageFunctionCode::getCode, EXACT);
+        register("thai_province_code", ThaiProvinceCode.class,
+                thaiProvinceCodeRepository,
+                ThaiProvinceCode::getCode, EXACT);
+        register("document_name_code_invoice", UNECEDocumentNameCodeInvoice.class,
+                uneceDocumentNameCodeInvoiceRepository,
+                UNECEDocumentNameCodeInvoice::getCode, EXACT);
+        register("unece_reference_type_code", UNECEReferenceTypeCode.class,
+                uneceReferenceTypeCodeRepository,
+                UNECEReferenceTypeCode::getCode, UPPER);
+    }
+
+    /**
+     * Load all code lists at startup.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        refreshAll();
+    }
+
+    private <E> void register(String name, Class<E> entityType,
+                              JpaRepository<E, String> repository,
+                              Function<E, String> codeExtractor,
+                              UnaryOperator<String> normalizer) {
+        register(name, entityType, repository, codeExtractor, normalizer, LoadMode.EAGER);
+    }
+
+    private <E> void register(String name, Class<E> entityType,
+                              JpaRepository<E, String> repository,
+                              Function<E, String> codeExtractor,
+                              UnaryOperator<String> normalizer,
+                              LoadMode loadMode) {
+        CodeList<E> codeList = new CodeList<>(name, entityType, CodeListLoader.of(repository),
+                codeExtractor, normalizer, loadMode);
+        codeLists.put(entityType, codeList);
+        codeListsByName.put(name, codeList);
+    }
+
+    /**
+     * Get the code list for an entity type.
+     *
+     * @param entityType the code table entity class (e.g. {@code ISOCurrencyCode.class})
+     * @return the code list
+     * @throws IllegalArgumentException if the entity type is not a registered code table
+     */
+    @SuppressWarnings("unchecked")
+    public <E> CodeList<E> get(Class<E> entityType) {
+        CodeList<E> codeList = (CodeList<E>) codeLists.get(entityType);
+        if (codeList == null) {
+            throw new IllegalArgumentException("No code list registered for " + entityType.getName());
+        }
+        return codeList;
+    }
+
+    /**
+     * Get the code list for a table name (e.g. "tisi_subdistrict").
+     *
+     * @param tableName the code table name
+     * @return the code list, or empty if the table is not a registered code table
+     */
+    public Optional<CodeList<?>> getByTableName(String tableName) {
+        return Optional.ofNullable(codeListsByName.get(tableName));
+    }
+
+    /**
+     * Find an entry by code in the code list of the given entity type.
+     */
+    public <E> Optional<E> find(Class<E> entityType, String code) {
+        return get(entityType).find(code);
+    }
+
+    /**
+     * Check whether a code exists in the code list of the given entity type.
+     */
+    public boolean contains(Class<?> entityType, String code) {
+        return get(entityType).contains(code);
+    }
+
+    /**
+     * Resolve several codes of the given entity type at once, with at most one
+     * batch query for codes that are not cached yet.
+     *
+     * @return the entities found, keyed by normalized code
+     * @see CodeList#resolveAll(Collection)
+     */
+    public <E> Map<String, E> resolveAll(Class<E> entityType, Collection<String> codes) {
+        return get(entityType).resolveAll(codes);
+    }
+
+    /**
+     * Check whether the code list of the given entity type has been loaded.
+     * Adapters fall back to repository queries until it is.
+     */
+    public boolean isLoaded(Class<?> entityType) {
+        CodeList<?> codeList = codeLists.get(entityType);
+        return codeList != null && codeList.isLoaded();
+    }
+
+    /**
+     * Reload a single code list from the database.
+     */
+    public void refresh(Class<?> entityType) {
+        get(entityType).refresh();
+    }
+
+    /**
+     * Reload all code lists from the database.
+     */
+    public void refreshAll() {
+        long start = System.nanoTime();
+        for (CodeList<?> codeList : codeLists.values()) {
+            codeList.refresh();
+        }
+        log.info("Loaded {} code lists in {} ms", codeLists.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Get all registered code lists, in registration order.
+     */
+    public Collection<CodeList<?>> getCodeLists() {
+        return Collections.unmodifiableCollection(codeLists.values());
+    }
+}
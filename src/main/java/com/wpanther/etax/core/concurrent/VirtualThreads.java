@@ -0,0 +1,127 @@
+package com.wpanther.etax.core.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads when running on Java 21 or later.
+ *
+ * The library is compiled for Java 17, so the Java 21 API is called reflectively.
+ * On Java 17, {@link #isSupported()} returns false and the factory methods throw
+ * {@link UnsupportedOperationException}; callers should fall back to a platform pool.
+ *
+ * {@code DocumentPipeline.withVirtualThreads} and {@code BatchValidator.withVirtualThreads}
+ * use it. The shared locks of this library do not pin virtual threads to their carrier: code
+ * list updates, JAXB context creation, the streaming reader's type table and the XSD
+ * validator's transformer factory use {@link java.util.concurrent.locks.ReentrantLock}.
+ * JDBC access goes through the application's connection pool; bound the number of
+ * concurrent tasks to the pool size, since virtual threads do not limit it.
+ *
+ * Usage:
+ * <pre>
+ * ExecutorService executor = VirtualThreads.isSupported()
+ *     ? VirtualThreads.newThreadPerTaskExecutor("etax-")
+ *     : Executors.newFixedThreadPool(32);
+ * </pre>
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+    private static final Method IS_VIRTUAL;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        Method isVirtual = null;
+        // Java 19 and 20 have the methods, but only as a preview feature
+        if (Runtime.version().feature() >= 21) {
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                builderName = builder.getMethod("name", String.class, long.class);
+                builderFactory = builder.getMethod("factory");
+                newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                isVirtual = Thread.class.getMethod("isVirtual");
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+            } catch (ReflectiveOperationException e) {
+                ofVirtual = null;
+            }
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+        IS_VIRTUAL = isVirtual;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Check whether the running JVM supports virtual threads.
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create a factory for virtual threads named {@code namePrefix0}, {@code namePrefix1}, ...
+     *
+     * @param namePrefix the thread name prefix (e.g. "etax-validator-")
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        requireSupported();
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     * The executor is unbounded; limit the number of concurrent tasks at the call site.
+     *
+     * @param namePrefix the thread name prefix (e.g. "etax-validator-")
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory threadFactory = newThreadFactory(namePrefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Check whether a thread is a virtual thread. Always false on JVMs without virtual threads.
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (Boolean) IS_VIRTUAL.invoke(thread);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to check thread type", e);
+        }
+    }
+
+    private static void requireSupported() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads require Java 21 or later (running " + Runtime.version() + ")");
+        }
+    }
+}
@@ -60,6 +60,19 @@ public class TISICityName {
         this.nameTh = nameTh;
     }
 
+    /**
+     * Create a city that is not loaded through JPA (e.g. from the gazetteer), with the
+     * province and district codes derived from the code as the database generates them.
+     */
+    public static TISICityName of(String code, String nameTh) {
+        TISICityName city = new TISICityName(code, nameTh);
+        if (code != null && code.length() == 4) {
+            city.provinceCode = code.substring(0, 2);
+            city.districtCode = code.substring(2, 4);
+        }
+        return city;
+    }
+
     // Getters and Setters
     public String getCode() {
         return code;
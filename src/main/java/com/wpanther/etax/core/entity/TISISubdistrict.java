@@ -65,6 +65,20 @@ public class TISISubdistrict {
         this.nameTh = nameTh;
     }
 
+    /**
+     * Create a subdistrict that is not loaded through JPA (e.g. from the gazetteer), with the
+     * province, city and subdistrict codes derived from the code as the database generates them.
+     */
+    public static TISISubdistrict of(String code, String nameTh) {
+        TISISubdistrict subdistrict = new TISISubdistrict(code, nameTh);
+        if (code != null && code.length() == 6) {
+            subdistrict.provinceCode = code.substring(0, 2);
+            subdistrict.cityCode = code.substring(0, 4);
+            subdistrict.subdistrictCode = code.substring(4, 6);
+        }
+        return subdistrict;
+    }
+
     // Getters and Setters
     public String getCode() {
         return code;
@@ -0,0 +1,488 @@
+package com.wpanther.etax.core.jaxb;
+
+import com.wpanther.etax.core.xml.addresstype.AddressTypeType;
+import com.wpanther.etax.core.xml.allowancecharge.AllowanceChargeReasonCodeType;
+import com.wpanther.etax.core.xml.allowancechargeidentification.AllowanceChargeIdentificationCodeType;
+import com.wpanther.etax.core.xml.category.ThaiCategoryCodeTypeWrapper;
+import com.wpanther.etax.core.xml.city.TISI1099CityNameType;
+import com.wpanther.etax.core.xml.country.ISOTwoletterCountryCodeType;
+import com.wpanther.etax.core.xml.deliveryterms.DeliveryTermsCodeType;
+import com.wpanther.etax.core.xml.documentname.ThaiDocumentNameCodeInvoiceType;
+import com.wpanther.etax.core.xml.documentname.ThaiInvoiceDocumentCodeTypeWrapper;
+import com.wpanther.etax.core.xml.documentnameinvoice.DocumentNameCodeInvoiceType;
+import com.wpanther.etax.core.xml.dutytaxfee.DutyTaxFeeCodeType;
+import com.wpanther.etax.core.xml.freightcost.FreightCostCodeType;
+import com.wpanther.etax.core.xml.isocountry.ISOCountryCodeType;
+import com.wpanther.etax.core.xml.isocurrency.ISOCurrencyCodeType;
+import com.wpanther.etax.core.xml.isolanguage.ISOLanguageCodeType;
+import com.wpanther.etax.core.xml.messagefunction.MessageFunctionCodeType;
+import com.wpanther.etax.core.xml.paymentterms.PaymentTermsCodeType;
+import com.wpanther.etax.core.xml.paymenttermsdescription.PaymentTermsDescriptionType;
+import com.wpanther.etax.core.xml.province.ISOCountrySubdivisionCodeType;
+import com.wpanther.etax.core.xml.referencecode.ReferenceCodeType;
+import com.wpanther.etax.core.xml.subdistrict.TISI1099CitySubDivisionNameType;
+import com.wpanther.etax.core.xml.thaicategory.ThaiCategoryCodeType;
+import com.wpanther.etax.core.xml.thaimessagefunction.ThaiMessageFunctionCodeType;
+import com.wpanther.etax.validation.DocumentSchematron;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.JAXBIntrospector;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Node;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Shared JAXB contexts for the six ETDA document types and the custom {@code core.xml} types.
+ *
+ * Creating a {@link JAXBContext} over the generated classes of a document type takes
+ * seconds, while the context itself is thread-safe and can be shared. Marshallers and
+ * unmarshallers are cheap to create but not thread-safe. This component builds one
+ * context per generated {@code rsm} package once at startup and keeps a bounded pool of
+ * idle marshallers and unmarshallers per context:
+ * <ul>
+ *   <li>{@code marshal} / {@code unmarshal} borrow an instance, use it and return it</li>
+ *   <li>when the pool is empty, a new instance is created; when it is full, the
+ *       returned instance is discarded</li>
+ * </ul>
+ * Pools are looked up by document type ordinal without a shared lock. A context that
+ * has not been built yet is built under its own lock, so it never holds up the other
+ * document types.
+ *
+ * Unmarshalling reads through a StAX parser with DTDs and external entities disabled.
+ *
+ * Usage:
+ * <pre>
+ * TaxInvoice_CrossIndustryInvoiceType invoice =
+ *     jaxbContexts.unmarshal(DocumentSchematron.TAX_INVOICE, inputStream, TaxInvoice_CrossIndustryInvoiceType.class);
+ * String xml = jaxbContexts.marshalToString(DocumentSchematron.TAX_INVOICE,
+ *     new ObjectFactory().createTaxInvoice_CrossIndustryInvoice(invoice));
+ * </pre>
+ */
+@Component
+public class EtaxJaxbContexts implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EtaxJaxbContexts.class);
+
+    static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * Generated root package of each document type.
+     */
+    static final Map<DocumentSchematron, String> CONTEXT_PATHS;
+
+    static {
+        Map<DocumentSchematron, String> paths = new EnumMap<>(DocumentSchematron.class);
+        paths.put(DocumentSchematron.TAX_INVOICE, "com.wpanther.etax.generated.taxinvoice.rsm");
+        paths.put(DocumentSchematron.RECEIPT, "com.wpanther.etax.generated.receipt.rsm");
+        paths.put(DocumentSchematron.DEBIT_CREDIT_NOTE, "com.wpanther.etax.generated.debitcreditnote.rsm");
+        paths.put(DocumentSchematron.INVOICE, "com.wpanther.etax.generated.invoice.rsm");
+        paths.put(DocumentSchematron.CANCELLATION_NOTE, "com.wpanther.etax.generated.cancellationnote.rsm");
+        paths.put(DocumentSchematron.ABBREVIATED_TAX_INVOICE, "com.wpanther.etax.generated.abbreviatedtaxinvoice.rsm");
+        CONTEXT_PATHS = Collections.unmodifiableMap(paths);
+    }
+
+    /**
+     * Database-backed JAXB types in {@code com.wpanther.etax.core.xml}.
+     */
+    static final Class<?>[] CORE_TYPES = {
+            AddressTypeType.class,
+            AllowanceChargeIdentificationCodeType.class,
+            AllowanceChargeReasonCodeType.class,
+            DeliveryTermsCodeType.class,
+            DocumentNameCodeInvoiceType.class,
+            DutyTaxFeeCodeType.class,
+            FreightCostCodeType.class,
+            ISOCountryCodeType.class,
+            ISOCountrySubdivisionCodeType.class,
+            ISOCurrencyCodeType.class,
+            ISOLanguageCodeType.class,
+            ISOTwoletterCountryCodeType.class,
+            MessageFunctionCodeType.class,
+            PaymentTermsCodeType.class,
+            PaymentTermsDescriptionType.class,
+            ReferenceCodeType.class,
+            TISI1099CityNameType.class,
+            TISI1099CitySubDivisionNameType.class,
+            ThaiCategoryCodeType.class,
+            ThaiCategoryCodeTypeWrapper.class,
+            ThaiDocumentNameCodeInvoiceType.class,
+            ThaiInvoiceDocumentCodeTypeWrapper.class,
+            ThaiMessageFunctionCodeType.class
+    };
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    /**
+     * Operation on a borrowed marshaller or unmarshaller.
+     *
+     * @param <T> {@link Marshaller} or {@link Unmarshaller}
+     * @param <R> the result type
+     */
+    @FunctionalInterface
+    public interface JaxbCallback<T, R> {
+        R apply(T target) throws JAXBException;
+    }
+
+    private final int poolSize;
+    /** Indexed by {@link DocumentSchematron#ordinal()} */
+    private final LazyPool[] pools;
+    private final LazyPool corePool;
+
+    public EtaxJaxbContexts() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param poolSize maximum number of idle marshallers and unmarshallers kept per context
+     */
+    public EtaxJaxbContexts(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + poolSize);
+        }
+        this.poolSize = poolSize;
+        DocumentSchematron[] docTypes = DocumentSchematron.values();
+        this.pools = new LazyPool[docTypes.length];
+        for (DocumentSchematron docType : docTypes) {
+            pools[docType.ordinal()] = new LazyPool(() -> createContext(docType));
+        }
+        this.corePool = new LazyPool(EtaxJaxbContexts::createCoreContext);
+    }
+
+    /**
+     * Build all contexts at startup, so that the first document does not pay for it.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        warmUp();
+    }
+
+    /**
+     * Build the contexts of all document types and the core types.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            pool(docType);
+        }
+        corePool();
+        log.info("Created {} JAXB contexts in {} ms", CONTEXT_PATHS.size() + 1,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Get the shared context of a document type.
+     *
+     * @param docType the document type
+     * @return the context (thread-safe)
+     * @throws IllegalStateException if the context cannot be created
+     */
+    public JAXBContext getContext(DocumentSchematron docType) {
+        return pool(docType).context;
+    }
+
+    /**
+     * Get the shared context of the custom {@code core.xml} types.
+     *
+     * @return the context (thread-safe)
+     * @throws IllegalStateException if the context cannot be created
+     */
+    public JAXBContext getCoreContext() {
+        return corePool().context;
+    }
+
+    /**
+     * Run an operation with a pooled marshaller of a document type.
+     * <p>
+     * The marshaller returns to the pool afterwards, so the operation must restore any
+     * property it changes and must not keep a reference to it.
+     */
+    public <R> R withMarshaller(DocumentSchematron docType, JaxbCallback<Marshaller, R> callback) throws JAXBException {
+        return pool(docType).withMarshaller(callback);
+    }
+
+    /**
+     * Run an operation with a pooled unmarshaller of a document type.
+     * <p>
+     * The unmarshaller returns to the pool afterwards, so the operation must restore any
+     * property it changes (e.g. a schema or event handler) and must not keep a reference to it.
+     */
+    public <R> R withUnmarshaller(DocumentSchematron docType, JaxbCallback<Unmarshaller, R> callback) throws JAXBException {
+        return pool(docType).withUnmarshaller(callback);
+    }
+
+    /**
+     * Run an operation with a pooled marshaller of the core types.
+     *
+     * @see #withMarshaller(DocumentSchematron, JaxbCallback)
+     */
+    public <R> R withCoreMarshaller(JaxbCallback<Marshaller, R> callback) throws JAXBException {
+        return corePool().withMarshaller(callback);
+    }
+
+    /**
+     * Run an operation with a pooled unmarshaller of the core types.
+     *
+     * @see #withUnmarshaller(DocumentSchematron, JaxbCallback)
+     */
+    public <R> R withCoreUnmarshaller(JaxbCallback<Unmarshaller, R> callback) throws JAXBException {
+        return corePool().withUnmarshaller(callback);
+    }
+
+    /**
+     * Marshal a document as UTF-8.
+     *
+     * @param docType  the document type
+     * @param document the root element (e.g. the {@code JAXBElement} created by the ObjectFactory)
+     * @param output   the output stream (not closed)
+     */
+    public void marshal(DocumentSchematron docType, Object document, OutputStream output) throws JAXBException {
+        withMarshaller(docType, marshaller -> {
+            marshaller.marshal(document, output);
+            return null;
+        });
+    }
+
+    /**
+     * Marshal a document to a string.
+     *
+     * @param docType  the document type
+     * @param document the root element (e.g. the {@code JAXBElement} created by the ObjectFactory)
+     * @return the XML
+     */
+    public String marshalToString(DocumentSchematron docType, Object document) throws JAXBException {
+        StringWriter writer = new StringWriter();
+        withMarshaller(docType, marshaller -> {
+            marshaller.marshal(document, writer);
+            return null;
+        });
+        return writer.toString();
+    }
+
+    /**
+     * Unmarshal a document.
+     *
+     * @param docType the document type
+     * @param input   the XML input (not closed)
+     * @return the root value, unwrapped from its {@code JAXBElement}
+     */
+    public Object unmarshal(DocumentSchematron docType, InputStream input) throws JAXBException {
+        XMLStreamReader reader = createReader(input);
+        try {
+            return JAXBIntrospector.getValue(withUnmarshaller(docType, unmarshaller -> unmarshaller.unmarshal(reader)));
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Unmarshal a document.
+     *
+     * @param docType the document type
+     * @param xml     the XML
+     * @return the root value, unwrapped from its {@code JAXBElement}
+     */
+    public Object unmarshal(DocumentSchematron docType, String xml) throws JAXBException {
+        XMLStreamReader reader = createReader(new StringReader(xml));
+        try {
+            return JAXBIntrospector.getValue(withUnmarshaller(docType, unmarshaller -> unmarshaller.unmarshal(reader)));
+        } finally {
+            close(reader);
+        }
+    }
+
+    /**
+     * Unmarshal an already parsed document (e.g. one shared with XSD and Schematron validation).
+     *
+     * @param docType the document type
+     * @param node    the DOM document or root element
+     * @return the root value, unwrapped from its {@code JAXBElement}
+     */
+    public Object unmarshal(DocumentSchematron docType, Node node) throws JAXBException {
+        return JAXBIntrospector.getValue(withUnmarshaller(docType, unmarshaller -> unmarshaller.unmarshal(node)));
+    }
+
+    /**
+     * Unmarshal a document and check its root type.
+     *
+     * @param docType  the document type
+     * @param input    the XML input (not closed)
+     * @param rootType the expected root value type (e.g. {@code TaxInvoice_CrossIndustryInvoiceType.class})
+     * @return the root value
+     * @throws JAXBException if the document cannot be read or its root is not of the expected type
+     */
+    public <T> T unmarshal(DocumentSchematron docType, InputStream input, Class<T> rootType) throws JAXBException {
+        Object value = unmarshal(docType, input);
+        if (!rootType.isInstance(value)) {
+            throw new JAXBException("Expected root of type " + rootType.getName() + " but was "
+                    + (value == null ? "null" : value.getClass().getName()));
+        }
+        return rootType.cast(value);
+    }
+
+    /**
+     * Get the maximum number of idle marshallers and unmarshallers kept per context.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    private Pool pool(DocumentSchematron docType) {
+        return pools[docType.ordinal()].get();
+    }
+
+    private Pool corePool() {
+        return corePool.get();
+    }
+
+    private static JAXBContext createCoreContext() {
+        try {
+            return JAXBContext.newInstance(CORE_TYPES);
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Failed to create JAXB context for core types", e);
+        }
+    }
+
+    /**
+     * Create the context of a document type.
+     * <p>
+     * This method is protected to allow testing with subclasses that simulate failures.
+     *
+     * @throws IllegalStateException if the context cannot be created
+     */
+    protected JAXBContext createContext(DocumentSchematron docType) {
+        String contextPath = CONTEXT_PATHS.get(docType);
+        long start = System.nanoTime();
+        try {
+            JAXBContext context = JAXBContext.newInstance(contextPath, EtaxJaxbContexts.class.getClassLoader());
+            log.debug("Created JAXB context for {} in {} ms", docType, (System.nanoTime() - start) / 1_000_000);
+            return context;
+        } catch (JAXBException e) {
+            throw new IllegalStateException("Failed to create JAXB context for " + docType + " (" + contextPath + ")", e);
+        }
+    }
+
+    private static XMLStreamReader createReader(InputStream input) throws JAXBException {
+        try {
+            return INPUT_FACTORY.createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to read XML: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLStreamReader createReader(StringReader input) throws JAXBException {
+        try {
+            return INPUT_FACTORY.createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to read XML: " + e.getMessage(), e);
+        }
+    }
+
+    private static void close(XMLStreamReader reader) {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            log.debug("Failed to close XML reader: {}", e.getMessage());
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    /**
+     * A pool whose context is built on first use. The lock is only taken until the
+     * context exists, and is a {@link ReentrantLock} so a virtual thread waiting for
+     * the build does not pin its carrier thread.
+     */
+    private final class LazyPool {
+
+        private final Supplier<JAXBContext> contextFactory;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Pool pool;
+
+        LazyPool(Supplier<JAXBContext> contextFactory) {
+            this.contextFactory = contextFactory;
+        }
+
+        Pool get() {
+            Pool current = pool;
+            if (current != null) {
+                return current;
+            }
+            lock.lock();
+            try {
+                if (pool == null) {
+                    pool = new Pool(contextFactory.get(), poolSize);
+                }
+                return pool;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A context with its idle marshallers and unmarshallers.
+     */
+    private static final class Pool {
+
+        private final JAXBContext context;
+        private final BlockingQueue<Marshaller> marshallers;
+        private final BlockingQueue<Unmarshaller> unmarshallers;
+
+        Pool(JAXBContext context, int size) {
+            this.context = context;
+            this.marshallers = new ArrayBlockingQueue<>(size);
+            this.unmarshallers = new ArrayBlockingQueue<>(size);
+        }
+
+        <R> R withMarshaller(JaxbCallback<Marshaller, R> callback) throws JAXBException {
+            Marshaller marshaller = marshallers.poll();
+            if (marshaller == null) {
+                marshaller = context.createMarshaller();
+                marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+            }
+            try {
+                return callback.apply(marshaller);
+            } finally {
+                marshallers.offer(marshaller);
+            }
+        }
+
+        <R> R withUnmarshaller(JaxbCallback<Unmarshaller, R> callback) throws JAXBException {
+            Unmarshaller unmarshaller = unmarshallers.poll();
+            if (unmarshaller == null) {
+                unmarshaller = context.createUnmarshaller();
+            }
+            try {
+                return callback.apply(unmarshaller);
+            } finally {
+                unmarshallers.offer(unmarshaller);
+            }
+        }
+    }
+}
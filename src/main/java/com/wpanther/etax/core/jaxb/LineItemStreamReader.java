@@ -0,0 +1,184 @@
+package com.wpanther.etax.core.jaxb;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+import jakarta.xml.bind.JAXBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Reads ETDA documents with a bounded memory footprint regardless of the number of line items.
+ *
+ * Unmarshalling a whole {@code TaxInvoice_CrossIndustryInvoiceType} keeps every
+ * {@code IncludedSupplyChainTradeLineItem} in memory. This reader walks the document with
+ * StAX and uses JAXB partial unmarshalling instead:
+ * <ul>
+ *   <li>the header aggregates ({@code ExchangedDocumentContext}, {@code ExchangedDocument},
+ *       {@code ApplicableHeaderTradeAgreement}, {@code ApplicableHeaderTradeDelivery},
+ *       {@code ApplicableHeaderTradeSettlement}) are unmarshalled and kept</li>
+ *   <li>line items are unmarshalled one at a time and handed to the caller</li>
+ *   <li>all other elements (e.g. {@code ds:Signature}) are skipped</li>
+ * </ul>
+ * In the ETDA schemas all header aggregates precede the line items, so the header is
+ * complete when the first line item is returned.
+ *
+ * Usage:
+ * <pre>
+ * try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, inputStream)) {
+ *     ExchangedDocumentType header = document.getHeaderElement(StreamingDocument.EXCHANGED_DOCUMENT, ExchangedDocumentType.class);
+ *     document.lineItems(SupplyChainTradeLineItemType.class).forEach(this::process);
+ * }
+ * </pre>
+ */
+@Component
+public class LineItemStreamReader {
+
+    private static final Logger log = LoggerFactory.getLogger(LineItemStreamReader.class);
+
+    /**
+     * XSD type of each streamed element, as named in the generated {@code ram} ObjectFactory.
+     */
+    static final Map<String, String> ELEMENT_TYPES;
+
+    static {
+        Map<String, String> types = new LinkedHashMap<>();
+        types.put(StreamingDocument.EXCHANGED_DOCUMENT_CONTEXT, "ExchangedDocumentContextType");
+        types.put(StreamingDocument.EXCHANGED_DOCUMENT, "ExchangedDocumentType");
+        types.put(StreamingDocument.HEADER_TRADE_AGREEMENT, "HeaderTradeAgreementType");
+        types.put(StreamingDocument.HEADER_TRADE_DELIVERY, "HeaderTradeDeliveryType");
+        types.put(StreamingDocument.HEADER_TRADE_SETTLEMENT, "HeaderTradeSettlementType");
+        types.put(StreamingDocument.LINE_ITEM, "SupplyChainTradeLineItemType");
+        ELEMENT_TYPES = Collections.unmodifiableMap(types);
+    }
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final EtaxJaxbContexts contexts;
+    private final Map<DocumentSchematron, Map<String, Class<?>>> declaredTypes = new ConcurrentHashMap<>();
+    // A ReentrantLock rather than a monitor, so virtual threads waiting here do not pin their carrier
+    private final ReentrantLock declaredTypesLock = new ReentrantLock();
+
+    public LineItemStreamReader(EtaxJaxbContexts contexts) {
+        this.contexts = contexts;
+    }
+
+    /**
+     * Open a document and read its header up to the first line item.
+     * <p>
+     * The returned document must be closed. Closing it does not close the input stream.
+     *
+     * @param docType the document type
+     * @param input   the XML input
+     * @return the document, positioned at the first line item
+     * @throws JAXBException if the document cannot be read
+     */
+    public StreamingDocument open(DocumentSchematron docType, InputStream input) throws JAXBException {
+        XMLStreamReader reader;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to read XML: " + e.getMessage(), e);
+        }
+        StreamingDocument document = new StreamingDocument(docType, contexts, reader, getDeclaredTypes(docType));
+        try {
+            document.start();
+        } catch (JAXBException | RuntimeException e) {
+            document.close();
+            throw e;
+        }
+        return document;
+    }
+
+    /**
+     * Read a document and pass each line item to a handler.
+     *
+     * @param docType      the document type
+     * @param input        the XML input (not closed)
+     * @param lineItemType the generated line item type (e.g. {@code SupplyChainTradeLineItemType.class})
+     * @param handler      called once per line item, in document order
+     * @return the fully read document, with its header and line item count
+     * @throws JAXBException if the document cannot be read
+     */
+    public <T> StreamingDocument read(DocumentSchematron docType,
+                                      InputStream input,
+                                      Class<T> lineItemType,
+                                      Consumer<? super T> handler) throws JAXBException {
+        try (StreamingDocument document = open(docType, input)) {
+            while (document.hasNextLineItem()) {
+                handler.accept(lineItemType.cast(document.nextLineItem()));
+            }
+            return document;
+        }
+    }
+
+    /**
+     * Get the classes to unmarshal each streamed element into.
+     * <p>
+     * The generated {@code ram} packages may contain interfaces with separate
+     * implementation classes, so the classes are taken from the instances created
+     * by the package's ObjectFactory.
+     */
+    Map<String, Class<?>> getDeclaredTypes(DocumentSchematron docType) {
+        Map<String, Class<?>> types = declaredTypes.get(docType);
+        if (types != null) {
+            return types;
+        }
+        declaredTypesLock.lock();
+        try {
+            types = declaredTypes.get(docType);
+            if (types == null) {
+                types = resolveDeclaredTypes(docType);
+                declaredTypes.put(docType, types);
+            }
+            return types;
+        } finally {
+            declaredTypesLock.unlock();
+        }
+    }
+
+    private static Map<String, Class<?>> resolveDeclaredTypes(DocumentSchematron docType) {
+        String ramPackage = EtaxJaxbContexts.CONTEXT_PATHS.get(docType).replaceFirst("\\.rsm$", ".ram");
+        Object objectFactory;
+        try {
+            objectFactory = Class.forName(ramPackage + ".ObjectFactory", true, LineItemStreamReader.class.getClassLoader())
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Generated ObjectFactory not found in " + ramPackage, e);
+        }
+
+        Map<String, Class<?>> types = new LinkedHashMap<>();
+        for (Map.Entry<String, String> element : ELEMENT_TYPES.entrySet()) {
+            try {
+                Object instance = objectFactory.getClass().getMethod("create" + element.getValue()).invoke(objectFactory);
+                types.put(element.getKey(), instance.getClass());
+            } catch (NoSuchMethodException e) {
+                // e.g. cancellation notes have no delivery or line items
+                log.debug("{} has no generated type {}", docType, element.getValue());
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Failed to resolve generated type " + element.getValue()
+                        + " in " + ramPackage, e);
+            }
+        }
+        return Collections.unmodifiableMap(types);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+}
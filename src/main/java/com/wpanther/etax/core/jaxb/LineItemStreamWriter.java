@@ -0,0 +1,197 @@
+package com.wpanther.etax.core.jaxb;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Writes ETDA documents with a bounded memory footprint regardless of the number of line items.
+ *
+ * The counterpart of {@link LineItemStreamReader}. The root element and
+ * {@code SupplyChainTradeTransaction} are written with StAX, the header aggregates are
+ * marshalled as JAXB fragments, and line items are pulled from the caller's iterator and
+ * marshalled one at a time. The complete document tree never exists in memory.
+ *
+ * The header aggregates are keyed by element local name, as returned by
+ * {@link StreamingDocument#getHeaderElements()}, and are written in schema order.
+ * Missing header aggregates are omitted.
+ *
+ * Usage:
+ * <pre>
+ * Map&lt;String, Object&gt; header = Map.of(
+ *         StreamingDocument.EXCHANGED_DOCUMENT_CONTEXT, context,
+ *         StreamingDocument.EXCHANGED_DOCUMENT, document,
+ *         StreamingDocument.HEADER_TRADE_AGREEMENT, agreement,
+ *         StreamingDocument.HEADER_TRADE_SETTLEMENT, settlement);
+ * writer.write(DocumentSchematron.TAX_INVOICE, header, erpLines.map(mapper::toLineItem), outputStream);
+ * </pre>
+ */
+@Component
+public class LineItemStreamWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LineItemStreamWriter.class);
+
+    private static final String NAMESPACE_PREFIX = "urn:etda:uncefact:data:standard:";
+    private static final String RSM_PREFIX = "rsm";
+    private static final String RAM_PREFIX = "ram";
+
+    /**
+     * Header aggregates written directly below the root element, in schema order.
+     */
+    private static final List<String> DOCUMENT_ELEMENTS = List.of(
+            StreamingDocument.EXCHANGED_DOCUMENT_CONTEXT,
+            StreamingDocument.EXCHANGED_DOCUMENT);
+
+    /**
+     * Header aggregates written in {@code SupplyChainTradeTransaction}, in schema order.
+     */
+    private static final List<String> TRANSACTION_ELEMENTS = List.of(
+            StreamingDocument.HEADER_TRADE_AGREEMENT,
+            StreamingDocument.HEADER_TRADE_DELIVERY,
+            StreamingDocument.HEADER_TRADE_SETTLEMENT);
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private final EtaxJaxbContexts contexts;
+
+    public LineItemStreamWriter(EtaxJaxbContexts contexts) {
+        this.contexts = contexts;
+    }
+
+    /**
+     * Write a document, pulling line items from an iterator.
+     *
+     * @param docType        the document type
+     * @param headerElements the header aggregates by element local name
+     * @param lineItems      the line items (e.g. {@code SupplyChainTradeLineItemType}), in document order
+     * @param output         the XML output (flushed, not closed); incomplete if writing fails
+     * @return the number of line items written
+     * @throws JAXBException            if the document cannot be written
+     * @throws IllegalArgumentException if a header element is not a known header aggregate
+     */
+    public long write(DocumentSchematron docType,
+                      Map<String, ?> headerElements,
+                      Iterator<?> lineItems,
+                      OutputStream output) throws JAXBException {
+        for (String name : headerElements.keySet()) {
+            if (!DOCUMENT_ELEMENTS.contains(name) && !TRANSACTION_ELEMENTS.contains(name)) {
+                throw new IllegalArgumentException("Unknown header element: " + name);
+            }
+        }
+
+        String rsmNamespace = getRsmNamespace(docType);
+        String ramNamespace = getRamNamespace(docType);
+        XMLStreamWriter writer;
+        try {
+            writer = OUTPUT_FACTORY.createXMLStreamWriter(output, StandardCharsets.UTF_8.name());
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to write XML: " + e.getMessage(), e);
+        }
+
+        try {
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.setPrefix(RSM_PREFIX, rsmNamespace);
+            writer.setPrefix(RAM_PREFIX, ramNamespace);
+            writer.writeStartElement(RSM_PREFIX, getRootElementName(docType), rsmNamespace);
+            writer.writeNamespace(RAM_PREFIX, ramNamespace);
+            writer.writeNamespace(RSM_PREFIX, rsmNamespace);
+
+            long count = contexts.withMarshaller(docType, marshaller -> {
+                marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+                try {
+                    for (String name : DOCUMENT_ELEMENTS) {
+                        writeElement(marshaller, writer, new QName(rsmNamespace, name, RSM_PREFIX), headerElements.get(name));
+                    }
+                    writeStartElement(writer, rsmNamespace, StreamingDocument.SUPPLY_CHAIN_TRADE_TRANSACTION);
+                    for (String name : TRANSACTION_ELEMENTS) {
+                        writeElement(marshaller, writer, new QName(ramNamespace, name, RAM_PREFIX), headerElements.get(name));
+                    }
+
+                    QName lineItemName = new QName(ramNamespace, StreamingDocument.LINE_ITEM, RAM_PREFIX);
+                    long written = 0;
+                    while (lineItems.hasNext()) {
+                        writeElement(marshaller, writer, lineItemName, Objects.requireNonNull(lineItems.next(), "line item"));
+                        written++;
+                    }
+                    return written;
+                } finally {
+                    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+                }
+            });
+
+            writer.writeEndElement();
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            return count;
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to write XML: " + e.getMessage(), e);
+        } finally {
+            try {
+                writer.close();
+            } catch (XMLStreamException e) {
+                log.debug("Failed to close XML writer: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write a document, pulling line items from a stream.
+     *
+     * @see #write(DocumentSchematron, Map, Iterator, OutputStream)
+     */
+    public long write(DocumentSchematron docType,
+                      Map<String, ?> headerElements,
+                      Stream<?> lineItems,
+                      OutputStream output) throws JAXBException {
+        return write(docType, headerElements, lineItems.iterator(), output);
+    }
+
+    /**
+     * Get the root element local name (e.g. "TaxInvoice_CrossIndustryInvoice").
+     */
+    static String getRootElementName(DocumentSchematron docType) {
+        return docType.getDocumentName() + "_CrossIndustryInvoice";
+    }
+
+    static String getRsmNamespace(DocumentSchematron docType) {
+        return NAMESPACE_PREFIX + docType.getDocumentName() + "_CrossIndustryInvoice:2";
+    }
+
+    static String getRamNamespace(DocumentSchematron docType) {
+        return NAMESPACE_PREFIX + docType.getDocumentName() + "_ReusableAggregateBusinessInformationEntity:2";
+    }
+
+    private static void writeStartElement(XMLStreamWriter writer, String namespace, String localName) throws JAXBException {
+        try {
+            writer.writeStartElement(RSM_PREFIX, localName, namespace);
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to write XML: " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void writeElement(Marshaller marshaller, XMLStreamWriter writer, QName name, Object value)
+            throws JAXBException {
+        if (value == null) {
+            return;
+        }
+        marshaller.marshal(new JAXBElement(name, value.getClass(), value), writer);
+    }
+}
@@ -0,0 +1,260 @@
+package com.wpanther.etax.core.jaxb;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+import jakarta.xml.bind.DataBindingException;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A document opened by {@link LineItemStreamReader}.
+ *
+ * Holds the unmarshalled header aggregates and reads the line items one at a time.
+ * Only the current line item is referenced, so the memory needed does not grow
+ * with the number of line items. Not thread-safe.
+ */
+public final class StreamingDocument implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingDocument.class);
+
+    public static final String EXCHANGED_DOCUMENT_CONTEXT = "ExchangedDocumentContext";
+    public static final String EXCHANGED_DOCUMENT = "ExchangedDocument";
+    public static final String SUPPLY_CHAIN_TRADE_TRANSACTION = "SupplyChainTradeTransaction";
+    public static final String HEADER_TRADE_AGREEMENT = "ApplicableHeaderTradeAgreement";
+    public static final String HEADER_TRADE_DELIVERY = "ApplicableHeaderTradeDelivery";
+    public static final String HEADER_TRADE_SETTLEMENT = "ApplicableHeaderTradeSettlement";
+    public static final String LINE_ITEM = "IncludedSupplyChainTradeLineItem";
+
+    private final DocumentSchematron documentType;
+    private final EtaxJaxbContexts contexts;
+    private final XMLStreamReader reader;
+    private final Map<String, Class<?>> declaredTypes;
+    private final Map<String, Object> headerElements = new LinkedHashMap<>();
+
+    private String rootElementName;
+    private int depth;
+    private boolean inTransaction;
+    private boolean unconsumed;
+    private boolean lineItemReady;
+    private boolean finished;
+    private boolean closed;
+    private int lineItemCount;
+
+    StreamingDocument(DocumentSchematron documentType,
+                      EtaxJaxbContexts contexts,
+                      XMLStreamReader reader,
+                      Map<String, Class<?>> declaredTypes) {
+        this.documentType = documentType;
+        this.contexts = contexts;
+        this.reader = reader;
+        this.declaredTypes = declaredTypes;
+    }
+
+    /**
+     * Read the header up to the first line item.
+     */
+    void start() throws JAXBException {
+        advance();
+    }
+
+    /**
+     * Check whether another line item follows.
+     *
+     * @throws JAXBException if the document cannot be read
+     */
+    public boolean hasNextLineItem() throws JAXBException {
+        if (!lineItemReady && !finished) {
+            advance();
+        }
+        return lineItemReady;
+    }
+
+    /**
+     * Unmarshal the next line item.
+     *
+     * @return the line item (e.g. a {@code SupplyChainTradeLineItemType})
+     * @throws NoSuchElementException if there are no more line items
+     * @throws JAXBException          if the document cannot be read
+     */
+    public Object nextLineItem() throws JAXBException {
+        if (!hasNextLineItem()) {
+            throw new NoSuchElementException("No more line items");
+        }
+        lineItemReady = false;
+        Object lineItem = unmarshal(declaredTypes.get(LINE_ITEM));
+        lineItemCount++;
+        return lineItem;
+    }
+
+    /**
+     * Get the remaining line items as a sequential stream.
+     * <p>
+     * Read failures are thrown as {@link DataBindingException}. The stream must be
+     * consumed before the document is closed.
+     *
+     * @param lineItemType the generated line item type
+     * @return the remaining line items, in document order
+     */
+    public <T> Stream<T> lineItems(Class<T> lineItemType) {
+        Iterator<T> iterator = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return hasNextLineItem();
+                } catch (JAXBException e) {
+                    throw new DataBindingException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return lineItemType.cast(nextLineItem());
+                } catch (JAXBException e) {
+                    throw new DataBindingException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Get a header aggregate by element local name (e.g. {@link #EXCHANGED_DOCUMENT}).
+     *
+     * @param localName the element local name
+     * @param type      the generated type (e.g. {@code ExchangedDocumentType.class})
+     * @return the header aggregate, or null if the document does not contain it
+     */
+    public <T> T getHeaderElement(String localName, Class<T> type) {
+        return type.cast(headerElements.get(localName));
+    }
+
+    /**
+     * Get all header aggregates read so far, by element local name in document order.
+     */
+    public Map<String, Object> getHeaderElements() {
+        return Collections.unmodifiableMap(headerElements);
+    }
+
+    /**
+     * Get the document type this document was opened as.
+     */
+    public DocumentSchematron getDocumentType() {
+        return documentType;
+    }
+
+    /**
+     * Get the local name of the root element (e.g. "TaxInvoice_CrossIndustryInvoice").
+     */
+    public String getRootElementName() {
+        return rootElementName;
+    }
+
+    /**
+     * Get the number of line items returned so far.
+     */
+    public int getLineItemCount() {
+        return lineItemCount;
+    }
+
+    /**
+     * Release the parser. Does not close the underlying input stream.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        finished = true;
+        lineItemReady = false;
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            log.debug("Failed to close XML reader: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Move to the next line item start element, unmarshalling header aggregates on the way.
+     */
+    private void advance() throws JAXBException {
+        if (closed) {
+            throw new IllegalStateException("Document is closed");
+        }
+        try {
+            while (true) {
+                int event;
+                if (unconsumed) {
+                    unconsumed = false;
+                    event = reader.getEventType();
+                } else if (reader.hasNext()) {
+                    event = reader.next();
+                } else {
+                    finished = true;
+                    return;
+                }
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (depth == 1) {
+                        rootElementName = name;
+                    } else if (depth == 2 && SUPPLY_CHAIN_TRADE_TRANSACTION.equals(name)) {
+                        inTransaction = true;
+                    } else if (depth == 3 && inTransaction && LINE_ITEM.equals(name)) {
+                        depth--;
+                        lineItemReady = declaredTypes.containsKey(LINE_ITEM);
+                        if (lineItemReady) {
+                            return;
+                        }
+                        throw new JAXBException(documentType + " does not support " + LINE_ITEM);
+                    } else if ((depth == 2 || (depth == 3 && inTransaction)) && isHeaderElement(name)) {
+                        depth--;
+                        headerElements.put(name, unmarshal(declaredTypes.get(name)));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (depth == 2) {
+                        inTransaction = false;
+                    }
+                    depth--;
+                } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                    finished = true;
+                    return;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new JAXBException("Failed to read XML: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean isHeaderElement(String name) {
+        return !LINE_ITEM.equals(name) && declaredTypes.containsKey(name);
+    }
+
+    /**
+     * Unmarshal the element at the current start element. The reader is left on the
+     * event following its end element.
+     */
+    private Object unmarshal(Class<?> declaredType) throws JAXBException {
+        JAXBElement<?> element = contexts.withUnmarshaller(documentType,
+                unmarshaller -> unmarshaller.unmarshal(reader, declaredType));
+        unconsumed = true;
+        return element.getValue();
+    }
+}
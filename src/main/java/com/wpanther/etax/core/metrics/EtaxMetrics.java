@@ -0,0 +1,129 @@
+package com.wpanther.etax.core.metrics;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+import com.wpanther.etax.validation.SchematronProfile.RuleProfile;
+
+/**
+ * Metrics for code lookups and Schematron validation.
+ *
+ * This interface has no Micrometer types, so the adapters and validator decorators that
+ * record through it work without Micrometer on the classpath. Micrometer is an optional
+ * dependency: when the application has it, {@link MicrometerEtaxMetrics} is registered
+ * and publishes to the application's {@code MeterRegistry} bean. Otherwise recording
+ * goes to {@link #NOOP}. The JAXB adapters in {@code com.wpanther.etax.core.adapter.common}
+ * record every unmarshal, and {@link com.wpanther.etax.validation.MeteredSchematronValidator}
+ * records validations.
+ *
+ * Meters:
+ * <ul>
+ *   <li>{@code etax.codelist.lookup} (timer) - tags {@code codelist}, {@code outcome}
+ *       (hit/miss/placeholder); code resolution during unmarshal</li>
+ *   <li>{@code etax.codelist.placeholders} (counter) - tag {@code codelist}; placeholder
+ *       entities created for unknown codes</li>
+ *   <li>{@code etax.validation} (timer) - tags {@code document}, {@code outcome}
+ *       (valid/invalid/failed)</li>
+ *   <li>{@code etax.validation.errors}, {@code etax.validation.warnings} (counters) -
+ *       tag {@code document}; Schematron errors and warnings reported</li>
+ *   <li>{@code etax.schematron.rule} (timer) - tags {@code document}, {@code rule},
+ *       {@code kind} (context/report/assert); time spent per document in one rule context
+ *       or test, recorded by {@link com.wpanther.etax.validation.ProfilingSchematronValidator}</li>
+ * </ul>
+ */
+public interface EtaxMetrics {
+
+    /**
+     * Metrics that record nothing; used when Micrometer or a MeterRegistry is not available.
+     */
+    EtaxMetrics NOOP = new EtaxMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordLookup(String codeList, Outcome outcome, long nanos) {
+        }
+
+        @Override
+        public void recordPlaceholder(String codeList) {
+        }
+
+        @Override
+        public void recordValidation(DocumentSchematron docType, ValidationOutcome outcome,
+                                     int errors, int warnings, long nanos) {
+        }
+
+        @Override
+        public void recordRule(DocumentSchematron docType, String rule, RuleProfile.Kind kind, long nanos) {
+        }
+    };
+
+    String LOOKUP_TIMER = "etax.codelist.lookup";
+    String PLACEHOLDER_COUNTER = "etax.codelist.placeholders";
+    String VALIDATION_TIMER = "etax.validation";
+    String VALIDATION_ERRORS = "etax.validation.errors";
+    String VALIDATION_WARNINGS = "etax.validation.warnings";
+    String RULE_TIMER = "etax.schematron.rule";
+
+    /**
+     * Result of a code lookup.
+     */
+    enum Outcome {
+        /** The code was resolved to an entity */
+        HIT,
+        /** The code was looked up but not found, so a placeholder was returned */
+        MISS,
+        /** No lookup was possible (repository not initialized), so a placeholder was returned */
+        PLACEHOLDER
+    }
+
+    /**
+     * Result of a validation.
+     */
+    enum ValidationOutcome {
+        VALID, INVALID, FAILED
+    }
+
+    /**
+     * Check whether metrics are published.
+     */
+    boolean isEnabled();
+
+    /**
+     * Record the resolution of a code during an adapter unmarshal.
+     *
+     * @param codeList the code list name (e.g. "iso_currency_code")
+     * @param outcome  the lookup outcome
+     * @param nanos    the elapsed time in nanoseconds
+     */
+    void recordLookup(String codeList, Outcome outcome, long nanos);
+
+    /**
+     * Record the creation of a placeholder entity for an unknown code.
+     *
+     * @param codeList the code list name (e.g. "iso_currency_code")
+     */
+    void recordPlaceholder(String codeList);
+
+    /**
+     * Record a Schematron validation.
+     *
+     * @param docType  the document type
+     * @param outcome  the validation outcome
+     * @param errors   the number of errors reported
+     * @param warnings the number of warnings reported
+     * @param nanos    the elapsed time in nanoseconds
+     */
+    void recordValidation(DocumentSchematron docType, ValidationOutcome outcome,
+                          int errors, int warnings, long nanos);
+
+    /**
+     * Record the time spent in one Schematron rule context or test while validating a document.
+     *
+     * @param docType the document type
+     * @param rule    the rule label (e.g. "TIV-DocumentContext-001", "rule-3")
+     * @param kind    what was evaluated
+     * @param nanos   the elapsed time in nanoseconds
+     */
+    void recordRule(DocumentSchematron docType, String rule, RuleProfile.Kind kind, long nanos);
+}
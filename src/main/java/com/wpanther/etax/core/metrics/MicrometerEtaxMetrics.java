@@ -0,0 +1,150 @@
+package com.wpanther.etax.core.metrics;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+import com.wpanther.etax.validation.SchematronProfile.RuleProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EtaxMetrics} published to a Micrometer {@link MeterRegistry}.
+ *
+ * This is the only class that depends on Micrometer, which is an optional dependency.
+ * It is registered as a bean only when Micrometer is on the classpath, and records
+ * nothing when the application has no {@link MeterRegistry} bean.
+ */
+@Component
+@Conditional(MicrometerPresentCondition.class)
+public class MicrometerEtaxMetrics implements EtaxMetrics {
+
+    private final MeterRegistry registry;
+
+    // Meters are cached so the hot paths do not look them up in the registry
+    private final ConcurrentMap<String, Timer[]> lookupTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> placeholderCounters = new ConcurrentHashMap<>();
+    private final Map<DocumentSchematron, ValidationMeters> validationMeters = new EnumMap<>(DocumentSchematron.class);
+    private final ConcurrentMap<String, Timer> ruleTimers = new ConcurrentHashMap<>();
+
+    public MicrometerEtaxMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        if (registry != null) {
+            for (DocumentSchematron docType : DocumentSchematron.values()) {
+                validationMeters.put(docType, new ValidationMeters(registry, docType));
+            }
+        }
+    }
+
+    @Autowired
+    public MicrometerEtaxMetrics(ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return registry != null;
+    }
+
+    @Override
+    public void recordLookup(String codeList, Outcome outcome, long nanos) {
+        if (registry == null) {
+            return;
+        }
+        Timer[] timers = lookupTimers.computeIfAbsent(codeList, this::createLookupTimers);
+        timers[outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPlaceholder(String codeList) {
+        if (registry == null) {
+            return;
+        }
+        placeholderCounters.computeIfAbsent(codeList, name -> Counter.builder(PLACEHOLDER_COUNTER)
+                .description("Placeholder entities created for unknown codes")
+                .tag("codelist", name)
+                .register(registry)).increment();
+    }
+
+    @Override
+    public void recordValidation(DocumentSchematron docType, ValidationOutcome outcome,
+                                 int errors, int warnings, long nanos) {
+        if (registry == null) {
+            return;
+        }
+        ValidationMeters meters = validationMeters.get(docType);
+        meters.timers[outcome.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        if (errors > 0) {
+            meters.errors.increment(errors);
+        }
+        if (warnings > 0) {
+            meters.warnings.increment(warnings);
+        }
+    }
+
+    @Override
+    public void recordRule(DocumentSchematron docType, String rule, RuleProfile.Kind kind, long nanos) {
+        if (registry == null) {
+            return;
+        }
+        ruleTimers.computeIfAbsent(docType.name() + '|' + kind + '|' + rule, key -> Timer.builder(RULE_TIMER)
+                .description("Schematron rule evaluation")
+                .tag("document", docType.name())
+                .tag("rule", rule)
+                .tag("kind", tagValue(kind))
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] createLookupTimers(String codeList) {
+        Outcome[] outcomes = Outcome.values();
+        Timer[] timers = new Timer[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            timers[outcome.ordinal()] = Timer.builder(LOOKUP_TIMER)
+                    .description("Code list adapter unmarshal")
+                    .tag("codelist", codeList)
+                    .tag("outcome", tagValue(outcome))
+                    .register(registry);
+        }
+        return timers;
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class ValidationMeters {
+
+        private final Timer[] timers;
+        private final Counter errors;
+        private final Counter warnings;
+
+        ValidationMeters(MeterRegistry registry, DocumentSchematron docType) {
+            ValidationOutcome[] outcomes = ValidationOutcome.values();
+            timers = new Timer[outcomes.length];
+            for (ValidationOutcome outcome : outcomes) {
+                timers[outcome.ordinal()] = Timer.builder(VALIDATION_TIMER)
+                        .description("Schematron validation")
+                        .tag("document", docType.name())
+                        .tag("outcome", tagValue(outcome))
+                        .register(registry);
+            }
+            errors = Counter.builder(VALIDATION_ERRORS)
+                    .description("Schematron errors reported")
+                    .tag("document", docType.name())
+                    .register(registry);
+            warnings = Counter.builder(VALIDATION_WARNINGS)
+                    .description("Schematron warnings reported")
+                    .tag("document", docType.name())
+                    .register(registry);
+        }
+    }
+}
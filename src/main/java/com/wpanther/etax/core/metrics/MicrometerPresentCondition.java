@@ -0,0 +1,17 @@
+package com.wpanther.etax.core.metrics;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Matches when Micrometer is on the classpath.
+ */
+class MicrometerPresentCondition implements Condition {
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        return ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", context.getClassLoader());
+    }
+}
@@ -0,0 +1,345 @@
+package com.wpanther.etax.core.pipeline;
+
+import com.wpanther.etax.core.concurrent.VirtualThreads;
+import com.wpanther.etax.core.jaxb.EtaxJaxbContexts;
+import com.wpanther.etax.validation.DocumentSchematron;
+import com.wpanther.etax.validation.MessageInfo;
+import com.wpanther.etax.validation.SchemaValidationResult;
+import com.wpanther.etax.validation.SchemaValidator;
+import com.wpanther.etax.validation.SchematronValidationException;
+import com.wpanther.etax.validation.SchematronValidationResult;
+import com.wpanther.etax.validation.SchematronValidator;
+import jakarta.xml.bind.JAXBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Processes a document with a single parse: XSD validation, Schematron validation and
+ * JAXB unmarshalling all work on the same DOM tree.
+ * <p>
+ * Without the pipeline, each step parses the bytes again ({@code StreamSource} in the
+ * Schematron validator, the unmarshaller's StAX reader, the XSD validator). Here the
+ * document is parsed once into a namespace-aware DOM, then:
+ * <ol>
+ *   <li>the document type is taken from the root element (via {@link MessageInfo}), unless given</li>
+ *   <li>the DOM is validated with {@link SchemaValidator#validate(Document, DocumentSchematron)}, if the pipeline has one</li>
+ *   <li>the DOM is validated with {@link SchematronValidator#validate(Document, DocumentSchematron)}</li>
+ *   <li>the DOM is unmarshalled with {@link EtaxJaxbContexts#unmarshal(DocumentSchematron, org.w3c.dom.Node)}</li>
+ * </ol>
+ * Schematron validation and unmarshalling are skipped for documents that fail XSD validation.
+ * <p>
+ * Documents with a DTD are rejected. Instances are safe for concurrent use.
+ * <p>
+ * Usage:
+ * <pre>
+ * DocumentPipeline pipeline = new DocumentPipeline(schematronValidator, jaxbContexts);
+ * PipelineResult result = pipeline.process(inputStream);
+ * if (result.isValid()) {
+ *     TaxInvoice_CrossIndustryInvoiceType invoice = result.getValue(TaxInvoice_CrossIndustryInvoiceType.class);
+ * }
+ * </pre>
+ * <p>
+ * A pipeline created with an executor also accepts documents with {@link #submit(byte[])}.
+ * {@link #withVirtualThreads} processes each document on its own virtual thread (Java 21+),
+ * so XSD and Schematron validation and the adapters' blocking code list lookups during
+ * unmarshalling park the virtual thread instead of holding a platform thread. At most
+ * {@code maxConcurrent} documents are processed at once; set it to the size of the
+ * connection pool behind the code list repositories, since virtual threads do not limit it:
+ * <pre>
+ * try (DocumentPipeline pipeline = DocumentPipeline.withVirtualThreads(
+ *         schematronValidator, jaxbContexts, schemaValidator, hikariConfig.getMaximumPoolSize())) {
+ *     List&lt;CompletableFuture&lt;PipelineResult&gt;&gt; futures = documents.stream().map(pipeline::submit).toList();
+ *     futures.forEach(future -&gt; store(future.join()));
+ * }
+ * </pre>
+ */
+public class DocumentPipeline implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentPipeline.class);
+
+    private static final DocumentBuilderFactory BUILDER_FACTORY = createBuilderFactory();
+
+    private static final ErrorHandler FAIL_ON_ERROR = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException exception) {
+            // Parser warnings do not affect the tree
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+    };
+
+    private final SchematronValidator schematronValidator;
+    private final EtaxJaxbContexts jaxbContexts;
+    private final SchemaValidator schemaValidator;
+    private final MessageInfo messageInfo;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final boolean ownsExecutor;
+
+    /**
+     * Create a pipeline without XSD validation.
+     */
+    public DocumentPipeline(SchematronValidator schematronValidator, EtaxJaxbContexts jaxbContexts) {
+        this(schematronValidator, jaxbContexts, null);
+    }
+
+    /**
+     * Create a pipeline with XSD validation.
+     *
+     * @param schematronValidator the Schematron validator
+     * @param jaxbContexts        the shared JAXB contexts
+     * @param schemaValidator     the XSD validator; null to skip XSD validation
+     */
+    public DocumentPipeline(SchematronValidator schematronValidator, EtaxJaxbContexts jaxbContexts,
+                            SchemaValidator schemaValidator) {
+        this.schematronValidator = Objects.requireNonNull(schematronValidator, "schematronValidator");
+        this.jaxbContexts = Objects.requireNonNull(jaxbContexts, "jaxbContexts");
+        this.schemaValidator = schemaValidator;
+        this.messageInfo = MessageInfo.getDefault();
+        this.executor = null;
+        this.permits = null;
+        this.ownsExecutor = false;
+    }
+
+    /**
+     * Create a pipeline that processes submitted documents on an existing executor. The
+     * executor is not shut down by {@link #close()}.
+     *
+     * @param schematronValidator the Schematron validator
+     * @param jaxbContexts        the shared JAXB contexts
+     * @param schemaValidator     the XSD validator; null to skip XSD validation
+     * @param executor            the executor to process submitted documents on
+     * @param maxConcurrent       the maximum number of documents processed at once
+     */
+    public DocumentPipeline(SchematronValidator schematronValidator, EtaxJaxbContexts jaxbContexts,
+                            SchemaValidator schemaValidator, ExecutorService executor, int maxConcurrent) {
+        this(schematronValidator, jaxbContexts, schemaValidator, executor, maxConcurrent, false);
+    }
+
+    private DocumentPipeline(SchematronValidator schematronValidator, EtaxJaxbContexts jaxbContexts,
+                             SchemaValidator schemaValidator, ExecutorService executor, int maxConcurrent,
+                             boolean ownsExecutor) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1: " + maxConcurrent);
+        }
+        this.schematronValidator = Objects.requireNonNull(schematronValidator, "schematronValidator");
+        this.jaxbContexts = Objects.requireNonNull(jaxbContexts, "jaxbContexts");
+        this.schemaValidator = schemaValidator;
+        this.messageInfo = MessageInfo.getDefault();
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.permits = new Semaphore(maxConcurrent);
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Create a pipeline that processes each submitted document on its own virtual thread
+     * (Java 21+). The executor is shut down by {@link #close()}.
+     * <p>
+     * The steps that block (Schematron validation and the code list repository lookups of
+     * the adapters during unmarshalling) wait on locks that do not pin the carrier thread.
+     * Documents beyond {@code maxConcurrent} wait for a permit on their virtual thread.
+     *
+     * @param schematronValidator the Schematron validator
+     * @param jaxbContexts        the shared JAXB contexts
+     * @param schemaValidator     the XSD validator; null to skip XSD validation
+     * @param maxConcurrent       the maximum number of documents processed at once, normally
+     *                            the size of the connection pool used by the repositories
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads
+     */
+    public static DocumentPipeline withVirtualThreads(SchematronValidator schematronValidator,
+                                                      EtaxJaxbContexts jaxbContexts,
+                                                      SchemaValidator schemaValidator, int maxConcurrent) {
+        return new DocumentPipeline(schematronValidator, jaxbContexts, schemaValidator,
+                VirtualThreads.newThreadPerTaskExecutor("etax-pipeline-"), maxConcurrent, true);
+    }
+
+    /**
+     * Process a document whose type is detected from its root element.
+     *
+     * @param input the XML input (not closed)
+     * @throws SchematronValidationException if the input is not well-formed XML or its root element is unknown
+     */
+    public PipelineResult process(InputStream input) throws IOException, JAXBException {
+        Document document = parse(input, null);
+        return process(document, detect(document));
+    }
+
+    /**
+     * Process a document whose type is detected from its root element.
+     *
+     * @throws SchematronValidationException if the content is not well-formed XML or its root element is unknown
+     */
+    public PipelineResult process(byte[] xml) throws JAXBException {
+        try {
+            return process(new ByteArrayInputStream(xml));
+        } catch (IOException e) {
+            // Not thrown by ByteArrayInputStream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Process a document of a known type.
+     *
+     * @param input   the XML input (not closed)
+     * @param docType the document type
+     * @throws SchematronValidationException if the input is not well-formed XML
+     */
+    public PipelineResult process(InputStream input, DocumentSchematron docType) throws IOException, JAXBException {
+        return process(parse(input, docType), docType);
+    }
+
+    /**
+     * Process a document that has already been parsed (namespace aware).
+     *
+     * @param document the parsed document
+     * @param docType  the document type
+     */
+    public PipelineResult process(Document document, DocumentSchematron docType) throws JAXBException {
+        Objects.requireNonNull(document, "document");
+        Objects.requireNonNull(docType, "docType");
+
+        SchemaValidationResult schemaResult = schemaValidator != null
+                ? schemaValidator.validate(document, docType)
+                : SchemaValidationResult.success();
+        if (!schemaResult.isValid()) {
+            log.debug("{} document failed XSD validation with {} error(s)", docType, schemaResult.getErrors().size());
+            return new PipelineResult(docType, document, schemaResult, null, null);
+        }
+
+        SchematronValidationResult schematronResult = schematronValidator.validate(document, docType);
+        Object value = jaxbContexts.unmarshal(docType, document);
+        return new PipelineResult(docType, document, schemaResult, schematronResult, value);
+    }
+
+    /**
+     * Process a document whose type is detected from its root element on the pipeline's
+     * executor.
+     *
+     * @param xml the XML content
+     * @return the result; completes exceptionally with the exception {@link #process(byte[])} would throw
+     * @throws IllegalStateException if the pipeline was created without an executor
+     */
+    public CompletableFuture<PipelineResult> submit(byte[] xml) {
+        Objects.requireNonNull(xml, "xml");
+        return runAsync(() -> process(xml));
+    }
+
+    /**
+     * Process a document of a known type on the pipeline's executor.
+     *
+     * @param xml     the XML content
+     * @param docType the document type
+     * @return the result; completes exceptionally with the exception processing would throw
+     * @throws IllegalStateException if the pipeline was created without an executor
+     */
+    public CompletableFuture<PipelineResult> submit(byte[] xml, DocumentSchematron docType) {
+        Objects.requireNonNull(xml, "xml");
+        Objects.requireNonNull(docType, "docType");
+        return runAsync(() -> process(new ByteArrayInputStream(xml), docType));
+    }
+
+    /**
+     * Shut down the executor if this pipeline created it.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        PipelineResult run() throws IOException, JAXBException;
+    }
+
+    private CompletableFuture<PipelineResult> runAsync(Step step) {
+        if (executor == null) {
+            throw new IllegalStateException(
+                    "Pipeline has no executor; create it with an executor or withVirtualThreads");
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting to process a document");
+            }
+            try {
+                return step.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (JAXBException e) {
+                throw new CompletionException(e);
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    private DocumentSchematron detect(Document document) {
+        String rootTagName = document.getDocumentElement().getLocalName();
+        MessageInfo.Message message = messageInfo.findByRootTagName(rootTagName)
+                .orElseThrow(() -> new SchematronValidationException("Unknown document root element: " + rootTagName));
+        if (message.getDocumentType() == null) {
+            throw new SchematronValidationException("No document type for root element: " + rootTagName);
+        }
+        return message.getDocumentType();
+    }
+
+    private static Document parse(InputStream input, DocumentSchematron docType) throws IOException {
+        Objects.requireNonNull(input, "input");
+        try {
+            DocumentBuilder builder = BUILDER_FACTORY.newDocumentBuilder();
+            // The default handler prints malformed-document errors to stderr before throwing
+            builder.setErrorHandler(FAIL_ON_ERROR);
+            return builder.parse(input);
+        } catch (SAXException e) {
+            throw new SchematronValidationException("Failed to parse XML: " + e.getMessage(), docType, e);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Failed to create XML parser", e);
+        }
+    }
+
+    private static DocumentBuilderFactory createBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("XML parser does not support secure processing", e);
+        }
+        return factory;
+    }
+}
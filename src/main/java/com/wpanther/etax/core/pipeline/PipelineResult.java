@@ -0,0 +1,102 @@
+package com.wpanther.etax.core.pipeline;
+
+import com.wpanther.etax.validation.DocumentSchematron;
+import com.wpanther.etax.validation.SchemaValidationResult;
+import com.wpanther.etax.validation.SchematronValidationResult;
+import org.w3c.dom.Document;
+
+/**
+ * Result of processing one document with {@link DocumentPipeline}.
+ * <p>
+ * Holds the parsed tree, the XSD and Schematron results, and the unmarshalled root value.
+ * The root value is null when the document failed XSD validation.
+ */
+public final class PipelineResult {
+
+    private final DocumentSchematron documentType;
+    private final Document document;
+    private final SchemaValidationResult schemaResult;
+    private final SchematronValidationResult schematronResult;
+    private final Object value;
+
+    PipelineResult(DocumentSchematron documentType, Document document, SchemaValidationResult schemaResult,
+                   SchematronValidationResult schematronResult, Object value) {
+        this.documentType = documentType;
+        this.document = document;
+        this.schemaResult = schemaResult;
+        this.schematronResult = schematronResult;
+        this.value = value;
+    }
+
+    /**
+     * Get the document type.
+     */
+    public DocumentSchematron getDocumentType() {
+        return documentType;
+    }
+
+    /**
+     * Get the parsed document shared by all steps.
+     */
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * Get the XSD result (always valid if the pipeline has no schema validator).
+     */
+    public SchemaValidationResult getSchemaResult() {
+        return schemaResult;
+    }
+
+    /**
+     * Get the Schematron result, or null if Schematron validation was skipped
+     * because the document failed XSD validation.
+     */
+    public SchematronValidationResult getSchematronResult() {
+        return schematronResult;
+    }
+
+    /**
+     * Get the unmarshalled root value, or null if the document failed XSD validation.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * Get the unmarshalled root value as the expected type.
+     *
+     * @throws IllegalStateException if there is no value or it is not of the expected type
+     */
+    public <T> T getValue(Class<T> rootType) {
+        if (!rootType.isInstance(value)) {
+            throw new IllegalStateException("Expected root of type " + rootType.getName() + " but was "
+                    + (value == null ? "null" : value.getClass().getName()));
+        }
+        return rootType.cast(value);
+    }
+
+    /**
+     * Check if the document passed XSD validation.
+     */
+    public boolean isSchemaValid() {
+        return schemaResult.isValid();
+    }
+
+    /**
+     * Check if the document passed both XSD and Schematron validation.
+     */
+    public boolean isValid() {
+        return isSchemaValid() && schematronResult != null && schematronResult.isValid();
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineResult{" +
+               "documentType=" + documentType +
+               ", schemaResult=" + schemaResult +
+               ", schematronResult=" + schematronResult +
+               '}';
+    }
+}
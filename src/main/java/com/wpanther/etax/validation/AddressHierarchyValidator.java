@@ -0,0 +1,256 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.address.ThaiAddressHierarchy;
+import com.wpanther.etax.core.address.ThaiAddressHierarchy.Consistency;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Checks that the province ({@code CountrySubDivisionID}), city ({@code CityName}) and
+ * subdistrict ({@code CitySubDivisionName}) codes of every {@code PostalTradeAddress} in a
+ * document belong to each other, using a {@link ThaiAddressHierarchy}.
+ * <p>
+ * The XSD only checks each code against its own code list, so a seller in subdistrict
+ * {@code 101701} of city {@code 1004} passes schema validation. This validator makes one
+ * StAX pass over the document and checks each address with a few array reads: the codes
+ * are read into reusable buffers and parsed as ints, and no code list entity is created.
+ * Strings are only created to report an inconsistent address.
+ * <p>
+ * Addresses with a {@code CountryID} other than {@code TH} are skipped, as are values that
+ * are not all digits, such as the free-text {@code CityName} of the Invoice schema.
+ * Elements are matched by local name, so the same validator works for all document types.
+ * Each inconsistent address is reported as a {@link SchemaError} with the line, column and
+ * path of its {@code PostalTradeAddress} element.
+ * <p>
+ * Usage:
+ * <pre>
+ * AddressHierarchyValidator validator =
+ *         new AddressHierarchyValidator(ThaiAddressHierarchy.of(ThaiAddressGazetteer.load()));
+ * SchemaValidationResult result = validator.validate(inputStream);
+ * </pre>
+ */
+public class AddressHierarchyValidator {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static final String ADDRESS = "PostalTradeAddress";
+    private static final String PROVINCE = "CountrySubDivisionID";
+    private static final String CITY = "CityName";
+    private static final String SUBDISTRICT = "CitySubDivisionName";
+    private static final String COUNTRY = "CountryID";
+
+    private final ThaiAddressHierarchy hierarchy;
+
+    public AddressHierarchyValidator(ThaiAddressHierarchy hierarchy) {
+        this.hierarchy = Objects.requireNonNull(hierarchy, "hierarchy");
+    }
+
+    /**
+     * Check the addresses of a document.
+     *
+     * @param xmlContent the XML document
+     * @return the inconsistent addresses, in document order
+     * @throws SchematronValidationException if the document is not well-formed XML
+     */
+    public SchemaValidationResult validate(String xmlContent) {
+        if (xmlContent == null || xmlContent.isEmpty()) {
+            throw new IllegalArgumentException("XML content cannot be null or empty");
+        }
+        return validate(new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Check the addresses of a document.
+     *
+     * @param xmlInputStream the XML document; not closed
+     * @return the inconsistent addresses, in document order
+     * @throws SchematronValidationException if the document is not well-formed XML
+     */
+    public SchemaValidationResult validate(InputStream xmlInputStream) {
+        if (xmlInputStream == null) {
+            throw new IllegalArgumentException("XML input stream cannot be null");
+        }
+        List<SchemaError> errors = new ArrayList<>();
+        AddressScan scan = new AddressScan();
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(xmlInputStream);
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        scan.start(reader);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        scan.characters(reader);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        scan.end(errors);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new SchematronValidationException("Failed to parse XML: " + e.getMessage(), e);
+        } finally {
+            close(reader);
+        }
+        return SchemaValidationResult.invalid(errors);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    private static void close(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // Does not close the underlying stream; nothing to release
+            }
+        }
+    }
+
+    /**
+     * Returns the value if it is all digits (after trimming), or null for free text.
+     */
+    private static CharSequence code(StringBuilder value) {
+        boolean digits = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (!Character.isWhitespace(c)) {
+                return null;
+            }
+        }
+        return digits ? value : null;
+    }
+
+    private static String describe(String label, StringBuilder value) {
+        return label + " '" + value.toString().trim() + "'";
+    }
+
+    /**
+     * State of one pass over a document. The buffers are reused for every address.
+     */
+    private final class AddressScan {
+
+        private final List<String> path = new ArrayList<>();
+        private final StringBuilder province = new StringBuilder();
+        private final StringBuilder city = new StringBuilder();
+        private final StringBuilder subdistrict = new StringBuilder();
+        private final StringBuilder country = new StringBuilder();
+        private int addressDepth = -1;
+        private int addressLine;
+        private int addressColumn;
+        private StringBuilder current;
+
+        void start(XMLStreamReader reader) {
+            String localName = reader.getLocalName();
+            path.add(localName);
+            if (ADDRESS.equals(localName)) {
+                addressDepth = path.size();
+                Location location = reader.getLocation();
+                addressLine = location != null ? location.getLineNumber() : -1;
+                addressColumn = location != null ? location.getColumnNumber() : -1;
+                province.setLength(0);
+                city.setLength(0);
+                subdistrict.setLength(0);
+                country.setLength(0);
+            } else if (addressDepth > 0 && path.size() == addressDepth + 1) {
+                current = field(localName);
+            }
+        }
+
+        void characters(XMLStreamReader reader) {
+            if (current != null) {
+                current.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+
+        void end(List<SchemaError> errors) {
+            current = null;
+            if (path.size() == addressDepth) {
+                check(errors);
+                addressDepth = -1;
+            }
+            path.remove(path.size() - 1);
+        }
+
+        private StringBuilder field(String localName) {
+            switch (localName) {
+                case PROVINCE:
+                    return province;
+                case CITY:
+                    return city;
+                case SUBDISTRICT:
+                    return subdistrict;
+                case COUNTRY:
+                    return country;
+                default:
+                    return null;
+            }
+        }
+
+        private void check(List<SchemaError> errors) {
+            if (country.length() > 0 && !isThailand(country)) {
+                return;
+            }
+            Consistency consistency = hierarchy.check(code(province), code(city), code(subdistrict));
+            if (!consistency.isConsistent()) {
+                errors.add(new SchemaError(message(consistency), addressLine, addressColumn,
+                        "/" + String.join("/", path)));
+            }
+        }
+
+        private boolean isThailand(StringBuilder value) {
+            int start = 0;
+            int end = value.length();
+            while (start < end && Character.isWhitespace(value.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(value.charAt(end - 1))) {
+                end--;
+            }
+            return end - start == 2 && value.charAt(start) == 'T' && value.charAt(start + 1) == 'H';
+        }
+
+        private String message(Consistency consistency) {
+            switch (consistency) {
+                case UNKNOWN_PROVINCE:
+                    return "address-hierarchy: " + describe("Province", province) + " is not a known province code.";
+                case UNKNOWN_CITY:
+                    return "address-hierarchy: " + describe("City", city) + " is not a known city code.";
+                case UNKNOWN_SUBDISTRICT:
+                    return "address-hierarchy: " + describe("Subdistrict", subdistrict)
+                            + " is not a known subdistrict code.";
+                case CITY_NOT_IN_PROVINCE:
+                    return "address-hierarchy: " + describe("City", city) + " is not in "
+                            + describe("province", province) + ".";
+                case SUBDISTRICT_NOT_IN_CITY:
+                    return "address-hierarchy: " + describe("Subdistrict", subdistrict) + " is not in "
+                            + describe("city", city) + ".";
+                default:
+                    return "address-hierarchy: " + describe("Subdistrict", subdistrict) + " is not in "
+                            + describe("province", province) + ".";
+            }
+        }
+    }
+}
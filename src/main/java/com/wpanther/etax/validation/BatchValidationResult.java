@@ -0,0 +1,86 @@
+package com.wpanther.etax.validation;
+
+import java.util.Objects;
+
+/**
+ * Outcome of validating one document of a batch.
+ * <p>
+ * Either {@link #getResult()} holds the Schematron result, or {@link #getFailure()} holds
+ * the exception that prevented validation (unreadable file, malformed XML, etc.). A failure
+ * never aborts the rest of the batch.
+ *
+ * @param <T> the type used to identify documents (e.g. {@link java.nio.file.Path})
+ */
+public final class BatchValidationResult<T> {
+
+    private final T document;
+    private final long index;
+    private final SchematronValidationResult result;
+    private final RuntimeException failure;
+
+    private BatchValidationResult(T document, long index, SchematronValidationResult result, RuntimeException failure) {
+        this.document = document;
+        this.index = index;
+        this.result = result;
+        this.failure = failure;
+    }
+
+    static <T> BatchValidationResult<T> completed(T document, long index, SchematronValidationResult result) {
+        return new BatchValidationResult<>(document, index, Objects.requireNonNull(result, "result"), null);
+    }
+
+    static <T> BatchValidationResult<T> failed(T document, long index, RuntimeException failure) {
+        return new BatchValidationResult<>(document, index, null, Objects.requireNonNull(failure, "failure"));
+    }
+
+    /**
+     * Get the document this result belongs to.
+     */
+    public T getDocument() {
+        return document;
+    }
+
+    /**
+     * Get the zero-based position of the document in the input stream.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the Schematron result, or null if validation failed.
+     */
+    public SchematronValidationResult getResult() {
+        return result;
+    }
+
+    /**
+     * Get the exception that prevented validation, or null if validation completed.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Check if validation completed (regardless of whether the document is valid).
+     */
+    public boolean isCompleted() {
+        return failure == null;
+    }
+
+    /**
+     * Check if validation completed and the document has no errors.
+     */
+    public boolean isValid() {
+        return result != null && result.isValid();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchValidationResult{" +
+               "document=" + document +
+               ", index=" + index +
+               (failure == null ? ", result=" + result : ", failure=" + failure) +
+               '}';
+    }
+}
@@ -0,0 +1,313 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.concurrent.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Validates many documents in parallel with a shared {@link SchematronValidator}.
+ * <p>
+ * Documents are fanned out over a bounded executor. At most {@code maxInFlight} documents
+ * are open or being validated at any time: the next document is pulled from the input
+ * stream only when an earlier result has been consumed, so a slow consumer throttles the
+ * reader instead of letting results pile up in memory.
+ * <p>
+ * The validator is shared by all workers, so its compiled Schematron cache is reused for
+ * every document. Both {@link SchematronValidatorImpl} and {@link SchematronXsltValidator}
+ * are safe for concurrent use; call their {@code warmUp()} first to compile the rules once
+ * before the workers start.
+ * <p>
+ * A document that cannot be read or validated yields a failed {@link BatchValidationResult};
+ * the rest of the batch continues.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (BatchValidator batch = new BatchValidator(validator, 8);
+ *      Stream&lt;Path&gt; files = Files.list(archiveDir)) {
+ *     batch.validateAll(files, DocumentSchematron.TAX_INVOICE)
+ *          .filter(r -&gt; !r.isValid())
+ *          .forEach(r -&gt; report(r.getDocument(), r));
+ * }
+ * </pre>
+ */
+public class BatchValidator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchValidator.class);
+
+    /**
+     * Opens a document of a batch for reading.
+     *
+     * @param <T> the type used to identify documents
+     */
+    @FunctionalInterface
+    public interface DocumentOpener<T> {
+        InputStream open(T document) throws IOException;
+    }
+
+    private final SchematronValidator validator;
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final boolean ownsExecutor;
+
+    /**
+     * Create a batch validator with its own fixed pool of {@code parallelism} worker threads.
+     * Up to twice that many documents are in flight. The pool is shut down by {@link #close()}.
+     *
+     * @param validator   the validator shared by all workers
+     * @param parallelism the number of worker threads
+     */
+    public BatchValidator(SchematronValidator validator, int parallelism) {
+        this(validator, newWorkerPool(parallelism), parallelism * 2, true);
+    }
+
+    /**
+     * Create a batch validator that runs on an existing executor. The executor is not shut
+     * down by {@link #close()}.
+     *
+     * @param validator   the validator shared by all workers
+     * @param executor    the executor to validate on
+     * @param maxInFlight the maximum number of documents submitted but not yet consumed
+     */
+    public BatchValidator(SchematronValidator validator, ExecutorService executor, int maxInFlight) {
+        this(validator, executor, maxInFlight, false);
+    }
+
+    /**
+     * Create a batch validator that runs the validation of each document on its own virtual
+     * thread (Java 21+).
+     * <p>
+     * Concurrency is bounded only by {@code maxInFlight}, so many small documents can wait on
+     * I/O (e.g. reading from the opener) without a large platform pool. Only Schematron
+     * validation runs on the virtual threads; to also unmarshal with code lookups, use
+     * {@code DocumentPipeline.withVirtualThreads}. The executor is shut down by {@link #close()}.
+     *
+     * @param validator   the validator shared by all documents
+     * @param maxInFlight the maximum number of documents submitted but not yet consumed
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads
+     */
+    public static BatchValidator withVirtualThreads(SchematronValidator validator, int maxInFlight) {
+        return new BatchValidator(validator, VirtualThreads.newThreadPerTaskExecutor("etax-batch-validator-"),
+                maxInFlight, true);
+    }
+
+    private BatchValidator(SchematronValidator validator, ExecutorService executor, int maxInFlight,
+                           boolean ownsExecutor) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1: " + maxInFlight);
+        }
+        this.validator = Objects.requireNonNull(validator, "validator");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.maxInFlight = maxInFlight;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Validate files, returning results in input order.
+     *
+     * @see #validateAll(Stream, DocumentSchematron, DocumentOpener)
+     */
+    public Stream<BatchValidationResult<Path>> validateAll(Stream<Path> files, DocumentSchematron docType) {
+        return validateAll(files, docType, Files::newInputStream);
+    }
+
+    /**
+     * Validate documents, returning results in input order.
+     * <p>
+     * The returned stream is lazy: documents are submitted as results are consumed, keeping
+     * at most {@code maxInFlight} ahead of the consumer. Closing the returned stream cancels
+     * pending validations and closes {@code documents}.
+     * <p>
+     * For documents that are already open, pass {@code in -> in} as the opener.
+     *
+     * @param documents the documents to validate
+     * @param docType   the document type of every document
+     * @param opener    opens each document for reading; the stream is closed after validation
+     * @return the results, one per document, in input order
+     */
+    public <T> Stream<BatchValidationResult<T>> validateAll(Stream<T> documents, DocumentSchematron docType,
+                                                            DocumentOpener<? super T> opener) {
+        Objects.requireNonNull(docType, "docType");
+        Objects.requireNonNull(opener, "opener");
+        OrderedResults<T> results = new OrderedResults<>(documents.iterator(), docType, opener);
+        return StreamSupport.stream(
+                        Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::cancel)
+                .onClose(documents::close);
+    }
+
+    /**
+     * Validate documents, passing each result to {@code onResult} as soon as it completes.
+     * <p>
+     * Results arrive in completion order; use {@link BatchValidationResult#getIndex()} to
+     * correlate them with the input. {@code onResult} is called on the calling thread, which
+     * blocks until the batch is complete.
+     *
+     * @param documents the documents to validate
+     * @param docType   the document type of every document
+     * @param opener    opens each document for reading; the stream is closed after validation
+     * @param onResult  receives each result
+     * @return the number of documents validated
+     */
+    public <T> long validateAll(Stream<T> documents, DocumentSchematron docType,
+                                DocumentOpener<? super T> opener, Consumer<? super BatchValidationResult<T>> onResult) {
+        Objects.requireNonNull(docType, "docType");
+        Objects.requireNonNull(opener, "opener");
+        Objects.requireNonNull(onResult, "onResult");
+
+        ExecutorCompletionService<BatchValidationResult<T>> completion = new ExecutorCompletionService<>(executor);
+        Iterator<T> iterator = documents.iterator();
+        long submitted = 0;
+        int inFlight = 0;
+        try {
+            while (iterator.hasNext()) {
+                if (inFlight == maxInFlight) {
+                    onResult.accept(await(completion.take(), docType));
+                    inFlight--;
+                }
+                T document = iterator.next();
+                long index = submitted++;
+                completion.submit(() -> validate(document, index, docType, opener));
+                inFlight++;
+            }
+            while (inFlight > 0) {
+                onResult.accept(await(completion.take(), docType));
+                inFlight--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Batch validation interrupted after " + submitted + " documents");
+        }
+        log.debug("Batch validation of {} {} documents completed", submitted, docType);
+        return submitted;
+    }
+
+    /**
+     * Shut down the worker pool if this validator created it.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the maximum number of documents submitted but not yet consumed.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    private <T> BatchValidationResult<T> validate(T document, long index, DocumentSchematron docType,
+                                                  DocumentOpener<? super T> opener) {
+        try (InputStream in = opener.open(document)) {
+            return BatchValidationResult.completed(document, index, validator.validate(in, docType));
+        } catch (IOException e) {
+            log.warn("Failed to read document {} of batch: {}", document, e.getMessage());
+            return BatchValidationResult.failed(document, index, new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            log.warn("Failed to validate document {} of batch: {}", document, e.getMessage());
+            return BatchValidationResult.failed(document, index, e);
+        }
+    }
+
+    private static <T> BatchValidationResult<T> await(Future<BatchValidationResult<T>> future,
+                                                      DocumentSchematron docType) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // validate() catches everything but Errors
+            throw new SchematronValidationException("Batch worker failed: " + e.getCause(), docType, e.getCause());
+        }
+    }
+
+    private static ExecutorService newWorkerPool(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "etax-batch-validator-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(parallelism, threadFactory);
+    }
+
+    /**
+     * Iterator over results in input order, keeping a window of submitted validations.
+     */
+    private final class OrderedResults<T> implements Iterator<BatchValidationResult<T>> {
+
+        private final Iterator<T> documents;
+        private final DocumentSchematron docType;
+        private final DocumentOpener<? super T> opener;
+        private final Deque<Future<BatchValidationResult<T>>> window = new ArrayDeque<>();
+        private long submitted;
+
+        OrderedResults(Iterator<T> documents, DocumentSchematron docType, DocumentOpener<? super T> opener) {
+            this.documents = documents;
+            this.docType = docType;
+            this.opener = opener;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !window.isEmpty();
+        }
+
+        @Override
+        public BatchValidationResult<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return await(window.removeFirst(), docType);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CancellationException("Batch validation interrupted after " + submitted + " documents");
+            }
+        }
+
+        private void fill() {
+            while (window.size() < maxInFlight && documents.hasNext()) {
+                T document = documents.next();
+                long index = submitted++;
+                window.addLast(executor.submit(() -> validate(document, index, docType, opener)));
+            }
+        }
+
+        void cancel() {
+            Future<BatchValidationResult<T>> pending;
+            while ((pending = window.pollFirst()) != null) {
+                pending.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.entity.TISICityName;
+import com.wpanther.etax.core.entity.TISISubdistrict;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.TypeInfo;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.TypeInfoProvider;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * XSD validation mode that checks the TISI city and sub-district codes against the
+ * {@link CodeListRegistry} instead of the XSD enumerations.
+ * <p>
+ * {@code TISICitySubDivisionName_1p0.xsd} (2 MB, 8,940 values) and {@code TISICityName_1p0.xsd}
+ * (958 values) dominate the time and memory needed to compile a schema. This validator
+ * compiles the schemas with relaxed replacements of these two modules
+ * ({@code codelist/relaxed/}, which only require 6 and 4 digits), then checks the value of
+ * every element whose type derives from the code list content types against the
+ * {@code tisi_subdistrict} and {@code tisi_city_name} tables, which hold the same codes.
+ * <p>
+ * Elements are selected by schema type, not by name, so {@code CityName} elements that are
+ * free text (as in the Invoice schema) are not checked. The codes of a document are
+ * resolved with one {@link CodeListRegistry#resolveAll(Class, java.util.Collection)} call
+ * per code list. An unknown code is reported as a {@link SchemaError} with the line, column
+ * and path of the element, after the XSD errors.
+ * <p>
+ * Usage:
+ * <pre>
+ * SchemaValidator validator = new CodeListSchemaValidator(codeListRegistry);
+ * SchemaValidationResult result = validator.validate(inputStream, DocumentSchematron.TAX_INVOICE);
+ * </pre>
+ */
+public class CodeListSchemaValidator extends SchemaValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeListSchemaValidator.class);
+
+    /** Classpath directory of the relaxed code list modules */
+    static final String RELAXED_CODELIST_ROOT = MessageInfo.RESOURCE_ROOT + "/ETDA/codelist/relaxed/";
+
+    private static final List<RelaxedCodeList> RELAXED_CODE_LISTS = List.of(
+            new RelaxedCodeList("urn:un:unece:uncefact:identifierlist:standard:CitySubDivisionNameFromTISI1099_2548",
+                    "CitySubDivisionNameCodeContentType", "TISICitySubDivisionName_1p0.xsd",
+                    TISISubdistrict.class, "tisi_subdistrict"),
+            new RelaxedCodeList("urn:un:unece:uncefact:identifierlist:standard:CityNameFromTISI1099_2548",
+                    "CityNameCodeContentType", "TISICityName_1p0.xsd",
+                    TISICityName.class, "tisi_city_name"));
+
+    private final CodeListRegistry registry;
+
+    public CodeListSchemaValidator(CodeListRegistry registry) {
+        this(registry, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param registry the code lists to check the TISI codes against
+     * @param poolSize maximum number of idle validators kept per document type
+     */
+    public CodeListSchemaValidator(CodeListRegistry registry, int poolSize) {
+        super(poolSize);
+        this.registry = Objects.requireNonNull(registry, "registry");
+    }
+
+    /**
+     * Create the schema factory, with the TISI code list imports redirected to their
+     * relaxed modules.
+     */
+    @Override
+    protected SchemaFactory createSchemaFactory() {
+        SchemaFactory factory = super.createSchemaFactory();
+        DOMImplementationLS ls = domImplementationLS();
+        factory.setResourceResolver((type, namespaceURI, publicId, systemId, baseURI) -> {
+            RelaxedCodeList codeList = find(namespaceURI);
+            if (codeList == null) {
+                return null;
+            }
+            LSInput input = ls.createLSInput();
+            input.setSystemId(codeList.url.toExternalForm());
+            return input;
+        });
+        return factory;
+    }
+
+    @Override
+    protected DocumentCheck createDocumentCheck(DocumentSchematron docType, TypeInfoProvider types) {
+        return new CodeCheck(types);
+    }
+
+    private static RelaxedCodeList find(String namespaceURI) {
+        for (RelaxedCodeList codeList : RELAXED_CODE_LISTS) {
+            if (codeList.namespace.equals(namespaceURI)) {
+                return codeList;
+            }
+        }
+        return null;
+    }
+
+    private static DOMImplementationLS domImplementationLS() {
+        try {
+            return (DOMImplementationLS) DocumentBuilderFactory.newInstance().newDocumentBuilder().getDOMImplementation();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Failed to create DOM implementation", e);
+        }
+    }
+
+    /**
+     * Collapses whitespace as the {@code xsd:token} base type of the code lists does.
+     */
+    private static String collapse(String value) {
+        return value.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * A code list module replaced by a relaxed one and checked against the registry.
+     */
+    private static final class RelaxedCodeList {
+
+        private final String namespace;
+        private final String contentType;
+        private final URL url;
+        private final Class<?> entityType;
+        private final String tableName;
+
+        RelaxedCodeList(String namespace, String contentType, String fileName, Class<?> entityType, String tableName) {
+            this.namespace = namespace;
+            this.contentType = contentType;
+            this.entityType = entityType;
+            this.tableName = tableName;
+            this.url = CodeListSchemaValidator.class.getClassLoader().getResource(RELAXED_CODELIST_ROOT + fileName);
+            if (url == null) {
+                throw new IllegalStateException("Relaxed code list not found on classpath: " + RELAXED_CODELIST_ROOT + fileName);
+            }
+        }
+
+        boolean isTypeOf(TypeInfo type) {
+            return type != null && type.isDerivedFrom(namespace, contentType,
+                    TypeInfo.DERIVATION_EXTENSION | TypeInfo.DERIVATION_RESTRICTION);
+        }
+    }
+
+    /**
+     * One coded element of a document.
+     */
+    private static final class Occurrence {
+
+        private final RelaxedCodeList codeList;
+        private final String code;
+        private final int lineNumber;
+        private final int columnNumber;
+        private final String location;
+
+        Occurrence(RelaxedCodeList codeList, String code, int lineNumber, int columnNumber, String location) {
+            this.codeList = codeList;
+            this.code = code;
+            this.lineNumber = lineNumber;
+            this.columnNumber = columnNumber;
+            this.location = location;
+        }
+    }
+
+    /**
+     * Collects the coded elements of a document and checks them at its end.
+     */
+    private final class CodeCheck extends DocumentCheck {
+
+        private final TypeInfoProvider types;
+        private final List<String> path = new ArrayList<>();
+        private final List<Occurrence> occurrences = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private Locator locator;
+        private RelaxedCodeList current;
+        private int currentLine;
+        private int currentColumn;
+
+        CodeCheck(TypeInfoProvider types) {
+            this.types = types;
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            path.add(localName);
+            TypeInfo type = types.getElementTypeInfo();
+            for (RelaxedCodeList codeList : RELAXED_CODE_LISTS) {
+                if (codeList.isTypeOf(type)) {
+                    current = codeList;
+                    currentLine = locator != null ? position(locator.getLineNumber()) : -1;
+                    currentColumn = locator != null ? position(locator.getColumnNumber()) : -1;
+                    text.setLength(0);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (current != null) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (current != null) {
+                String code = collapse(text.toString());
+                if (!code.isEmpty()) {
+                    occurrences.add(new Occurrence(current, code, currentLine, currentColumn, "/" + String.join("/", path)));
+                }
+                current = null;
+            }
+            path.remove(path.size() - 1);
+        }
+
+        @Override
+        protected void finish(List<SchemaError> errors) {
+            for (RelaxedCodeList codeList : RELAXED_CODE_LISTS) {
+                Set<String> codes = new LinkedHashSet<>();
+                for (Occurrence occurrence : occurrences) {
+                    if (occurrence.codeList == codeList) {
+                        codes.add(occurrence.code);
+                    }
+                }
+                if (codes.isEmpty()) {
+                    continue;
+                }
+
+                Map<String, ?> resolved = registry.resolveAll(codeList.entityType, codes);
+                for (Occurrence occurrence : occurrences) {
+                    if (occurrence.codeList == codeList && !resolved.containsKey(occurrence.code)) {
+                        errors.add(new SchemaError("cvc-enumeration-valid: Value '" + occurrence.code
+                                + "' is not a code of the " + codeList.tableName + " code list.",
+                                occurrence.lineNumber, occurrence.columnNumber, occurrence.location));
+                    }
+                }
+                log.debug("Checked {} {} code(s) against the registry", codes.size(), codeList.tableName);
+            }
+        }
+    }
+}
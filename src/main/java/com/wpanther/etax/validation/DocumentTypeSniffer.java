@@ -0,0 +1,248 @@
+package com.wpanther.etax.validation;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Detects the document type of an ETDA document from its root element.
+ * <p>
+ * Only the start of the document is parsed with StAX: the root element, which is looked
+ * up by local name in {@link MessageInfo}, and the elements leading to the version
+ * attribute given by the message's {@code versionPath}
+ * ({@code ExchangedDocumentContext/GuidelineSpecifiedDocumentContextParameter/ID/@schemeVersionID},
+ * the first element of every document). Parsing stops there, so the cost does not depend
+ * on the size of the document.
+ * <p>
+ * The bytes read while sniffing are kept and replayed by {@link SniffedDocument#getInputStream()},
+ * so the same input can then be unmarshalled or validated without reopening it:
+ * <pre>
+ * SniffedDocument document = sniffer.sniff(inputStream);
+ * DocumentSchematron docType = document.getDocumentType();
+ * Object invoice = jaxbContexts.unmarshal(docType, document.getInputStream());
+ * </pre>
+ * DTDs are not supported: documents with a DOCTYPE declaration are rejected.
+ * Instances are immutable and safe for concurrent use.
+ */
+public class DocumentTypeSniffer {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final MessageInfo messageInfo;
+
+    /**
+     * Create a sniffer for the messages of the bundled MessageInfo.json.
+     */
+    public DocumentTypeSniffer() {
+        this(MessageInfo.getDefault());
+    }
+
+    public DocumentTypeSniffer(MessageInfo messageInfo) {
+        this.messageInfo = Objects.requireNonNull(messageInfo, "messageInfo");
+    }
+
+    /**
+     * Detect the document type of XML content.
+     *
+     * @throws SchematronValidationException if the content is not XML or its root element is not a known message
+     */
+    public SniffedDocument sniff(byte[] xml) {
+        Objects.requireNonNull(xml, "xml");
+        try {
+            Header header = readHeader(new ByteArrayInputStream(xml));
+            return new SniffedDocument(header.message, header.rootNamespace, header.version,
+                    () -> new ByteArrayInputStream(xml));
+        } catch (IOException e) {
+            // Not thrown by ByteArrayInputStream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Detect the document type of XML content.
+     *
+     * @throws SchematronValidationException if the content is not XML or its root element is not a known message
+     */
+    public SniffedDocument sniff(String xml) {
+        Objects.requireNonNull(xml, "xml");
+        return sniff(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Detect the document type of an input stream.
+     * <p>
+     * The stream is read only up to the version attribute. {@link SniffedDocument#getInputStream()}
+     * returns the whole content: the bytes already read followed by the rest of {@code in}.
+     * Closing that stream closes {@code in}.
+     *
+     * @throws IOException if the stream cannot be read
+     * @throws SchematronValidationException if the content is not XML or its root element is not a known message
+     */
+    public SniffedDocument sniff(InputStream in) throws IOException {
+        Objects.requireNonNull(in, "in");
+        RecordingInputStream recording = new RecordingInputStream(in);
+        Header header = readHeader(recording);
+        InputStream replay = new SequenceInputStream(new ByteArrayInputStream(recording.getRecorded()), in);
+        return new SniffedDocument(header.message, header.rootNamespace, header.version, () -> replay);
+    }
+
+    /**
+     * Get the message catalogue used for detection.
+     */
+    public MessageInfo getMessageInfo() {
+        return messageInfo;
+    }
+
+    private Header readHeader(InputStream in) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(in);
+            reader.nextTag();
+            String rootTagName = reader.getLocalName();
+            MessageInfo.Message message = messageInfo.findByRootTagName(rootTagName)
+                    .orElseThrow(() -> new SchematronValidationException("Unknown document root element: " + rootTagName));
+            if (message.getDocumentType() == null) {
+                throw new SchematronValidationException("No document type for root element: " + rootTagName);
+            }
+            return new Header(message, reader.getNamespaceURI(), readVersion(reader, message));
+        } catch (XMLStreamException e) {
+            if (e.getNestedException() instanceof IOException) {
+                throw (IOException) e.getNestedException();
+            }
+            throw new SchematronValidationException("Failed to read document root element: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Does not close the underlying stream; nothing to release
+                }
+            }
+        }
+    }
+
+    /**
+     * Follow the version path from the root element, stepping over siblings that are not on it.
+     * Returns null as soon as the path cannot be matched (the version is optional for routing).
+     */
+    private static String readVersion(XMLStreamReader reader, MessageInfo.Message message) throws XMLStreamException {
+        List<String> path = message.getVersionElementPath();
+        String attribute = message.getVersionAttribute();
+        if (attribute == null || path.isEmpty() || !path.get(0).equals(reader.getLocalName())) {
+            return null;
+        }
+        for (int step = 1; step < path.size(); step++) {
+            if (!descendTo(reader, path.get(step))) {
+                return null;
+            }
+        }
+        return reader.getAttributeValue(null, attribute);
+    }
+
+    /**
+     * Move from the current start element to its first child with the given local name.
+     */
+    private static boolean descendTo(XMLStreamReader reader, String localName) throws XMLStreamException {
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == 0 && localName.equals(reader.getLocalName())) {
+                    return true;
+                }
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    return false;
+                }
+                depth--;
+            }
+        }
+        return false;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    private static final class Header {
+
+        private final MessageInfo.Message message;
+        private final String rootNamespace;
+        private final String version;
+
+        Header(MessageInfo.Message message, String rootNamespace, String version) {
+            this.message = message;
+            this.rootNamespace = rootNamespace;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Keeps a copy of every byte read, so the content can be replayed after sniffing.
+     */
+    private static final class RecordingInputStream extends FilterInputStream {
+
+        private final ByteArrayOutputStream recorded = new ByteArrayOutputStream(8192);
+
+        RecordingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                recorded.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                recorded.write(buffer, offset, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes would be lost for the replay
+            long skipped = 0;
+            while (skipped < n && read() >= 0) {
+                skipped++;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // The underlying stream is handed on to the replay stream
+        }
+
+        byte[] getRecorded() {
+            return recorded.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.wpanther.etax.validation;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XPathCompiler;
+import net.sf.saxon.s9api.XPathExecutable;
+import net.sf.saxon.s9api.XPathSelector;
+import net.sf.saxon.s9api.XdmItem;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of SchematronValidator that re-validates an edited document by
+ * evaluating only the rules affected by the edit.
+ * <p>
+ * Each {@code sch:rule} is analysed once per document type to find the document paths
+ * its context and tests depend on (see {@link RuleDependencies}), and its context and
+ * tests are compiled into Saxon-HE {@link XPathExecutable}s as in
+ * {@link ProfilingSchematronValidator}. Given the result of the previous validation and
+ * the paths changed since, {@link #revalidate(String, DocumentSchematron, SchematronValidationResult, Collection)}
+ * evaluates the affected rules on the new document and keeps the previous issues of all
+ * other rules. Editing one field typically re-evaluates one or two rules instead of all
+ * of them.
+ * <p>
+ * Usage:
+ * <pre>
+ * IncrementalSchematronValidator validator = new IncrementalSchematronValidator();
+ * SchematronValidationResult result = validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+ * // the user edits the seller's postcode
+ * result = validator.revalidate(editedXml, DocumentSchematron.TAX_INVOICE, result, List.of(
+ *     "/rsm:TaxInvoice_CrossIndustryInvoice/rsm:SupplyChainTradeTransaction/ram:ApplicableHeaderTradeAgreement"
+ *         + "/ram:SellerTradeParty/ram:PostalTradeAddress/ram:PostcodeCode"));
+ * </pre>
+ * The merged result lists the issues in the order of a full validation. It is the same as
+ * validating the edited document from scratch, provided the previous result is the complete
+ * (not {@link SchematronValidationResult#isTruncated() truncated}) result of the same
+ * document type, from any validator, and all changed nodes are listed.
+ */
+public class IncrementalSchematronValidator implements SchematronValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalSchematronValidator.class);
+
+    private final Processor processor;
+    private final ConcurrentMap<DocumentSchematron, CompiledRules> rulesCache = new ConcurrentHashMap<>();
+
+    public IncrementalSchematronValidator() {
+        this(new Processor(false));
+    }
+
+    /**
+     * @param processor the Saxon processor used to compile and evaluate the rules
+     */
+    public IncrementalSchematronValidator(Processor processor) {
+        this.processor = Objects.requireNonNull(processor, "processor");
+    }
+
+    @Override
+    public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType) {
+        return evaluate(build(stringSource(xmlContent), docType), docType, null);
+    }
+
+    @Override
+    public SchematronValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType) {
+        if (xmlInputStream == null) {
+            throw new IllegalArgumentException("XML input stream cannot be null");
+        }
+
+        try {
+            return evaluate(build(new StreamSource(xmlInputStream), docType), docType, null);
+        } finally {
+            try {
+                xmlInputStream.close();
+            } catch (IOException e) {
+                log.warn("Failed to close input stream", e);
+            }
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(Document document, DocumentSchematron docType) {
+        return evaluate(build(domSource(document), docType), docType, null);
+    }
+
+    /**
+     * Re-validate an edited document.
+     *
+     * @param xmlContent   the edited document
+     * @param docType      the document type
+     * @param previous     the complete result of validating the document before the edit
+     * @param changedPaths absolute paths of the elements and attributes added, removed or
+     *                     changed, e.g. {@code /rsm:TaxInvoice_CrossIndustryInvoice/rsm:ExchangedDocument/ram:ID};
+     *                     positional predicates such as {@code [1]} are allowed and ignored
+     * @return the result of validating the edited document
+     * @throws IllegalArgumentException if a changed path is not an absolute location path
+     */
+    public SchematronValidationResult revalidate(String xmlContent, DocumentSchematron docType,
+                                                 SchematronValidationResult previous,
+                                                 Collection<String> changedPaths) {
+        return revalidate(stringSource(xmlContent), docType, previous, changedPaths);
+    }
+
+    /**
+     * Re-validate an edited document.
+     *
+     * @see #revalidate(String, DocumentSchematron, SchematronValidationResult, Collection)
+     */
+    public SchematronValidationResult revalidate(Document document, DocumentSchematron docType,
+                                                 SchematronValidationResult previous,
+                                                 Collection<String> changedPaths) {
+        return revalidate(domSource(document), docType, previous, changedPaths);
+    }
+
+    /**
+     * Get the checks that a change to the given paths re-evaluates, by label: the rule ID
+     * at the start of the message (e.g. "TIV-SellerTradeParty-007"), or its position.
+     *
+     * @param docType      the document type
+     * @param changedPaths absolute paths of the changed elements and attributes
+     */
+    public Set<String> getAffectedChecks(DocumentSchematron docType, Collection<String> changedPaths) {
+        CompiledRules rules = getRules(docType);
+        BitSet affected = rules.affected(parsePaths(changedPaths));
+        rules.closeOverSharedTests(affected);
+        Set<String> labels = new LinkedHashSet<>();
+        for (int i = affected.nextSetBit(0); i >= 0; i = affected.nextSetBit(i + 1)) {
+            for (SchematronRules.SchCheck check : rules.rules.get(i).rule.getChecks()) {
+                labels.add(check.getLabel());
+            }
+        }
+        return labels;
+    }
+
+    @Override
+    public boolean isSchematronValid(DocumentSchematron docType) {
+        try {
+            return getRules(docType) != null;
+        } catch (Exception e) {
+            log.error("Failed to compile Schematron file for {}", docType, e);
+            return false;
+        }
+    }
+
+    /**
+     * Eagerly analyse and compile the rules for all document types.
+     */
+    public void warmUp() {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            getRules(docType);
+        }
+    }
+
+    /**
+     * Discard all compiled rules. They are recompiled on next use.
+     */
+    public void clearCache() {
+        rulesCache.clear();
+    }
+
+    private SchematronValidationResult revalidate(Source source, DocumentSchematron docType,
+                                                  SchematronValidationResult previous,
+                                                  Collection<String> changedPaths) {
+        if (previous == null) {
+            throw new IllegalArgumentException("Previous result cannot be null");
+        }
+        List<List<String>> changed = parsePaths(changedPaths);
+        CompiledRules rules = getRules(docType);
+        XdmNode tree = build(source, docType);
+
+        if (previous.isTruncated()) {
+            log.debug("Previous {} result is truncated, validating the whole document", docType);
+            return evaluate(tree, docType, null);
+        }
+
+        BitSet affected = rules.affected(changed);
+        rules.closeOverSharedTests(affected);
+        log.debug("Re-validating {} of {} rules for {} after changes to {}",
+            affected.cardinality(), rules.rules.size(), docType, changedPaths);
+        if (affected.isEmpty()) {
+            return previous;
+        }
+        if (affected.cardinality() == rules.rules.size()) {
+            return evaluate(tree, docType, null);
+        }
+
+        // Previous issues by rule, dropping those of the affected rules
+        List<List<SchematronError>> kept = new ArrayList<>();
+        for (int i = 0; i < rules.rules.size(); i++) {
+            kept.add(new ArrayList<>());
+        }
+        List<SchematronError> unknown = new ArrayList<>();
+        List<SchematronError> issues = new ArrayList<>(previous.getErrors());
+        issues.addAll(previous.getWarnings());
+        for (SchematronError issue : issues) {
+            BitSet owners = rules.rulesByTest.get(issue.getTestExpression());
+            if (owners == null) {
+                unknown.add(issue);
+            } else if (!owners.intersects(affected)) {
+                kept.get(owners.nextSetBit(0)).add(issue);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            log.debug("{} previous issues do not match a {} rule and are kept", unknown.size(), docType);
+        }
+        return evaluate(tree, docType, new Merge(affected, kept, unknown));
+    }
+
+    /**
+     * Evaluate the rules on a document: all of them, or only the affected ones of a merge.
+     */
+    private SchematronValidationResult evaluate(XdmNode tree, DocumentSchematron docType, Merge merge) {
+        CompiledRules rules = getRules(docType);
+        List<SchematronError> errors = new ArrayList<>();
+        List<SchematronError> warnings = new ArrayList<>();
+        try {
+            for (int i = 0; i < rules.rules.size(); i++) {
+                if (merge == null || merge.affected.get(i)) {
+                    rules.rules.get(i).evaluate(tree, errors, warnings);
+                } else {
+                    for (SchematronError issue : merge.kept.get(i)) {
+                        (issue.getLevel() == SchematronError.ErrorLevel.ERROR ? errors : warnings).add(issue);
+                    }
+                }
+            }
+        } catch (SaxonApiException e) {
+            log.error("Schematron validation failed for {}", docType, e);
+            throw new SchematronValidationException("Schematron validation failed: " + e.getMessage(), docType, e);
+        }
+        if (merge != null) {
+            for (SchematronError issue : merge.unknown) {
+                (issue.getLevel() == SchematronError.ErrorLevel.ERROR ? errors : warnings).add(issue);
+            }
+        }
+
+        log.debug("Schematron validation for {} completed: {} errors, {} warnings",
+            docType, errors.size(), warnings.size());
+
+        if (errors.isEmpty()) {
+            return warnings.isEmpty()
+                ? SchematronValidationResult.success()
+                : SchematronValidationResult.validWithWarnings(warnings);
+        }
+        return SchematronValidationResult.invalid(errors, warnings);
+    }
+
+    private static List<List<String>> parsePaths(Collection<String> changedPaths) {
+        if (changedPaths == null) {
+            throw new IllegalArgumentException("Changed paths cannot be null");
+        }
+        List<List<String>> changed = new ArrayList<>();
+        for (String path : changedPaths) {
+            changed.add(RuleDependencies.steps(path));
+        }
+        return changed;
+    }
+
+    private static Source stringSource(String xmlContent) {
+        if (xmlContent == null || xmlContent.isBlank()) {
+            throw new IllegalArgumentException("XML content cannot be null or empty");
+        }
+        return new StreamSource(new StringReader(xmlContent));
+    }
+
+    private static Source domSource(Document document) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null");
+        }
+        return new DOMSource(document);
+    }
+
+    private XdmNode build(Source source, DocumentSchematron docType) {
+        try {
+            return processor.newDocumentBuilder().build(source);
+        } catch (SaxonApiException e) {
+            throw new SchematronValidationException("Failed to read document: " + e.getMessage(), docType, e);
+        }
+    }
+
+    /**
+     * Get the compiled rules for a document type, compiling them on first use.
+     */
+    private CompiledRules getRules(DocumentSchematron docType) {
+        return rulesCache.computeIfAbsent(docType, this::compileSchematron);
+    }
+
+    /**
+     * Parse the Schematron file for a document type, analyse and compile its rules.
+     *
+     * @throws SchematronValidationException if the Schematron file is not found or cannot be compiled
+     */
+    private CompiledRules compileSchematron(DocumentSchematron docType) {
+        ClassLoader classLoader = IncrementalSchematronValidator.class.getClassLoader();
+        try (InputStream sch = classLoader.getResourceAsStream(docType.getSchematronPath())) {
+            if (sch == null) {
+                throw new SchematronValidationException(
+                    "Schematron file not found on classpath: " + docType.getSchematronPath(), docType);
+            }
+
+            SchematronRules rules = SchematronRules.parse(sch, docType);
+            XPathCompiler compiler = processor.newXPathCompiler();
+            rules.getNamespaces().forEach(compiler::declareNamespace);
+
+            List<CompiledRule> compiled = new ArrayList<>();
+            for (SchematronRules.SchPattern pattern : rules.getPatterns()) {
+                for (SchematronRules.SchRule rule : pattern.getRules()) {
+                    compiled.add(new CompiledRule(rule, compiler));
+                }
+            }
+            long unresolved = compiled.stream().filter(rule -> rule.dependencies.isUnresolved()).count();
+            log.debug("Compiled {} Schematron rules for {} ({} depend on the whole document)",
+                compiled.size(), docType, unresolved);
+            return new CompiledRules(compiled);
+
+        } catch (IOException | SaxonApiException e) {
+            throw new SchematronValidationException(
+                "Failed to compile Schematron: " + e.getMessage(), docType, e);
+        }
+    }
+
+    /**
+     * The compiled rules of one document type, in document order.
+     */
+    private static final class CompiledRules {
+
+        private final List<CompiledRule> rules;
+        /** The rules with a check of each test expression, to attribute previous issues */
+        private final Map<String, BitSet> rulesByTest = new HashMap<>();
+
+        CompiledRules(List<CompiledRule> rules) {
+            this.rules = rules;
+            for (int i = 0; i < rules.size(); i++) {
+                for (SchematronRules.SchCheck check : rules.get(i).rule.getChecks()) {
+                    rulesByTest.computeIfAbsent(check.getTest(), test -> new BitSet()).set(i);
+                }
+            }
+        }
+
+        BitSet affected(List<List<String>> changed) {
+            BitSet affected = new BitSet(rules.size());
+            for (int i = 0; i < rules.size(); i++) {
+                for (List<String> path : changed) {
+                    if (rules.get(i).dependencies.isAffectedBy(path)) {
+                        affected.set(i);
+                        break;
+                    }
+                }
+            }
+            return affected;
+        }
+
+        /**
+         * Add the rules sharing a test expression with an affected rule: issues are matched
+         * to rules by test, so all rules that may have reported an issue are re-evaluated.
+         */
+        void closeOverSharedTests(BitSet affected) {
+            boolean grown = true;
+            while (grown) {
+                grown = false;
+                for (BitSet owners : rulesByTest.values()) {
+                    if (owners.cardinality() > 1 && owners.intersects(affected)) {
+                        BitSet before = (BitSet) affected.clone();
+                        affected.or(owners);
+                        grown |= !affected.equals(before);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A {@code sch:rule} with its dependencies and compiled context and tests.
+     */
+    private static final class CompiledRule {
+
+        private final SchematronRules.SchRule rule;
+        private final RuleDependencies dependencies;
+        private final XPathExecutable context;
+        private final List<XPathExecutable> tests = new ArrayList<>();
+
+        CompiledRule(SchematronRules.SchRule rule, XPathCompiler compiler) throws SaxonApiException {
+            this.rule = rule;
+            this.dependencies = RuleDependencies.of(rule);
+            this.context = compiler.compile(rule.getSelect());
+            for (SchematronRules.SchCheck check : rule.getChecks()) {
+                tests.add(compiler.compile(check.getTest()));
+            }
+        }
+
+        void evaluate(XdmNode tree, List<SchematronError> errors, List<SchematronError> warnings)
+                throws SaxonApiException {
+            XPathSelector contextSelector = context.load();
+            contextSelector.setContextItem(tree);
+            XdmValue nodes = contextSelector.evaluate();
+            if (nodes.size() == 0) {
+                return;
+            }
+
+            List<SchematronRules.SchCheck> checks = rule.getChecks();
+            XPathSelector[] selectors = new XPathSelector[checks.size()];
+            for (int i = 0; i < selectors.length; i++) {
+                selectors[i] = tests.get(i).load();
+            }
+            for (XdmItem node : nodes) {
+                for (int i = 0; i < selectors.length; i++) {
+                    SchematronRules.SchCheck check = checks.get(i);
+                    selectors[i].setContextItem(node);
+                    if (selectors[i].effectiveBooleanValue() == check.isReport()) {
+                        String location = node instanceof XdmNode
+                            ? ProfilingSchematronValidator.location((XdmNode) node) : "";
+                        if (check.isReport()) {
+                            warnings.add(new SchematronError(check.getId(), check.getMessage(), location,
+                                SchematronError.ErrorLevel.WARNING, check.getTest()));
+                        } else {
+                            errors.add(new SchematronError(check.getId(), check.getMessage(), location,
+                                SchematronError.ErrorLevel.ERROR, check.getTest()));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The rules to re-evaluate and the previous issues of the others.
+     */
+    private static final class Merge {
+
+        private final BitSet affected;
+        private final List<List<SchematronError>> kept;
+        private final List<SchematronError> unknown;
+
+        Merge(BitSet affected, List<List<SchematronError>> kept, List<SchematronError> unknown) {
+            this.affected = affected;
+            this.kept = kept;
+            this.unknown = unknown;
+        }
+    }
+}
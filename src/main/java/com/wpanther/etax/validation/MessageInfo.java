@@ -0,0 +1,295 @@
+package com.wpanther.etax.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The message catalogue of the ETDA standard, read from {@code MessageInfo.json}.
+ * <p>
+ * For each message, the catalogue gives the root tag name, the XPath of the version
+ * attribute and the XSD and Schematron files. Each message is matched to its
+ * {@link DocumentSchematron} by root tag name ({@code <DocumentName>_CrossIndustryInvoice}).
+ * <p>
+ * The file only contains string properties and one array of flat objects, so it is read
+ * with a small purpose-built parser rather than a JSON library.
+ */
+public final class MessageInfo {
+
+    /** Classpath directory of the ETDA standard; the paths in MessageInfo.json are relative to it */
+    public static final String RESOURCE_ROOT = "e-tax-invoice-receipt-v2.1";
+
+    /** Classpath location of the bundled MessageInfo.json */
+    public static final String DEFAULT_LOCATION = RESOURCE_ROOT + "/MessageInfo.json";
+
+    private static final Pattern STRING_PROPERTY = Pattern.compile("\"(\\w+)\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final Pattern OBJECT = Pattern.compile("\\{([^{}]*)}");
+
+    private static volatile MessageInfo defaultInstance;
+
+    private final String standardName;
+    private final String version;
+    private final Map<String, Message> messagesByRootTag;
+    private final Map<DocumentSchematron, Message> messagesByDocType;
+
+    private MessageInfo(String standardName, String version, List<Message> messages) {
+        this.standardName = standardName;
+        this.version = version;
+        Map<String, Message> byRootTag = new LinkedHashMap<>();
+        Map<DocumentSchematron, Message> byDocType = new EnumMap<>(DocumentSchematron.class);
+        for (Message message : messages) {
+            byRootTag.put(message.getRootTagName(), message);
+            if (message.getDocumentType() != null) {
+                byDocType.put(message.getDocumentType(), message);
+            }
+        }
+        this.messagesByRootTag = Collections.unmodifiableMap(byRootTag);
+        this.messagesByDocType = Collections.unmodifiableMap(byDocType);
+    }
+
+    /**
+     * Get the catalogue bundled with the library (loaded once).
+     *
+     * @throws IllegalStateException if MessageInfo.json is missing or malformed
+     */
+    public static MessageInfo getDefault() {
+        MessageInfo info = defaultInstance;
+        if (info == null) {
+            synchronized (MessageInfo.class) {
+                info = defaultInstance;
+                if (info == null) {
+                    try (InputStream in = MessageInfo.class.getClassLoader().getResourceAsStream(DEFAULT_LOCATION)) {
+                        if (in == null) {
+                            throw new IllegalStateException("MessageInfo.json not found on classpath: " + DEFAULT_LOCATION);
+                        }
+                        info = parse(in);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read " + DEFAULT_LOCATION, e);
+                    }
+                    defaultInstance = info;
+                }
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Read a catalogue in the MessageInfo.json format.
+     *
+     * @param in the JSON content (not closed)
+     * @throws IllegalStateException if the content has no messages
+     */
+    public static MessageInfo parse(InputStream in) throws IOException {
+        String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        int messagesStart = json.indexOf("\"messages\"");
+        if (messagesStart < 0) {
+            throw new IllegalStateException("MessageInfo.json has no \"messages\" array");
+        }
+
+        Map<String, String> header = properties(json.substring(0, messagesStart));
+        List<Message> messages = new ArrayList<>();
+        Matcher object = OBJECT.matcher(json);
+        object.region(messagesStart, json.length());
+        while (object.find()) {
+            Map<String, String> properties = properties(object.group(1));
+            String rootTagName = properties.get("rootTagName");
+            if (rootTagName == null) {
+                throw new IllegalStateException("Message without rootTagName in MessageInfo.json: " + object.group());
+            }
+            messages.add(new Message(rootTagName,
+                    properties.get("versionPath"),
+                    properties.get("schemaFilePath"),
+                    properties.get("schematronFilePath"),
+                    documentTypeOf(rootTagName)));
+        }
+        if (messages.isEmpty()) {
+            throw new IllegalStateException("MessageInfo.json has no messages");
+        }
+        return new MessageInfo(header.get("standardName"), header.get("version"), messages);
+    }
+
+    /**
+     * Find a message by the local name of its root element.
+     */
+    public Optional<Message> findByRootTagName(String rootTagName) {
+        return Optional.ofNullable(messagesByRootTag.get(rootTagName));
+    }
+
+    /**
+     * Get the message of a document type.
+     *
+     * @throws IllegalArgumentException if the catalogue has no message for the document type
+     */
+    public Message getMessage(DocumentSchematron docType) {
+        Message message = messagesByDocType.get(docType);
+        if (message == null) {
+            throw new IllegalArgumentException("No message for " + docType + " in MessageInfo.json");
+        }
+        return message;
+    }
+
+    /**
+     * Get all messages in catalogue order.
+     */
+    public Iterable<Message> getMessages() {
+        return messagesByRootTag.values();
+    }
+
+    /**
+     * Get the name of the standard (e.g. "E-Tax Invoice and E-Receipt").
+     */
+    public String getStandardName() {
+        return standardName;
+    }
+
+    /**
+     * Get the version of the standard (e.g. "2.1").
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    private static Map<String, String> properties(String json) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        Matcher property = STRING_PROPERTY.matcher(json);
+        while (property.find()) {
+            properties.put(property.group(1), property.group(2).replace("\\/", "/").replace("\\\"", "\""));
+        }
+        return properties;
+    }
+
+    private static DocumentSchematron documentTypeOf(String rootTagName) {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            if (rootTagName.equals(docType.getDocumentName() + "_CrossIndustryInvoice")) {
+                return docType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One message of the catalogue.
+     */
+    public static final class Message {
+
+        private final String rootTagName;
+        private final String versionPath;
+        private final String schemaFilePath;
+        private final String schematronFilePath;
+        private final DocumentSchematron documentType;
+        private final List<String> versionElementPath;
+        private final String versionAttribute;
+
+        Message(String rootTagName, String versionPath, String schemaFilePath, String schematronFilePath,
+                DocumentSchematron documentType) {
+            this.rootTagName = rootTagName;
+            this.versionPath = versionPath;
+            this.schemaFilePath = schemaFilePath;
+            this.schematronFilePath = schematronFilePath;
+            this.documentType = documentType;
+
+            // "/Root/A/B/@attr" -> elements [Root, A, B], attribute "attr"
+            List<String> elements = new ArrayList<>();
+            String attribute = null;
+            if (versionPath != null) {
+                for (String step : versionPath.split("/")) {
+                    if (step.startsWith("@")) {
+                        attribute = step.substring(1);
+                    } else if (!step.isEmpty()) {
+                        elements.add(step);
+                    }
+                }
+            }
+            this.versionElementPath = Collections.unmodifiableList(elements);
+            this.versionAttribute = attribute;
+        }
+
+        /**
+         * Get the local name of the root element (e.g. "TaxInvoice_CrossIndustryInvoice").
+         */
+        public String getRootTagName() {
+            return rootTagName;
+        }
+
+        /**
+         * Get the XPath of the version attribute.
+         */
+        public String getVersionPath() {
+            return versionPath;
+        }
+
+        /**
+         * Get the XSD path as written in MessageInfo.json (relative to {@link #RESOURCE_ROOT}).
+         */
+        public String getSchemaFilePath() {
+            return schemaFilePath;
+        }
+
+        /**
+         * Get the Schematron path as written in MessageInfo.json (relative to {@link #RESOURCE_ROOT}).
+         */
+        public String getSchematronFilePath() {
+            return schematronFilePath;
+        }
+
+        /**
+         * Get the classpath location of the XSD.
+         */
+        public String getSchemaResource() {
+            return resource(schemaFilePath);
+        }
+
+        /**
+         * Get the classpath location of the Schematron file.
+         */
+        public String getSchematronResource() {
+            return resource(schematronFilePath);
+        }
+
+        /**
+         * Get the document type, or null if the message has no {@link DocumentSchematron}.
+         */
+        public DocumentSchematron getDocumentType() {
+            return documentType;
+        }
+
+        /**
+         * Get the local names of the elements leading to the version attribute, root first.
+         */
+        List<String> getVersionElementPath() {
+            return versionElementPath;
+        }
+
+        /**
+         * Get the local name of the version attribute, or null if the message has no version path.
+         */
+        String getVersionAttribute() {
+            return versionAttribute;
+        }
+
+        private static String resource(String path) {
+            if (path == null) {
+                return null;
+            }
+            return RESOURCE_ROOT + (path.startsWith("/") ? path : "/" + path);
+        }
+
+        @Override
+        public String toString() {
+            return "Message{" +
+                   "rootTagName='" + rootTagName + '\'' +
+                   ", documentType=" + documentType +
+                   '}';
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.EtaxMetrics.ValidationOutcome;
+import org.w3c.dom.Document;
+
+import java.io.InputStream;
+
+/**
+ * SchematronValidator decorator that records each validation in {@link EtaxMetrics}.
+ * <p>
+ * Validations are timed per {@link DocumentSchematron}, with the number of errors and
+ * warnings reported. Validations that throw are recorded with outcome {@code failed}.
+ * <p>
+ * Usage:
+ * <pre>
+ * SchematronValidator validator = new MeteredSchematronValidator(new SchematronXsltValidator(), metrics);
+ * </pre>
+ */
+public class MeteredSchematronValidator implements SchematronValidator {
+
+    private final SchematronValidator delegate;
+    private final EtaxMetrics metrics;
+
+    public MeteredSchematronValidator(SchematronValidator delegate, EtaxMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType) {
+        long start = System.nanoTime();
+        try {
+            return record(docType, delegate.validate(xmlContent, docType), start);
+        } catch (RuntimeException e) {
+            metrics.recordValidation(docType, ValidationOutcome.FAILED, 0, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType) {
+        long start = System.nanoTime();
+        try {
+            return record(docType, delegate.validate(xmlInputStream, docType), start);
+        } catch (RuntimeException e) {
+            metrics.recordValidation(docType, ValidationOutcome.FAILED, 0, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(Document document, DocumentSchematron docType) {
+        long start = System.nanoTime();
+        try {
+            return record(docType, delegate.validate(document, docType), start);
+        } catch (RuntimeException e) {
+            metrics.recordValidation(docType, ValidationOutcome.FAILED, 0, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType,
+                                               SchematronValidationOptions options) {
+        long start = System.nanoTime();
+        try {
+            return record(docType, delegate.validate(xmlContent, docType, options), start);
+        } catch (RuntimeException e) {
+            metrics.recordValidation(docType, ValidationOutcome.FAILED, 0, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType,
+                                               SchematronValidationOptions options) {
+        long start = System.nanoTime();
+        try {
+            return record(docType, delegate.validate(xmlInputStream, docType, options), start);
+        } catch (RuntimeException e) {
+            metrics.recordValidation(docType, ValidationOutcome.FAILED, 0, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(Document document, DocumentSchematron docType,
+                                               SchematronValidationOptions options) {
+        long start = System.nanoTime();
+        try {
+            return record(docType, delegate.validate(document, docType, options), start);
+        } catch (RuntimeException e) {
+            metrics.recordValidation(docType, ValidationOutcome.FAILED, 0, 0, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isSchematronValid(DocumentSchematron docType) {
+        return delegate.isSchematronValid(docType);
+    }
+
+    /**
+     * Get the wrapped validator.
+     */
+    public SchematronValidator getDelegate() {
+        return delegate;
+    }
+
+    private SchematronValidationResult record(DocumentSchematron docType, SchematronValidationResult result, long start) {
+        metrics.recordValidation(docType,
+                result.isValid() ? ValidationOutcome.VALID : ValidationOutcome.INVALID,
+                result.getErrors().size(),
+                result.getWarnings().size(),
+                System.nanoTime() - start);
+        return result;
+    }
+}
@@ -0,0 +1,426 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.validation.SchematronProfile.RuleProfile;
+import net.sf.saxon.s9api.Axis;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XPathCompiler;
+import net.sf.saxon.s9api.XPathExecutable;
+import net.sf.saxon.s9api.XPathSelector;
+import net.sf.saxon.s9api.XdmItem;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
+import net.sf.saxon.s9api.XdmSequenceIterator;
+import net.sf.saxon.s9api.XdmValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of SchematronValidator that measures the cost of every rule.
+ * <p>
+ * Each {@code sch:rule} context and each {@code sch:report} / {@code sch:assert} test is
+ * compiled into its own Saxon-HE {@link XPathExecutable} and evaluated from Java, so that
+ * its evaluation count and cumulative time can be recorded. Results (rule IDs, messages,
+ * locations and test expressions) match {@link SchematronXsltValidator}.
+ * <p>
+ * Timings are accumulated per document type until {@link #reset()} and read with
+ * {@link #getProfile(DocumentSchematron)}, ranked by cumulative time. When metrics are
+ * enabled, the time spent in each context and test is also recorded per document as the
+ * {@code etax.schematron.rule} timer.
+ * <p>
+ * Evaluating rules one by one is slower than running the compiled stylesheet and the
+ * timing adds overhead of its own, so this validator is meant for finding the expensive
+ * rules (e.g. tests that walk every {@code IncludedSupplyChainTradeLineItem}), not for
+ * production use.
+ * <p>
+ * Usage:
+ * <pre>
+ * ProfilingSchematronValidator validator = new ProfilingSchematronValidator();
+ * validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+ * System.out.println(validator.getProfile(DocumentSchematron.TAX_INVOICE).format(20));
+ * </pre>
+ */
+public class ProfilingSchematronValidator implements SchematronValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfilingSchematronValidator.class);
+
+    private final Processor processor;
+    private final EtaxMetrics metrics;
+    private final ConcurrentMap<DocumentSchematron, CompiledRules> rulesCache = new ConcurrentHashMap<>();
+
+    public ProfilingSchematronValidator() {
+        this(new Processor(false), EtaxMetrics.NOOP);
+    }
+
+    /**
+     * @param metrics the metrics to record rule timings to
+     */
+    public ProfilingSchematronValidator(EtaxMetrics metrics) {
+        this(new Processor(false), metrics);
+    }
+
+    /**
+     * @param processor the Saxon processor used to compile and evaluate the rules
+     * @param metrics   the metrics to record rule timings to
+     */
+    public ProfilingSchematronValidator(Processor processor, EtaxMetrics metrics) {
+        this.processor = Objects.requireNonNull(processor, "processor");
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+    }
+
+    @Override
+    public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType) {
+        if (xmlContent == null || xmlContent.isBlank()) {
+            throw new IllegalArgumentException("XML content cannot be null or empty");
+        }
+        return validateFromSource(new StreamSource(new StringReader(xmlContent)), docType);
+    }
+
+    @Override
+    public SchematronValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType) {
+        if (xmlInputStream == null) {
+            throw new IllegalArgumentException("XML input stream cannot be null");
+        }
+
+        try {
+            return validateFromSource(new StreamSource(xmlInputStream), docType);
+        } finally {
+            try {
+                xmlInputStream.close();
+            } catch (IOException e) {
+                log.warn("Failed to close input stream", e);
+            }
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(Document document, DocumentSchematron docType) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null");
+        }
+        return validateFromSource(new DOMSource(document), docType);
+    }
+
+    @Override
+    public boolean isSchematronValid(DocumentSchematron docType) {
+        try {
+            return getRules(docType) != null;
+        } catch (Exception e) {
+            log.error("Failed to compile Schematron file for {}", docType, e);
+            return false;
+        }
+    }
+
+    /**
+     * Eagerly compile the rules for all document types.
+     */
+    public void warmUp() {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            getRules(docType);
+        }
+    }
+
+    /**
+     * Discard all compiled rules and their timings. They are recompiled on next use.
+     */
+    public void clearCache() {
+        rulesCache.clear();
+    }
+
+    /**
+     * Reset the timings of all document types, keeping the compiled rules.
+     */
+    public void reset() {
+        for (CompiledRules rules : rulesCache.values()) {
+            rules.reset();
+        }
+    }
+
+    /**
+     * Get the timings of a document type since the last {@link #reset()}.
+     *
+     * @param docType the document type
+     * @return the profile, ranked by cumulative time
+     */
+    public SchematronProfile getProfile(DocumentSchematron docType) {
+        return getRules(docType).snapshot();
+    }
+
+    /**
+     * Get the timings of the document types validated since the last {@link #reset()}.
+     */
+    public Map<DocumentSchematron, SchematronProfile> getProfiles() {
+        Map<DocumentSchematron, SchematronProfile> profiles = new EnumMap<>(DocumentSchematron.class);
+        rulesCache.forEach((docType, rules) -> {
+            if (rules.documents.sum() > 0) {
+                profiles.put(docType, rules.snapshot());
+            }
+        });
+        return profiles;
+    }
+
+    /**
+     * Get the compiled rules for a document type, compiling them on first use.
+     */
+    private CompiledRules getRules(DocumentSchematron docType) {
+        return rulesCache.computeIfAbsent(docType, this::compileSchematron);
+    }
+
+    /**
+     * Parse the Schematron file for a document type and compile its expressions.
+     *
+     * @throws SchematronValidationException if the Schematron file is not found or cannot be compiled
+     */
+    private CompiledRules compileSchematron(DocumentSchematron docType) {
+        ClassLoader classLoader = ProfilingSchematronValidator.class.getClassLoader();
+        try (InputStream sch = classLoader.getResourceAsStream(docType.getSchematronPath())) {
+            if (sch == null) {
+                throw new SchematronValidationException(
+                    "Schematron file not found on classpath: " + docType.getSchematronPath(), docType);
+            }
+
+            SchematronRules rules = SchematronRules.parse(sch, docType);
+            XPathCompiler compiler = processor.newXPathCompiler();
+            rules.getNamespaces().forEach(compiler::declareNamespace);
+
+            List<CompiledRule> compiled = new ArrayList<>();
+            for (SchematronRules.SchPattern pattern : rules.getPatterns()) {
+                for (SchematronRules.SchRule rule : pattern.getRules()) {
+                    compiled.add(new CompiledRule(rule, compiler));
+                }
+            }
+            log.debug("Compiled {} Schematron rules for {} for profiling", compiled.size(), docType);
+            return new CompiledRules(docType, compiled);
+
+        } catch (IOException | SaxonApiException e) {
+            throw new SchematronValidationException(
+                "Failed to compile Schematron: " + e.getMessage(), docType, e);
+        }
+    }
+
+    private SchematronValidationResult validateFromSource(Source xmlSource, DocumentSchematron docType) {
+        CompiledRules rules = getRules(docType);
+
+        XdmNode tree;
+        try {
+            tree = processor.newDocumentBuilder().build(xmlSource);
+        } catch (SaxonApiException e) {
+            throw new SchematronValidationException("Failed to read document: " + e.getMessage(), docType, e);
+        }
+
+        List<SchematronError> errors = new ArrayList<>();
+        List<SchematronError> warnings = new ArrayList<>();
+        try {
+            for (CompiledRule rule : rules.rules) {
+                rule.evaluate(tree, docType, errors, warnings);
+            }
+        } catch (SaxonApiException e) {
+            log.error("Schematron validation failed for {}", docType, e);
+            throw new SchematronValidationException("Schematron validation failed: " + e.getMessage(), docType, e);
+        }
+        rules.documents.increment();
+
+        log.debug("Schematron validation for {} completed: {} errors, {} warnings",
+            docType, errors.size(), warnings.size());
+
+        if (errors.isEmpty()) {
+            return warnings.isEmpty()
+                ? SchematronValidationResult.success()
+                : SchematronValidationResult.validWithWarnings(warnings);
+        }
+        return SchematronValidationResult.invalid(errors, warnings);
+    }
+
+    /**
+     * Compute the location of a node as the XSLT engine does: the name and position
+     * among same-named siblings of each ancestor-or-self element, e.g.
+     * {@code /rsm:TaxInvoice_CrossIndustryInvoice[1]/rsm:ExchangedDocument[1]}.
+     */
+    static String location(XdmNode node) {
+        StringBuilder path = new StringBuilder();
+        for (XdmNode current = node; current != null; current = current.getParent()) {
+            if (current.getNodeKind() != XdmNodeKind.ELEMENT) {
+                continue;
+            }
+            String name = current.getNodeName().toString();
+            int position = 1;
+            XdmSequenceIterator<XdmNode> siblings = current.axisIterator(Axis.PRECEDING_SIBLING);
+            while (siblings.hasNext()) {
+                XdmNode sibling = siblings.next();
+                if (sibling.getNodeKind() == XdmNodeKind.ELEMENT && name.equals(sibling.getNodeName().toString())) {
+                    position++;
+                }
+            }
+            path.insert(0, "/" + name + "[" + position + "]");
+        }
+        return node.getNodeKind() == XdmNodeKind.DOCUMENT ? "/" : path.toString();
+    }
+
+    /**
+     * The compiled rules of one document type and their timings.
+     */
+    private static final class CompiledRules {
+
+        private final DocumentSchematron docType;
+        private final List<CompiledRule> rules;
+        private final LongAdder documents = new LongAdder();
+
+        CompiledRules(DocumentSchematron docType, List<CompiledRule> rules) {
+            this.docType = docType;
+            this.rules = rules;
+        }
+
+        void reset() {
+            documents.reset();
+            for (CompiledRule rule : rules) {
+                rule.timing.reset();
+                for (CompiledCheck check : rule.checks) {
+                    check.timing.reset();
+                }
+            }
+        }
+
+        SchematronProfile snapshot() {
+            List<RuleProfile> entries = new ArrayList<>();
+            for (CompiledRule rule : rules) {
+                entries.add(rule.timing.toProfile(rule.rule.getLabel(), RuleProfile.Kind.CONTEXT,
+                        rule.rule.getContext(), rule.rule.getContext()));
+                for (CompiledCheck check : rule.checks) {
+                    entries.add(check.timing.toProfile(check.check.getLabel(), check.kind,
+                            rule.rule.getContext(), check.check.getTest()));
+                }
+            }
+            return new SchematronProfile(docType, documents.sum(), entries);
+        }
+    }
+
+    /**
+     * A {@code sch:rule} with its compiled context and tests.
+     */
+    private final class CompiledRule {
+
+        private final SchematronRules.SchRule rule;
+        private final XPathExecutable context;
+        private final List<CompiledCheck> checks = new ArrayList<>();
+        private final Timing timing = new Timing();
+
+        CompiledRule(SchematronRules.SchRule rule, XPathCompiler compiler) throws SaxonApiException {
+            this.rule = rule;
+            this.context = compiler.compile(rule.getSelect());
+            for (SchematronRules.SchCheck check : rule.getChecks()) {
+                checks.add(new CompiledCheck(check, compiler.compile(check.getTest())));
+            }
+        }
+
+        void evaluate(XdmNode tree, DocumentSchematron docType,
+                      List<SchematronError> errors, List<SchematronError> warnings) throws SaxonApiException {
+            XPathSelector contextSelector = context.load();
+            contextSelector.setContextItem(tree);
+            long start = System.nanoTime();
+            XdmValue nodes = contextSelector.evaluate();
+            long contextNanos = System.nanoTime() - start;
+            timing.add(1, nodes.size(), contextNanos);
+            metrics.recordRule(docType, rule.getLabel(), RuleProfile.Kind.CONTEXT, contextNanos);
+
+            int size = checks.size();
+            XPathSelector[] selectors = new XPathSelector[size];
+            long[] nanos = new long[size];
+            int[] fired = new int[size];
+            for (int i = 0; i < size; i++) {
+                selectors[i] = checks.get(i).test.load();
+            }
+
+            for (XdmItem node : nodes) {
+                for (int i = 0; i < size; i++) {
+                    CompiledCheck check = checks.get(i);
+                    long checkStart = System.nanoTime();
+                    selectors[i].setContextItem(node);
+                    boolean result = selectors[i].effectiveBooleanValue();
+                    nanos[i] += System.nanoTime() - checkStart;
+
+                    if (result == check.check.isReport()) {
+                        fired[i]++;
+                        String location = node instanceof XdmNode ? location((XdmNode) node) : "";
+                        if (check.check.isReport()) {
+                            warnings.add(check.toError(location, SchematronError.ErrorLevel.WARNING));
+                        } else {
+                            errors.add(check.toError(location, SchematronError.ErrorLevel.ERROR));
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0; i < size; i++) {
+                CompiledCheck check = checks.get(i);
+                check.timing.add(nodes.size(), fired[i], nanos[i]);
+                if (nodes.size() > 0) {
+                    metrics.recordRule(docType, check.check.getLabel(), check.kind, nanos[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A compiled {@code sch:report} or {@code sch:assert} test.
+     */
+    private static final class CompiledCheck {
+
+        private final SchematronRules.SchCheck check;
+        private final RuleProfile.Kind kind;
+        private final XPathExecutable test;
+        private final Timing timing = new Timing();
+
+        CompiledCheck(SchematronRules.SchCheck check, XPathExecutable test) {
+            this.check = check;
+            this.kind = check.isReport() ? RuleProfile.Kind.REPORT : RuleProfile.Kind.ASSERT;
+            this.test = test;
+        }
+
+        SchematronError toError(String location, SchematronError.ErrorLevel level) {
+            return new SchematronError(check.getId(), check.getMessage(), location, level, check.getTest());
+        }
+    }
+
+    /**
+     * Evaluation count, fired count and cumulative time of one expression, updated concurrently.
+     */
+    private static final class Timing {
+
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder fired = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void add(long evaluations, long fired, long nanos) {
+            this.evaluations.add(evaluations);
+            this.fired.add(fired);
+            this.nanos.add(nanos);
+        }
+
+        void reset() {
+            evaluations.reset();
+            fired.reset();
+            nanos.reset();
+        }
+
+        RuleProfile toProfile(String label, RuleProfile.Kind kind, String context, String expression) {
+            return new RuleProfile(label, kind, context, expression, evaluations.sum(), fired.sum(), nanos.sum());
+        }
+    }
+}
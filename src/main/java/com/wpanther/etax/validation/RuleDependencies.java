@@ -0,0 +1,472 @@
+package com.wpanther.etax.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The document nodes a {@code sch:rule} depends on, found by static analysis of its
+ * context and test expressions.
+ * <p>
+ * Each location path in the expressions is resolved to an absolute path of local names
+ * (the test paths relative to the rule context), e.g. the test {@code ram:PostcodeCode}
+ * of the rule {@code rsm:TaxInvoice_CrossIndustryInvoice/.../ram:PostalTradeAddress}
+ * depends on {@code //TaxInvoice_CrossIndustryInvoice/.../PostalTradeAddress/PostcodeCode}.
+ * A change at an absolute path affects the rule when:
+ * <ul>
+ *   <li>it is at, above or below a node read by a test (a value, its existence, or the
+ *       string value of an ancestor may change), or</li>
+ *   <li>it is at or above a context node (the context nodes may be added or removed).</li>
+ * </ul>
+ * The analysis is conservative: expressions it cannot resolve (other axes, variables,
+ * paths applied to parenthesised expressions) make the rule depend on the whole document.
+ * The one assumption is that a relative context (evaluated from {@code //}) is anchored at
+ * its first step: a change below a {@code rsm:SupplyChainTradeTransaction} does not create
+ * another one. All relative contexts of the ETDA files start with the root element or
+ * {@code rsm:SupplyChainTradeTransaction}, which appear once per document.
+ * Namespace prefixes are ignored, so a rule may be reported affected by a change to a
+ * same-named element of another namespace, never the reverse.
+ */
+final class RuleDependencies {
+
+    /** Step matching any number of levels ({@code //}) */
+    private static final String GAP = "//";
+    /** Leading {@code //} of a relative context: any number of levels above the next step */
+    private static final String ANCHOR = "~";
+    private static final String ANY = "*";
+    private static final String ANY_ATTRIBUTE = "@*";
+
+    private static final Set<String> OPERATORS = Set.of("and", "or", "div", "mod", "idiv",
+        "eq", "ne", "lt", "le", "gt", "ge", "is", "union", "intersect", "except", "to");
+    private static final Set<String> NODE_TESTS = Set.of("text", "node", "comment",
+        "processing-instruction");
+
+    private final List<List<String>> contexts;
+    private final List<List<String>> reads;
+    private final boolean everything;
+
+    private RuleDependencies(List<List<String>> contexts, List<List<String>> reads, boolean everything) {
+        this.contexts = contexts;
+        this.reads = reads;
+        this.everything = everything;
+    }
+
+    /**
+     * Analyse a rule: its context and the tests of all its checks.
+     */
+    static RuleDependencies of(SchematronRules.SchRule rule) {
+        String select = rule.getContext();
+        Paths context = select.startsWith("/")
+            ? Paths.parse(select, List.of())
+            : Paths.parse(select, List.of(ANCHOR));
+        List<List<String>> reads = new ArrayList<>(context.nested);
+        boolean everything = context.unresolved || context.main.size() != 1;
+        if (!everything) {
+            List<String> base = context.main.get(0);
+            for (SchematronRules.SchCheck check : rule.getChecks()) {
+                Paths test = Paths.parse(check.getTest(), base);
+                everything |= test.unresolved;
+                reads.addAll(test.main);
+                reads.addAll(test.nested);
+            }
+        }
+        return new RuleDependencies(context.main, reads, everything);
+    }
+
+    /**
+     * Check whether a change to the node at an absolute path may change the outcome of the rule.
+     *
+     * @param changed the steps of the path, as returned by {@link #steps(String)}
+     */
+    boolean isAffectedBy(List<String> changed) {
+        if (everything) {
+            return true;
+        }
+        for (List<String> read : reads) {
+            if (overlaps(read, 0, changed, 0, true)) {
+                return true;
+            }
+        }
+        for (List<String> context : contexts) {
+            if (overlaps(context, 0, changed, 0, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether this rule depends on the whole document.
+     */
+    boolean isUnresolved() {
+        return everything;
+    }
+
+    /**
+     * Split an absolute path to a changed node into local names. Positional and other
+     * predicates, namespace prefixes and a final {@code text()} step are dropped, so both
+     * {@code /rsm:TaxInvoice_CrossIndustryInvoice/rsm:ExchangedDocument/ram:ID} and a
+     * report location such as {@code /rsm:TaxInvoice_CrossIndustryInvoice[1]/rsm:ExchangedDocument[1]}
+     * are accepted. {@code /} is the whole document.
+     *
+     * @throws IllegalArgumentException if the path is not an absolute path of child and attribute steps
+     */
+    static List<String> steps(String path) {
+        if (path == null || !path.trim().startsWith("/") || path.contains("//")) {
+            throw new IllegalArgumentException("Changed path must be an absolute location path: " + path);
+        }
+        List<String> steps = new ArrayList<>();
+        for (String step : stripPredicates(path.trim()).split("/")) {
+            if (step.isBlank() || step.equals("text()")) {
+                continue;
+            }
+            boolean attribute = step.startsWith("@");
+            String name = localName(attribute ? step.substring(1) : step);
+            if (name.isEmpty() || name.contains("(") || name.contains(":")) {
+                throw new IllegalArgumentException("Unsupported step '" + step + "' in changed path: " + path);
+            }
+            steps.add(attribute ? "@" + name : name);
+        }
+        return Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Check whether the nodes selected by {@code path[i..]} and the changed node {@code changed[j..]}
+     * are on one branch of the tree.
+     *
+     * @param subtree whether a change below a selected node counts (true for tests, which may
+     *                read string values; false for contexts, where only the selection matters)
+     */
+    private static boolean overlaps(List<String> path, int i, List<String> changed, int j, boolean subtree) {
+        if (j == changed.size()) {
+            // the changed node is an ancestor-or-self of the selected nodes
+            return true;
+        }
+        if (i == path.size()) {
+            return subtree;
+        }
+        String step = path.get(i);
+        if (step.equals(ANCHOR)) {
+            // the next step is within the changed path, unless the whole document or the
+            // root element changed
+            if (j == 0 && changed.size() == 1) {
+                return true;
+            }
+            for (int k = j; k < changed.size(); k++) {
+                if (overlaps(path, i + 1, changed, k, subtree)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (step.equals(GAP)) {
+            for (int k = j; k <= changed.size(); k++) {
+                if (overlaps(path, i + 1, changed, k, subtree)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return matches(step, changed.get(j)) && overlaps(path, i + 1, changed, j + 1, subtree);
+    }
+
+    private static boolean matches(String step, String name) {
+        if (step.equals(ANY)) {
+            return !name.startsWith("@");
+        }
+        if (step.equals(ANY_ATTRIBUTE)) {
+            return name.startsWith("@");
+        }
+        return step.equals(name);
+    }
+
+    private static String localName(String qname) {
+        int colon = qname.indexOf(':');
+        return (colon < 0 ? qname : qname.substring(colon + 1)).trim();
+    }
+
+    private static String stripPredicates(String path) {
+        StringBuilder stripped = new StringBuilder();
+        int depth = 0;
+        for (char c : path.toCharArray()) {
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth = Math.max(0, depth - 1);
+            } else if (depth == 0) {
+                stripped.append(c);
+            }
+        }
+        return stripped.toString();
+    }
+
+    /**
+     * The location paths of one XPath expression, resolved against a base path.
+     */
+    private static final class Paths {
+
+        /** Paths outside predicates: the nodes the expression selects or compares */
+        private final List<List<String>> main = new ArrayList<>();
+        /** Paths inside predicates, resolved against the step they filter */
+        private final List<List<String>> nested = new ArrayList<>();
+        private boolean unresolved;
+
+        static Paths parse(String expression, List<String> base) {
+            Paths paths = new Paths();
+            new Scanner(expression, base, paths).run();
+            return paths;
+        }
+    }
+
+    /**
+     * A single-pass scanner over the XPath 2.0 subset used in Schematron tests. It follows
+     * location paths and predicates, and treats everything else (literals, operators,
+     * function calls) as separators between paths.
+     */
+    private static final class Scanner {
+
+        private final String text;
+        private final Paths paths;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private int pos;
+
+        /** The path being built, or null between paths */
+        private List<String> current;
+        /** Whether the previous token ended an operand (so a name or '*' is an operator) */
+        private boolean operand;
+        /** Whether the previous token was ')' (a path step would apply to a parenthesised expression) */
+        private boolean afterParen;
+
+        Scanner(String text, List<String> base, Paths paths) {
+            this.text = text;
+            this.paths = paths;
+            frames.push(new Frame(base, null));
+        }
+
+        void run() {
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (Character.isWhitespace(c)) {
+                    pos++;
+                    continue;
+                }
+                if (c == '\'' || c == '"') {
+                    end();
+                    int close = text.indexOf(c, pos + 1);
+                    pos = close < 0 ? text.length() : close + 1;
+                    operand = true;
+                } else if (Character.isDigit(c) || (c == '.' && pos + 1 < text.length()
+                        && Character.isDigit(text.charAt(pos + 1)))) {
+                    end();
+                    while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+                        pos++;
+                    }
+                    operand = true;
+                } else if (c == '/') {
+                    slash();
+                } else if (c == '[') {
+                    pos++;
+                    List<String> filtered = current != null ? current : frames.peek().base;
+                    frames.push(new Frame(filtered, current));
+                    current = null;
+                    operand = false;
+                } else if (c == ']') {
+                    pos++;
+                    end();
+                    if (frames.size() > 1) {
+                        current = frames.pop().saved;
+                    }
+                    operand = true;
+                } else if (c == '.') {
+                    boolean parent = text.startsWith("..", pos);
+                    pos += parent ? 2 : 1;
+                    if (current == null) {
+                        current = new ArrayList<>(frames.peek().base);
+                    }
+                    if (parent) {
+                        if (current.isEmpty() || GAP.equals(current.get(current.size() - 1))
+                                || ANCHOR.equals(current.get(current.size() - 1))) {
+                            paths.unresolved = true;
+                        } else {
+                            current.remove(current.size() - 1);
+                        }
+                    }
+                    operand = true;
+                } else if (c == '@') {
+                    pos++;
+                    if (pos < text.length() && text.charAt(pos) == '*') {
+                        pos++;
+                        step(ANY_ATTRIBUTE);
+                    } else {
+                        step("@" + localName(name()));
+                    }
+                } else if (c == '*') {
+                    pos++;
+                    if (operand) {
+                        end();
+                        operand = false;
+                    } else {
+                        step(ANY);
+                    }
+                } else if (c == '$') {
+                    paths.unresolved = true;
+                    pos++;
+                } else if (isNameStart(c)) {
+                    name(name());
+                } else if (c == ')') {
+                    pos++;
+                    end();
+                    operand = true;
+                    afterParen = true;
+                    continue;
+                } else {
+                    // ( , = ! < > + - |
+                    pos++;
+                    end();
+                    operand = false;
+                }
+                afterParen = false;
+            }
+            end();
+        }
+
+        private void slash() {
+            boolean descendant = text.startsWith("//", pos);
+            pos += descendant ? 2 : 1;
+            if (afterParen) {
+                paths.unresolved = true;
+            }
+            if (current == null) {
+                // an absolute path
+                current = new ArrayList<>();
+            }
+            if (descendant) {
+                current.add(GAP);
+            }
+            operand = false;
+        }
+
+        private void name(String name) {
+            String next = text.substring(pos).stripLeading();
+            if (operand && OPERATORS.contains(name)) {
+                end();
+                operand = false;
+            } else if (next.startsWith("::")) {
+                pos = text.indexOf("::", pos) + 2;
+                axis(name);
+            } else if (next.startsWith("(")) {
+                pos = text.indexOf('(', pos) + 1;
+                if (NODE_TESTS.contains(name)) {
+                    int close = text.indexOf(')', pos);
+                    pos = close < 0 ? text.length() : close + 1;
+                    if (name.equals("node")) {
+                        step(ANY);
+                    } else {
+                        // text() and the like read the current node
+                        if (current == null) {
+                            current = new ArrayList<>(frames.peek().base);
+                        }
+                        operand = true;
+                    }
+                } else {
+                    end();
+                    operand = false;
+                }
+            } else {
+                step(localName(name));
+            }
+        }
+
+        private void axis(String axis) {
+            switch (axis) {
+                case "child":
+                case "attribute":
+                case "self":
+                    break;
+                case "descendant":
+                case "descendant-or-self":
+                    if (current == null) {
+                        current = new ArrayList<>(frames.peek().base);
+                    }
+                    current.add(GAP);
+                    break;
+                default:
+                    paths.unresolved = true;
+                    break;
+            }
+            boolean attribute = axis.equals("attribute");
+            boolean self = axis.equals("self");
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            String name = pos < text.length() && text.charAt(pos) == '*' ? String.valueOf(text.charAt(pos++)) : name();
+            if (self) {
+                if (current == null) {
+                    current = new ArrayList<>(frames.peek().base);
+                }
+                operand = true;
+            } else if (attribute) {
+                step(name.equals("*") ? ANY_ATTRIBUTE : "@" + localName(name));
+            } else {
+                step(name.equals("*") ? ANY : localName(name));
+            }
+        }
+
+        private void step(String step) {
+            if (current == null) {
+                current = new ArrayList<>(frames.peek().base);
+            }
+            current.add(step);
+            operand = true;
+        }
+
+        /** End the current path, if any */
+        private void end() {
+            if (current != null) {
+                (frames.size() > 1 ? paths.nested : paths.main).add(Collections.unmodifiableList(current));
+                current = null;
+            }
+        }
+
+        private String name() {
+            int start = pos;
+            while (pos < text.length() && isNameChar(text.charAt(pos))) {
+                pos++;
+            }
+            // a QName, but not the '::' of an axis
+            if (pos + 1 < text.length() && text.charAt(pos) == ':' && text.charAt(pos + 1) != ':'
+                    && isNameStart(text.charAt(pos + 1))) {
+                pos++;
+                while (pos < text.length() && isNameChar(text.charAt(pos))) {
+                    pos++;
+                }
+            }
+            return text.substring(start, pos);
+        }
+
+        private static boolean isNameStart(char c) {
+            return Character.isLetter(c) || c == '_';
+        }
+
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+        }
+    }
+
+    /**
+     * A predicate scope: the path it filters and the path to resume after it.
+     */
+    private static final class Frame {
+
+        private final List<String> base;
+        private final List<String> saved;
+
+        Frame(List<String> base, List<String> saved) {
+            this.base = base;
+            this.saved = saved;
+        }
+    }
+}
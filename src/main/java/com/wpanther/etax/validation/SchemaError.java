@@ -0,0 +1,76 @@
+package com.wpanther.etax.validation;
+
+import java.util.Objects;
+
+/**
+ * Represents a single XSD validation error.
+ * Line and column numbers are -1 when the document was validated as a tree (e.g. a DOM).
+ */
+public class SchemaError {
+    private final String message;
+    private final int lineNumber;
+    private final int columnNumber;
+    private final String location;
+
+    public SchemaError(String message, int lineNumber, int columnNumber, String location) {
+        this.message = message;
+        this.lineNumber = lineNumber;
+        this.columnNumber = columnNumber;
+        this.location = location;
+    }
+
+    /**
+     * Get the error message reported by the XSD validator
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Get the line number in the document, or -1 if not available
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the column number in the document, or -1 if not available
+     */
+    public int getColumnNumber() {
+        return columnNumber;
+    }
+
+    /**
+     * Get the path of the element in error (e.g. "/TaxInvoice_CrossIndustryInvoice/ExchangedDocument"),
+     * or null if not available
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SchemaError that = (SchemaError) o;
+        return lineNumber == that.lineNumber &&
+               columnNumber == that.columnNumber &&
+               Objects.equals(message, that.message) &&
+               Objects.equals(location, that.location);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(message, lineNumber, columnNumber, location);
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaError{" +
+               "message='" + message + '\'' +
+               ", line=" + lineNumber +
+               ", column=" + columnNumber +
+               (location != null ? ", location='" + location + '\'' : "") +
+               '}';
+    }
+}
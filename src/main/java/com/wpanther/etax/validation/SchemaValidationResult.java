@@ -0,0 +1,69 @@
+package com.wpanther.etax.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Result of XSD validation.
+ * Instances are immutable and can be created via factory methods.
+ */
+public class SchemaValidationResult {
+    private static final SchemaValidationResult SUCCESS = new SchemaValidationResult(List.of());
+
+    private final List<SchemaError> errors;
+
+    private SchemaValidationResult(List<SchemaError> errors) {
+        this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    /**
+     * Create a successful validation result (no errors)
+     */
+    public static SchemaValidationResult success() {
+        return SUCCESS;
+    }
+
+    /**
+     * Create a validation result with errors
+     */
+    public static SchemaValidationResult invalid(List<SchemaError> errors) {
+        return errors.isEmpty() ? SUCCESS : new SchemaValidationResult(errors);
+    }
+
+    /**
+     * Check if validation passed (no errors)
+     */
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Get all errors
+     */
+    public List<SchemaError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SchemaValidationResult that = (SchemaValidationResult) o;
+        return Objects.equals(errors, that.errors);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaValidationResult{" +
+               "valid=" + isValid() +
+               ", errors=" + errors.size() +
+               '}';
+    }
+}
@@ -0,0 +1,410 @@
+package com.wpanther.etax.validation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.TypeInfoProvider;
+import javax.xml.validation.ValidatorHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Validates documents against the XSD of their document type
+ * ({@code <DocumentName>_CrossIndustryInvoice_2p1.xsd}, as listed in {@link MessageInfo}).
+ * <p>
+ * Each XSD imports the UDT, QDT, RAM and code list schemas, including the 2 MB
+ * {@code TISICitySubDivisionName_1p0.xsd}, so compiling it takes from a few hundred
+ * milliseconds to a second. The compiled {@link Schema} is immutable and thread-safe:
+ * it is compiled once per {@link DocumentSchematron} and cached.
+ * <p>
+ * A {@link ValidatorHandler} is not thread-safe, so validators are kept in a bounded pool
+ * per document type, like the unmarshallers of {@code EtaxJaxbContexts}: each validation
+ * borrows one, or creates one when the pool is empty. A pool rather than a thread-local
+ * keeps the number of validators bounded when validating on virtual threads.
+ * <p>
+ * Subclasses can add checks that the XSD does not express with
+ * {@link #createDocumentCheck(DocumentSchematron, TypeInfoProvider)}, which sees the schema
+ * type of each element (see {@link CodeListSchemaValidator}).
+ * <p>
+ * Streams are parsed with DTDs disallowed; documents with a DOCTYPE declaration are
+ * rejected. Instances are safe for concurrent use.
+ * <p>
+ * Usage:
+ * <pre>
+ * SchemaValidator validator = new SchemaValidator();
+ * SchemaValidationResult result = validator.validate(inputStream, DocumentSchematron.TAX_INVOICE);
+ * if (!result.isValid()) {
+ *     result.getErrors().forEach(error -&gt; log.warn("{}", error));
+ * }
+ * </pre>
+ */
+public class SchemaValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaValidator.class);
+
+    static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final SAXParserFactory PARSER_FACTORY = createParserFactory();
+    private static final TransformerFactory TRANSFORMER_FACTORY = createTransformerFactory();
+    // A ReentrantLock rather than a monitor, so virtual threads waiting here do not pin their carrier
+    private static final ReentrantLock TRANSFORMER_FACTORY_LOCK = new ReentrantLock();
+
+    private static final ErrorHandler FAIL_ON_ERROR = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException exception) {
+            // Parser warnings do not affect validation
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+    };
+
+    private final int poolSize;
+    private final ConcurrentMap<DocumentSchematron, Pool> pools = new ConcurrentHashMap<>();
+
+    public SchemaValidator() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param poolSize maximum number of idle validators kept per document type
+     */
+    public SchemaValidator(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + poolSize);
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Validate XML content.
+     *
+     * @throws SchematronValidationException if the content is not well-formed XML or the XSD cannot be compiled
+     */
+    public SchemaValidationResult validate(String xmlContent, DocumentSchematron docType) {
+        if (xmlContent == null || xmlContent.isBlank()) {
+            throw new IllegalArgumentException("XML content cannot be null or empty");
+        }
+        return validate(parse(new InputSource(new StringReader(xmlContent)), docType), docType);
+    }
+
+    /**
+     * Validate an input stream. The stream is closed afterwards.
+     *
+     * @throws SchematronValidationException if the content is not well-formed XML or the XSD cannot be compiled
+     */
+    public SchemaValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType) {
+        if (xmlInputStream == null) {
+            throw new IllegalArgumentException("XML input stream cannot be null");
+        }
+        try {
+            return validate(parse(new InputSource(xmlInputStream), docType), docType);
+        } finally {
+            try {
+                xmlInputStream.close();
+            } catch (IOException e) {
+                log.warn("Failed to close input stream", e);
+            }
+        }
+    }
+
+    /**
+     * Validate a parsed document (namespace aware). Errors have no line numbers.
+     *
+     * @throws SchematronValidationException if the XSD cannot be compiled
+     */
+    public SchemaValidationResult validate(Document document, DocumentSchematron docType) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null");
+        }
+        return validate(handler -> newIdentityTransformer().transform(new DOMSource(document), new SAXResult(handler)),
+                docType);
+    }
+
+    /**
+     * Get the compiled XSD of a document type, compiling it on first use.
+     *
+     * @throws SchematronValidationException if the XSD is not found or cannot be compiled
+     */
+    public Schema getSchema(DocumentSchematron docType) {
+        return pool(docType).schema;
+    }
+
+    /**
+     * Eagerly compile the XSDs of all document types.
+     */
+    public void warmUp() {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            warmUp(docType);
+        }
+    }
+
+    /**
+     * Eagerly compile the XSD of a document type.
+     */
+    public void warmUp(DocumentSchematron docType) {
+        getSchema(docType);
+    }
+
+    /**
+     * Discard all compiled schemas and pooled validators. They are recreated on next use.
+     */
+    public void clearCache() {
+        pools.clear();
+    }
+
+    /**
+     * Get the maximum number of idle validators kept per document type.
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Compile the XSD of a document type.
+     * <p>
+     * Imports and includes are resolved relative to the XSD's classpath URL, so the
+     * schema can be loaded from a directory or a jar.
+     * This method is protected to allow subclasses to change how schemas are compiled.
+     *
+     * @param docType the document type whose XSD to compile
+     * @return the compiled schema
+     * @throws SchematronValidationException if the XSD is not found or cannot be compiled
+     */
+    protected Schema compileSchema(DocumentSchematron docType) {
+        String resource = MessageInfo.getDefault().getMessage(docType).getSchemaResource();
+        URL url = SchemaValidator.class.getClassLoader().getResource(resource);
+        if (url == null) {
+            throw new SchematronValidationException("XSD not found on classpath: " + resource, docType);
+        }
+
+        long start = System.nanoTime();
+        try {
+            Schema schema = createSchemaFactory().newSchema(url);
+            log.debug("Compiled XSD for {} in {} ms", docType, (System.nanoTime() - start) / 1_000_000);
+            return schema;
+        } catch (SAXException e) {
+            throw new SchematronValidationException("Failed to compile XSD: " + e.getMessage(), docType, e);
+        }
+    }
+
+    /**
+     * Create the factory used to compile schemas: secure processing, no external DTDs,
+     * and schema imports limited to {@code file} and {@code jar} URLs.
+     */
+    protected SchemaFactory createSchemaFactory() {
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "file,jar");
+        } catch (SAXException e) {
+            throw new IllegalStateException("Schema factory does not support secure processing", e);
+        }
+        return factory;
+    }
+
+    /**
+     * Create a check that runs while a document is validated, or null for none (the default).
+     * <p>
+     * The check receives the SAX events of the document after XSD validation; during
+     * {@code startElement}, {@code types} gives the schema type of the current element.
+     * This method is protected to allow subclasses to add checks that the XSD does not express.
+     *
+     * @param docType the document type being validated
+     * @param types   the types of the element and attributes being validated
+     * @return a new check for one document, or null
+     */
+    protected DocumentCheck createDocumentCheck(DocumentSchematron docType, TypeInfoProvider types) {
+        return null;
+    }
+
+    /**
+     * Receives a document while it is validated and reports further errors at its end.
+     */
+    protected abstract static class DocumentCheck extends DefaultHandler {
+
+        /**
+         * Add the errors found in the document. Called once, after the whole document
+         * has been validated without a fatal error.
+         *
+         * @param errors the XSD errors found so far, to append to
+         */
+        protected abstract void finish(List<SchemaError> errors);
+    }
+
+    private SchemaValidationResult validate(EventSource input, DocumentSchematron docType) {
+        Pool pool = pool(docType);
+        ValidatorHandler handler = pool.idle.poll();
+        if (handler == null) {
+            handler = pool.schema.newValidatorHandler();
+        }
+
+        List<SchemaError> errors = new ArrayList<>();
+        DocumentCheck check = createDocumentCheck(docType, handler.getTypeInfoProvider());
+        handler.setErrorHandler(new CollectingErrorHandler(errors));
+        handler.setContentHandler(check);
+        try {
+            input.writeTo(handler);
+        } catch (SAXException | TransformerException e) {
+            // A validator that stopped mid-document is not returned to the pool
+            throw new SchematronValidationException("Failed to parse XML: " + e.getMessage(), docType, e);
+        } catch (IOException e) {
+            throw new SchematronValidationException("Failed to read XML: " + e.getMessage(), docType, e);
+        }
+        handler.setContentHandler(null);
+        handler.setErrorHandler(null);
+        pool.idle.offer(handler);
+
+        if (check != null) {
+            check.finish(errors);
+        }
+        log.debug("XSD validation for {} completed: {} errors", docType, errors.size());
+        return SchemaValidationResult.invalid(errors);
+    }
+
+    /**
+     * Line and column numbers are 0 when a DOM is validated; report them as unknown (-1).
+     */
+    static int position(int value) {
+        return value > 0 ? value : -1;
+    }
+
+    private Pool pool(DocumentSchematron docType) {
+        return pools.computeIfAbsent(docType, type -> new Pool(compileSchema(type), poolSize));
+    }
+
+    private static EventSource parse(InputSource source, DocumentSchematron docType) {
+        XMLReader reader;
+        try {
+            reader = PARSER_FACTORY.newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new SchematronValidationException("Failed to create XML parser: " + e.getMessage(), docType, e);
+        }
+        // The default handler prints malformed-document errors to stderr before throwing
+        reader.setErrorHandler(FAIL_ON_ERROR);
+        return handler -> {
+            reader.setContentHandler(handler);
+            reader.parse(source);
+        };
+    }
+
+    private static Transformer newIdentityTransformer() throws TransformerException {
+        // TransformerFactory is not guaranteed to be thread-safe; identity transformers are cheap to create
+        TRANSFORMER_FACTORY_LOCK.lock();
+        try {
+            return TRANSFORMER_FACTORY.newTransformer();
+        } finally {
+            TRANSFORMER_FACTORY_LOCK.unlock();
+        }
+    }
+
+    private static TransformerFactory createTransformerFactory() {
+        TransformerFactory factory = TransformerFactory.newInstance();
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        } catch (TransformerConfigurationException e) {
+            throw new IllegalStateException("Transformer factory does not support secure processing", e);
+        }
+        return factory;
+    }
+
+    private static SAXParserFactory createParserFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("XML parser does not support secure processing", e);
+        }
+        return factory;
+    }
+
+    /**
+     * Writes a document as SAX events.
+     */
+    @FunctionalInterface
+    private interface EventSource {
+        void writeTo(ContentHandler handler) throws IOException, SAXException, TransformerException;
+    }
+
+    /**
+     * A compiled schema with its idle validators.
+     */
+    private static final class Pool {
+
+        private final Schema schema;
+        private final BlockingQueue<ValidatorHandler> idle;
+
+        Pool(Schema schema, int size) {
+            this.schema = schema;
+            this.idle = new ArrayBlockingQueue<>(size);
+        }
+    }
+
+    /**
+     * Collects XSD errors instead of stopping at the first one.
+     * Fatal errors (malformed XML) stop validation.
+     */
+    private static final class CollectingErrorHandler implements ErrorHandler {
+
+        private final List<SchemaError> errors;
+
+        CollectingErrorHandler(List<SchemaError> errors) {
+            this.errors = errors;
+        }
+
+        @Override
+        public void warning(SAXParseException exception) {
+            // XSD warnings do not make a document invalid
+        }
+
+        @Override
+        public void error(SAXParseException exception) {
+            errors.add(new SchemaError(exception.getMessage(),
+                    position(exception.getLineNumber()), position(exception.getColumnNumber()), null));
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXParseException {
+            throw exception;
+        }
+    }
+}
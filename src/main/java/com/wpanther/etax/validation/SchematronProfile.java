@@ -0,0 +1,218 @@
+package com.wpanther.etax.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rule-level timings of the Schematron validations of one document type, collected by
+ * {@link ProfilingSchematronValidator}.
+ * <p>
+ * There is one entry per {@code sch:rule} context and one per {@code sch:report} /
+ * {@code sch:assert} test, ranked by cumulative time, most expensive first. A context
+ * is evaluated once per document; a test once per node matched by its rule's context.
+ * Instances are immutable snapshots.
+ */
+public final class SchematronProfile {
+
+    private static final int EXPRESSION_WIDTH = 70;
+
+    private final DocumentSchematron documentType;
+    private final long documents;
+    private final List<RuleProfile> entries;
+    private final long totalNanos;
+
+    SchematronProfile(DocumentSchematron documentType, long documents, List<RuleProfile> entries) {
+        List<RuleProfile> ranked = new ArrayList<>(entries);
+        ranked.sort(Comparator.comparingLong(RuleProfile::getTotalNanos).reversed());
+        this.documentType = documentType;
+        this.documents = documents;
+        this.entries = Collections.unmodifiableList(ranked);
+        this.totalNanos = ranked.stream().mapToLong(RuleProfile::getTotalNanos).sum();
+    }
+
+    /**
+     * Get the document type.
+     */
+    public DocumentSchematron getDocumentType() {
+        return documentType;
+    }
+
+    /**
+     * Get the number of documents validated since the profile was last reset.
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Get all entries, most expensive first.
+     */
+    public List<RuleProfile> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the most expensive entries.
+     *
+     * @param limit the maximum number of entries
+     */
+    public List<RuleProfile> top(int limit) {
+        return entries.subList(0, Math.min(limit, entries.size()));
+    }
+
+    /**
+     * Get the time spent in all contexts and tests, in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the share of the total time spent in an entry (0 to 1).
+     */
+    public double getShare(RuleProfile entry) {
+        return totalNanos == 0 ? 0 : (double) entry.getTotalNanos() / totalNanos;
+    }
+
+    /**
+     * Format the most expensive entries as a text table.
+     *
+     * @param limit the maximum number of entries
+     */
+    public String format(int limit) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "Schematron profile for %s: %d document(s), %.1f ms in rules%n",
+                documentType, documents, totalNanos / 1e6));
+        report.append(String.format(Locale.ROOT, "%4s %10s %6s %10s %8s %-7s %-28s %s%n",
+                "rank", "total ms", "share", "evals", "fired", "kind", "rule", "expression"));
+        int rank = 0;
+        for (RuleProfile entry : top(limit)) {
+            report.append(String.format(Locale.ROOT, "%4d %10.2f %5.1f%% %10d %8d %-7s %-28s %s%n",
+                    ++rank, entry.getTotalNanos() / 1e6, getShare(entry) * 100,
+                    entry.getEvaluations(), entry.getFired(), entry.getKind().name().toLowerCase(Locale.ROOT),
+                    entry.getLabel(), abbreviate(entry.getExpression())));
+        }
+        return report.toString();
+    }
+
+    private static String abbreviate(String expression) {
+        String flat = expression.replaceAll("\\s+", " ").trim();
+        return flat.length() <= EXPRESSION_WIDTH ? flat : flat.substring(0, EXPRESSION_WIDTH - 3) + "...";
+    }
+
+    @Override
+    public String toString() {
+        return "SchematronProfile{" +
+               "documentType=" + documentType +
+               ", documents=" + documents +
+               ", entries=" + entries.size() +
+               ", totalNanos=" + totalNanos +
+               '}';
+    }
+
+    /**
+     * Timings of one rule context or test.
+     */
+    public static final class RuleProfile {
+
+        /**
+         * What was evaluated.
+         */
+        public enum Kind {
+            /** The context expression of a {@code sch:rule} */
+            CONTEXT,
+            /** The test of a {@code sch:report} */
+            REPORT,
+            /** The test of a {@code sch:assert} */
+            ASSERT
+        }
+
+        private final String label;
+        private final Kind kind;
+        private final String context;
+        private final String expression;
+        private final long evaluations;
+        private final long fired;
+        private final long totalNanos;
+
+        RuleProfile(String label, Kind kind, String context, String expression,
+                    long evaluations, long fired, long totalNanos) {
+            this.label = label;
+            this.kind = kind;
+            this.context = context;
+            this.expression = expression;
+            this.evaluations = evaluations;
+            this.fired = fired;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * Get the label: the rule identifier of the message for tests
+         * (e.g. "TIV-DocumentContext-001"), or the position in the file ("rule-3", "report-12").
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Get the context of the rule.
+         */
+        public String getContext() {
+            return context;
+        }
+
+        /**
+         * Get the expression evaluated: the context for {@link Kind#CONTEXT}, the test otherwise.
+         */
+        public String getExpression() {
+            return expression;
+        }
+
+        /**
+         * Get the number of evaluations: documents for a context, context nodes for a test.
+         */
+        public long getEvaluations() {
+            return evaluations;
+        }
+
+        /**
+         * Get the number of context nodes matched (for a context) or of reports and failed
+         * assertions produced (for a test).
+         */
+        public long getFired() {
+            return fired;
+        }
+
+        /**
+         * Get the cumulative evaluation time in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Get the mean time per evaluation in nanoseconds.
+         */
+        public double getMeanNanos() {
+            return evaluations == 0 ? 0 : (double) totalNanos / evaluations;
+        }
+
+        @Override
+        public String toString() {
+            return "RuleProfile{" +
+                   "label='" + label + '\'' +
+                   ", kind=" + kind +
+                   ", evaluations=" + evaluations +
+                   ", fired=" + fired +
+                   ", totalNanos=" + totalNanos +
+                   '}';
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.wpanther.etax.validation;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The rules of an ISO Schematron file, as used by the engines that evaluate them
+ * without ph-schematron ({@link SchematronXsltCompiler}, {@link ProfilingSchematronValidator}).
+ * <p>
+ * Only the subset of Schematron used by the ETDA .sch files is supported:
+ * {@code sch:ns}, {@code sch:pattern}, {@code sch:rule}, {@code sch:assert} and
+ * {@code sch:report} with plain text messages. Any other Schematron element
+ * (e.g. {@code sch:let}, {@code sch:include}, {@code sch:value-of}) is rejected
+ * so that these engines never silently diverge from {@link SchematronValidatorImpl}.
+ */
+final class SchematronRules {
+
+    static final String SCH_NS = "http://purl.oclc.org/dsdl/schematron";
+
+    /** Rule identifier written at the start of an ETDA message, e.g. "TIV-DocumentContext-001" */
+    private static final Pattern MESSAGE_RULE_ID = Pattern.compile("^\\(?\\s*([A-Z]+-[A-Za-z]+-\\d+)");
+
+    private final Map<String, String> namespaces;
+    private final List<SchPattern> patterns;
+
+    private SchematronRules(Map<String, String> namespaces, List<SchPattern> patterns) {
+        this.namespaces = Collections.unmodifiableMap(namespaces);
+        this.patterns = Collections.unmodifiableList(patterns);
+    }
+
+    /**
+     * Parse a Schematron file.
+     *
+     * @param schematron the .sch content
+     * @param docType    the document type (used for error reporting)
+     * @throws SchematronValidationException if the Schematron cannot be parsed or uses unsupported elements
+     */
+    static SchematronRules parse(InputStream schematron, DocumentSchematron docType) {
+        Element schema = parseXml(schematron, docType).getDocumentElement();
+        if (!SCH_NS.equals(schema.getNamespaceURI()) || !"schema".equals(schema.getLocalName())) {
+            throw new SchematronValidationException("Root element is not sch:schema", docType);
+        }
+
+        Map<String, String> namespaces = new LinkedHashMap<>();
+        List<SchPattern> patterns = new ArrayList<>();
+        Labels labels = new Labels();
+        for (Element element : children(schema)) {
+            String name = schElementName(element, docType);
+            switch (name) {
+                case "ns":
+                    namespaces.put(element.getAttribute("prefix"), element.getAttribute("uri"));
+                    break;
+                case "title":
+                case "p":
+                    break;
+                case "pattern":
+                    patterns.add(parsePattern(element, docType, labels));
+                    break;
+                default:
+                    throw unsupported(name, docType);
+            }
+        }
+        return new SchematronRules(namespaces, patterns);
+    }
+
+    /**
+     * Get the namespace prefixes declared with {@code sch:ns}, in declaration order.
+     */
+    Map<String, String> getNamespaces() {
+        return namespaces;
+    }
+
+    /**
+     * Get the patterns in document order.
+     */
+    List<SchPattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Get the rules restricted to the checks that match a filter. Rules left without
+     * checks are dropped, so their contexts are not evaluated either.
+     *
+     * @param filter the checks to keep
+     */
+    SchematronRules filter(Predicate<SchCheck> filter) {
+        List<SchPattern> filtered = new ArrayList<>();
+        for (SchPattern pattern : patterns) {
+            List<SchRule> rules = new ArrayList<>();
+            for (SchRule rule : pattern.getRules()) {
+                List<SchCheck> checks = new ArrayList<>();
+                for (SchCheck check : rule.getChecks()) {
+                    if (filter.test(check)) {
+                        checks.add(check);
+                    }
+                }
+                if (!checks.isEmpty()) {
+                    rules.add(new SchRule(rule.getContext(), rule.getLabel(), checks));
+                }
+            }
+            filtered.add(new SchPattern(pattern.getId(), rules));
+        }
+        return new SchematronRules(namespaces, filtered);
+    }
+
+    private static SchPattern parsePattern(Element pattern, DocumentSchematron docType, Labels labels) {
+        List<SchRule> rules = new ArrayList<>();
+        for (Element rule : children(pattern)) {
+            String name = schElementName(rule, docType);
+            if ("title".equals(name) || "p".equals(name)) {
+                continue;
+            }
+            if (!"rule".equals(name)) {
+                throw unsupported(name, docType);
+            }
+            rules.add(parseRule(rule, docType, labels));
+        }
+        return new SchPattern(attribute(pattern, "id"), rules);
+    }
+
+    private static SchRule parseRule(Element rule, DocumentSchematron docType, Labels labels) {
+        String context = rule.getAttribute("context").trim();
+        if (context.isEmpty()) {
+            throw new SchematronValidationException("sch:rule without context attribute", docType);
+        }
+
+        List<SchCheck> checks = new ArrayList<>();
+        for (Element check : children(rule)) {
+            String name = schElementName(check, docType);
+            boolean report;
+            switch (name) {
+                case "report":
+                    report = true;
+                    break;
+                case "assert":
+                    report = false;
+                    break;
+                default:
+                    throw unsupported(name, docType);
+            }
+            String id = attribute(check, "id");
+            String message = messageText(check, docType);
+            checks.add(new SchCheck(report, id, check.getAttribute("test"), message,
+                    labels.next(id != null ? id : messageRuleId(message), name)));
+        }
+        return new SchRule(context, labels.nextRule(), checks);
+    }
+
+    /**
+     * Get the rule identifier at the start of a message, or null.
+     */
+    static String messageRuleId(String message) {
+        Matcher matcher = MESSAGE_RULE_ID.matcher(message);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String messageText(Element check, DocumentSchematron docType) {
+        for (Node child = check.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                throw unsupported(child.getLocalName(), docType);
+            }
+        }
+        return check.getTextContent().trim();
+    }
+
+    private static String attribute(Element element, String name) {
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+
+    private static String schElementName(Element element, DocumentSchematron docType) {
+        if (!SCH_NS.equals(element.getNamespaceURI())) {
+            throw new SchematronValidationException(
+                "Unexpected non-Schematron element: " + element.getNodeName(), docType);
+        }
+        return element.getLocalName();
+    }
+
+    private static SchematronValidationException unsupported(String name, DocumentSchematron docType) {
+        return new SchematronValidationException(
+            "Schematron element sch:" + name + " is not supported by the XSLT engine", docType);
+    }
+
+    private static List<Element> children(Element parent) {
+        List<Element> result = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node instanceof Element) {
+                result.add((Element) node);
+            }
+        }
+        return result;
+    }
+
+    private static Document parseXml(InputStream schematron, DocumentSchematron docType) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(schematron);
+        } catch (Exception e) {
+            throw new SchematronValidationException("Failed to parse Schematron: " + e.getMessage(), docType, e);
+        }
+    }
+
+    /**
+     * Gives every rule and check of a file a unique label: the check's id, else the rule
+     * identifier of its message, else its position ("rule-3", "report-12"). Repeated
+     * identifiers get a "#2", "#3" suffix.
+     */
+    private static final class Labels {
+
+        private final Map<String, Integer> used = new HashMap<>();
+        private int rules;
+        private int checks;
+
+        String nextRule() {
+            return "rule-" + (++rules);
+        }
+
+        String next(String id, String kind) {
+            checks++;
+            String label = id != null ? id : kind + "-" + checks;
+            int count = used.merge(label, 1, Integer::sum);
+            return count == 1 ? label : label + "#" + count;
+        }
+    }
+
+    /**
+     * A {@code sch:pattern}.
+     */
+    static final class SchPattern {
+
+        private final String id;
+        private final List<SchRule> rules;
+
+        SchPattern(String id, List<SchRule> rules) {
+            this.id = id;
+            this.rules = Collections.unmodifiableList(rules);
+        }
+
+        String getId() {
+            return id;
+        }
+
+        List<SchRule> getRules() {
+            return rules;
+        }
+    }
+
+    /**
+     * A {@code sch:rule}.
+     */
+    static final class SchRule {
+
+        private final String context;
+        private final String label;
+        private final List<SchCheck> checks;
+
+        SchRule(String context, String label, List<SchCheck> checks) {
+            this.context = context;
+            this.label = label;
+            this.checks = Collections.unmodifiableList(checks);
+        }
+
+        /**
+         * Get the context as written in the file.
+         */
+        String getContext() {
+            return context;
+        }
+
+        /**
+         * Get the expression selecting the context nodes: relative contexts are
+         * evaluated from {@code //}, as ph-schematron's pure engine does.
+         */
+        String getSelect() {
+            return context.startsWith("/") ? context : "//" + context;
+        }
+
+        String getLabel() {
+            return label;
+        }
+
+        List<SchCheck> getChecks() {
+            return checks;
+        }
+    }
+
+    /**
+     * A {@code sch:assert} or {@code sch:report}.
+     */
+    static final class SchCheck {
+
+        private final boolean report;
+        private final String id;
+        private final String test;
+        private final String message;
+        private final String label;
+
+        SchCheck(boolean report, String id, String test, String message, String label) {
+            this.report = report;
+            this.id = id;
+            this.test = test;
+            this.message = message;
+            this.label = label;
+        }
+
+        /**
+         * True for {@code sch:report} (fires when the test is true), false for
+         * {@code sch:assert} (fires when the test is false).
+         */
+        boolean isReport() {
+            return report;
+        }
+
+        /**
+         * Get the {@code id} attribute, or null.
+         */
+        String getId() {
+            return id;
+        }
+
+        String getTest() {
+            return test;
+        }
+
+        String getMessage() {
+            return message;
+        }
+
+        /**
+         * Get the rule ID: the {@code id} attribute, else the rule ID at the start of the
+         * message, else null.
+         */
+        String getRuleId() {
+            return id != null ? id : messageRuleId(message);
+        }
+
+        /**
+         * Get a label that is unique within the file, for reports and metrics.
+         */
+        String getLabel() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.wpanther.etax.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Options that limit how much of a Schematron validation is run.
+ * <p>
+ * Instances are immutable; each {@code with...} method returns a copy:
+ * <pre>
+ * // Reject on the first issue
+ * SchematronValidationOptions.failFast()
+ *
+ * // Only the document context rules, stopping after 10 issues
+ * SchematronValidationOptions.defaults()
+ *     .withRules("TIV-DocumentContext-*")
+ *     .withMaxIssues(10)
+ * </pre>
+ * <p>
+ * Rules are identified by the {@code id} of their {@code sch:assert} / {@code sch:report},
+ * or by the rule ID at the start of their message (e.g. "TIV-DocumentContext-001"), as the
+ * ETDA files have no {@code id} attributes. Checks without either (such as the root element
+ * check) are only run when no rule subset is given.
+ * <p>
+ * An issue is a failed assertion (error) or a successful report (warning): the ETDA files
+ * only use reports, so each problem found in a document is a warning. When validation stops
+ * at a limit the result is marked {@link SchematronValidationResult#isTruncated() truncated}:
+ * the issues after the stop are dropped, so the document may have further issues.
+ * <p>
+ * Only {@link SchematronXsltValidator} saves work with these options, by compiling the
+ * subset on its own and abandoning the transformation at the stop. Other validators,
+ * including {@link SchematronValidatorImpl}, run every rule and then filter the result.
+ */
+public final class SchematronValidationOptions {
+
+    private static final SchematronValidationOptions DEFAULTS =
+        new SchematronValidationOptions(Integer.MAX_VALUE, List.of(), Set.of());
+
+    private final int maxIssues;
+    private final List<String> rules;
+    private final Set<String> stopRules;
+
+    private SchematronValidationOptions(int maxIssues, List<String> rules, Set<String> stopRules) {
+        this.maxIssues = maxIssues;
+        this.rules = rules;
+        this.stopRules = stopRules;
+    }
+
+    /**
+     * Run all rules without limit.
+     */
+    public static SchematronValidationOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Stop at the first issue.
+     */
+    public static SchematronValidationOptions failFast() {
+        return DEFAULTS.withMaxIssues(1);
+    }
+
+    /**
+     * Stop once the given number of issues has been found.
+     *
+     * @param maxIssues the maximum number of errors and warnings reported
+     * @throws IllegalArgumentException if maxIssues is not positive
+     */
+    public SchematronValidationOptions withMaxIssues(int maxIssues) {
+        if (maxIssues <= 0) {
+            throw new IllegalArgumentException("maxIssues must be positive: " + maxIssues);
+        }
+        return new SchematronValidationOptions(maxIssues, rules, stopRules);
+    }
+
+    /**
+     * Run only the given rules.
+     *
+     * @param patterns rule IDs (e.g. "TIV-DocumentContext-001") or prefixes ending with
+     *                 {@code *} (e.g. "TIV-DocumentContext-*", "RCT-*")
+     */
+    public SchematronValidationOptions withRules(String... patterns) {
+        List<String> subset = new ArrayList<>();
+        for (String pattern : patterns) {
+            subset.add(requireRule(pattern));
+        }
+        return new SchematronValidationOptions(maxIssues, Collections.unmodifiableList(subset), stopRules);
+    }
+
+    /**
+     * Stop as soon as one of the given rules fires.
+     *
+     * @param ruleIds rule IDs, e.g. "TIV-DocumentContext-001"
+     */
+    public SchematronValidationOptions withStopRules(String... ruleIds) {
+        Set<String> stop = new LinkedHashSet<>();
+        for (String ruleId : ruleIds) {
+            stop.add(requireRule(ruleId));
+        }
+        return new SchematronValidationOptions(maxIssues, rules, Collections.unmodifiableSet(stop));
+    }
+
+    /**
+     * Get the maximum number of issues ({@link Integer#MAX_VALUE} when unlimited).
+     */
+    public int getMaxIssues() {
+        return maxIssues;
+    }
+
+    /**
+     * Get the rule subset (empty for all rules).
+     */
+    public List<String> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the rules that stop validation when they fire.
+     */
+    public Set<String> getStopRules() {
+        return stopRules;
+    }
+
+    /**
+     * Check whether these options run the whole validation.
+     */
+    public boolean isDefault() {
+        return maxIssues == Integer.MAX_VALUE && rules.isEmpty() && stopRules.isEmpty();
+    }
+
+    /**
+     * Check whether a rule is in the subset.
+     *
+     * @param ruleId the rule ID, or null for checks without one
+     */
+    public boolean includes(String ruleId) {
+        if (rules.isEmpty()) {
+            return true;
+        }
+        if (ruleId == null) {
+            return false;
+        }
+        for (String pattern : rules) {
+            if (pattern.endsWith("*")
+                    ? ruleId.startsWith(pattern.substring(0, pattern.length() - 1))
+                    : ruleId.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether validation stops after an issue, given the number found so far.
+     *
+     * @param issue  the issue just found
+     * @param issues the number of issues found, including this one
+     */
+    boolean isStop(SchematronError issue, int issues) {
+        return issues >= maxIssues || (!stopRules.isEmpty() && stopRules.contains(ruleId(issue)));
+    }
+
+    /**
+     * Apply these options to the result of a complete validation: drop the issues of rules
+     * outside the subset and cut the rest at the first stop. Errors are taken before warnings,
+     * as the order in which they were found is not kept in a result.
+     */
+    SchematronValidationResult apply(SchematronValidationResult result) {
+        if (isDefault()) {
+            return result;
+        }
+        List<SchematronError> errors = new ArrayList<>();
+        List<SchematronError> warnings = new ArrayList<>();
+        List<SchematronError> all = new ArrayList<>(result.getErrors());
+        all.addAll(result.getWarnings());
+        int issues = 0;
+        boolean truncated = false;
+        for (SchematronError issue : all) {
+            if (!includes(ruleId(issue))) {
+                continue;
+            }
+            (issue.getLevel() == SchematronError.ErrorLevel.ERROR ? errors : warnings).add(issue);
+            if (isStop(issue, ++issues)) {
+                truncated = true;
+                break;
+            }
+        }
+        if (truncated) {
+            return SchematronValidationResult.truncated(errors, warnings);
+        }
+        return errors.isEmpty()
+            ? SchematronValidationResult.validWithWarnings(warnings)
+            : SchematronValidationResult.invalid(errors, warnings);
+    }
+
+    /**
+     * Get the rule ID of an issue: its {@code id}, else the rule ID at the start of its message.
+     */
+    static String ruleId(SchematronError issue) {
+        if (issue.getRuleId() != null) {
+            return issue.getRuleId();
+        }
+        return issue.getMessage() != null ? SchematronRules.messageRuleId(issue.getMessage()) : null;
+    }
+
+    private static String requireRule(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new IllegalArgumentException("Rule ID cannot be null or empty");
+        }
+        return rule.trim();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SchematronValidationOptions that = (SchematronValidationOptions) o;
+        return maxIssues == that.maxIssues &&
+               rules.equals(that.rules) &&
+               stopRules.equals(that.stopRules);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxIssues, rules, stopRules);
+    }
+
+    @Override
+    public String toString() {
+        return "SchematronValidationOptions{" +
+               "maxIssues=" + (maxIssues == Integer.MAX_VALUE ? "unlimited" : String.valueOf(maxIssues)) +
+               ", rules=" + rules +
+               ", stopRules=" + stopRules +
+               '}';
+    }
+}
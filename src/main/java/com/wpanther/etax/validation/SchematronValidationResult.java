@@ -8,16 +8,26 @@ import java.util.Objects;
 /**
  * Result of Schematron validation containing errors and warnings.
  * Instances are immutable and can be created via factory methods.
+ * <p>
+ * A result is {@link #isTruncated() truncated} when validation stopped at a limit set with
+ * {@link SchematronValidationOptions}: the errors and warnings are those found before the
+ * stop, and the rules after it were not run.
  */
 public class SchematronValidationResult {
     private final List<SchematronError> errors;
     private final List<SchematronError> warnings;
     private final boolean valid;
+    private final boolean truncated;
 
     private SchematronValidationResult(List<SchematronError> errors, List<SchematronError> warnings) {
+        this(errors, warnings, false);
+    }
+
+    private SchematronValidationResult(List<SchematronError> errors, List<SchematronError> warnings, boolean truncated) {
         this.errors = Collections.unmodifiableList(new ArrayList<>(errors));
         this.warnings = Collections.unmodifiableList(new ArrayList<>(warnings));
         this.valid = this.errors.isEmpty();
+        this.truncated = truncated;
     }
 
     /**
@@ -48,6 +58,14 @@ public class SchematronValidationResult {
         return new SchematronValidationResult(List.of(), warnings);
     }
 
+    /**
+     * Create the result of a validation that stopped at a limit, with the errors and
+     * warnings found before the stop
+     */
+    public static SchematronValidationResult truncated(List<SchematronError> errors, List<SchematronError> warnings) {
+        return new SchematronValidationResult(errors, warnings, true);
+    }
+
     /**
      * Check if validation passed (no errors)
      */
@@ -55,6 +73,13 @@ public class SchematronValidationResult {
         return valid;
     }
 
+    /**
+     * Check if validation stopped at a limit, so that further issues may not be reported
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
     /**
      * Get all errors (failed assertions)
      */
@@ -96,13 +121,14 @@ public class SchematronValidationResult {
         if (o == null || getClass() != o.getClass()) return false;
         SchematronValidationResult that = (SchematronValidationResult) o;
         return valid == that.valid &&
+               truncated == that.truncated &&
                Objects.equals(errors, that.errors) &&
                Objects.equals(warnings, that.warnings);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(errors, warnings, valid);
+        return Objects.hash(errors, warnings, valid, truncated);
     }
 
     @Override
@@ -111,6 +137,7 @@ public class SchematronValidationResult {
                "valid=" + valid +
                ", errors=" + errors.size() +
                ", warnings=" + warnings.size() +
+               (truncated ? ", truncated=true" : "") +
                '}';
     }
 }
@@ -1,5 +1,13 @@
 package com.wpanther.etax.validation;
 
+import org.w3c.dom.Document;
+
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.StringWriter;
+
 /**
  * Validator interface for Schematron business rules validation.
  * <p>
@@ -40,6 +48,75 @@ public interface SchematronValidator {
      */
     SchematronValidationResult validate(java.io.InputStream xmlInputStream, DocumentSchematron docType);
 
+    /**
+     * Validate an already parsed document against Schematron business rules.
+     * <p>
+     * Lets a document be parsed once and shared with XSD validation and JAXB unmarshalling.
+     * The default implementation serializes the document and validates the text;
+     * implementations override it to validate the tree without parsing it again.
+     *
+     * @param document The parsed document (namespace aware)
+     * @param docType  The document type (determines which .sch file to use)
+     * @return SchematronValidationResult containing any errors and warnings found
+     * @throws IllegalArgumentException if document is null
+     * @throws SchematronValidationException if validation fails due to processing errors
+     */
+    default SchematronValidationResult validate(Document document, DocumentSchematron docType) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null");
+        }
+        StringWriter xml = new StringWriter();
+        try {
+            TransformerFactory.newInstance().newTransformer().transform(new DOMSource(document), new StreamResult(xml));
+        } catch (TransformerException e) {
+            throw new SchematronValidationException("Failed to serialize document: " + e.getMessage(), docType, e);
+        }
+        return validate(xml.toString(), docType);
+    }
+
+    /**
+     * Validate XML content, running only as much of the validation as the options allow.
+     * <p>
+     * The default implementation validates the whole document and then applies the options
+     * to the result, so it saves no work. Only {@link SchematronXsltValidator} overrides it to
+     * skip the rules outside the subset and stop evaluating at the first stop;
+     * {@link SchematronValidatorImpl} uses the default.
+     *
+     * @param xmlContent The XML content to validate (as a string)
+     * @param docType    The document type (determines which .sch file to use)
+     * @param options    The rule subset and stop conditions
+     * @return SchematronValidationResult, {@link SchematronValidationResult#isTruncated() truncated}
+     *         if validation stopped at a limit
+     * @throws IllegalArgumentException if xmlContent is null or empty
+     * @throws SchematronValidationException if validation fails due to processing errors
+     */
+    default SchematronValidationResult validate(String xmlContent, DocumentSchematron docType,
+                                                SchematronValidationOptions options) {
+        return options.apply(validate(xmlContent, docType));
+    }
+
+    /**
+     * Validate XML content from an input stream, running only as much of the validation as
+     * the options allow.
+     *
+     * @see #validate(String, DocumentSchematron, SchematronValidationOptions)
+     */
+    default SchematronValidationResult validate(java.io.InputStream xmlInputStream, DocumentSchematron docType,
+                                                SchematronValidationOptions options) {
+        return options.apply(validate(xmlInputStream, docType));
+    }
+
+    /**
+     * Validate an already parsed document, running only as much of the validation as the
+     * options allow.
+     *
+     * @see #validate(String, DocumentSchematron, SchematronValidationOptions)
+     */
+    default SchematronValidationResult validate(Document document, DocumentSchematron docType,
+                                                SchematronValidationOptions options) {
+        return options.apply(validate(document, docType));
+    }
+
     /**
      * Check if the Schematron file for the given document type is valid.
      * This validates the .sch file itself, not an XML document.
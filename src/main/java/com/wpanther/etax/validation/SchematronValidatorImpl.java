@@ -1,19 +1,28 @@
 package com.wpanther.etax.validation;
 
 import com.helger.schematron.pure.SchematronResourcePure;
+import com.helger.schematron.svrl.AbstractSVRLMessage;
+import com.helger.schematron.svrl.SVRLFailedAssert;
+import com.helger.schematron.svrl.SVRLSuccessfulReport;
+import com.helger.schematron.svrl.jaxb.FailedAssert;
 import com.helger.schematron.svrl.jaxb.SchematronOutputType;
+import com.helger.schematron.svrl.jaxb.SuccessfulReport;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.commons.io.resource.ClassPathResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamSource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of SchematronValidator using ph-schematron 8.0.6.
@@ -21,12 +30,20 @@ import java.util.List;
  * This validator loads Schematron files from the classpath and applies
  * XSLT-based validation to XML documents, returning business rule violations
  * as SchematronValidationResult.
+ * <p>
+ * Compiled Schematron resources are cached per {@link DocumentSchematron}, so each
+ * .sch file is read and bound only once per validator instance. The cache is safe
+ * for concurrent use; call {@link #warmUp()} at startup to avoid paying the
+ * compilation cost on the first document of each type.
  */
 public class SchematronValidatorImpl implements SchematronValidator {
 
     private static final Logger log = LoggerFactory.getLogger(SchematronValidatorImpl.class);
     private static final String SVRL_NS = "http://purl.oclc.org/dsdl/svrl";
 
+    private final ConcurrentMap<DocumentSchematron, SchematronResourcePure> schematronCache =
+        new ConcurrentHashMap<>();
+
     @Override
     public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType) {
         if (xmlContent == null || xmlContent.isBlank()) {
@@ -67,10 +84,21 @@ public class SchematronValidatorImpl implements SchematronValidator {
         }
     }
 
+    /**
+     * Validate a parsed document. ph-schematron evaluates the rules on the DOM directly.
+     */
+    @Override
+    public SchematronValidationResult validate(Document document, DocumentSchematron docType) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null");
+        }
+        return validateFromSource(new DOMSource(document), docType);
+    }
+
     @Override
     public boolean isSchematronValid(DocumentSchematron docType) {
         try {
-            SchematronResourcePure schematron = loadSchematron(docType);
+            SchematronResourcePure schematron = getSchematron(docType);
             // Basic validity check - if we can load it, it's likely valid
             return schematron != null;
         } catch (Exception e) {
@@ -79,13 +107,55 @@ public class SchematronValidatorImpl implements SchematronValidator {
         }
     }
 
+    /**
+     * Eagerly load and compile the Schematron files for all document types.
+     * <p>
+     * Intended to be called once at application startup so that the first
+     * validation of each document type does not pay the compilation cost.
+     */
+    public void warmUp() {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            warmUp(docType);
+        }
+    }
+
+    /**
+     * Eagerly load and compile the Schematron file for a single document type.
+     *
+     * @param docType the document type to warm up
+     * @throws SchematronValidationException if the Schematron file cannot be loaded
+     */
+    public void warmUp(DocumentSchematron docType) {
+        SchematronResourcePure schematron = getSchematron(docType);
+        // Binding compiles all rule contexts and tests; the bound schema is kept by the resource
+        schematron.getOrCreateBoundSchema();
+        log.debug("Schematron for {} compiled and cached", docType);
+    }
+
+    /**
+     * Discard all cached Schematron resources. They are reloaded on next use.
+     */
+    public void clearCache() {
+        schematronCache.clear();
+    }
+
+    /**
+     * Get the cached Schematron resource for a document type, loading it on first use.
+     *
+     * @param docType the document type
+     * @return the cached SchematronResourcePure
+     */
+    protected SchematronResourcePure getSchematron(DocumentSchematron docType) {
+        return schematronCache.computeIfAbsent(docType, this::loadSchematron);
+    }
+
     /**
      * Core validation logic using ph-schematron
      */
     private SchematronValidationResult validateFromSource(Source xmlSource, DocumentSchematron docType) {
         try {
-            // Load Schematron resource
-            SchematronResourcePure schematron = loadSchematron(docType);
+            // Get compiled Schematron resource (loaded once per document type)
+            SchematronResourcePure schematron = getSchematron(docType);
 
             // Apply Schematron validation and get SVRL output
             SchematronOutputType output = schematron.applySchematronValidationToSVRL(xmlSource);
@@ -123,40 +193,33 @@ public class SchematronValidatorImpl implements SchematronValidator {
     }
 
     /**
-     * Parse SchematronOutputType to extract failed assertions and successful reports
+     * Parse SchematronOutputType to extract failed assertions and successful reports.
+     * <p>
+     * SVRL elements are dispatched by type and read through ph-schematron's typed
+     * {@link SVRLFailedAssert} / {@link SVRLSuccessfulReport} views, which also flatten
+     * the mixed content of {@code svrl:text}. Active patterns and fired rules are skipped.
      */
-    private SchematronValidationResult parseSchematronOutput(SchematronOutputType output, DocumentSchematron docType) {
-        List<SchematronError> errors = new ArrayList<>();
-        List<SchematronError> warnings = new ArrayList<>();
-
+    static SchematronValidationResult parseSchematronOutput(SchematronOutputType output, DocumentSchematron docType) {
         if (output == null || output.getActivePatternAndFiredRuleAndFailedAssert() == null) {
             log.debug("Schematron validation for {} completed: no output (possibly empty Schematron)", docType);
             return SchematronValidationResult.success();
         }
 
-        // Iterate through all elements in the SVRL output
-        for (Object obj : output.getActivePatternAndFiredRuleAndFailedAssert()) {
-            // Check class name to determine type
-            String className = obj.getClass().getSimpleName();
-            log.trace("Processing SVRL element: {}", className);
+        List<SchematronError> errors = new ArrayList<>();
+        List<SchematronError> warnings = new ArrayList<>();
 
-            // NOTE: FailedAssert branch is currently unreachable because all production
-            // Schematron files (TaxInvoice, Receipt, DebitCreditNote, Invoice, etc.) use
-            // <sch:report> elements exclusively and contain zero <sch:assert> elements.
-            // - <sch:assert> → FailedAssert in SVRL → ERROR (not used in production)
-            // - <sch:report> → SuccessfulReport in SVRL → WARNING (used by all files)
-            // This branch is retained for future compatibility if Schematron files are
-            // updated to include assertions.
-            if (className.contains("FailedAssert")) {
-                // This is a failed assertion (error)
-                SchematronError error = extractErrorFromObject(obj);
+        // NOTE: The FailedAssert branch is currently unreachable because all production
+        // Schematron files use <sch:report> elements exclusively (SuccessfulReport -> WARNING)
+        // and contain zero <sch:assert> elements (FailedAssert -> ERROR). It is retained for
+        // custom Schematron files and future versions of the ETDA files.
+        for (Object obj : output.getActivePatternAndFiredRuleAndFailedAssert()) {
+            if (obj instanceof SuccessfulReport) {
+                warnings.add(toError(new SVRLSuccessfulReport((SuccessfulReport) obj), SchematronError.ErrorLevel.WARNING));
+            } else if (obj instanceof FailedAssert) {
+                SchematronError error = toError(new SVRLFailedAssert((FailedAssert) obj), SchematronError.ErrorLevel.ERROR);
                 log.info("Found Schematron error: ruleId={}, location={}, message={}",
                     error.getRuleId(), error.getLocation(), error.getMessage());
                 errors.add(error);
-            } else if (className.contains("SuccessfulReport")) {
-                // This is a successful report (warning/info)
-                SchematronError warning = extractWarningFromObject(obj);
-                warnings.add(warning);
             }
         }
 
@@ -167,99 +230,17 @@ public class SchematronValidatorImpl implements SchematronValidator {
             return warnings.isEmpty()
                 ? SchematronValidationResult.success()
                 : SchematronValidationResult.validWithWarnings(warnings);
-        } else {
-            // NOTE: This branch is currently unreachable because all production Schematron
-            // files use only <sch:report> elements (no <sch:assert>), so errors list is
-            // always empty. Retained for future compatibility.
-            return SchematronValidationResult.invalid(errors, warnings);
         }
+        return SchematronValidationResult.invalid(errors, warnings);
     }
 
-    /**
-     * Extract error information from a failed assertion object using reflection.
-     * <p>
-     * <b>NOTE:</b> This method is currently unreachable in production because all Thai e-Tax
-     * Schematron files use {@code <sch:report>} elements (warnings) instead of
-     * {@code <sch:assert>} elements (errors). Analysis of all 6 Schematron files shows:
-     * <ul>
-     *   <li>TaxInvoice: 0 assert, 230 report</li>
-     *   <li>Receipt: 0 assert, 233 report</li>
-     *   <li>DebitCreditNote: 0 assert, 211 report</li>
-     *   <li>AbbreviatedTaxInvoice: 0 assert, 53 report</li>
-     *   <li>Invoice: 0 assert, 11 report</li>
-     *   <li>CancellationNote: 0 assert, 9 report</li>
-     * </ul>
-     * <p>
-     * This method is retained for future compatibility if Schematron files are updated
-     * to include assertions, or for use with custom Schematron files.
-     *
-     * @param obj the FailedAssert object from SVRL output
-     * @return a SchematronError with ERROR level
-     */
-    private SchematronError extractErrorFromObject(Object obj) {
-        try {
-            // Use reflection to get the values we need
-            String ruleId = (String) obj.getClass().getMethod("getId").invoke(obj);
-            String location = (String) obj.getClass().getMethod("getLocation").invoke(obj);
-            String testExpression = (String) obj.getClass().getMethod("getTest").invoke(obj);
-
-            // Get text content - the method might return a TextType directly
-            String message = "";
-            try {
-                Object textObj = obj.getClass().getMethod("getText").invoke(obj);
-                if (textObj != null) {
-                    // Try different methods to get the text value
-                    try {
-                        message = (String) textObj.getClass().getMethod("getValue").invoke(textObj);
-                    } catch (NoSuchMethodException e) {
-                        // TextType might have a different method
-                        message = textObj.toString();
-                    }
-                }
-            } catch (Exception e) {
-                log.trace("Failed to extract text using getText method: {}", e.getMessage());
-                // Fallback to empty message
-            }
-
-            return new SchematronError(ruleId, message, location, SchematronError.ErrorLevel.ERROR, testExpression);
-        } catch (Exception e) {
-            log.warn("Failed to extract error from object: {}", e.getMessage(), e);
-            return new SchematronError("UNKNOWN", "Failed to extract error details", "", SchematronError.ErrorLevel.ERROR, "");
-        }
-    }
-
-    /**
-     * Extract warning information from a successful report object using reflection
-     */
-    private SchematronError extractWarningFromObject(Object obj) {
-        try {
-            // Use reflection to get the values we need
-            String ruleId = (String) obj.getClass().getMethod("getId").invoke(obj);
-            String location = (String) obj.getClass().getMethod("getLocation").invoke(obj);
-            String testExpression = (String) obj.getClass().getMethod("getTest").invoke(obj);
-
-            // Get text content - the method might return a TextType directly
-            String message = "";
-            try {
-                Object textObj = obj.getClass().getMethod("getText").invoke(obj);
-                if (textObj != null) {
-                    // Try different methods to get the text value
-                    try {
-                        message = (String) textObj.getClass().getMethod("getValue").invoke(textObj);
-                    } catch (NoSuchMethodException e) {
-                        // TextType might have a different method
-                        message = textObj.toString();
-                    }
-                }
-            } catch (Exception e) {
-                log.trace("Failed to extract text using getText method: {}", e.getMessage());
-                // Fallback to empty message
-            }
-
-            return new SchematronError(ruleId, message, location, SchematronError.ErrorLevel.WARNING, testExpression);
-        } catch (Exception e) {
-            log.warn("Failed to extract warning from object: {}", e.getMessage(), e);
-            return new SchematronError("UNKNOWN", "Failed to extract warning details", "", SchematronError.ErrorLevel.WARNING, "");
-        }
+    private static SchematronError toError(AbstractSVRLMessage message, SchematronError.ErrorLevel level) {
+        String text = message.getText();
+        return new SchematronError(
+            message.getID(),
+            text != null ? text : "",
+            message.getLocation(),
+            level,
+            message.getTest());
     }
 }
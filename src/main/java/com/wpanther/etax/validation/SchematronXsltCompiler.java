@@ -0,0 +1,132 @@
+package com.wpanther.etax.validation;
+
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Translates an ISO Schematron file into an XSLT 2.0 stylesheet that emits SVRL.
+ * <p>
+ * The file is read with {@link SchematronRules}, which only accepts the subset of
+ * Schematron used by the ETDA .sch files, so that the XSLT engine never silently
+ * diverges from {@link SchematronValidatorImpl}.
+ * <p>
+ * Rule contexts are evaluated the same way as ph-schematron's pure engine: every
+ * rule is applied independently, and relative contexts are evaluated from {@code //}.
+ */
+final class SchematronXsltCompiler {
+
+    static final String SCH_NS = SchematronRules.SCH_NS;
+    static final String SVRL_NS = "http://purl.oclc.org/dsdl/svrl";
+    private static final String XSL_NS = "http://www.w3.org/1999/XSL/Transform";
+
+    private SchematronXsltCompiler() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Translate a Schematron file into XSLT source.
+     *
+     * @param schematron the .sch content
+     * @param docType    the document type (used for error reporting)
+     * @return the XSLT stylesheet as a string
+     * @throws SchematronValidationException if the Schematron cannot be parsed or uses unsupported elements
+     */
+    static String toXslt(InputStream schematron, DocumentSchematron docType) {
+        return toXslt(SchematronRules.parse(schematron, docType));
+    }
+
+    /**
+     * Translate parsed Schematron rules into XSLT source.
+     *
+     * @param rules the parsed rules
+     * @return the XSLT stylesheet as a string
+     */
+    static String toXslt(SchematronRules rules) {
+        StringBuilder xslt = new StringBuilder(16 * 1024);
+        xslt.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xslt.append("<xsl:stylesheet version=\"2.0\" xmlns:xsl=\"").append(XSL_NS)
+            .append("\" xmlns:svrl=\"").append(SVRL_NS).append('"');
+        for (Map.Entry<String, String> ns : rules.getNamespaces().entrySet()) {
+            xslt.append(" xmlns:").append(ns.getKey())
+                .append("=\"").append(escape(ns.getValue())).append('"');
+        }
+        xslt.append(" exclude-result-prefixes=\"#all\">\n");
+        xslt.append("<xsl:output method=\"xml\" indent=\"no\"/>\n");
+
+        // Location function: /prefix:name[n] path of the context node
+        xslt.append("<xsl:template match=\"node()\" mode=\"location\">")
+            .append("<xsl:for-each select=\"ancestor-or-self::*\">")
+            .append("<xsl:value-of select=\"concat('/', name(), '[', count(preceding-sibling::*[name() = name(current())]) + 1, ']')\"/>")
+            .append("</xsl:for-each></xsl:template>\n");
+        xslt.append("<xsl:template match=\"/\" mode=\"location\">/</xsl:template>\n");
+
+        xslt.append("<xsl:template match=\"/\">\n<svrl:schematron-output>\n");
+        for (SchematronRules.SchPattern pattern : rules.getPatterns()) {
+            appendPattern(xslt, pattern);
+        }
+        xslt.append("</svrl:schematron-output>\n</xsl:template>\n");
+        xslt.append("</xsl:stylesheet>\n");
+        return xslt.toString();
+    }
+
+    private static void appendPattern(StringBuilder xslt, SchematronRules.SchPattern pattern) {
+        xslt.append("<svrl:active-pattern");
+        appendIdAttribute(xslt, pattern.getId());
+        xslt.append("/>\n");
+        for (SchematronRules.SchRule rule : pattern.getRules()) {
+            appendRule(xslt, rule);
+        }
+    }
+
+    private static void appendRule(StringBuilder xslt, SchematronRules.SchRule rule) {
+        xslt.append("<xsl:for-each select=\"").append(escape(rule.getSelect())).append("\">\n");
+        xslt.append("<svrl:fired-rule><xsl:attribute name=\"context\">")
+            .append(escape(rule.getContext())).append("</xsl:attribute></svrl:fired-rule>\n");
+        for (SchematronRules.SchCheck check : rule.getChecks()) {
+            if (check.isReport()) {
+                xslt.append("<xsl:if test=\"").append(escape(check.getTest())).append("\">\n");
+                appendResult(xslt, "successful-report", check);
+            } else {
+                xslt.append("<xsl:if test=\"not(").append(escape(check.getTest())).append(")\">\n");
+                appendResult(xslt, "failed-assert", check);
+            }
+            xslt.append("</xsl:if>\n");
+        }
+        xslt.append("</xsl:for-each>\n");
+    }
+
+    private static void appendResult(StringBuilder xslt, String svrlName, SchematronRules.SchCheck check) {
+        xslt.append("<svrl:").append(svrlName);
+        appendIdAttribute(xslt, check.getId());
+        xslt.append('>');
+        xslt.append("<xsl:attribute name=\"test\">").append(escape(check.getTest())).append("</xsl:attribute>");
+        xslt.append("<xsl:attribute name=\"location\"><xsl:apply-templates select=\".\" mode=\"location\"/></xsl:attribute>");
+        xslt.append("<svrl:text>").append(escape(check.getMessage())).append("</svrl:text>");
+        xslt.append("</svrl:").append(svrlName).append(">\n");
+    }
+
+    private static void appendIdAttribute(StringBuilder xslt, String id) {
+        if (id != null) {
+            xslt.append(" id=\"").append(escapeAvt(id)).append('"');
+        }
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&': sb.append("&amp;"); break;
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '"': sb.append("&quot;"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String escapeAvt(String value) {
+        return escape(value).replace("{", "{{").replace("}", "}}");
+    }
+}
@@ -0,0 +1,460 @@
+package com.wpanther.etax.validation;
+
+import net.sf.saxon.s9api.Axis;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.QName;
+import net.sf.saxon.s9api.SAXDestination;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmDestination;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
+import net.sf.saxon.s9api.XdmSequenceIterator;
+import net.sf.saxon.s9api.XsltCompiler;
+import net.sf.saxon.s9api.XsltExecutable;
+import net.sf.saxon.s9api.Xslt30Transformer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of SchematronValidator that precompiles each Schematron file
+ * into a Saxon-HE {@link XsltExecutable}.
+ * <p>
+ * The .sch file is translated to XSLT by {@link SchematronXsltCompiler} and compiled
+ * once per {@link DocumentSchematron}. Compiled executables are immutable and shared
+ * across threads; each validation only creates a lightweight transformer. Rule
+ * evaluation semantics, rule IDs, messages and test expressions match
+ * {@link SchematronValidatorImpl}.
+ */
+public class SchematronXsltValidator implements SchematronValidator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchematronXsltValidator.class);
+
+    private static final QName SVRL_FAILED_ASSERT = new QName(SchematronXsltCompiler.SVRL_NS, "failed-assert");
+    private static final QName SVRL_SUCCESSFUL_REPORT = new QName(SchematronXsltCompiler.SVRL_NS, "successful-report");
+    private static final QName SVRL_TEXT = new QName(SchematronXsltCompiler.SVRL_NS, "text");
+    private static final QName ATTR_ID = new QName("id");
+    private static final QName ATTR_LOCATION = new QName("location");
+    private static final QName ATTR_TEST = new QName("test");
+
+    /**
+     * Maximum number of rule subset stylesheets kept; the least recently used is dropped beyond it.
+     */
+    static final int MAX_SUBSETS = 32;
+
+    private final Processor processor;
+    private final ConcurrentMap<DocumentSchematron, XsltExecutable> executableCache = new ConcurrentHashMap<>();
+    private final ReentrantLock subsetLock = new ReentrantLock();
+    private final Map<Map.Entry<DocumentSchematron, List<String>>, XsltExecutable> subsetCache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Map.Entry<DocumentSchematron, List<String>>, XsltExecutable> eldest) {
+                return size() > MAX_SUBSETS;
+            }
+        };
+
+    public SchematronXsltValidator() {
+        this(new Processor(false));
+    }
+
+    /**
+     * Create a validator using the given Saxon processor (e.g. to share configuration).
+     *
+     * @param processor the Saxon processor used to compile and run the stylesheets
+     */
+    public SchematronXsltValidator(Processor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType) {
+        if (xmlContent == null || xmlContent.isBlank()) {
+            throw new IllegalArgumentException("XML content cannot be null or empty");
+        }
+        return validateFromSource(new StreamSource(new StringReader(xmlContent)), docType);
+    }
+
+    @Override
+    public SchematronValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType) {
+        if (xmlInputStream == null) {
+            throw new IllegalArgumentException("XML input stream cannot be null");
+        }
+
+        try {
+            return validateFromSource(new StreamSource(xmlInputStream), docType);
+        } finally {
+            try {
+                xmlInputStream.close();
+            } catch (IOException e) {
+                log.warn("Failed to close input stream", e);
+            }
+        }
+    }
+
+    /**
+     * Validate a parsed document.
+     * <p>
+     * The DOM is copied into a Saxon tree without re-parsing: walking the DOM is much cheaper
+     * than parsing text, and the rules then run on Saxon's native tree, which evaluates the
+     * XPath tests faster than a wrapped DOM.
+     */
+    @Override
+    public SchematronValidationResult validate(Document document, DocumentSchematron docType) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null");
+        }
+        return validateFromSource(toTree(document, docType), docType);
+    }
+
+    /**
+     * Validate XML content with a rule subset and stop conditions.
+     * <p>
+     * A rule subset is compiled into its own stylesheet (cached per document type and
+     * subset, keeping the {@value #MAX_SUBSETS} most recently used subsets), so the contexts and tests of the other rules are never evaluated. The SVRL
+     * output is read while the stylesheet runs, and the transformation is abandoned as soon
+     * as a stop condition is met.
+     */
+    @Override
+    public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType,
+                                               SchematronValidationOptions options) {
+        if (xmlContent == null || xmlContent.isBlank()) {
+            throw new IllegalArgumentException("XML content cannot be null or empty");
+        }
+        return validateFromSource(new StreamSource(new StringReader(xmlContent)), docType, options);
+    }
+
+    @Override
+    public SchematronValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType,
+                                               SchematronValidationOptions options) {
+        if (xmlInputStream == null) {
+            throw new IllegalArgumentException("XML input stream cannot be null");
+        }
+
+        try {
+            return validateFromSource(new StreamSource(xmlInputStream), docType, options);
+        } finally {
+            try {
+                xmlInputStream.close();
+            } catch (IOException e) {
+                log.warn("Failed to close input stream", e);
+            }
+        }
+    }
+
+    @Override
+    public SchematronValidationResult validate(Document document, DocumentSchematron docType,
+                                               SchematronValidationOptions options) {
+        if (document == null) {
+            throw new IllegalArgumentException("Document cannot be null");
+        }
+        return validateFromSource(toTree(document, docType), docType, options);
+    }
+
+    @Override
+    public boolean isSchematronValid(DocumentSchematron docType) {
+        try {
+            return getExecutable(docType) != null;
+        } catch (Exception e) {
+            log.error("Failed to compile Schematron file for {}", docType, e);
+            return false;
+        }
+    }
+
+    /**
+     * Eagerly compile the Schematron files for all document types.
+     */
+    public void warmUp() {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            getExecutable(docType);
+        }
+    }
+
+    /**
+     * Discard all compiled stylesheets. They are recompiled on next use.
+     */
+    public void clearCache() {
+        executableCache.clear();
+        subsetLock.lock();
+        try {
+            subsetCache.clear();
+        } finally {
+            subsetLock.unlock();
+        }
+    }
+
+    /**
+     * Get the compiled stylesheet for a document type, compiling it on first use.
+     *
+     * @param docType the document type
+     * @return the cached XsltExecutable
+     */
+    protected XsltExecutable getExecutable(DocumentSchematron docType) {
+        return executableCache.computeIfAbsent(docType, this::compileSchematron);
+    }
+
+    /**
+     * Translate and compile the Schematron file for a document type.
+     * <p>
+     * This method is protected to allow testing with subclasses that simulate compile failures.
+     *
+     * @param docType the document type whose Schematron file to compile
+     * @return the compiled stylesheet
+     * @throws SchematronValidationException if the Schematron file is not found or cannot be compiled
+     */
+    protected XsltExecutable compileSchematron(DocumentSchematron docType) {
+        return compile(docType, SchematronValidationOptions.defaults());
+    }
+
+    /**
+     * Get the compiled stylesheet for the rule subset of the options, compiling it on first use.
+     * <p>
+     * The subset is keyed by its sorted, distinct patterns, so the same rules given in another
+     * order share one stylesheet. The cache is bounded, as the patterns come from callers.
+     * Compilation runs outside the lock; two threads missing the same subset may both compile it.
+     */
+    private XsltExecutable getExecutable(DocumentSchematron docType, SchematronValidationOptions options) {
+        if (options.getRules().isEmpty()) {
+            return getExecutable(docType);
+        }
+        Map.Entry<DocumentSchematron, List<String>> key =
+            Map.entry(docType, List.copyOf(new TreeSet<>(options.getRules())));
+
+        subsetLock.lock();
+        try {
+            XsltExecutable cached = subsetCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            subsetLock.unlock();
+        }
+
+        XsltExecutable executable = compile(docType, options);
+        subsetLock.lock();
+        try {
+            XsltExecutable raced = subsetCache.putIfAbsent(key, executable);
+            return raced != null ? raced : executable;
+        } finally {
+            subsetLock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of rule subset stylesheets currently cached.
+     */
+    int subsetCacheSize() {
+        subsetLock.lock();
+        try {
+            return subsetCache.size();
+        } finally {
+            subsetLock.unlock();
+        }
+    }
+
+    private XsltExecutable compile(DocumentSchematron docType, SchematronValidationOptions options) {
+        ClassLoader classLoader = SchematronXsltValidator.class.getClassLoader();
+        try (InputStream sch = classLoader.getResourceAsStream(docType.getSchematronPath())) {
+            if (sch == null) {
+                throw new SchematronValidationException(
+                    "Schematron file not found on classpath: " + docType.getSchematronPath(), docType);
+            }
+
+            SchematronRules rules = SchematronRules.parse(sch, docType);
+            if (!options.getRules().isEmpty()) {
+                rules = rules.filter(check -> options.includes(check.getRuleId()));
+            }
+            String xslt = SchematronXsltCompiler.toXslt(rules);
+            XsltCompiler compiler = processor.newXsltCompiler();
+            XsltExecutable executable = compiler.compile(new StreamSource(new StringReader(xslt)));
+            log.debug("Compiled Schematron for {} to XSLT (rules: {})", docType,
+                options.getRules().isEmpty() ? "all" : options.getRules());
+            return executable;
+
+        } catch (IOException | SaxonApiException e) {
+            throw new SchematronValidationException(
+                "Failed to compile Schematron: " + e.getMessage(), docType, e);
+        }
+    }
+
+    private Source toTree(Document document, DocumentSchematron docType) {
+        try {
+            return processor.newDocumentBuilder().build(new DOMSource(document)).asSource();
+        } catch (SaxonApiException e) {
+            throw new SchematronValidationException("Failed to read document: " + e.getMessage(), docType, e);
+        }
+    }
+
+    private SchematronValidationResult validateFromSource(Source xmlSource, DocumentSchematron docType) {
+        XsltExecutable executable = getExecutable(docType);
+
+        XdmNode svrl;
+        try {
+            Xslt30Transformer transformer = executable.load30();
+            XdmDestination destination = new XdmDestination();
+            transformer.transform(xmlSource, destination);
+            svrl = destination.getXdmNode();
+        } catch (SaxonApiException e) {
+            log.error("Schematron validation failed for {}", docType, e);
+            throw new SchematronValidationException("Schematron validation failed: " + e.getMessage(), docType, e);
+        }
+
+        return parseSvrl(svrl, docType);
+    }
+
+    private SchematronValidationResult validateFromSource(Source xmlSource, DocumentSchematron docType,
+                                                         SchematronValidationOptions options) {
+        if (options.isDefault()) {
+            return validateFromSource(xmlSource, docType);
+        }
+        XsltExecutable executable = getExecutable(docType, options);
+
+        SvrlCollector collector = new SvrlCollector(options);
+        try {
+            executable.load30().transform(xmlSource, new SAXDestination(collector));
+        } catch (SaxonApiException e) {
+            if (!collector.stopped) {
+                log.error("Schematron validation failed for {}", docType, e);
+                throw new SchematronValidationException("Schematron validation failed: " + e.getMessage(), docType, e);
+            }
+        }
+
+        log.debug("Schematron validation for {} completed: {} errors, {} warnings{}", docType,
+            collector.errors.size(), collector.warnings.size(), collector.stopped ? " (stopped)" : "");
+
+        if (collector.stopped) {
+            return SchematronValidationResult.truncated(collector.errors, collector.warnings);
+        }
+        if (collector.errors.isEmpty()) {
+            return collector.warnings.isEmpty()
+                ? SchematronValidationResult.success()
+                : SchematronValidationResult.validWithWarnings(collector.warnings);
+        }
+        return SchematronValidationResult.invalid(collector.errors, collector.warnings);
+    }
+
+    private SchematronValidationResult parseSvrl(XdmNode svrl, DocumentSchematron docType) {
+        List<SchematronError> errors = new ArrayList<>();
+        List<SchematronError> warnings = new ArrayList<>();
+
+        XdmSequenceIterator<XdmNode> it = svrl.axisIterator(Axis.DESCENDANT);
+        while (it.hasNext()) {
+            XdmNode node = it.next();
+            if (node.getNodeKind() != XdmNodeKind.ELEMENT) {
+                continue;
+            }
+            QName name = node.getNodeName();
+            if (SVRL_FAILED_ASSERT.equals(name)) {
+                errors.add(toError(node, SchematronError.ErrorLevel.ERROR));
+            } else if (SVRL_SUCCESSFUL_REPORT.equals(name)) {
+                warnings.add(toError(node, SchematronError.ErrorLevel.WARNING));
+            }
+        }
+
+        log.debug("Schematron validation for {} completed: {} errors, {} warnings",
+            docType, errors.size(), warnings.size());
+
+        if (errors.isEmpty()) {
+            return warnings.isEmpty()
+                ? SchematronValidationResult.success()
+                : SchematronValidationResult.validWithWarnings(warnings);
+        }
+        return SchematronValidationResult.invalid(errors, warnings);
+    }
+
+    private static SchematronError toError(XdmNode node, SchematronError.ErrorLevel level) {
+        String message = "";
+        XdmSequenceIterator<XdmNode> children = node.axisIterator(Axis.CHILD, SVRL_TEXT);
+        if (children.hasNext()) {
+            message = children.next().getStringValue();
+        }
+        return new SchematronError(
+            node.getAttributeValue(ATTR_ID),
+            message,
+            node.getAttributeValue(ATTR_LOCATION),
+            level,
+            node.getAttributeValue(ATTR_TEST));
+    }
+
+    /**
+     * Reads failed assertions and successful reports from the SVRL events of a running
+     * transformation, and abandons it by throwing once a stop condition is met.
+     */
+    private static final class SvrlCollector extends DefaultHandler {
+
+        private final SchematronValidationOptions options;
+        private final List<SchematronError> errors = new ArrayList<>();
+        private final List<SchematronError> warnings = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private SchematronError.ErrorLevel level;
+        private String id;
+        private String location;
+        private String test;
+        private boolean inText;
+        private boolean stopped;
+
+        SvrlCollector(SchematronValidationOptions options) {
+            this.options = options;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (!SchematronXsltCompiler.SVRL_NS.equals(uri)) {
+                return;
+            }
+            if ("failed-assert".equals(localName) || "successful-report".equals(localName)) {
+                level = "failed-assert".equals(localName)
+                    ? SchematronError.ErrorLevel.ERROR
+                    : SchematronError.ErrorLevel.WARNING;
+                id = attributes.getValue("id");
+                location = attributes.getValue("location");
+                test = attributes.getValue("test");
+                text.setLength(0);
+            } else if ("text".equals(localName) && level != null) {
+                inText = true;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (!SchematronXsltCompiler.SVRL_NS.equals(uri)) {
+                return;
+            }
+            if ("text".equals(localName)) {
+                inText = false;
+            } else if (level != null && ("failed-assert".equals(localName) || "successful-report".equals(localName))) {
+                SchematronError issue = new SchematronError(id, text.toString(), location, level, test);
+                (level == SchematronError.ErrorLevel.ERROR ? errors : warnings).add(issue);
+                level = null;
+                if (options.isStop(issue, errors.size() + warnings.size())) {
+                    stopped = true;
+                    throw new SAXException("Schematron validation stopped by " + options);
+                }
+            }
+        }
+    }
+}
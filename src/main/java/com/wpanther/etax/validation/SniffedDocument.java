@@ -0,0 +1,87 @@
+package com.wpanther.etax.validation;
+
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+/**
+ * A document whose type has been detected by {@link DocumentTypeSniffer}.
+ * <p>
+ * Gives the routing information (document type, XSD and Schematron) and the full document
+ * content for the next processing step.
+ */
+public final class SniffedDocument {
+
+    private final MessageInfo.Message message;
+    private final String rootNamespace;
+    private final String version;
+    private final Supplier<InputStream> content;
+
+    SniffedDocument(MessageInfo.Message message, String rootNamespace, String version, Supplier<InputStream> content) {
+        this.message = message;
+        this.rootNamespace = rootNamespace;
+        this.version = version;
+        this.content = content;
+    }
+
+    /**
+     * Get the document type, which selects the JAXB context and Schematron file.
+     */
+    public DocumentSchematron getDocumentType() {
+        return message.getDocumentType();
+    }
+
+    /**
+     * Get the MessageInfo.json entry of the document.
+     */
+    public MessageInfo.Message getMessage() {
+        return message;
+    }
+
+    /**
+     * Get the classpath location of the XSD for the document.
+     */
+    public String getSchemaResource() {
+        return message.getSchemaResource();
+    }
+
+    /**
+     * Get the classpath location of the Schematron file for the document.
+     */
+    public String getSchematronResource() {
+        return message.getSchematronResource();
+    }
+
+    /**
+     * Get the namespace URI of the root element.
+     */
+    public String getRootNamespace() {
+        return rootNamespace;
+    }
+
+    /**
+     * Get the version attribute (e.g. "v2.1"), or null if the document does not have one
+     * where the message's {@code versionPath} expects it.
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the full document content, from the first byte.
+     * <p>
+     * When the document was sniffed from a byte array or string, each call returns a new
+     * stream. When it was sniffed from an {@link InputStream}, the same stream is returned,
+     * so the content can be read only once.
+     */
+    public InputStream getInputStream() {
+        return content.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SniffedDocument{" +
+               "documentType=" + getDocumentType() +
+               ", version='" + version + '\'' +
+               '}';
+    }
+}
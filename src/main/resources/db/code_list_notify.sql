@@ -0,0 +1,78 @@
+-- Code List Change Notifications
+-- Emits pg_notify on the 'code_list_changed' channel for every committed
+-- INSERT, UPDATE, DELETE and TRUNCATE on the code tables, so that
+-- CodeListChangeListener can reload only the affected in-memory entries.
+--
+-- Payload format: <table>|<operation>|<code>
+--   thai_province_code|INSERT|10
+--   thai_province_code|UPDATE|10
+--   thai_province_code|DELETE|10
+--   thai_province_code|TRUNCATE|
+-- An UPDATE that changes the primary key emits a DELETE for the old code
+-- followed by an UPDATE for the new code.
+--
+-- Run after the code table scripts. Tables that do not exist yet are skipped,
+-- so this script can be re-run after creating additional tables.
+
+CREATE OR REPLACE FUNCTION notify_code_list_change()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'TRUNCATE' THEN
+        PERFORM pg_notify('code_list_changed', TG_TABLE_NAME || '|TRUNCATE|');
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('code_list_changed', TG_TABLE_NAME || '|DELETE|' || OLD.code);
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.code IS DISTINCT FROM NEW.code THEN
+            PERFORM pg_notify('code_list_changed', TG_TABLE_NAME || '|DELETE|' || OLD.code);
+        END IF;
+        PERFORM pg_notify('code_list_changed', TG_TABLE_NAME || '|UPDATE|' || NEW.code);
+    ELSE
+        PERFORM pg_notify('code_list_changed', TG_TABLE_NAME || '|INSERT|' || NEW.code);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;;
+
+COMMENT ON FUNCTION notify_code_list_change() IS 'Notify code_list_changed listeners of a code table change';;
+
+DO $$
+DECLARE
+    code_table TEXT;
+BEGIN
+    FOREACH code_table IN ARRAY ARRAY[
+        'address_type',
+        'allowance_charge_identification_code',
+        'allowance_charge_reason_code',
+        'delivery_terms_code',
+        'document_name_code_invoice',
+        'duty_tax_fee_type_code',
+        'freight_cost_code',
+        'iso_country_code',
+        'iso_currency_code',
+        'iso_language_code',
+        'message_function_code',
+        'payment_terms_description_identifier',
+        'payment_terms_type_code',
+        'thai_category_code',
+        'thai_document_name_code',
+        'thai_message_function_code',
+        'thai_province_code',
+        'tisi_city_name',
+        'tisi_subdistrict',
+        'unece_reference_type_code'
+    ] LOOP
+        IF to_regclass(code_table) IS NOT NULL THEN
+            EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I',
+                'trigger_notify_' || code_table || '_change', code_table);
+            EXECUTE format('CREATE TRIGGER %I AFTER INSERT OR UPDATE OR DELETE ON %I '
+                || 'FOR EACH ROW EXECUTE FUNCTION notify_code_list_change()',
+                'trigger_notify_' || code_table || '_change', code_table);
+            EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I',
+                'trigger_notify_' || code_table || '_truncate', code_table);
+            EXECUTE format('CREATE TRIGGER %I AFTER TRUNCATE ON %I '
+                || 'FOR EACH STATEMENT EXECUTE FUNCTION notify_code_list_change()',
+                'trigger_notify_' || code_table || '_truncate', code_table);
+        END IF;
+    END LOOP;
+END
+$$;;
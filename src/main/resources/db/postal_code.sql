@@ -0,0 +1,47 @@
+-- Thai Postal Code Table (optional)
+-- Maps 5-digit Thailand Post postcodes to TISI 1099-2548 subdistrict codes
+-- A postcode usually covers several subdistricts, and a few subdistricts have more than one postcode
+
+CREATE TABLE postal_code (
+    postal_code VARCHAR(5) NOT NULL,
+    subdistrict_code VARCHAR(6) NOT NULL REFERENCES tisi_subdistrict(code),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (postal_code, subdistrict_code)
+);;
+
+-- Add comment to table
+COMMENT ON TABLE postal_code IS 'Thai postal codes (รหัสไปรษณีย์) of TISI subdistricts, for filling addresses from a postcode';;
+
+-- Add comments to columns
+COMMENT ON COLUMN postal_code.postal_code IS 'Thailand Post postal code (5 digits)';;
+COMMENT ON COLUMN postal_code.subdistrict_code IS 'TISI 1099-2548 subdistrict code (6 digits: PPDDSS)';;
+
+-- Create index for the reverse lookup (the primary key serves postcode lookups)
+CREATE INDEX idx_postal_code_subdistrict_code ON postal_code(subdistrict_code);;
+
+-- Create trigger to update updated_at timestamp
+CREATE OR REPLACE FUNCTION update_postal_code_timestamp()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;;
+
+CREATE TRIGGER trigger_update_postal_code_timestamp
+    BEFORE UPDATE ON postal_code
+    FOR EACH ROW
+    EXECUTE FUNCTION update_postal_code_timestamp();;
+
+-- Note: The data is loaded from postal_code_data.sql, generated from a Thailand Post
+-- postcode list by scripts/data-extraction/extract_postal_code_data.py.
+-- ThaiPostalCodes reads the same script into memory without this table.
+-- Sample data structure:
+/*
+INSERT INTO postal_code (postal_code, subdistrict_code) VALUES
+('10200', '100101'),
+('10200', '100102'),
+-- ...
+('10500', '100401');;
+*/
@@ -0,0 +1,10 @@
+-- Thai Postal Code Data Insert Statements
+-- Generated from a Thailand Post postcode list (CSV: postal_code,subdistrict_code)
+-- by scripts/data-extraction/extract_postal_code_data.py
+-- Total records: 0
+
+-- The postcode list is not distributed with this project. Generate this file with:
+--   python3 scripts/data-extraction/extract_postal_code_data.py postal_codes.csv
+-- and copy it to src/main/resources/db/postal_code_data.sql.
+
+-- End of insert statements
@@ -2,7 +2,11 @@ package com.wpanther.etax.core.adapter;
 
 import com.wpanther.etax.core.adapter.common.ISOCurrencyCodeAdapter;
 import com.wpanther.etax.core.entity.ISOCurrencyCode;
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.MicrometerEtaxMetrics;
 import com.wpanther.etax.core.repository.ISOCurrencyCodeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -49,6 +53,11 @@ public class ISOCurrencyCodeAdapterTest {
         japaneseYen.setActive(true);
     }
 
+    @AfterEach
+    public void tearDown() {
+        adapter.setMetrics(null);
+    }
+
     // Marshal Tests
 
     @Test
@@ -645,4 +654,29 @@ public class ISOCurrencyCodeAdapterTest {
 
         assertEquals(2, result.getMinorUnits());
     }
+
+    // Metrics Tests
+
+    @Test
+    @DisplayName("Should record lookup outcomes and placeholders")
+    public void testMetrics() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        adapter.setMetrics(new MicrometerEtaxMetrics(meterRegistry));
+        when(repository.findByCode("THB")).thenReturn(Optional.of(thaiBaht));
+        when(repository.findByCode("XXX")).thenReturn(Optional.empty());
+
+        adapter.unmarshal("THB");
+        adapter.unmarshal("XXX");
+        adapter.marshal(thaiBaht);
+
+        assertEquals(1, meterRegistry.get(EtaxMetrics.LOOKUP_TIMER)
+                .tags("codelist", "iso_currency_code", "outcome", "hit").timer().count());
+        assertEquals(1, meterRegistry.get(EtaxMetrics.LOOKUP_TIMER)
+                .tags("codelist", "iso_currency_code", "outcome", "miss").timer().count());
+        // Marshal resolves nothing, so it is not timed
+        assertEquals(2, meterRegistry.find(EtaxMetrics.LOOKUP_TIMER).timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+        assertEquals(1, meterRegistry.get(EtaxMetrics.PLACEHOLDER_COUNTER)
+                .tag("codelist", "iso_currency_code").counter().count());
+    }
 }
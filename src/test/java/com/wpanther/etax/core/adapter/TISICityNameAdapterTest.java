@@ -1,8 +1,11 @@
 package com.wpanther.etax.core.adapter;
 
 import com.wpanther.etax.core.adapter.common.TISICityNameAdapter;
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
+import com.wpanther.etax.core.address.ThaiAddressGazetteerWriter;
 import com.wpanther.etax.core.entity.TISICityName;
 import com.wpanther.etax.core.repository.TISICityNameRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +14,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,6 +46,11 @@ public class TISICityNameAdapterTest {
         bangkok.setNameTh("กรุงเทพมหานคร");
     }
 
+    @AfterEach
+    public void tearDown() {
+        adapter.setGazetteer(null);
+    }
+
     // Marshal Tests
 
     @Test
@@ -291,4 +301,42 @@ public class TISICityNameAdapterTest {
         assertEquals("1001", result2.getCode());
         verify(repository, times(2)).findByCode(anyString());
     }
+
+    // Gazetteer Tests
+
+    @Test
+    @DisplayName("Should resolve codes from the gazetteer without querying the repository")
+    public void testUnmarshalFromGazetteer() throws Exception {
+        adapter.setGazetteer(gazetteer());
+
+        TISICityName result = adapter.unmarshal("1001");
+
+        assertEquals("1001", result.getCode());
+        assertEquals("เขตพระนคร", result.getNameTh());
+        assertEquals("10", result.getProvinceCode());
+        assertEquals("01", result.getDistrictCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should resolve codes from the gazetteer without a repository")
+    public void testGazetteerWithoutRepository() throws Exception {
+        adapter.setRepository(null);
+        adapter.setGazetteer(gazetteer());
+
+        assertEquals("เขตพระนคร", adapter.unmarshal("1001").getNameTh());
+        assertTrue(adapter.unmarshal("9999").getNameTh().contains("Unknown"));
+        assertTrue(TISICityNameAdapter.isValid("1001"));
+        assertFalse(TISICityNameAdapter.isValid("9999"));
+        assertFalse(TISICityNameAdapter.isValid("01001"));
+        assertEquals("เขตพระนคร", TISICityNameAdapter.getCityName("1001"));
+        assertNull(TISICityNameAdapter.getCityName("9999"));
+    }
+
+    private static ThaiAddressGazetteer gazetteer() throws IOException {
+        return ThaiAddressGazetteer.wrap(ThaiAddressGazetteerWriter.build(
+                new StringReader("('10', 'กรุงเทพมหานคร', 'Bangkok', 'Central'),\n"),
+                new StringReader("('1001', 'เขตพระนคร'),\n"),
+                new StringReader("('100101', 'พระบรมมหาราชวัง'),\n")));
+    }
 }
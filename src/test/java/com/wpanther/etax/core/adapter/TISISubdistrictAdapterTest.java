@@ -1,8 +1,11 @@
 package com.wpanther.etax.core.adapter;
 
 import com.wpanther.etax.core.adapter.common.TISISubdistrictAdapter;
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
+import com.wpanther.etax.core.address.ThaiAddressGazetteerWriter;
 import com.wpanther.etax.core.entity.TISISubdistrict;
 import com.wpanther.etax.core.repository.TISISubdistrictRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +14,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,6 +46,11 @@ public class TISISubdistrictAdapterTest {
         bangkok.setNameTh("พระราชวัง");
     }
 
+    @AfterEach
+    public void tearDown() {
+        adapter.setGazetteer(null);
+    }
+
     // Marshal Tests
 
     @Test
@@ -292,4 +302,43 @@ public class TISISubdistrictAdapterTest {
         assertEquals("100100", result2.getCode());
         verify(repository, times(2)).findByCode(anyString());
     }
+
+    // Gazetteer Tests
+
+    @Test
+    @DisplayName("Should resolve codes from the gazetteer without querying the repository")
+    public void testUnmarshalFromGazetteer() throws Exception {
+        adapter.setGazetteer(gazetteer());
+
+        TISISubdistrict result = adapter.unmarshal("100101");
+
+        assertEquals("100101", result.getCode());
+        assertEquals("พระบรมมหาราชวัง", result.getNameTh());
+        assertEquals("10", result.getProvinceCode());
+        assertEquals("1001", result.getCityCode());
+        assertEquals("01", result.getSubdistrictCode());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should resolve codes from the gazetteer without a repository")
+    public void testGazetteerWithoutRepository() throws Exception {
+        adapter.setRepository(null);
+        adapter.setGazetteer(gazetteer());
+
+        assertEquals("พระบรมมหาราชวัง", adapter.unmarshal("100101").getNameTh());
+        assertTrue(adapter.unmarshal("999999").getNameTh().contains("Unknown"));
+        assertTrue(TISISubdistrictAdapter.isValid("100101"));
+        assertFalse(TISISubdistrictAdapter.isValid("999999"));
+        assertFalse(TISISubdistrictAdapter.isValid("0100101"));
+        assertEquals("พระบรมมหาราชวัง", TISISubdistrictAdapter.getSubdistrictName("100101"));
+        assertNull(TISISubdistrictAdapter.getSubdistrictName("999999"));
+    }
+
+    private static ThaiAddressGazetteer gazetteer() throws IOException {
+        return ThaiAddressGazetteer.wrap(ThaiAddressGazetteerWriter.build(
+                new StringReader("('10', 'กรุงเทพมหานคร', 'Bangkok', 'Central'),\n"),
+                new StringReader("('1001', 'เขตพระนคร'),\n"),
+                new StringReader("('100101', 'พระบรมมหาราชวัง'),\n")));
+    }
 }
@@ -1,8 +1,11 @@
 package com.wpanther.etax.core.adapter;
 
 import com.wpanther.etax.core.adapter.common.ThaiProvinceCodeAdapter;
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
+import com.wpanther.etax.core.address.ThaiAddressGazetteerWriter;
 import com.wpanther.etax.core.entity.ThaiProvinceCode;
 import com.wpanther.etax.core.repository.ThaiProvinceCodeRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +14,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +50,11 @@ public class ThaiProvinceCodeAdapterTest {
         chonburi.setActive(true);
     }
 
+    @AfterEach
+    public void tearDown() {
+        adapter.setGazetteer(null);
+    }
+
     // Marshal Tests
 
     @Test
@@ -337,4 +347,43 @@ public class ThaiProvinceCodeAdapterTest {
         assertEquals("20", result2.getCode());
         verify(repository, times(2)).findByCodeAndActive(anyString());
     }
+
+    // Gazetteer Tests
+
+    @Test
+    @DisplayName("Should resolve codes from the gazetteer without querying the repository")
+    public void testUnmarshalFromGazetteer() throws Exception {
+        adapter.setGazetteer(gazetteer());
+
+        ThaiProvinceCode result = adapter.unmarshal("10");
+
+        assertEquals("10", result.getCode());
+        assertEquals("กรุงเทพมหานคร", result.getNameTh());
+        assertEquals("Bangkok", result.getNameEn());
+        assertEquals("Central", result.getRegion());
+        assertTrue(result.isActive());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should resolve codes from the gazetteer without a repository")
+    public void testGazetteerWithoutRepository() throws Exception {
+        adapter.setRepository(null);
+        adapter.setGazetteer(gazetteer());
+
+        assertEquals("กรุงเทพมหานคร", adapter.unmarshal("10").getNameTh());
+        assertTrue(adapter.unmarshal("99").getNameTh().contains("Unknown"));
+        assertTrue(ThaiProvinceCodeAdapter.isValid("10"));
+        assertFalse(ThaiProvinceCodeAdapter.isValid("99"));
+        assertFalse(ThaiProvinceCodeAdapter.isValid("010"));
+        assertEquals("กรุงเทพมหานคร", ThaiProvinceCodeAdapter.getProvinceName("10"));
+        assertNull(ThaiProvinceCodeAdapter.getProvinceName("99"));
+    }
+
+    private static ThaiAddressGazetteer gazetteer() throws IOException {
+        return ThaiAddressGazetteer.wrap(ThaiAddressGazetteerWriter.build(
+                new StringReader("('10', 'กรุงเทพมหานคร', 'Bangkok', 'Central'),\n"),
+                new StringReader("('1001', 'เขตพระนคร'),\n"),
+                new StringReader("('100101', 'พระบรมมหาราชวัง'),\n")));
+    }
 }
@@ -0,0 +1,196 @@
+package com.wpanther.etax.core.address;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ThaiAddressGazetteer Tests")
+public class ThaiAddressGazetteerTest {
+
+    private static ThaiAddressGazetteer gazetteer;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        gazetteer = ThaiAddressGazetteer.wrap(ThaiAddressGazetteerWriter.buildFromClasspath());
+    }
+
+    @Test
+    @DisplayName("Should hold every row of the data scripts")
+    public void testCounts() {
+        assertEquals(78, gazetteer.provinceCount());
+        assertEquals(958, gazetteer.cityCount());
+        assertEquals(8940, gazetteer.subdistrictCount());
+    }
+
+    @Test
+    @DisplayName("Should resolve names by code")
+    public void testNames() {
+        assertEquals("กรุงเทพมหานคร", gazetteer.provinceName(10));
+        assertEquals("Bangkok", gazetteer.provinceNameEn(10));
+        assertEquals("Central", gazetteer.provinceRegion(10));
+        assertEquals("เขตพระนคร", gazetteer.cityName(1001));
+        assertEquals("พระบรมมหาราชวัง", gazetteer.subdistrictName(100101));
+    }
+
+    @Test
+    @DisplayName("Should keep NULL and empty values")
+    public void testNullAndEmptyValues() {
+        assertEquals("Other", gazetteer.provinceNameEn(97));
+        assertNull(gazetteer.provinceRegion(97));
+        assertEquals("", gazetteer.cityName(9705));
+    }
+
+    @Test
+    @DisplayName("Should link subdistricts to cities and cities to provinces")
+    public void testParents() {
+        assertEquals(1001, gazetteer.cityOfSubdistrict(100101));
+        assertEquals(10, gazetteer.provinceOfCity(1001));
+        assertEquals(5001, gazetteer.cityOfSubdistrict(500101));
+        assertEquals(50, gazetteer.provinceOfCity(5001));
+    }
+
+    @Test
+    @DisplayName("Should return null or NOT_FOUND for unknown codes")
+    public void testUnknownCodes() {
+        assertFalse(gazetteer.containsProvince(99));
+        assertFalse(gazetteer.containsCity(9999));
+        assertFalse(gazetteer.containsSubdistrict(999999));
+        assertFalse(gazetteer.containsSubdistrict(ThaiAddressGazetteer.NOT_FOUND));
+        assertNull(gazetteer.provinceName(99));
+        assertNull(gazetteer.cityName(9999));
+        assertNull(gazetteer.subdistrictName(999999));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, gazetteer.cityOfSubdistrict(999999));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, gazetteer.provinceOfCity(9999));
+    }
+
+    @Test
+    @DisplayName("Should find codes by exact Thai name")
+    public void testFindByName() {
+        assertArrayEquals(new int[] {10}, gazetteer.findProvinces("กรุงเทพมหานคร"));
+        assertArrayEquals(new int[] {1001}, gazetteer.findCities("เขตพระนคร"));
+        assertArrayEquals(new int[] {100101}, gazetteer.findSubdistricts("พระบรมมหาราชวัง"));
+
+        int[] naiMueang = gazetteer.findSubdistricts("ในเมือง");
+        assertTrue(naiMueang.length > 1);
+        for (int i = 1; i < naiMueang.length; i++) {
+            assertTrue(naiMueang[i - 1] < naiMueang[i]);
+        }
+
+        assertEquals(0, gazetteer.findSubdistricts("ไม่มีตำบลนี้").length);
+        assertEquals(0, gazetteer.findProvinces(null).length);
+    }
+
+    @Test
+    @DisplayName("Should parse fixed-length numeric codes")
+    public void testParseCode() {
+        assertEquals(100101, ThaiAddressGazetteer.parseCode("100101", 6));
+        assertEquals(10, ThaiAddressGazetteer.parseCode("10", 2));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, ThaiAddressGazetteer.parseCode("10010", 6));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, ThaiAddressGazetteer.parseCode("10A101", 6));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, ThaiAddressGazetteer.parseCode("+10", 3));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, ThaiAddressGazetteer.parseCode(null, 2));
+    }
+
+    @Test
+    @DisplayName("Should memory-map a written gazetteer file")
+    public void testWriteAndOpen(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("gazetteer").resolve("thai-address.gaz");
+        ThaiAddressGazetteerWriter.write(ThaiAddressGazetteerWriter.buildFromClasspath(), file);
+
+        ThaiAddressGazetteer mapped = ThaiAddressGazetteer.open(file);
+
+        assertTrue(Files.isRegularFile(file));
+        assertEquals(gazetteer.toString(), mapped.toString());
+        assertEquals("พระบรมมหาราชวัง", mapped.subdistrictName(100101));
+        assertEquals(1001, mapped.cityOfSubdistrict(100101));
+    }
+
+    @Test
+    @DisplayName("Should load the gazetteer from the classpath")
+    public void testLoad() throws IOException {
+        ThaiAddressGazetteer loaded = ThaiAddressGazetteer.load();
+
+        assertEquals(gazetteer.toString(), loaded.toString());
+        assertEquals("กรุงเทพมหานคร", loaded.provinceName(10));
+    }
+
+    @Test
+    @DisplayName("Should copy a packaged gazetteer once and reuse the copy")
+    public void testExtractReusesCopy(@TempDir Path directory) throws IOException {
+        URL url = packaged(directory);
+        Path copies = Files.createDirectory(directory.resolve("copies"));
+
+        ThaiAddressGazetteer first = ThaiAddressGazetteer.extract(url, copies);
+        Path copy = onlyFile(copies);
+        FileTime written = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(copy, written);
+        ThaiAddressGazetteer second = ThaiAddressGazetteer.extract(url, copies);
+
+        assertEquals(gazetteer.toString(), first.toString());
+        assertEquals("พระบรมมหาราชวัง", second.subdistrictName(100101));
+        assertEquals(written, Files.getLastModifiedTime(copy));
+    }
+
+    @Test
+    @DisplayName("Should replace a copy whose content does not match the packaged gazetteer")
+    public void testExtractReplacesTamperedCopy(@TempDir Path directory) throws IOException {
+        URL url = packaged(directory);
+        Path copies = Files.createDirectory(directory.resolve("copies"));
+        ThaiAddressGazetteer.extract(url, copies);
+        Path copy = onlyFile(copies);
+
+        // Same size, different content
+        byte[] tampered = Files.readAllBytes(copy);
+        tampered[tampered.length - 1] ^= 1;
+        Files.write(copy, tampered);
+        ThaiAddressGazetteer extracted = ThaiAddressGazetteer.extract(url, copies);
+
+        assertEquals(gazetteer.toString(), extracted.toString());
+        assertEquals(ThaiAddressGazetteerWriter.buildFromClasspath(), ByteBuffer.wrap(Files.readAllBytes(copy)));
+    }
+
+    @Test
+    @DisplayName("Should reject buffers that are not a gazetteer")
+    public void testInvalidBuffer() {
+        assertThrows(IllegalArgumentException.class, () -> ThaiAddressGazetteer.wrap(ByteBuffer.allocate(8)));
+        assertThrows(IllegalArgumentException.class, () -> ThaiAddressGazetteer.wrap(ByteBuffer.allocate(64)));
+    }
+
+    /**
+     * Package the gazetteer in a jar and return its URL.
+     */
+    private static URL packaged(Path directory) throws IOException {
+        Path jar = directory.resolve("gazetteer.jar");
+        ByteBuffer data = ThaiAddressGazetteerWriter.buildFromClasspath();
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new JarEntry(ThaiAddressGazetteer.RESOURCE));
+            jarOut.write(bytes);
+            jarOut.closeEntry();
+        }
+        return new URL("jar:" + jar.toUri() + "!/" + ThaiAddressGazetteer.RESOURCE);
+    }
+
+    private static Path onlyFile(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.reduce((a, b) -> {
+                throw new AssertionError("More than one file in " + directory);
+            }).orElseThrow();
+        }
+    }
+}
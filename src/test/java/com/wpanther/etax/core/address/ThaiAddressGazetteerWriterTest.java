@@ -0,0 +1,111 @@
+package com.wpanther.etax.core.address;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ThaiAddressGazetteerWriter Tests")
+public class ThaiAddressGazetteerWriterTest {
+
+    private static final String PROVINCES = "-- Thai Province Code Data\n"
+            + "INSERT INTO thai_province_code (code, name_th, name_en, region) VALUES\n"
+            + "('10', 'กรุงเทพมหานคร', 'Bangkok', 'Central'),\n"
+            + "('97', 'อื่นๆ', 'Other', NULL);;\n";
+    private static final String CITIES = "INSERT INTO tisi_city_name (code, name_th) VALUES\n"
+            + "('1002', 'เขตดุสิต'),\n"
+            + "('1001', 'เขตพระนคร'),\n"
+            + "('9705', '');\n";
+    private static final String SUBDISTRICTS = "-- Batch 1/1\n"
+            + "INSERT INTO tisi_subdistrict (code, name_th) VALUES\n"
+            + "('100101', 'พระบรมมหาราชวัง'),\n"
+            + "('100201', 'ดุสิต'),\n"
+            + "('200101', 'บางปลาสร้อย');;\n";
+
+    @Test
+    @DisplayName("Should parse quoted, escaped, empty and NULL values")
+    public void testParseRows() throws IOException {
+        List<String[]> rows = ThaiAddressGazetteerWriter.parseRows(new StringReader(
+                "INSERT INTO t (code, name_th, name_en, region) VALUES\n"
+                        + "('10', 'O''Neil', '', NULL),\n"
+                        + "  ('11', 'a, (b)', 'c', 'd');;\n"));
+
+        assertEquals(2, rows.size());
+        assertArrayEquals(new String[] {"10", "O'Neil", "", null}, rows.get(0));
+        assertArrayEquals(new String[] {"11", "a, (b)", "c", "d"}, rows.get(1));
+    }
+
+    @Test
+    @DisplayName("Should reject unterminated rows")
+    public void testParseMalformedRow() {
+        assertThrows(IllegalArgumentException.class, () ->
+                ThaiAddressGazetteerWriter.parseRows(new StringReader("('10', 'unterminated\n")));
+        assertThrows(IllegalArgumentException.class, () ->
+                ThaiAddressGazetteerWriter.parseRows(new StringReader("('10' 'missing comma')\n")));
+    }
+
+    @Test
+    @DisplayName("Should build a gazetteer sorted by code with parent links")
+    public void testBuild() throws IOException {
+        ThaiAddressGazetteer gazetteer = ThaiAddressGazetteer.wrap(build(PROVINCES, CITIES, SUBDISTRICTS));
+
+        assertEquals(2, gazetteer.provinceCount());
+        assertEquals(3, gazetteer.cityCount());
+        assertEquals(3, gazetteer.subdistrictCount());
+        assertEquals("เขตพระนคร", gazetteer.cityName(1001));
+        assertEquals("เขตดุสิต", gazetteer.cityName(1002));
+        assertEquals(1002, gazetteer.cityOfSubdistrict(100201));
+        assertEquals(10, gazetteer.provinceOfCity(1002));
+        assertEquals(97, gazetteer.provinceOfCity(9705));
+        assertArrayEquals(new int[] {1002}, gazetteer.findCities("เขตดุสิต"));
+        assertArrayEquals(new int[] {9705}, gazetteer.findCities(""));
+    }
+
+    @Test
+    @DisplayName("Should leave parents of orphaned codes unlinked")
+    public void testOrphans() throws IOException {
+        ThaiAddressGazetteer gazetteer = ThaiAddressGazetteer.wrap(build(PROVINCES, CITIES, SUBDISTRICTS));
+
+        assertEquals("บางปลาสร้อย", gazetteer.subdistrictName(200101));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, gazetteer.cityOfSubdistrict(200101));
+    }
+
+    @Test
+    @DisplayName("Should reject duplicate and malformed codes")
+    public void testInvalidCodes() {
+        assertThrows(IllegalArgumentException.class, () ->
+                build(PROVINCES, CITIES + "('1001', 'เขตพระนคร');\n", SUBDISTRICTS));
+        assertThrows(IllegalArgumentException.class, () ->
+                build(PROVINCES, CITIES + "('101', 'สามหลัก');\n", SUBDISTRICTS));
+        assertThrows(IllegalArgumentException.class, () ->
+                build(PROVINCES + "('20', 'ชลบุรี');\n", CITIES, SUBDISTRICTS));
+    }
+
+    @Test
+    @DisplayName("Should build the gazetteer file from a script directory")
+    public void testMain(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve(ThaiAddressGazetteerWriter.PROVINCE_DATA), PROVINCES);
+        Files.writeString(directory.resolve(ThaiAddressGazetteerWriter.CITY_DATA), CITIES);
+        Files.writeString(directory.resolve(ThaiAddressGazetteerWriter.SUBDISTRICT_DATA), SUBDISTRICTS);
+        Path output = directory.resolve("out").resolve("thai-address.gaz");
+
+        ThaiAddressGazetteerWriter.main(new String[] {directory.toString(), output.toString()});
+
+        ThaiAddressGazetteer gazetteer = ThaiAddressGazetteer.open(output);
+        assertEquals("พระบรมมหาราชวัง", gazetteer.subdistrictName(100101));
+        assertEquals("Bangkok", gazetteer.provinceNameEn(10));
+    }
+
+    private static ByteBuffer build(String provinces, String cities, String subdistricts) throws IOException {
+        return ThaiAddressGazetteerWriter.build(new StringReader(provinces), new StringReader(cities),
+                new StringReader(subdistricts));
+    }
+}
@@ -0,0 +1,102 @@
+package com.wpanther.etax.core.address;
+
+import com.wpanther.etax.core.address.ThaiAddressHierarchy.Consistency;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ThaiAddressHierarchy Tests")
+public class ThaiAddressHierarchyTest {
+
+    private static ThaiAddressGazetteer gazetteer;
+    private static ThaiAddressHierarchy hierarchy;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        gazetteer = ThaiAddressGazetteer.wrap(ThaiAddressGazetteerWriter.buildFromClasspath());
+        hierarchy = ThaiAddressHierarchy.of(gazetteer);
+    }
+
+    @Test
+    @DisplayName("Should accept every subdistrict with its own city and province")
+    public void testAllSubdistricts() {
+        int[] inconsistent = {0};
+        gazetteer.forEachSubdistrict(code -> {
+            if (!hierarchy.isConsistent(code / 10_000, code / 100, code)) {
+                inconsistent[0]++;
+            }
+        });
+        assertEquals(0, inconsistent[0]);
+    }
+
+    @Test
+    @DisplayName("Should contain exactly the gazetteer codes")
+    public void testContains() {
+        assertTrue(hierarchy.containsProvince(10));
+        assertTrue(hierarchy.containsCity(1017));
+        assertTrue(hierarchy.containsSubdistrict(101701));
+        assertFalse(hierarchy.containsProvince(99));
+        assertFalse(hierarchy.containsCity(9999));
+        assertFalse(hierarchy.containsSubdistrict(999999));
+        assertFalse(hierarchy.containsSubdistrict(-1));
+        assertFalse(hierarchy.containsSubdistrict(1_000_000));
+    }
+
+    @Test
+    @DisplayName("Should report codes that do not belong to each other")
+    public void testMismatches() {
+        assertEquals(Consistency.CONSISTENT, hierarchy.check(10, 1017, 101701));
+        assertEquals(Consistency.CITY_NOT_IN_PROVINCE, hierarchy.check(20, 1017, 101701));
+        assertEquals(Consistency.SUBDISTRICT_NOT_IN_CITY, hierarchy.check(10, 1004, 101701));
+        assertEquals(Consistency.SUBDISTRICT_NOT_IN_PROVINCE,
+                hierarchy.check(20, ThaiAddressHierarchy.ABSENT, 101701));
+    }
+
+    @Test
+    @DisplayName("Should report unknown codes from the province down")
+    public void testUnknownCodes() {
+        assertEquals(Consistency.UNKNOWN_PROVINCE, hierarchy.check(99, 9999, 999999));
+        assertEquals(Consistency.UNKNOWN_CITY, hierarchy.check(10, 9999, 999999));
+        assertEquals(Consistency.UNKNOWN_SUBDISTRICT, hierarchy.check(10, 1017, 999999));
+        assertEquals(Consistency.UNKNOWN_CITY, hierarchy.check(10, ThaiAddressGazetteer.NOT_FOUND, 101701));
+    }
+
+    @Test
+    @DisplayName("Should skip absent codes")
+    public void testAbsentCodes() {
+        int absent = ThaiAddressHierarchy.ABSENT;
+        assertEquals(Consistency.CONSISTENT, hierarchy.check(absent, absent, absent));
+        assertEquals(Consistency.CONSISTENT, hierarchy.check(10, absent, absent));
+        assertEquals(Consistency.CONSISTENT, hierarchy.check(absent, 1017, 101701));
+        assertEquals(Consistency.CONSISTENT, hierarchy.check(10, absent, 101701));
+    }
+
+    @Test
+    @DisplayName("Should check codes as they appear in a document")
+    public void testCharSequenceCodes() {
+        assertEquals(Consistency.CONSISTENT, hierarchy.check("10", "1017", "101701"));
+        assertEquals(Consistency.CONSISTENT, hierarchy.check(" 10\n", new StringBuilder("1017"), null));
+        assertEquals(Consistency.CONSISTENT, hierarchy.check("", "  ", "101701"));
+        assertEquals(Consistency.SUBDISTRICT_NOT_IN_CITY, hierarchy.check("10", "1004", "101701"));
+        assertEquals(Consistency.UNKNOWN_PROVINCE, hierarchy.check("1O", "1017", "101701"));
+        assertEquals(Consistency.UNKNOWN_PROVINCE, hierarchy.check("00", null, null));
+        assertEquals(Consistency.UNKNOWN_CITY, hierarchy.check("10", "10170", "101701"));
+        assertTrue(hierarchy.isConsistent("10", "1017", "101701"));
+        assertFalse(hierarchy.isConsistent(10, 1004, 101701));
+    }
+
+    @Test
+    @DisplayName("Should parse trimmed fixed-length codes")
+    public void testParse() {
+        assertEquals(101701, ThaiAddressHierarchy.parse(" 101701 ", 6));
+        assertEquals(ThaiAddressHierarchy.ABSENT, ThaiAddressHierarchy.parse(null, 6));
+        assertEquals(ThaiAddressHierarchy.ABSENT, ThaiAddressHierarchy.parse(" ", 6));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, ThaiAddressHierarchy.parse("1017", 6));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, ThaiAddressHierarchy.parse("10 17", 5));
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, ThaiAddressHierarchy.parse("0000", 4));
+    }
+}
@@ -0,0 +1,122 @@
+package com.wpanther.etax.core.address;
+
+import com.wpanther.etax.core.address.ThaiAddressNameIndex.Level;
+import com.wpanther.etax.core.address.ThaiAddressNameIndex.Match;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ThaiAddressNameIndex Tests")
+public class ThaiAddressNameIndexTest {
+
+    private static ThaiAddressNameIndex index;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        index = ThaiAddressNameIndex.of(ThaiAddressGazetteer.wrap(ThaiAddressGazetteerWriter.buildFromClasspath()));
+    }
+
+    @Test
+    @DisplayName("Should index every named province, city and subdistrict")
+    public void testSize() {
+        // 78 provinces, 957 named cities and 8,940 subdistricts
+        assertEquals(9975, index.size());
+    }
+
+    @Test
+    @DisplayName("Should rank exact matches first, ignoring administrative prefixes")
+    public void testExactMatch() {
+        for (String query : new String[] {"บางรัก", "ตำบลบางรัก", "แขวง บางรัก", "เขตบางรัก"}) {
+            List<Match> matches = index.search(query, 5);
+
+            assertEquals(1004, matches.get(0).getCode(), query);
+            assertEquals(Level.CITY, matches.get(0).getLevel());
+            assertEquals("เขตบางรัก", matches.get(0).getName());
+            assertEquals(1.0, matches.get(0).getScore());
+            assertEquals(100404, matches.get(1).getCode());
+            assertEquals(920109, matches.get(2).getCode());
+            assertTrue(matches.get(3).getScore() < 1.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove abbreviated prefixes from queries but keep abbreviated names")
+    public void testAbbreviations() {
+        assertEquals(5001, index.search("อ.เมืองเชียงใหม่", 1).get(0).getCode());
+        assertEquals(50, index.search("จ. เชียงใหม่", 1).get(0).getCode());
+        assertEquals(50, index.search("จังหวัดเชียงใหม่", 1).get(0).getCode());
+
+        Match match = index.search("จ.ป.ร.", 1).get(0);
+        assertEquals(850406, match.getCode());
+        assertEquals(1.0, match.getScore());
+    }
+
+    @Test
+    @DisplayName("Should complete a partial name from its first cluster")
+    public void testAutocomplete() {
+        List<Match> matches = index.search("บ", Level.SUBDISTRICT, 20);
+
+        assertEquals(20, matches.size());
+        for (Match match : matches) {
+            assertEquals(Level.SUBDISTRICT, match.getLevel());
+            assertTrue(match.getName().startsWith("บ"), match.getName());
+        }
+        assertEquals(50, index.search("เชียงใหม", 1).get(0).getCode());
+        assertEquals(10, index.search("กรุงเทพ", 1).get(0).getCode());
+    }
+
+    @Test
+    @DisplayName("Should find names containing the query")
+    public void testContains() {
+        List<Match> matches = index.search("ปอพาน", 2);
+
+        assertEquals(440706, matches.get(0).getCode());
+        assertEquals(450109, matches.get(1).getCode()); // ปอภาร  (ปอพาน)
+    }
+
+    @Test
+    @DisplayName("Should tolerate a misspelled vowel or tone mark")
+    public void testFuzzyMatch() {
+        assertEquals(50, index.search("เชียงไหม่", 1).get(0).getCode());
+        assertEquals(100105, index.search("ศาลเจ้าพ่อเสีอ", 1).get(0).getCode());
+
+        Match match = index.search("ช้างมอย", 1).get(0);
+        assertEquals(500104, match.getCode());
+        assertTrue(match.getScore() < 0.25);
+    }
+
+    @Test
+    @DisplayName("Should rank scores in descending order")
+    public void testRanking() {
+        List<Match> matches = index.search("สามเสน", 10);
+
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).getScore() >= matches.get(i).getScore());
+        }
+        assertEquals("สามเสนใน*", matches.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Should return no matches for blank or unknown queries")
+    public void testNoMatches() {
+        assertTrue(index.search(null, 10).isEmpty());
+        assertTrue(index.search(" ", 10).isEmpty());
+        assertTrue(index.search("xyz", 10).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> index.search("บางรัก", 0));
+    }
+
+    @Test
+    @DisplayName("Should keep vowels and tone marks in the cluster of their consonant, and trigrams without tone marks")
+    public void testClusters() {
+        String key = ThaiAddressNameIndex.normalize("เชียงใหม่", false);
+
+        assertArrayEquals(new int[] {0, 3, 4, 5, 7, 9}, ThaiAddressNameIndex.clusters(key));
+        assertArrayEquals(new String[] {"^^เชี", "^เชีย", "เชียง", "ยงให", "งใหม"},
+                ThaiAddressNameIndex.grams(key));
+    }
+}
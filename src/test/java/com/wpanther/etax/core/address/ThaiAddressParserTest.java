@@ -0,0 +1,128 @@
+package com.wpanther.etax.core.address;
+
+import com.wpanther.etax.core.address.ThaiAddressParser.Result;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ThaiAddressParser Tests")
+public class ThaiAddressParserTest {
+
+    private static ThaiAddressParser parser;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        parser = ThaiAddressParser.of(ThaiAddressGazetteer.wrap(ThaiAddressGazetteerWriter.buildFromClasspath()));
+    }
+
+    @Test
+    @DisplayName("Should resolve an address with marked names at every level")
+    public void testMarkedAddress() {
+        Result result = parser.parse("123 ต.ช้างม่อย อ.เมืองเชียงใหม่ จ.เชียงใหม่ 50300");
+
+        assertEquals(50, result.getProvinceCode());
+        assertEquals(5001, result.getCityCode());
+        assertEquals(500104, result.getSubdistrictCode());
+        assertTrue(result.getConfidence() > 0.9);
+        assertTrue(result.isResolved());
+    }
+
+    @Test
+    @DisplayName("Should resolve a Bangkok address and ignore road names")
+    public void testBangkokAddress() {
+        // สีลม is also a subdistrict of เขตบางรัก
+        Result result = parser.parse("99/1 ถ.สีลม แขวงสุริยวงศ์ เขตบางรัก กรุงเทพฯ 10500");
+
+        assertEquals(10, result.getProvinceCode());
+        assertEquals(1004, result.getCityCode());
+        assertEquals(100403, result.getSubdistrictCode());
+        // Unmarked province, and กรุงเทพ is also a subdistrict of ศรีสะเกษ
+        assertEquals(0.947, result.getConfidence(), 0.0005);
+        assertEquals(10, parser.parse("แขวงบางรัก เขตบางรัก กทม.").getProvinceCode());
+    }
+
+    @Test
+    @DisplayName("Should resolve addresses with full markers, without spaces or without markers")
+    public void testAddressStyles() {
+        assertEquals(300113,
+                parser.parse("เลขที่ 5 หมู่ 3 ตำบลบ้านใหม่ อำเภอเมืองนครราชสีมา จังหวัดนครราชสีมา").getSubdistrictCode());
+        assertEquals(500104, parser.parse("ต.ช้างม่อยอ.เมืองเชียงใหม่จ.เชียงใหม่").getSubdistrictCode());
+        assertEquals(500104, parser.parse("ช้างม่อย เมืองเชียงใหม่ เชียงใหม่").getSubdistrictCode());
+        assertEquals(850406, parser.parse("ต.จ.ป.ร. อ.กระบุรี จ.ระนอง").getSubdistrictCode());
+    }
+
+    @Test
+    @DisplayName("Should prefer the longest name")
+    public void testLongestName() {
+        // คลองสิบ (100303) is also a subdistrict of เขตหนองจอก
+        assertEquals(100304, parser.parse("แขวงคลองสิบสอง เขตหนองจอก กรุงเทพมหานคร").getSubdistrictCode());
+    }
+
+    @Test
+    @DisplayName("Should resolve a misspelled name after a marker")
+    public void testMisspelledName() {
+        Result result = parser.parse("ต.ช้างมอย อ.เมืองเชียงใหม่ จ.เชียงใหม่");
+
+        assertEquals(500104, result.getSubdistrictCode());
+        assertTrue(result.getConfidence() < parser.parse("ต.ช้างม่อย อ.เมืองเชียงใหม่ จ.เชียงใหม่").getConfidence());
+    }
+
+    @Test
+    @DisplayName("Should report low confidence for an ambiguous name")
+    public void testAmbiguousName() {
+        // บางรัก is a subdistrict in Bangkok and in Trang
+        Result result = parser.parse("บางรัก");
+
+        assertEquals(100404, result.getSubdistrictCode());
+        assertTrue(result.getConfidence() < 0.25);
+    }
+
+    @Test
+    @DisplayName("Should prefer a current code to a dissolved code with the same name")
+    public void testDissolvedCode() {
+        // พระโขนง* (100997) was dissolved
+        assertEquals(100903, parser.parse("แขวงพระโขนง เขตพระโขนง กรุงเทพมหานคร").getSubdistrictCode());
+    }
+
+    @Test
+    @DisplayName("Should leave the levels without a name unresolved")
+    public void testPartialAddress() {
+        Result result = parser.parse("อ.เมืองเชียงใหม่ จ.เชียงใหม่");
+
+        assertEquals(50, result.getProvinceCode());
+        assertEquals(5001, result.getCityCode());
+        assertEquals(ThaiAddressGazetteer.NOT_FOUND, result.getSubdistrictCode());
+    }
+
+    @Test
+    @DisplayName("Should return an unresolved result when no name is found")
+    public void testUnresolved() {
+        for (String address : new String[] {null, "", "  ", "1600 Pennsylvania Avenue"}) {
+            Result result = parser.parse(address);
+
+            assertFalse(result.isResolved());
+            assertEquals(ThaiAddressGazetteer.NOT_FOUND, result.getSubdistrictCode());
+            assertEquals(0.0, result.getConfidence());
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse a batch in order")
+    public void testParseAll() {
+        List<String> addresses = Arrays.asList(
+                "ต.ช้างม่อย อ.เมืองเชียงใหม่ จ.เชียงใหม่", "", "แขวงสุริยวงศ์ เขตบางรัก กรุงเทพฯ");
+
+        List<Result> results = parser.parseAll(addresses);
+
+        assertEquals(3, results.size());
+        assertEquals(parser.parse(addresses.get(0)), results.get(0));
+        assertFalse(results.get(1).isResolved());
+        assertEquals(100403, results.get(2).getSubdistrictCode());
+    }
+}
@@ -0,0 +1,106 @@
+package com.wpanther.etax.core.address;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ThaiPostalCodes Tests")
+public class ThaiPostalCodesTest {
+
+    private static final String SCRIPT = String.join("\n",
+            "-- Thai Postal Code Data Insert Statements",
+            "-- Total records: 6",
+            "",
+            "-- Batch 1/1 (records 1-6)",
+            "INSERT INTO postal_code (postal_code, subdistrict_code) VALUES",
+            "('10330', '100701'),",
+            "('10500', '100403'),",
+            "('10500', '100401'),",
+            "('10500', '100402'),",
+            "('50200', '500101'),",
+            "('50300', '500101');",
+            "",
+            "-- End of insert statements");
+
+    private static ThaiPostalCodes postalCodes;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        postalCodes = ThaiPostalCodes.read(new StringReader(SCRIPT));
+    }
+
+    @Test
+    @DisplayName("Should read every row of the data script")
+    public void testSize() {
+        assertEquals(6, postalCodes.size());
+        assertFalse(postalCodes.isEmpty());
+        assertTrue(postalCodes.containsPostalCode(10500));
+        assertFalse(postalCodes.containsPostalCode(10600));
+    }
+
+    @Test
+    @DisplayName("Should find the subdistricts of a postcode in code order")
+    public void testSubdistrictsOf() {
+        assertArrayEquals(new int[] {100401, 100402, 100403}, postalCodes.subdistrictsOf(10500));
+        assertArrayEquals(new int[] {100701}, postalCodes.subdistrictsOf(10330));
+        assertArrayEquals(new int[] {100401, 100402, 100403}, postalCodes.subdistrictsOf(" 10500 "));
+    }
+
+    @Test
+    @DisplayName("Should find every postcode of a subdistrict")
+    public void testPostalCodesOf() {
+        assertArrayEquals(new int[] {50200, 50300}, postalCodes.postalCodesOf(500101));
+        assertArrayEquals(new int[] {10500}, postalCodes.postalCodesOf("100403"));
+    }
+
+    @Test
+    @DisplayName("Should find nothing for unknown or malformed codes")
+    public void testUnknownCodes() {
+        assertEquals(0, postalCodes.subdistrictsOf(10600).length);
+        assertEquals(0, postalCodes.subdistrictsOf(-1).length);
+        assertEquals(0, postalCodes.subdistrictsOf(1_000_000).length);
+        assertEquals(0, postalCodes.subdistrictsOf("1050").length);
+        assertEquals(0, postalCodes.subdistrictsOf("1O500").length);
+        assertEquals(0, postalCodes.subdistrictsOf((CharSequence) null).length);
+        assertEquals(0, postalCodes.postalCodesOf(100404).length);
+        assertEquals(0, postalCodes.postalCodesOf(999999).length);
+        assertEquals(0, postalCodes.postalCodesOf("10040").length);
+    }
+
+    @Test
+    @DisplayName("Should return copies of the lookup arrays")
+    public void testDefensiveCopies() {
+        postalCodes.subdistrictsOf(10500)[0] = 0;
+        postalCodes.postalCodesOf(500101)[0] = 0;
+
+        assertEquals(100401, postalCodes.subdistrictsOf(10500)[0]);
+        assertEquals(50200, postalCodes.postalCodesOf(500101)[0]);
+    }
+
+    @Test
+    @DisplayName("Should reject malformed or duplicated rows")
+    public void testInvalidRows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ThaiPostalCodes.read(new StringReader("('1050', '100401');")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ThaiPostalCodes.read(new StringReader("('10500', '10040');")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ThaiPostalCodes.read(new StringReader("('10500');")));
+        assertThrows(IllegalArgumentException.class,
+                () -> ThaiPostalCodes.read(new StringReader("('10500', '100401'),\n('10500', '100401');")));
+    }
+
+    @Test
+    @DisplayName("Should load the packaged data script, which may have no rows")
+    public void testLoad() throws IOException {
+        ThaiPostalCodes loaded = ThaiPostalCodes.load();
+
+        assertEquals(loaded.isEmpty(), loaded.size() == 0);
+        assertEquals(0, ThaiPostalCodes.read(new StringReader("-- End of insert statements")).size());
+    }
+}
@@ -0,0 +1,195 @@
+package com.wpanther.etax.core.codelist;
+
+import com.wpanther.etax.core.config.DatabaseInitializer;
+import com.wpanther.etax.core.config.PostgresTestContainer;
+import com.wpanther.etax.core.entity.ThaiProvinceCode;
+import com.wpanther.etax.core.repository.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = CodeListChangeListenerIntegrationTest.TestConfig.class)
+@DisplayName("CodeListChangeListener PostgreSQL Integration Tests")
+class CodeListChangeListenerIntegrationTest extends PostgresTestContainer {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private ThaiProvinceCodeRepository provinceRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private CodeListRegistry registry;
+    private CodeListChangeListener listener;
+
+    @BeforeAll
+    static void setUpSchema(@Autowired DataSource dataSource) {
+        DatabaseInitializer.initializeSchema(dataSource, "thai_province_code");
+        DatabaseInitializer.executeSqlResource(dataSource, "db/code_list_notify.sql");
+    }
+
+    @AfterAll
+    static void closeDataSource(@Autowired DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            ((HikariDataSource) dataSource).close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void overrideProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableJpaRepositories(
+            includeFilters = @ComponentScan.Filter(
+                    type = FilterType.ASSIGNABLE_TYPE,
+                    classes = ThaiProvinceCodeRepository.class
+            ),
+            basePackages = "com.wpanther.etax.core.repository"
+    )
+    @EntityScan(basePackageClasses = ThaiProvinceCode.class)
+    static class TestConfig {
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM thai_province_code WHERE code IN ('97', '98')");
+
+        // Only the province table is backed by the database in this test
+        registry = new CodeListRegistry(
+                mock(AddressTypeRepository.class),
+                mock(AllowanceChargeIdentificationCodeRepository.class),
+                mock(AllowanceChargeReasonCodeRepository.class),
+                mock(DeliveryTermsCodeRepository.class),
+                mock(DutyTaxFeeTypeCodeRepository.class),
+                mock(FreightCostCodeRepository.class),
+                mock(ISOCountryCodeRepository.class),
+                mock(ISOCurrencyCodeRepository.class),
+                mock(ISOLanguageCodeRepository.class),
+                mock(MessageFunctionCodeRepository.class),
+                mock(PaymentTermsDescriptionIdentifierRepository.class),
+                mock(PaymentTermsTypeCodeRepository.class),
+                mock(TISICityNameRepository.class),
+                mock(TISISubdistrictRepository.class),
+                mock(ThaiCategoryCodeRepository.class),
+                mock(ThaiDocumentNameCodeRepository.class),
+                mock(ThaiMessageFunctionCodeRepository.class),
+                provinceRepository,
+                mock(UNECEDocumentNameCodeInvoiceRepository.class),
+                mock(UNECEReferenceTypeCodeRepository.class));
+        registry.refresh(ThaiProvinceCode.class);
+
+        listener = new CodeListChangeListener(dataSource, registry, 100, 500, 100);
+        listener.start();
+        await(listener::isListening);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+        jdbcTemplate.update("DELETE FROM thai_province_code WHERE code IN ('97', '98')");
+    }
+
+    @Test
+    @DisplayName("INSERT: new code becomes visible in the code list")
+    void insert_shouldAddEntry() throws InterruptedException {
+        insertProvince("98", "ทดสอบ");
+
+        await(() -> registry.contains(ThaiProvinceCode.class, "98"));
+    }
+
+    @Test
+    @DisplayName("UPDATE: changed row is reloaded")
+    void update_shouldReloadEntry() throws InterruptedException {
+        insertProvince("98", "ทดสอบ");
+        await(() -> registry.contains(ThaiProvinceCode.class, "98"));
+
+        jdbcTemplate.update("UPDATE thai_province_code SET name_th = ? WHERE code = '98'", "ทดสอบใหม่");
+
+        await(() -> "ทดสอบใหม่".equals(registry.find(ThaiProvinceCode.class, "98")
+                .map(ThaiProvinceCode::getNameTh).orElse(null)));
+    }
+
+    @Test
+    @DisplayName("UPDATE of primary key: old code is removed and new code added")
+    void updateCode_shouldMoveEntry() throws InterruptedException {
+        insertProvince("98", "ทดสอบ");
+        await(() -> registry.contains(ThaiProvinceCode.class, "98"));
+
+        jdbcTemplate.update("UPDATE thai_province_code SET code = '97' WHERE code = '98'");
+
+        await(() -> registry.contains(ThaiProvinceCode.class, "97")
+                && !registry.contains(ThaiProvinceCode.class, "98"));
+    }
+
+    @Test
+    @DisplayName("DELETE: removed code disappears from the code list")
+    void delete_shouldRemoveEntry() throws InterruptedException {
+        insertProvince("98", "ทดสอบ");
+        await(() -> registry.contains(ThaiProvinceCode.class, "98"));
+
+        jdbcTemplate.update("DELETE FROM thai_province_code WHERE code = '98'");
+
+        await(() -> !registry.contains(ThaiProvinceCode.class, "98"));
+    }
+
+    @Test
+    @DisplayName("ROLLBACK: uncommitted changes are never applied")
+    void rollback_shouldNotNotify() throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.executeUpdate("INSERT INTO thai_province_code (code, name_th) VALUES ('98', 'ทดสอบ')");
+            connection.rollback();
+            connection.setAutoCommit(true);
+        }
+        insertProvince("97", "ทดสอบ");
+
+        // Notifications are delivered in commit order, so 98 would have arrived before 97
+        await(() -> registry.contains(ThaiProvinceCode.class, "97"));
+        assertThat(registry.contains(ThaiProvinceCode.class, "98")).isFalse();
+    }
+
+    private void insertProvince(String code, String nameTh) {
+        jdbcTemplate.update("INSERT INTO thai_province_code (code, name_th, is_active) VALUES (?, ?, true)",
+                code, nameTh);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
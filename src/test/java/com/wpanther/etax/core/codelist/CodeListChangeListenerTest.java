@@ -0,0 +1,269 @@
+package com.wpanther.etax.core.codelist;
+
+import com.wpanther.etax.core.entity.ThaiProvinceCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CodeListChangeListener Tests")
+public class CodeListChangeListenerTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private CodeListRegistry registry;
+
+    private Map<String, ThaiProvinceCode> table;
+    private AtomicInteger loadCount;
+    private List<String> entryLoads;
+    private CodeList<ThaiProvinceCode> provinces;
+    private CodeListChangeListener listener;
+
+    @BeforeEach
+    public void setUp() {
+        table = new TreeMap<>();
+        table.put("10", province("10", "กรุงเทพมหานคร"));
+        table.put("11", province("11", "สมุทรปราการ"));
+        loadCount = new AtomicInteger();
+        entryLoads = new ArrayList<>();
+
+        provinces = new CodeList<>("thai_province_code", ThaiProvinceCode.class,
+                loader(code -> {
+                    entryLoads.add(code);
+                    return Optional.ofNullable(table.get(code));
+                }),
+                ThaiProvinceCode::getCode,
+                code -> code);
+        provinces.refresh();
+
+        lenient().when(registry.getByTableName("thai_province_code")).thenReturn(Optional.of(provinces));
+        lenient().when(registry.getByTableName("unknown_table")).thenReturn(Optional.empty());
+
+        listener = new CodeListChangeListener(dataSource, registry, 100, 100, 3);
+    }
+
+    @Test
+    @DisplayName("Should reload only the inserted or updated entries")
+    public void testInsertAndUpdateReloadEntries() {
+        table.put("12", province("12", "นนทบุรี"));
+        table.put("10", province("10", "Bangkok"));
+
+        listener.handleNotifications(List.of(
+                "thai_province_code|INSERT|12",
+                "thai_province_code|UPDATE|10"));
+
+        assertTrue(provinces.contains("12"));
+        assertEquals("Bangkok", provinces.find("10").map(ThaiProvinceCode::getNameTh).orElse(null));
+        assertEquals(List.of("12", "10"), entryLoads);
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    @DisplayName("Should remove deleted entries without querying the database")
+    public void testDeleteInvalidatesEntry() {
+        table.remove("11");
+
+        listener.handleNotifications(List.of("thai_province_code|DELETE|11"));
+
+        assertFalse(provinces.contains("11"));
+        assertTrue(entryLoads.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply the last change when a code changes several times in one batch")
+    public void testRepeatedChangesCollapsed() {
+        listener.handleNotifications(List.of(
+                "thai_province_code|UPDATE|11",
+                "thai_province_code|DELETE|11"));
+
+        assertFalse(provinces.contains("11"));
+        assertTrue(entryLoads.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reload the whole code list on TRUNCATE")
+    public void testTruncateRefreshesCodeList() {
+        table.clear();
+
+        listener.handleNotifications(List.of(
+                "thai_province_code|UPDATE|10",
+                "thai_province_code|TRUNCATE|"));
+
+        assertEquals(0, provinces.size());
+        assertEquals(2, loadCount.get());
+        assertTrue(entryLoads.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reload the whole code list when a batch exceeds the bulk threshold")
+    public void testBulkChangesRefreshCodeList() {
+        for (int i = 20; i < 24; i++) {
+            table.put(String.valueOf(i), province(String.valueOf(i), "Province " + i));
+        }
+
+        listener.handleNotifications(List.of(
+                "thai_province_code|INSERT|20",
+                "thai_province_code|INSERT|21",
+                "thai_province_code|INSERT|22",
+                "thai_province_code|INSERT|23"));
+
+        assertEquals(6, provinces.size());
+        assertEquals(2, loadCount.get());
+        assertTrue(entryLoads.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should ignore unknown tables and malformed payloads")
+    public void testIgnoresUnknownAndMalformed() {
+        List<String> payloads = new ArrayList<>();
+        payloads.add("unknown_table|INSERT|X");
+        payloads.add("garbage");
+        payloads.add("|INSERT|10");
+        payloads.add(null);
+
+        listener.handleNotifications(payloads);
+
+        assertEquals(2, provinces.size());
+        assertEquals(1, loadCount.get());
+        assertTrue(entryLoads.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should skip code lists that have not been loaded yet")
+    public void testSkipsUnloadedCodeList() {
+        CodeList<ThaiProvinceCode> unloaded = new CodeList<>("thai_province_code", ThaiProvinceCode.class,
+                loader(code -> {
+                    entryLoads.add(code);
+                    return Optional.ofNullable(table.get(code));
+                }),
+                ThaiProvinceCode::getCode,
+                code -> code);
+        when(registry.getByTableName("thai_province_code")).thenReturn(Optional.of(unloaded));
+
+        listener.handleNotifications(List.of("thai_province_code|INSERT|10"));
+
+        assertFalse(unloaded.isLoaded());
+        assertTrue(entryLoads.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep processing when reloading an entry fails")
+    public void testReloadFailureDoesNotStopBatch() {
+        CodeList<ThaiProvinceCode> failing = new CodeList<>("thai_province_code", ThaiProvinceCode.class,
+                loader(code -> {
+                    if ("10".equals(code)) {
+                        throw new IllegalStateException("Connection lost");
+                    }
+                    return Optional.ofNullable(table.get(code));
+                }),
+                ThaiProvinceCode::getCode,
+                code -> code);
+        failing.refresh();
+        when(registry.getByTableName("thai_province_code")).thenReturn(Optional.of(failing));
+        table.remove("11");
+
+        listener.handleNotifications(List.of(
+                "thai_province_code|UPDATE|10",
+                "thai_province_code|UPDATE|11"));
+
+        assertTrue(failing.contains("10"));
+        assertFalse(failing.contains("11"));
+    }
+
+    @Test
+    @DisplayName("Should retry when no connection is available and stop cleanly")
+    public void testStartRetriesAndStops() throws Exception {
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        listener.start();
+        listener.start();
+        Thread.sleep(300);
+
+        assertTrue(listener.isRunning());
+        assertFalse(listener.isListening());
+        verify(dataSource, atLeast(2)).getConnection();
+
+        listener.close();
+        listener.stop();
+
+        assertFalse(listener.isRunning());
+        verify(registry, never()).refreshAll();
+    }
+
+    @Test
+    @DisplayName("Should reload loaded code lists after LISTEN to pick up changes made before it")
+    public void testStartReloadsLoadedCodeListsAfterListen() throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getNotifications(anyInt())).thenReturn(new PGNotification[0]);
+        when(registry.getCodeLists()).thenReturn(List.<CodeList<?>>of(provinces));
+        // Committed after the startup load, before the listener is connected
+        table.put("12", province("12", "นนทบุรี"));
+
+        listener.start();
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!provinces.contains("12") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        listener.stop();
+
+        assertTrue(provinces.contains("12"));
+        verify(statement).execute("LISTEN " + CodeListChangeListener.CHANNEL);
+        verify(registry, never()).refreshAll();
+    }
+
+    private CodeListLoader<ThaiProvinceCode> loader(Function<String, Optional<ThaiProvinceCode>> entryLoader) {
+        return new CodeListLoader<>() {
+            @Override
+            public List<ThaiProvinceCode> loadAll() {
+                loadCount.incrementAndGet();
+                return new ArrayList<>(table.values());
+            }
+
+            @Override
+            public Optional<ThaiProvinceCode> load(String code) {
+                return entryLoader.apply(code);
+            }
+
+            @Override
+            public List<ThaiProvinceCode> loadAll(Collection<String> codes) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static ThaiProvinceCode province(String code, String nameTh) {
+        ThaiProvinceCode province = new ThaiProvinceCode();
+        province.setCode(code);
+        province.setNameTh(nameTh);
+        province.setActive(true);
+        return province;
+    }
+}
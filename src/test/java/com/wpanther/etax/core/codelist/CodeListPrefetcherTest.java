@@ -0,0 +1,136 @@
+package com.wpanther.etax.core.codelist;
+
+import com.wpanther.etax.core.entity.ISOCountryCode;
+import com.wpanther.etax.core.entity.TISICityName;
+import com.wpanther.etax.core.entity.TISISubdistrict;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CodeListPrefetcher Tests")
+public class CodeListPrefetcherTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+            "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private static final String ADDRESS_XML =
+            "<doc xmlns:ram=\"urn:test:ram\">" +
+            "<ram:PostalTradeAddress>" +
+            "<ram:CityName> 1004 </ram:CityName>" +
+            "<ram:CitySubDivisionName>100402</ram:CitySubDivisionName>" +
+            "<ram:CountryID>TH</ram:CountryID>" +
+            "</ram:PostalTradeAddress>" +
+            "<ram:PostalTradeAddress>" +
+            "<ram:CityName>1004</ram:CityName>" +
+            "<ram:CitySubDivisionName></ram:CitySubDivisionName>" +
+            "</ram:PostalTradeAddress>" +
+            "</doc>";
+
+    @Mock
+    private CodeListRegistry registry;
+
+    @Test
+    @DisplayName("Should collect distinct codes of the mapped elements")
+    public void testCollectCodes() {
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry);
+
+        Map<Class<?>, Set<String>> codes = prefetcher.collectCodes(
+                new ByteArrayInputStream(ADDRESS_XML.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(Set.of(TISISubdistrict.class, TISICityName.class), codes.keySet());
+        assertEquals(Set.of("1004"), codes.get(TISICityName.class));
+        assertEquals(Set.of("100402"), codes.get(TISISubdistrict.class));
+    }
+
+    @Test
+    @DisplayName("Should collect codes from an ETDA example document")
+    public void testCollectCodesFromExample() throws Exception {
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry);
+
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            Map<Class<?>, Set<String>> codes = prefetcher.collectCodes(is);
+
+            assertEquals(Set.of("101701", "100402"), codes.get(TISISubdistrict.class));
+            assertEquals(Set.of("1017", "1004"), codes.get(TISICityName.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Should resolve each code table with one batch call")
+    public void testPrefetchResolvesPerTable() {
+        TISISubdistrict subdistrict = new TISISubdistrict();
+        subdistrict.setCode("100402");
+        when(registry.isLoaded(TISISubdistrict.class)).thenReturn(true);
+        when(registry.isLoaded(TISICityName.class)).thenReturn(true);
+        when(registry.resolveAll(TISISubdistrict.class, Set.of("100402"))).thenReturn(Map.of("100402", subdistrict));
+        when(registry.resolveAll(TISICityName.class, Set.of("1004"))).thenReturn(Map.of());
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry);
+
+        int resolved = prefetcher.prefetch(ADDRESS_XML);
+
+        assertEquals(1, resolved);
+        verify(registry).resolveAll(TISISubdistrict.class, Set.of("100402"));
+        verify(registry).resolveAll(TISICityName.class, Set.of("1004"));
+    }
+
+    @Test
+    @DisplayName("Should skip code lists that are not loaded")
+    public void testPrefetchSkipsUnloaded() {
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry);
+
+        assertEquals(0, prefetcher.prefetch(ADDRESS_XML));
+        verify(registry, never()).resolveAll(any(), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should use a custom element mapping")
+    public void testCustomMapping() {
+        when(registry.isLoaded(ISOCountryCode.class)).thenReturn(true);
+        when(registry.resolveAll(ISOCountryCode.class, Set.of("TH"))).thenReturn(Map.of("TH", new ISOCountryCode()));
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry, Map.of("CountryID", ISOCountryCode.class));
+
+        assertEquals(1, prefetcher.prefetch(ADDRESS_XML));
+        assertEquals(Map.of("CountryID", ISOCountryCode.class), prefetcher.getElementMapping());
+        assertThrows(UnsupportedOperationException.class, () -> prefetcher.getElementMapping().clear());
+    }
+
+    @Test
+    @DisplayName("Should prefetch explicitly collected codes")
+    public void testPrefetchCollectedCodes() {
+        when(registry.isLoaded(TISICityName.class)).thenReturn(true);
+        when(registry.resolveAll(TISICityName.class, List.of("1004"))).thenReturn(Map.of("1004", new TISICityName()));
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry);
+
+        assertEquals(1, prefetcher.prefetch(Map.<Class<?>, List<String>>of(TISICityName.class, List.of("1004"))));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed XML")
+    public void testMalformedXml() {
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry);
+
+        assertThrows(IllegalArgumentException.class, () -> prefetcher.prefetch("<doc><CityName>1004</doc>"));
+    }
+
+    @Test
+    @DisplayName("Should reject documents with a DOCTYPE")
+    public void testRejectsDoctype() {
+        CodeListPrefetcher prefetcher = new CodeListPrefetcher(registry);
+        String xml = "<!DOCTYPE doc [<!ENTITY x SYSTEM \"file:///etc/passwd\">]><doc><CityName>&x;</CityName></doc>";
+
+        assertThrows(IllegalArgumentException.class, () -> prefetcher.prefetch(xml));
+    }
+}
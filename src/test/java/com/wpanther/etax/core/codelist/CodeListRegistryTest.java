@@ -0,0 +1,508 @@
+package com.wpanther.etax.core.codelist;
+
+import com.wpanther.etax.core.adapter.common.*;
+import com.wpanther.etax.core.entity.*;
+import com.wpanther.etax.core.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CodeListRegistry Tests")
+public class CodeListRegistryTest {
+
+    @Mock
+    private AddressTypeRepository addressTypeRepository;
+
+    @Mock
+    private AllowanceChargeIdentificationCodeRepository allowanceChargeIdentificationCodeRepository;
+
+    @Mock
+    private AllowanceChargeReasonCodeRepository allowanceChargeReasonCodeRepository;
+
+    @Mock
+    private DeliveryTermsCodeRepository deliveryTermsCodeRepository;
+
+    @Mock
+    private DutyTaxFeeTypeCodeRepository dutyTaxFeeTypeCodeRepository;
+
+    @Mock
+    private FreightCostCodeRepository freightCostCodeRepository;
+
+    @Mock
+    private ISOCountryCodeRepository isoCountryCodeRepository;
+
+    @Mock
+    private ISOCurrencyCodeRepository isoCurrencyCodeRepository;
+
+    @Mock
+    private ISOLanguageCodeRepository isoLanguageCodeRepository;
+
+    @Mock
+    private MessageFunctionCodeRepository messageFunctionCodeRepository;
+
+    @Mock
+    private PaymentTermsDescriptionIdentifierRepository paymentTermsDescriptionIdentifierRepository;
+
+    @Mock
+    private PaymentTermsTypeCodeRepository paymentTermsTypeCodeRepository;
+
+    @Mock
+    private TISICityNameRepository tisiCityNameRepository;
+
+    @Mock
+    private TISISubdistrictRepository tisiSubdistrictRepository;
+
+    @Mock
+    private ThaiCategoryCodeRepository thaiCategoryCodeRepository;
+
+    @Mock
+    private ThaiDocumentNameCodeRepository thaiDocumentNameCodeRepository;
+
+    @Mock
+    private ThaiMessageFunctionCodeRepository thaiMessageFunctionCodeRepository;
+
+    @Mock
+    private ThaiProvinceCodeRepository thaiProvinceCodeRepository;
+
+    @Mock
+    private UNECEDocumentNameCodeInvoiceRepository uneceDocumentNameCodeInvoiceRepository;
+
+    @Mock
+    private UNECEReferenceTypeCodeRepository uneceReferenceTypeCodeRepository;
+
+    private AddressType addressType;
+    private AllowanceChargeIdentificationCode allowanceChargeIdentificationCode;
+    private AllowanceChargeReasonCode allowanceChargeReasonCode;
+    private DeliveryTermsCode deliveryTermsCode;
+    private DutyTaxFeeTypeCode dutyTaxFeeTypeCode;
+    private FreightCostCode freightCostCode;
+    private ISOCountryCode isoCountryCode;
+    private ISOCurrencyCode isoCurrencyCode;
+    private ISOLanguageCode isoLanguageCode;
+    private MessageFunctionCode messageFunctionCode;
+    private PaymentTermsDescriptionIdentifier paymentTermsDescriptionIdentifier;
+    private PaymentTermsTypeCode paymentTermsTypeCode;
+    private TISICityName tisiCityName;
+    private TISISubdistrict tisiSubdistrict;
+    private ThaiCategoryCode thaiCategoryCode;
+    private ThaiDocumentNameCode thaiDocumentNameCode;
+    private ThaiMessageFunctionCode thaiMessageFunctionCode;
+    private ThaiProvinceCode thaiProvinceCode;
+    private UNECEDocumentNameCodeInvoice uneceDocumentNameCodeInvoice;
+    private UNECEReferenceTypeCode uneceReferenceTypeCode;
+
+    private CodeListRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        addressType = new AddressType();
+        addressType.setCode("AB");
+        allowanceChargeIdentificationCode = new AllowanceChargeIdentificationCode();
+        allowanceChargeIdentificationCode.setCode("AB");
+        allowanceChargeReasonCode = new AllowanceChargeReasonCode();
+        allowanceChargeReasonCode.setCode("AB");
+        deliveryTermsCode = new DeliveryTermsCode();
+        deliveryTermsCode.setCode("AB");
+        dutyTaxFeeTypeCode = new DutyTaxFeeTypeCode();
+        dutyTaxFeeTypeCode.setCode("AB");
+        dutyTaxFeeTypeCode.setActive(true);
+        freightCostCode = new FreightCostCode();
+        freightCostCode.setCode("AB");
+        isoCountryCode = new ISOCountryCode();
+        isoCountryCode.setCode("AB");
+        isoCountryCode.setActive(true);
+        isoCurrencyCode = new ISOCurrencyCode();
+        isoCurrencyCode.setCode("AB");
+        isoCurrencyCode.setActive(true);
+        isoLanguageCode = new ISOLanguageCode();
+        isoLanguageCode.setCode("AB");
+        isoLanguageCode.setIsActive(true);
+        messageFunctionCode = new MessageFunctionCode();
+        messageFunctionCode.setCode("AB");
+        paymentTermsDescriptionIdentifier = new PaymentTermsDescriptionIdentifier();
+        paymentTermsDescriptionIdentifier.setCode("AB");
+        paymentTermsTypeCode = new PaymentTermsTypeCode();
+        paymentTermsTypeCode.setCode("AB");
+        tisiCityName = new TISICityName();
+        tisiCityName.setCode("AB");
+        tisiSubdistrict = new TISISubdistrict();
+        tisiSubdistrict.setCode("AB");
+        thaiCategoryCode = new ThaiCategoryCode();
+        thaiCategoryCode.setCode("AB");
+        thaiDocumentNameCode = new ThaiDocumentNameCode();
+        thaiDocumentNameCode.setCode("AB");
+        thaiMessageFunctionCode = new ThaiMessageFunctionCode();
+        thaiMessageFunctionCode.setCode("AB");
+        thaiMessageFunctionCode.setActive(true);
+        thaiProvinceCode = new ThaiProvinceCode();
+        thaiProvinceCode.setCode("AB");
+        thaiProvinceCode.setActive(true);
+        uneceDocumentNameCodeInvoice = new UNECEDocumentNameCodeInvoice();
+        uneceDocumentNameCodeInvoice.setCode("AB");
+        uneceReferenceTypeCode = new UNECEReferenceTypeCode();
+        uneceReferenceTypeCode.setCode("AB");
+        uneceReferenceTypeCode.setActive(true);
+
+        registry = new CodeListRegistry(
+                addressTypeRepository,
+                allowanceChargeIdentificationCodeRepository,
+                allowanceChargeReasonCodeRepository,
+                deliveryTermsCodeRepository,
+                dutyTaxFeeTypeCodeRepository,
+                freightCostCodeRepository,
+                isoCountryCodeRepository,
+                isoCurrencyCodeRepository,
+                isoLanguageCodeRepository,
+                messageFunctionCodeRepository,
+                paymentTermsDescriptionIdentifierRepository,
+                paymentTermsTypeCodeRepository,
+                tisiCityNameRepository,
+                tisiSubdistrictRepository,
+                thaiCategoryCodeRepository,
+                thaiDocumentNameCodeRepository,
+                thaiMessageFunctionCodeRepository,
+                thaiProvinceCodeRepository,
+                uneceDocumentNameCodeInvoiceRepository,
+                uneceReferenceTypeCodeRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new AddressTypeAdapter().setRegistry(null);
+        new AllowanceChargeIdentificationCodeAdapter().setRegistry(null);
+        new AllowanceChargeReasonCodeAdapter().setRegistry(null);
+        new DeliveryTermsCodeAdapter().setRegistry(null);
+        new DutyTaxFeeTypeCodeAdapter().setRegistry(null);
+        new FreightCostCodeAdapter().setRegistry(null);
+        new ISOCountryCodeAdapter().setRegistry(null);
+        new ISOCurrencyCodeAdapter().setRegistry(null);
+        new ISOLanguageCodeAdapter().setRegistry(null);
+        new MessageFunctionCodeAdapter().setRegistry(null);
+        new PaymentTermsDescriptionIdentifierAdapter().setRegistry(null);
+        new PaymentTermsTypeCodeAdapter().setRegistry(null);
+        new TISICityNameAdapter().setRegistry(null);
+        new TISISubdistrictAdapter().setRegistry(null);
+        new ThaiCategoryCodeAdapter().setRegistry(null);
+        new ThaiDocumentNameCodeAdapter().setRegistry(null);
+        new ThaiMessageFunctionCodeAdapter().setRegistry(null);
+        new ThaiProvinceCodeAdapter().setRegistry(null);
+        new UNECEDocumentNameCodeInvoiceAdapter().setRegistry(null);
+        new UNECEReferenceTypeCodeAdapter().setRegistry(null);
+    }
+
+    @Test
+    @DisplayName("Should register all code tables without loading them")
+    public void testRegistersAllCodeTables() {
+        assertEquals(20, registry.getCodeLists().size());
+        assertFalse(registry.isLoaded(ISOCurrencyCode.class));
+        verifyNoInteractions(isoCurrencyCodeRepository);
+    }
+
+    @Test
+    @DisplayName("Should load all code lists on startup")
+    public void testAfterPropertiesSetLoadsAll() {
+        registry.afterPropertiesSet();
+
+        for (CodeList<?> codeList : registry.getCodeLists()) {
+            assertTrue(codeList.isLoaded(), codeList.getName());
+        }
+        verify(isoCurrencyCodeRepository).findAll();
+        verify(tisiSubdistrictRepository, never()).findAll();
+        verify(tisiCityNameRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Should load the TISI code lists lazily")
+    public void testTisiCodeListsAreLazy() {
+        assertEquals(CodeList.LoadMode.LAZY, registry.get(TISISubdistrict.class).getLoadMode());
+        assertEquals(CodeList.LoadMode.LAZY, registry.get(TISICityName.class).getLoadMode());
+        assertEquals(CodeList.LoadMode.EAGER, registry.get(ThaiProvinceCode.class).getLoadMode());
+    }
+
+    @Test
+    @DisplayName("Should resolve several codes with one batch query")
+    public void testResolveAll() {
+        TISISubdistrict other = new TISISubdistrict();
+        other.setCode("CD");
+        when(tisiSubdistrictRepository.findAllById(List.of("AB", "CD", "EF"))).thenReturn(List.of(tisiSubdistrict, other));
+        registry.refreshAll();
+
+        Map<String, TISISubdistrict> resolved = registry.resolveAll(TISISubdistrict.class, List.of("AB", "CD", "EF", "AB"));
+
+        assertEquals(2, resolved.size());
+        assertSame(other, resolved.get("CD"));
+        assertSame(tisiSubdistrict, registry.find(TISISubdistrict.class, "AB").orElse(null));
+        verify(tisiSubdistrictRepository).findAllById(List.of("AB", "CD", "EF"));
+        verify(tisiSubdistrictRepository, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("Should find codes using the repository normalization")
+    public void testFindNormalizesCodes() {
+        isoCurrencyCode.setCode("THB");
+        isoLanguageCode.setCode("th");
+        dutyTaxFeeTypeCode.setCode("VAT");
+        when(isoCurrencyCodeRepository.findAll()).thenReturn(List.of(isoCurrencyCode));
+        when(isoLanguageCodeRepository.findAll()).thenReturn(List.of(isoLanguageCode));
+        when(dutyTaxFeeTypeCodeRepository.findAll()).thenReturn(List.of(dutyTaxFeeTypeCode));
+
+        registry.refreshAll();
+
+        assertEquals(Optional.of(isoCurrencyCode), registry.find(ISOCurrencyCode.class, "thb"));
+        assertEquals(Optional.of(dutyTaxFeeTypeCode), registry.find(DutyTaxFeeTypeCode.class, "Vat"));
+        assertTrue(registry.contains(ISOLanguageCode.class, "TH"));
+        assertFalse(registry.contains(ISOCurrencyCode.class, "USD"));
+    }
+
+    @Test
+    @DisplayName("Should refresh a single code list")
+    public void testRefreshSingle() {
+        registry.refreshAll();
+        when(isoCurrencyCodeRepository.findAll()).thenReturn(List.of(isoCurrencyCode));
+
+        registry.refresh(ISOCurrencyCode.class);
+
+        assertTrue(registry.contains(ISOCurrencyCode.class, "AB"));
+        verify(isoCurrencyCodeRepository, times(2)).findAll();
+        verify(isoCountryCodeRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should look up code lists by table name")
+    public void testGetByTableName() {
+        assertEquals(TISISubdistrict.class,
+                registry.getByTableName("tisi_subdistrict").map(CodeList::getEntityType).orElse(null));
+        assertEquals(UNECEDocumentNameCodeInvoice.class,
+                registry.getByTableName("document_name_code_invoice").map(CodeList::getEntityType).orElse(null));
+        assertFalse(registry.getByTableName("unknown_table").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should reject unregistered entity types")
+    public void testUnknownEntityType() {
+        assertThrows(IllegalArgumentException.class, () -> registry.get(String.class));
+        assertThrows(IllegalArgumentException.class, () -> registry.find(String.class, "AB"));
+        assertFalse(registry.isLoaded(String.class));
+    }
+
+    @Test
+    @DisplayName("Adapters should resolve codes from the registry without querying repositories")
+    public void testAdaptersUseRegistry() throws Exception {
+        when(addressTypeRepository.findAll()).thenReturn(List.of(addressType));
+        when(allowanceChargeIdentificationCodeRepository.findAll()).thenReturn(List.of(allowanceChargeIdentificationCode));
+        when(allowanceChargeReasonCodeRepository.findAll()).thenReturn(List.of(allowanceChargeReasonCode));
+        when(deliveryTermsCodeRepository.findAll()).thenReturn(List.of(deliveryTermsCode));
+        when(dutyTaxFeeTypeCodeRepository.findAll()).thenReturn(List.of(dutyTaxFeeTypeCode));
+        when(freightCostCodeRepository.findAll()).thenReturn(List.of(freightCostCode));
+        when(isoCountryCodeRepository.findAll()).thenReturn(List.of(isoCountryCode));
+        when(isoCurrencyCodeRepository.findAll()).thenReturn(List.of(isoCurrencyCode));
+        when(isoLanguageCodeRepository.findAll()).thenReturn(List.of(isoLanguageCode));
+        when(messageFunctionCodeRepository.findAll()).thenReturn(List.of(messageFunctionCode));
+        when(paymentTermsDescriptionIdentifierRepository.findAll()).thenReturn(List.of(paymentTermsDescriptionIdentifier));
+        when(paymentTermsTypeCodeRepository.findAll()).thenReturn(List.of(paymentTermsTypeCode));
+        when(tisiCityNameRepository.findById("AB")).thenReturn(Optional.of(tisiCityName));
+        when(tisiSubdistrictRepository.findById("AB")).thenReturn(Optional.of(tisiSubdistrict));
+        when(thaiCategoryCodeRepository.findAll()).thenReturn(List.of(thaiCategoryCode));
+        when(thaiDocumentNameCodeRepository.findAll()).thenReturn(List.of(thaiDocumentNameCode));
+        when(thaiMessageFunctionCodeRepository.findAll()).thenReturn(List.of(thaiMessageFunctionCode));
+        when(thaiProvinceCodeRepository.findAll()).thenReturn(List.of(thaiProvinceCode));
+        when(uneceDocumentNameCodeInvoiceRepository.findAll()).thenReturn(List.of(uneceDocumentNameCodeInvoice));
+        when(uneceReferenceTypeCodeRepository.findAll()).thenReturn(List.of(uneceReferenceTypeCode));
+        registry.refreshAll();
+
+        AddressTypeAdapter addressTypeAdapter = new AddressTypeAdapter();
+        addressTypeAdapter.setRepository(addressTypeRepository);
+        addressTypeAdapter.setRegistry(registry);
+        assertSame(addressType, addressTypeAdapter.unmarshal("AB"));
+        assertTrue(AddressTypeAdapter.isValid("AB"));
+
+        AllowanceChargeIdentificationCodeAdapter allowanceChargeIdentificationCodeAdapter = new AllowanceChargeIdentificationCodeAdapter();
+        allowanceChargeIdentificationCodeAdapter.setRepository(allowanceChargeIdentificationCodeRepository);
+        allowanceChargeIdentificationCodeAdapter.setRegistry(registry);
+        assertSame(allowanceChargeIdentificationCode, allowanceChargeIdentificationCodeAdapter.unmarshal("AB"));
+        assertTrue(AllowanceChargeIdentificationCodeAdapter.isValid("AB"));
+
+        AllowanceChargeReasonCodeAdapter allowanceChargeReasonCodeAdapter = new AllowanceChargeReasonCodeAdapter();
+        allowanceChargeReasonCodeAdapter.setRepository(allowanceChargeReasonCodeRepository);
+        allowanceChargeReasonCodeAdapter.setRegistry(registry);
+        assertSame(allowanceChargeReasonCode, allowanceChargeReasonCodeAdapter.unmarshal("AB"));
+        assertTrue(AllowanceChargeReasonCodeAdapter.isValid("AB"));
+
+        DeliveryTermsCodeAdapter deliveryTermsCodeAdapter = new DeliveryTermsCodeAdapter();
+        deliveryTermsCodeAdapter.setRepository(deliveryTermsCodeRepository);
+        deliveryTermsCodeAdapter.setRegistry(registry);
+        assertSame(deliveryTermsCode, deliveryTermsCodeAdapter.unmarshal("AB"));
+        assertTrue(DeliveryTermsCodeAdapter.isValid("AB"));
+
+        DutyTaxFeeTypeCodeAdapter dutyTaxFeeTypeCodeAdapter = new DutyTaxFeeTypeCodeAdapter();
+        dutyTaxFeeTypeCodeAdapter.setRepository(dutyTaxFeeTypeCodeRepository);
+        dutyTaxFeeTypeCodeAdapter.setRegistry(registry);
+        assertSame(dutyTaxFeeTypeCode, dutyTaxFeeTypeCodeAdapter.unmarshal("AB"));
+        assertTrue(DutyTaxFeeTypeCodeAdapter.isValid("AB"));
+
+        FreightCostCodeAdapter freightCostCodeAdapter = new FreightCostCodeAdapter();
+        freightCostCodeAdapter.setRepository(freightCostCodeRepository);
+        freightCostCodeAdapter.setRegistry(registry);
+        assertSame(freightCostCode, freightCostCodeAdapter.unmarshal("AB"));
+        assertTrue(FreightCostCodeAdapter.isValid("AB"));
+
+        ISOCountryCodeAdapter isoCountryCodeAdapter = new ISOCountryCodeAdapter();
+        isoCountryCodeAdapter.setRepository(isoCountryCodeRepository);
+        isoCountryCodeAdapter.setRegistry(registry);
+        assertSame(isoCountryCode, isoCountryCodeAdapter.unmarshal("AB"));
+        assertTrue(ISOCountryCodeAdapter.isValid("AB"));
+
+        ISOCurrencyCodeAdapter isoCurrencyCodeAdapter = new ISOCurrencyCodeAdapter();
+        isoCurrencyCodeAdapter.setRepository(isoCurrencyCodeRepository);
+        isoCurrencyCodeAdapter.setRegistry(registry);
+        assertSame(isoCurrencyCode, isoCurrencyCodeAdapter.unmarshal("AB"));
+        assertTrue(ISOCurrencyCodeAdapter.isValid("AB"));
+
+        ISOLanguageCodeAdapter isoLanguageCodeAdapter = new ISOLanguageCodeAdapter();
+        isoLanguageCodeAdapter.setRepository(isoLanguageCodeRepository);
+        isoLanguageCodeAdapter.setRegistry(registry);
+        assertSame(isoLanguageCode, isoLanguageCodeAdapter.unmarshal("AB"));
+        assertTrue(ISOLanguageCodeAdapter.isValid("AB"));
+
+        MessageFunctionCodeAdapter messageFunctionCodeAdapter = new MessageFunctionCodeAdapter();
+        messageFunctionCodeAdapter.setRepository(messageFunctionCodeRepository);
+        messageFunctionCodeAdapter.setRegistry(registry);
+        assertSame(messageFunctionCode, messageFunctionCodeAdapter.unmarshal("AB"));
+        assertTrue(MessageFunctionCodeAdapter.isValid("AB"));
+
+        PaymentTermsDescriptionIdentifierAdapter paymentTermsDescriptionIdentifierAdapter = new PaymentTermsDescriptionIdentifierAdapter();
+        paymentTermsDescriptionIdentifierAdapter.setRepository(paymentTermsDescriptionIdentifierRepository);
+        paymentTermsDescriptionIdentifierAdapter.setRegistry(registry);
+        assertSame(paymentTermsDescriptionIdentifier, paymentTermsDescriptionIdentifierAdapter.unmarshal("AB"));
+        assertTrue(PaymentTermsDescriptionIdentifierAdapter.isValid("AB"));
+
+        PaymentTermsTypeCodeAdapter paymentTermsTypeCodeAdapter = new PaymentTermsTypeCodeAdapter();
+        paymentTermsTypeCodeAdapter.setRepository(paymentTermsTypeCodeRepository);
+        paymentTermsTypeCodeAdapter.setRegistry(registry);
+        assertSame(paymentTermsTypeCode, paymentTermsTypeCodeAdapter.unmarshal("AB"));
+        assertTrue(PaymentTermsTypeCodeAdapter.isValid("AB"));
+
+        TISICityNameAdapter tisiCityNameAdapter = new TISICityNameAdapter();
+        tisiCityNameAdapter.setRepository(tisiCityNameRepository);
+        tisiCityNameAdapter.setRegistry(registry);
+        assertSame(tisiCityName, tisiCityNameAdapter.unmarshal("AB"));
+        assertTrue(TISICityNameAdapter.isValid("AB"));
+
+        TISISubdistrictAdapter tisiSubdistrictAdapter = new TISISubdistrictAdapter();
+        tisiSubdistrictAdapter.setRepository(tisiSubdistrictRepository);
+        tisiSubdistrictAdapter.setRegistry(registry);
+        assertSame(tisiSubdistrict, tisiSubdistrictAdapter.unmarshal("AB"));
+        assertTrue(TISISubdistrictAdapter.isValid("AB"));
+
+        ThaiCategoryCodeAdapter thaiCategoryCodeAdapter = new ThaiCategoryCodeAdapter();
+        thaiCategoryCodeAdapter.setRepository(thaiCategoryCodeRepository);
+        thaiCategoryCodeAdapter.setRegistry(registry);
+        assertSame(thaiCategoryCode, thaiCategoryCodeAdapter.unmarshal("AB"));
+        assertTrue(ThaiCategoryCodeAdapter.isValid("AB"));
+
+        ThaiDocumentNameCodeAdapter thaiDocumentNameCodeAdapter = new ThaiDocumentNameCodeAdapter();
+        thaiDocumentNameCodeAdapter.setRepository(thaiDocumentNameCodeRepository);
+        thaiDocumentNameCodeAdapter.setRegistry(registry);
+        assertSame(thaiDocumentNameCode, thaiDocumentNameCodeAdapter.unmarshal("AB"));
+        assertTrue(ThaiDocumentNameCodeAdapter.isValid("AB"));
+
+        ThaiMessageFunctionCodeAdapter thaiMessageFunctionCodeAdapter = new ThaiMessageFunctionCodeAdapter();
+        thaiMessageFunctionCodeAdapter.setRepository(thaiMessageFunctionCodeRepository);
+        thaiMessageFunctionCodeAdapter.setRegistry(registry);
+        assertSame(thaiMessageFunctionCode, thaiMessageFunctionCodeAdapter.unmarshal("AB"));
+        assertTrue(ThaiMessageFunctionCodeAdapter.isValid("AB"));
+
+        ThaiProvinceCodeAdapter thaiProvinceCodeAdapter = new ThaiProvinceCodeAdapter();
+        thaiProvinceCodeAdapter.setRepository(thaiProvinceCodeRepository);
+        thaiProvinceCodeAdapter.setRegistry(registry);
+        assertSame(thaiProvinceCode, thaiProvinceCodeAdapter.unmarshal("AB"));
+        assertTrue(ThaiProvinceCodeAdapter.isValid("AB"));
+
+        UNECEDocumentNameCodeInvoiceAdapter uneceDocumentNameCodeInvoiceAdapter = new UNECEDocumentNameCodeInvoiceAdapter();
+        uneceDocumentNameCodeInvoiceAdapter.setRepository(uneceDocumentNameCodeInvoiceRepository);
+        uneceDocumentNameCodeInvoiceAdapter.setRegistry(registry);
+        assertSame(uneceDocumentNameCodeInvoice, uneceDocumentNameCodeInvoiceAdapter.unmarshal("AB"));
+        assertTrue(UNECEDocumentNameCodeInvoiceAdapter.isValid("AB"));
+
+        UNECEReferenceTypeCodeAdapter uneceReferenceTypeCodeAdapter = new UNECEReferenceTypeCodeAdapter();
+        uneceReferenceTypeCodeAdapter.setRepository(uneceReferenceTypeCodeRepository);
+        uneceReferenceTypeCodeAdapter.setRegistry(registry);
+        assertSame(uneceReferenceTypeCode, uneceReferenceTypeCodeAdapter.unmarshal("AB"));
+        assertTrue(UNECEReferenceTypeCodeAdapter.isValid("AB"));
+
+        verifyNoMoreInteractions(addressTypeRepository,
+                allowanceChargeIdentificationCodeRepository,
+                allowanceChargeReasonCodeRepository,
+                deliveryTermsCodeRepository,
+                dutyTaxFeeTypeCodeRepository,
+                freightCostCodeRepository,
+                isoCountryCodeRepository,
+                isoCurrencyCodeRepository,
+                isoLanguageCodeRepository,
+                messageFunctionCodeRepository,
+                paymentTermsDescriptionIdentifierRepository,
+                paymentTermsTypeCodeRepository,
+                tisiCityNameRepository,
+                tisiSubdistrictRepository,
+                thaiCategoryCodeRepository,
+                thaiDocumentNameCodeRepository,
+                thaiMessageFunctionCodeRepository,
+                thaiProvinceCodeRepository,
+                uneceDocumentNameCodeInvoiceRepository,
+                uneceReferenceTypeCodeRepository);
+    }
+
+    @Test
+    @DisplayName("Adapters should apply the active filter of the repository query")
+    public void testAdaptersFilterInactive() throws Exception {
+        isoCurrencyCode.setActive(false);
+        thaiProvinceCode.setActive(false);
+        dutyTaxFeeTypeCode.setActive(false);
+        when(isoCurrencyCodeRepository.findAll()).thenReturn(List.of(isoCurrencyCode));
+        when(thaiProvinceCodeRepository.findAll()).thenReturn(List.of(thaiProvinceCode));
+        when(dutyTaxFeeTypeCodeRepository.findAll()).thenReturn(List.of(dutyTaxFeeTypeCode));
+        registry.refreshAll();
+
+        ISOCurrencyCodeAdapter currencyAdapter = new ISOCurrencyCodeAdapter();
+        currencyAdapter.setRepository(isoCurrencyCodeRepository);
+        currencyAdapter.setRegistry(registry);
+        ThaiProvinceCodeAdapter provinceAdapter = new ThaiProvinceCodeAdapter();
+        provinceAdapter.setRepository(thaiProvinceCodeRepository);
+        provinceAdapter.setRegistry(registry);
+        DutyTaxFeeTypeCodeAdapter dutyTaxFeeAdapter = new DutyTaxFeeTypeCodeAdapter();
+        dutyTaxFeeAdapter.setRepository(dutyTaxFeeTypeCodeRepository);
+        dutyTaxFeeAdapter.setRegistry(registry);
+
+        assertNotSame(isoCurrencyCode, currencyAdapter.unmarshal("AB"));
+        assertFalse(ISOCurrencyCodeAdapter.isValid("AB"));
+        assertFalse(ThaiProvinceCodeAdapter.isValid("AB"));
+        assertNotSame(dutyTaxFeeTypeCode, dutyTaxFeeAdapter.unmarshal("AB"));
+        // existsByCode on duty tax fee types does not filter on active
+        assertTrue(DutyTaxFeeTypeCodeAdapter.isValid("AB"));
+    }
+
+    @Test
+    @DisplayName("Adapters should fall back to the repository until the registry is loaded")
+    public void testAdaptersFallBackToRepository() throws Exception {
+        when(isoCurrencyCodeRepository.findByCode("AB")).thenReturn(Optional.of(isoCurrencyCode));
+
+        ISOCurrencyCodeAdapter currencyAdapter = new ISOCurrencyCodeAdapter();
+        currencyAdapter.setRepository(isoCurrencyCodeRepository);
+        currencyAdapter.setRegistry(registry);
+
+        assertSame(isoCurrencyCode, currencyAdapter.unmarshal("AB"));
+        verify(isoCurrencyCodeRepository).findByCode("AB");
+    }
+}
@@ -0,0 +1,370 @@
+package com.wpanther.etax.core.codelist;
+
+import com.wpanther.etax.core.entity.ISOCurrencyCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CodeList Tests")
+public class CodeListTest {
+
+    private List<ISOCurrencyCode> rows;
+    private AtomicInteger loadCount;
+    private AtomicInteger entryLoadCount;
+    private List<List<String>> batchLoads;
+    private CodeList<ISOCurrencyCode> codeList;
+    private CodeList<ISOCurrencyCode> lazyCodeList;
+
+    @BeforeEach
+    public void setUp() {
+        rows = new ArrayList<>();
+        rows.add(new ISOCurrencyCode("THB", "Thai Baht", "764", 2));
+        rows.add(new ISOCurrencyCode("USD", "US Dollar", "840", 2));
+        loadCount = new AtomicInteger();
+        entryLoadCount = new AtomicInteger();
+
+        batchLoads = new ArrayList<>();
+
+        codeList = new CodeList<>("iso_currency_code", ISOCurrencyCode.class, loader(),
+                ISOCurrencyCode::getCode,
+                code -> code.toUpperCase(Locale.ROOT));
+        lazyCodeList = new CodeList<>("iso_currency_code", ISOCurrencyCode.class, loader(),
+                ISOCurrencyCode::getCode,
+                code -> code.toUpperCase(Locale.ROOT),
+                CodeList.LoadMode.LAZY);
+    }
+
+    private CodeListLoader<ISOCurrencyCode> loader() {
+        return new CodeListLoader<>() {
+            @Override
+            public List<ISOCurrencyCode> loadAll() {
+                loadCount.incrementAndGet();
+                return new ArrayList<>(rows);
+            }
+
+            @Override
+            public Optional<ISOCurrencyCode> load(String code) {
+                entryLoadCount.incrementAndGet();
+                return rows.stream().filter(row -> code.equals(row.getCode())).findFirst();
+            }
+
+            @Override
+            public List<ISOCurrencyCode> loadAll(Collection<String> codes) {
+                batchLoads.add(new ArrayList<>(codes));
+                return rows.stream().filter(row -> codes.contains(row.getCode())).collect(Collectors.toList());
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should be empty and not loaded before first refresh")
+    public void testNotLoadedInitially() {
+        assertFalse(codeList.isLoaded());
+        assertEquals(0, codeList.size());
+        assertFalse(codeList.find("THB").isPresent());
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    @DisplayName("Should load all rows on refresh")
+    public void testRefreshLoadsRows() {
+        codeList.refresh();
+
+        assertTrue(codeList.isLoaded());
+        assertEquals(2, codeList.size());
+        assertEquals(2, codeList.values().size());
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    @DisplayName("Should find entries with normalized code")
+    public void testFindNormalizesCode() {
+        codeList.refresh();
+
+        assertEquals("Thai Baht", codeList.find("THB").map(ISOCurrencyCode::getName).orElse(null));
+        assertEquals("Thai Baht", codeList.find(" thb ").map(ISOCurrencyCode::getName).orElse(null));
+        assertTrue(codeList.contains("usd"));
+    }
+
+    @Test
+    @DisplayName("Should return empty for unknown, null and blank codes")
+    public void testFindUnknown() {
+        codeList.refresh();
+
+        assertFalse(codeList.find("XXX").isPresent());
+        assertFalse(codeList.find(null).isPresent());
+        assertFalse(codeList.find("  ").isPresent());
+        assertFalse(codeList.contains(null));
+        assertFalse(codeList.contains(""));
+    }
+
+    @Test
+    @DisplayName("Should skip rows without code")
+    public void testSkipsRowsWithoutCode() {
+        rows.add(new ISOCurrencyCode());
+        codeList.refresh();
+
+        assertEquals(2, codeList.size());
+    }
+
+    @Test
+    @DisplayName("Should replace snapshot on refresh")
+    public void testRefreshReplacesSnapshot() {
+        codeList.refresh();
+        rows.remove(1);
+        rows.add(new ISOCurrencyCode("EUR", "Euro", "978", 2));
+
+        codeList.refresh();
+
+        assertTrue(codeList.contains("EUR"));
+        assertFalse(codeList.contains("USD"));
+        assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    @DisplayName("Should reload a single changed entry")
+    public void testReloadSingleEntry() {
+        codeList.refresh();
+        rows.set(0, new ISOCurrencyCode("THB", "Baht", "764", 2));
+        rows.add(new ISOCurrencyCode("EUR", "Euro", "978", 2));
+
+        codeList.reload("THB");
+        codeList.reload("EUR");
+
+        assertEquals("Baht", codeList.find("THB").map(ISOCurrencyCode::getName).orElse(null));
+        assertTrue(codeList.contains("EUR"));
+        assertEquals(3, codeList.size());
+        assertEquals(1, loadCount.get());
+        assertEquals(2, entryLoadCount.get());
+    }
+
+    @Test
+    @DisplayName("Should remove entry on reload when row no longer exists")
+    public void testReloadRemovesDeletedEntry() {
+        codeList.refresh();
+        rows.remove(1);
+
+        codeList.reload("USD");
+
+        assertFalse(codeList.contains("USD"));
+        assertEquals(1, codeList.size());
+    }
+
+    @Test
+    @DisplayName("Should not reload entries before first refresh")
+    public void testReloadBeforeRefresh() {
+        codeList.reload("THB");
+
+        assertFalse(codeList.isLoaded());
+        assertEquals(0, codeList.size());
+        assertEquals(0, entryLoadCount.get());
+    }
+
+    @Test
+    @DisplayName("Should invalidate entry without querying the database")
+    public void testInvalidate() {
+        codeList.refresh();
+
+        codeList.invalidate("usd");
+        codeList.invalidate("XXX");
+        codeList.invalidate(null);
+
+        assertFalse(codeList.contains("USD"));
+        assertTrue(codeList.contains("THB"));
+        assertEquals(0, entryLoadCount.get());
+    }
+
+    @Test
+    @DisplayName("Should keep previously returned values unchanged after reload")
+    public void testReloadDoesNotMutateSnapshot() {
+        codeList.refresh();
+        Collection<ISOCurrencyCode> before = codeList.values();
+
+        codeList.invalidate("THB");
+
+        assertEquals(2, before.size());
+        assertEquals(1, codeList.size());
+    }
+
+    @Test
+    @DisplayName("Should return unmodifiable values")
+    public void testValuesUnmodifiable() {
+        codeList.refresh();
+
+        assertThrows(UnsupportedOperationException.class, () -> codeList.values().clear());
+    }
+
+    @Test
+    @DisplayName("Should expose name and entity type")
+    public void testMetadata() {
+        assertEquals("iso_currency_code", codeList.getName());
+        assertEquals(ISOCurrencyCode.class, codeList.getEntityType());
+        assertTrue(codeList.toString().contains("iso_currency_code"));
+        assertTrue(codeList.toString().contains("ISOCurrencyCode"));
+    }
+
+    @Test
+    @DisplayName("Should resolve several codes from the snapshot without querying the database")
+    public void testResolveAllEager() {
+        codeList.refresh();
+
+        Map<String, ISOCurrencyCode> resolved = codeList.resolveAll(Arrays.asList("thb", "XXX", null, " ", "USD"));
+
+        assertEquals(List.of("THB", "USD"), new ArrayList<>(resolved.keySet()));
+        assertTrue(batchLoads.isEmpty());
+        assertEquals(0, entryLoadCount.get());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should not load the table on refresh")
+    public void testLazyRefreshDoesNotLoadTable() {
+        lazyCodeList.refresh();
+
+        assertTrue(lazyCodeList.isLoaded());
+        assertEquals(CodeList.LoadMode.LAZY, lazyCodeList.getLoadMode());
+        assertEquals(0, lazyCodeList.size());
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should load and cache entries on first lookup")
+    public void testLazyFindCachesEntries() {
+        lazyCodeList.refresh();
+
+        assertEquals("Thai Baht", lazyCodeList.find("thb").map(ISOCurrencyCode::getName).orElse(null));
+        assertTrue(lazyCodeList.contains("THB"));
+        assertFalse(lazyCodeList.find("XXX").isPresent());
+
+        assertEquals(1, lazyCodeList.size());
+        assertEquals(1, lazyCodeList.values().size());
+        assertEquals(2, entryLoadCount.get());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should not query the database before first refresh")
+    public void testLazyFindBeforeRefresh() {
+        assertFalse(lazyCodeList.find("THB").isPresent());
+        assertTrue(lazyCodeList.resolveAll(List.of("THB")).isEmpty());
+
+        assertEquals(0, entryLoadCount.get());
+        assertTrue(batchLoads.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should resolve uncached codes with one batch query")
+    public void testLazyResolveAllBatches() {
+        lazyCodeList.refresh();
+        lazyCodeList.find("THB");
+
+        Map<String, ISOCurrencyCode> resolved = lazyCodeList.resolveAll(List.of("THB", "usd", "XXX", "USD"));
+
+        assertEquals(List.of("THB", "USD"), new ArrayList<>(resolved.keySet()));
+        assertEquals(List.of(List.of("USD", "XXX")), batchLoads);
+        assertEquals(1, entryLoadCount.get());
+
+        lazyCodeList.find("USD");
+        assertEquals(1, entryLoadCount.get());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should split large batches")
+    public void testLazyResolveAllSplitsBatches() {
+        lazyCodeList.refresh();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < CodeList.MAX_BATCH_SIZE + 1; i++) {
+            codes.add("C" + i);
+        }
+
+        lazyCodeList.resolveAll(codes);
+
+        assertEquals(2, batchLoads.size());
+        assertEquals(CodeList.MAX_BATCH_SIZE, batchLoads.get(0).size());
+        assertEquals(1, batchLoads.get(1).size());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should reload and invalidate only cached entries")
+    public void testLazyReloadAndInvalidate() {
+        lazyCodeList.refresh();
+        lazyCodeList.find("THB");
+        rows.set(0, new ISOCurrencyCode("THB", "Baht", "764", 2));
+
+        lazyCodeList.reload("USD");
+        assertEquals(1, entryLoadCount.get());
+
+        lazyCodeList.reload("THB");
+        assertEquals(2, entryLoadCount.get());
+        assertEquals("Baht", lazyCodeList.values().iterator().next().getName());
+
+        lazyCodeList.invalidate("THB");
+        assertEquals(0, lazyCodeList.size());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should not cache entries loaded while a change was applied")
+    public void testLazyLoadRacingChangeIsNotCached() {
+        AtomicReference<CodeList<ISOCurrencyCode>> racing = new AtomicReference<>();
+        CodeListLoader<ISOCurrencyCode> delegate = loader();
+        CodeList<ISOCurrencyCode> racingCodeList = new CodeList<>("iso_currency_code", ISOCurrencyCode.class,
+                new CodeListLoader<>() {
+                    @Override
+                    public List<ISOCurrencyCode> loadAll() {
+                        return delegate.loadAll();
+                    }
+
+                    @Override
+                    public Optional<ISOCurrencyCode> load(String code) {
+                        Optional<ISOCurrencyCode> row = delegate.load(code);
+                        // DELETE notified while the query is in flight
+                        racing.get().invalidate(code);
+                        return row;
+                    }
+
+                    @Override
+                    public List<ISOCurrencyCode> loadAll(Collection<String> codes) {
+                        List<ISOCurrencyCode> loaded = delegate.loadAll(codes);
+                        // UPDATE notified while the query is in flight
+                        codes.forEach(racing.get()::reload);
+                        return loaded;
+                    }
+                },
+                ISOCurrencyCode::getCode,
+                code -> code.toUpperCase(Locale.ROOT),
+                CodeList.LoadMode.LAZY);
+        racing.set(racingCodeList);
+        racingCodeList.refresh();
+
+        assertTrue(racingCodeList.find("THB").isPresent());
+        assertEquals(List.of("USD"), new ArrayList<>(racingCodeList.resolveAll(List.of("USD")).keySet()));
+        assertEquals(0, racingCodeList.size());
+
+        racingCodeList.find("THB");
+        assertEquals(2, entryLoadCount.get());
+    }
+
+    @Test
+    @DisplayName("Lazy code list should drop cached entries on refresh")
+    public void testLazyRefreshClearsCache() {
+        lazyCodeList.refresh();
+        lazyCodeList.find("THB");
+        rows.remove(0);
+
+        lazyCodeList.refresh();
+
+        assertFalse(lazyCodeList.contains("THB"));
+        assertEquals(0, loadCount.get());
+    }
+}
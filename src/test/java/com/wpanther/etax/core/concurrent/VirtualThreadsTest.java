@@ -0,0 +1,67 @@
+package com.wpanther.etax.core.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("VirtualThreads Tests")
+public class VirtualThreadsTest {
+
+    @Test
+    @DisplayName("Should report support based on the running Java version")
+    public void testIsSupported() {
+        assertEquals(Runtime.version().feature() >= 21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    @DisplayName("Should run tasks on named virtual threads on Java 21+")
+    public void testThreadPerTaskExecutor() throws Exception {
+        assumeTrue(VirtualThreads.isSupported());
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("etax-test-");
+        try {
+            Future<Thread> thread = executor.submit(Thread::currentThread);
+
+            assertTrue(VirtualThreads.isVirtual(thread.get()));
+            assertTrue(thread.get().getName().startsWith("etax-test-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should create unstarted virtual threads on Java 21+")
+    public void testThreadFactory() {
+        assumeTrue(VirtualThreads.isSupported());
+
+        ThreadFactory factory = VirtualThreads.newThreadFactory("etax-factory-");
+        Thread first = factory.newThread(() -> { });
+        Thread second = factory.newThread(() -> { });
+
+        assertTrue(VirtualThreads.isVirtual(first));
+        assertEquals("etax-factory-0", first.getName());
+        assertEquals("etax-factory-1", second.getName());
+    }
+
+    @Test
+    @DisplayName("Should reject virtual threads before Java 21")
+    public void testUnsupported() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.newThreadFactory("etax-"));
+        assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.newThreadPerTaskExecutor("etax-"));
+    }
+
+    @Test
+    @DisplayName("Should report platform threads as not virtual")
+    public void testPlatformThread() {
+        assertFalse(VirtualThreads.isVirtual(new Thread(() -> { })));
+    }
+}
@@ -63,7 +63,10 @@ public class DatabaseInitializer {
             "db/message_function_code.sql",
             "db/payment_terms_description_identifier.sql",
             "db/payment_terms_type_code.sql",
-            "db/duty_tax_fee_type_code.sql"
+            "db/duty_tax_fee_type_code.sql",
+
+            // Change notifications for existing code tables (must run last)
+            "db/code_list_notify.sql"
     );
 
     /**
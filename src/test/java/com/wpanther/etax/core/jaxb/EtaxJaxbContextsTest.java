@@ -0,0 +1,210 @@
+package com.wpanther.etax.core.jaxb;
+
+import com.wpanther.etax.generated.receipt.rsm.Receipt_CrossIndustryInvoiceType;
+import com.wpanther.etax.generated.taxinvoice.rsm.ObjectFactory;
+import com.wpanther.etax.generated.taxinvoice.rsm.TaxInvoice_CrossIndustryInvoiceType;
+import com.wpanther.etax.validation.DocumentSchematron;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EtaxJaxbContexts Tests")
+public class EtaxJaxbContextsTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+            "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private static EtaxJaxbContexts contexts;
+
+    @BeforeAll
+    public static void setUp() {
+        contexts = new EtaxJaxbContexts();
+        contexts.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Should create one shared context per document type")
+    public void testContextPerDocumentType() {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            JAXBContext context = contexts.getContext(docType);
+            assertNotNull(context, docType.name());
+            assertSame(context, contexts.getContext(docType));
+        }
+        assertNotSame(contexts.getContext(DocumentSchematron.TAX_INVOICE),
+                contexts.getContext(DocumentSchematron.RECEIPT));
+        assertNotNull(contexts.getCoreContext());
+        assertSame(contexts.getCoreContext(), contexts.getCoreContext());
+    }
+
+    @Test
+    @DisplayName("Should unmarshal a tax invoice and marshal it back")
+    public void testRoundTrip() throws Exception {
+        TaxInvoice_CrossIndustryInvoiceType invoice;
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            invoice = contexts.unmarshal(DocumentSchematron.TAX_INVOICE, is, TaxInvoice_CrossIndustryInvoiceType.class);
+        }
+        assertNotNull(invoice);
+
+        String xml = contexts.marshalToString(DocumentSchematron.TAX_INVOICE,
+                new ObjectFactory().createTaxInvoice_CrossIndustryInvoice(invoice));
+        assertTrue(xml.contains("TaxInvoice_CrossIndustryInvoice"));
+
+        Object reparsed = contexts.unmarshal(DocumentSchematron.TAX_INVOICE, xml);
+        assertTrue(reparsed instanceof TaxInvoice_CrossIndustryInvoiceType);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        contexts.marshal(DocumentSchematron.TAX_INVOICE,
+                new ObjectFactory().createTaxInvoice_CrossIndustryInvoice(invoice), output);
+        assertEquals(xml, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should reject a document with an unexpected root type")
+    public void testUnexpectedRootType() throws Exception {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            assertThrows(JAXBException.class,
+                    () -> contexts.unmarshal(DocumentSchematron.TAX_INVOICE, is, Receipt_CrossIndustryInvoiceType.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject documents with a DOCTYPE")
+    public void testRejectsDoctype() {
+        String xml = "<!DOCTYPE doc [<!ENTITY x SYSTEM \"file:///etc/passwd\">]><doc>&x;</doc>";
+
+        assertThrows(JAXBException.class, () -> contexts.unmarshal(DocumentSchematron.TAX_INVOICE, xml));
+    }
+
+    @Test
+    @DisplayName("Should reuse pooled marshallers and unmarshallers")
+    public void testReusesPooledInstances() throws Exception {
+        Marshaller first = contexts.withMarshaller(DocumentSchematron.RECEIPT, marshaller -> marshaller);
+        Marshaller second = contexts.withMarshaller(DocumentSchematron.RECEIPT, marshaller -> marshaller);
+        assertSame(first, second);
+
+        Unmarshaller firstUnmarshaller = contexts.withUnmarshaller(DocumentSchematron.RECEIPT, unmarshaller -> unmarshaller);
+        Unmarshaller secondUnmarshaller = contexts.withUnmarshaller(DocumentSchematron.RECEIPT, unmarshaller -> unmarshaller);
+        assertSame(firstUnmarshaller, secondUnmarshaller);
+
+        Marshaller core = contexts.withCoreMarshaller(marshaller -> marshaller);
+        assertSame(core, contexts.withCoreMarshaller(marshaller -> marshaller));
+        Unmarshaller coreUnmarshaller = contexts.withCoreUnmarshaller(unmarshaller -> unmarshaller);
+        assertSame(coreUnmarshaller, contexts.withCoreUnmarshaller(unmarshaller -> unmarshaller));
+    }
+
+    @Test
+    @DisplayName("Should hand out distinct instances to concurrent users and keep at most the pool size")
+    public void testPoolIsBounded() throws Exception {
+        EtaxJaxbContexts single = new EtaxJaxbContexts(1);
+
+        List<Marshaller> used = new ArrayList<>();
+        single.withMarshaller(DocumentSchematron.INVOICE, outer -> {
+            used.add(outer);
+            return single.withMarshaller(DocumentSchematron.INVOICE, inner -> used.add(inner));
+        });
+
+        assertNotSame(used.get(0), used.get(1));
+        // The inner marshaller was returned first and filled the pool
+        assertSame(used.get(1), single.withMarshaller(DocumentSchematron.INVOICE, marshaller -> marshaller));
+        assertEquals(1, single.getPoolSize());
+    }
+
+    @Test
+    @DisplayName("Should unmarshal concurrently from the shared context")
+    public void testConcurrentUnmarshal() throws Exception {
+        byte[] xml;
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            xml = is.readAllBytes();
+        }
+        String content = new String(xml, StandardCharsets.UTF_8);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> contexts.unmarshal(DocumentSchematron.TAX_INVOICE, content)));
+            }
+            for (Future<Object> result : results) {
+                assertTrue(result.get() instanceof TaxInvoice_CrossIndustryInvoiceType);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not hold up other document types while a context is being created")
+    public void testContextCreationDoesNotBlockOtherTypes() throws Exception {
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EtaxJaxbContexts slow = new EtaxJaxbContexts() {
+            @Override
+            protected JAXBContext createContext(DocumentSchematron docType) {
+                if (docType == DocumentSchematron.TAX_INVOICE) {
+                    creating.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return contexts.getContext(docType);
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<JAXBContext> taxInvoice = executor.submit(() -> slow.getContext(DocumentSchematron.TAX_INVOICE));
+            assertTrue(creating.await(10, TimeUnit.SECONDS));
+
+            JAXBContext receipt = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                    () -> slow.getContext(DocumentSchematron.RECEIPT));
+            assertSame(contexts.getContext(DocumentSchematron.RECEIPT), receipt);
+
+            release.countDown();
+            assertSame(contexts.getContext(DocumentSchematron.TAX_INVOICE), taxInvoice.get(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid pool sizes")
+    public void testInvalidPoolSize() {
+        assertThrows(IllegalArgumentException.class, () -> new EtaxJaxbContexts(0));
+    }
+
+    @Test
+    @DisplayName("Should report context creation failures")
+    public void testContextCreationFailure() {
+        EtaxJaxbContexts failing = new EtaxJaxbContexts() {
+            @Override
+            protected JAXBContext createContext(DocumentSchematron docType) {
+                throw new IllegalStateException("Failed to create JAXB context for " + docType);
+            }
+        };
+
+        assertThrows(IllegalStateException.class, () -> failing.getContext(DocumentSchematron.RECEIPT));
+        assertThrows(IllegalStateException.class, failing::warmUp);
+    }
+}
@@ -0,0 +1,169 @@
+package com.wpanther.etax.core.jaxb;
+
+import com.wpanther.etax.generated.taxinvoice.ram.ExchangedDocumentType;
+import com.wpanther.etax.generated.taxinvoice.ram.HeaderTradeSettlementType;
+import com.wpanther.etax.generated.taxinvoice.ram.SupplyChainTradeLineItemType;
+import com.wpanther.etax.validation.DocumentSchematron;
+import jakarta.xml.bind.JAXBException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LineItemStreamReader Tests")
+public class LineItemStreamReaderTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+            "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private static final String LINE_ITEM_START = "<ram:IncludedSupplyChainTradeLineItem>";
+    private static final String LINE_ITEM_END = "</ram:IncludedSupplyChainTradeLineItem>";
+
+    private static LineItemStreamReader reader;
+    private static String example;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        reader = new LineItemStreamReader(new EtaxJaxbContexts());
+        try (InputStream is = LineItemStreamReaderTest.class.getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            example = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read the header and then each line item")
+    public void testReadsHeaderAndLineItems() throws Exception {
+        try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, stream(example))) {
+            assertEquals(DocumentSchematron.TAX_INVOICE, document.getDocumentType());
+            assertEquals("TaxInvoice_CrossIndustryInvoice", document.getRootElementName());
+            assertNotNull(document.getHeaderElement(StreamingDocument.EXCHANGED_DOCUMENT, ExchangedDocumentType.class));
+            assertNotNull(document.getHeaderElement(StreamingDocument.HEADER_TRADE_SETTLEMENT, HeaderTradeSettlementType.class));
+            assertEquals(List.of(
+                    StreamingDocument.EXCHANGED_DOCUMENT_CONTEXT,
+                    StreamingDocument.EXCHANGED_DOCUMENT,
+                    StreamingDocument.HEADER_TRADE_AGREEMENT,
+                    StreamingDocument.HEADER_TRADE_DELIVERY,
+                    StreamingDocument.HEADER_TRADE_SETTLEMENT), new ArrayList<>(document.getHeaderElements().keySet()));
+
+            List<String> lineIds = new ArrayList<>();
+            while (document.hasNextLineItem()) {
+                SupplyChainTradeLineItemType lineItem = (SupplyChainTradeLineItemType) document.nextLineItem();
+                lineIds.add(lineItem.getAssociatedDocumentLineDocument().getLineID().getValue());
+            }
+
+            assertEquals(List.of("1", "2"), lineIds);
+            assertEquals(2, document.getLineItemCount());
+            assertFalse(document.hasNextLineItem());
+            assertThrows(NoSuchElementException.class, document::nextLineItem);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream line items")
+    public void testLineItemStream() throws Exception {
+        try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, stream(example))) {
+            List<String> lineIds = document.lineItems(SupplyChainTradeLineItemType.class)
+                    .map(lineItem -> lineItem.getAssociatedDocumentLineDocument().getLineID().getValue())
+                    .collect(Collectors.toList());
+
+            assertEquals(List.of("1", "2"), lineIds);
+        }
+    }
+
+    @Test
+    @DisplayName("Should pass each line item of a large document to the handler")
+    public void testLargeDocument() throws Exception {
+        int start = example.indexOf(LINE_ITEM_START);
+        int end = example.indexOf(LINE_ITEM_END, start) + LINE_ITEM_END.length();
+        int last = example.lastIndexOf(LINE_ITEM_END) + LINE_ITEM_END.length();
+        String lineItem = example.substring(start, end);
+
+        StringBuilder xml = new StringBuilder(example.substring(0, start));
+        for (int i = 0; i < 2000; i++) {
+            xml.append(lineItem);
+        }
+        xml.append(example.substring(last));
+
+        int[] handled = new int[1];
+        StreamingDocument document = reader.read(DocumentSchematron.TAX_INVOICE, stream(xml.toString()),
+                SupplyChainTradeLineItemType.class, item -> {
+                    assertEquals("1", item.getAssociatedDocumentLineDocument().getLineID().getValue());
+                    handled[0]++;
+                });
+
+        assertEquals(2000, handled[0]);
+        assertEquals(2000, document.getLineItemCount());
+        assertNotNull(document.getHeaderElement(StreamingDocument.EXCHANGED_DOCUMENT, ExchangedDocumentType.class));
+    }
+
+    @Test
+    @DisplayName("Should read a document without line items")
+    public void testNoLineItems() throws Exception {
+        int start = example.indexOf(LINE_ITEM_START);
+        int last = example.lastIndexOf(LINE_ITEM_END) + LINE_ITEM_END.length();
+        String xml = example.substring(0, start) + example.substring(last);
+
+        try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, stream(xml))) {
+            assertFalse(document.hasNextLineItem());
+            assertEquals(0, document.lineItems(SupplyChainTradeLineItemType.class).count());
+            assertNotNull(document.getHeaderElement(StreamingDocument.HEADER_TRADE_SETTLEMENT, HeaderTradeSettlementType.class));
+        }
+    }
+
+    @Test
+    @DisplayName("Should resolve the generated types of each document type")
+    public void testDeclaredTypes() {
+        for (DocumentSchematron docType : DocumentSchematron.values()) {
+            Map<String, Class<?>> types = reader.getDeclaredTypes(docType);
+            assertTrue(types.containsKey(StreamingDocument.EXCHANGED_DOCUMENT), docType.name());
+            assertTrue(types.containsKey(StreamingDocument.LINE_ITEM), docType.name());
+            assertSame(types, reader.getDeclaredTypes(docType));
+        }
+        assertTrue(SupplyChainTradeLineItemType.class.isAssignableFrom(
+                reader.getDeclaredTypes(DocumentSchematron.TAX_INVOICE).get(StreamingDocument.LINE_ITEM)));
+        assertFalse(reader.getDeclaredTypes(DocumentSchematron.CANCELLATION_NOTE)
+                .containsKey(StreamingDocument.HEADER_TRADE_DELIVERY));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed XML")
+    public void testMalformedXml() throws Exception {
+        String truncated = example.substring(0, example.indexOf(LINE_ITEM_END));
+
+        assertThrows(JAXBException.class, () -> reader.read(DocumentSchematron.TAX_INVOICE, stream(truncated),
+                SupplyChainTradeLineItemType.class, item -> { }));
+    }
+
+    @Test
+    @DisplayName("Should reject documents with a DOCTYPE")
+    public void testRejectsDoctype() {
+        String xml = "<!DOCTYPE doc [<!ENTITY x SYSTEM \"file:///etc/passwd\">]><doc>&x;</doc>";
+
+        assertThrows(JAXBException.class, () -> reader.open(DocumentSchematron.TAX_INVOICE, stream(xml)));
+    }
+
+    @Test
+    @DisplayName("Should not read after close")
+    public void testClosed() throws Exception {
+        StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, stream(example));
+        document.close();
+        document.close();
+
+        assertFalse(document.hasNextLineItem());
+        assertThrows(NoSuchElementException.class, document::nextLineItem);
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
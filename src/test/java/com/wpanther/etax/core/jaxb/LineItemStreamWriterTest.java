@@ -0,0 +1,135 @@
+package com.wpanther.etax.core.jaxb;
+
+import com.wpanther.etax.generated.taxinvoice.ram.SupplyChainTradeLineItemType;
+import com.wpanther.etax.generated.taxinvoice.rsm.TaxInvoice_CrossIndustryInvoiceType;
+import com.wpanther.etax.validation.DocumentSchematron;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LineItemStreamWriter Tests")
+public class LineItemStreamWriterTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+            "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private static EtaxJaxbContexts contexts;
+    private static LineItemStreamReader reader;
+    private static LineItemStreamWriter writer;
+    private static byte[] example;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        contexts = new EtaxJaxbContexts();
+        reader = new LineItemStreamReader(contexts);
+        writer = new LineItemStreamWriter(contexts);
+        try (InputStream is = LineItemStreamWriterTest.class.getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            example = is.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Should write a document that unmarshals to the same content")
+    public void testRoundTrip() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, new ByteArrayInputStream(example))) {
+            long written = writer.write(DocumentSchematron.TAX_INVOICE, document.getHeaderElements(),
+                    document.lineItems(SupplyChainTradeLineItemType.class), output);
+            assertEquals(2, written);
+        }
+
+        TaxInvoice_CrossIndustryInvoiceType invoice = contexts.unmarshal(DocumentSchematron.TAX_INVOICE,
+                new ByteArrayInputStream(output.toByteArray()), TaxInvoice_CrossIndustryInvoiceType.class);
+        assertNotNull(invoice.getExchangedDocumentContext());
+        assertNotNull(invoice.getExchangedDocument());
+        assertNotNull(invoice.getSupplyChainTradeTransaction().getApplicableHeaderTradeSettlement());
+        List<SupplyChainTradeLineItemType> lineItems =
+                invoice.getSupplyChainTradeTransaction().getIncludedSupplyChainTradeLineItem();
+        assertEquals(2, lineItems.size());
+        assertEquals("2", lineItems.get(1).getAssociatedDocumentLineDocument().getLineID().getValue());
+    }
+
+    @Test
+    @DisplayName("Should pull a large number of line items from an iterator")
+    public void testLargeDocument() throws Exception {
+        Map<String, Object> header;
+        SupplyChainTradeLineItemType lineItem;
+        try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, new ByteArrayInputStream(example))) {
+            lineItem = (SupplyChainTradeLineItemType) document.nextLineItem();
+            header = new HashMap<>(document.getHeaderElements());
+        }
+
+        Iterator<SupplyChainTradeLineItemType> lineItems = Collections.nCopies(5000, lineItem).iterator();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(5000, writer.write(DocumentSchematron.TAX_INVOICE, header, lineItems, output));
+
+        int[] count = new int[1];
+        reader.read(DocumentSchematron.TAX_INVOICE, new ByteArrayInputStream(output.toByteArray()),
+                SupplyChainTradeLineItemType.class, item -> count[0]++);
+        assertEquals(5000, count[0]);
+    }
+
+    @Test
+    @DisplayName("Should omit missing header aggregates")
+    public void testMissingHeaderElements() throws Exception {
+        Map<String, Object> header;
+        try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE, new ByteArrayInputStream(example))) {
+            header = new HashMap<>(document.getHeaderElements());
+        }
+        header.remove(StreamingDocument.HEADER_TRADE_DELIVERY);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(0, writer.write(DocumentSchematron.TAX_INVOICE, header, Stream.empty(), output));
+
+        String xml = output.toString(StandardCharsets.UTF_8);
+        assertTrue(xml.startsWith("<?xml"));
+        assertTrue(xml.contains("rsm:TaxInvoice_CrossIndustryInvoice"));
+        assertTrue(xml.contains("ApplicableHeaderTradeSettlement"));
+        assertFalse(xml.contains("ApplicableHeaderTradeDelivery"));
+        assertFalse(xml.contains(StreamingDocument.LINE_ITEM));
+
+        try (StreamingDocument document = reader.open(DocumentSchematron.TAX_INVOICE,
+                new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals(List.of(
+                    StreamingDocument.EXCHANGED_DOCUMENT_CONTEXT,
+                    StreamingDocument.EXCHANGED_DOCUMENT,
+                    StreamingDocument.HEADER_TRADE_AGREEMENT,
+                    StreamingDocument.HEADER_TRADE_SETTLEMENT), new ArrayList<>(document.getHeaderElements().keySet()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown header elements and null line items")
+    public void testInvalidInput() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThrows(IllegalArgumentException.class, () -> writer.write(DocumentSchematron.TAX_INVOICE,
+                Map.of(StreamingDocument.LINE_ITEM, new Object()), Stream.empty(), output));
+        assertThrows(NullPointerException.class, () -> writer.write(DocumentSchematron.TAX_INVOICE,
+                Map.of(), Collections.singletonList(null).iterator(), output));
+    }
+
+    @Test
+    @DisplayName("Should derive the root element and namespaces from the document type")
+    public void testNames() {
+        assertEquals("TaxInvoice_CrossIndustryInvoice", LineItemStreamWriter.getRootElementName(DocumentSchematron.TAX_INVOICE));
+        assertEquals("urn:etda:uncefact:data:standard:Receipt_CrossIndustryInvoice:2",
+                LineItemStreamWriter.getRsmNamespace(DocumentSchematron.RECEIPT));
+        assertEquals("urn:etda:uncefact:data:standard:CancellationNote_ReusableAggregateBusinessInformationEntity:2",
+                LineItemStreamWriter.getRamNamespace(DocumentSchematron.CANCELLATION_NOTE));
+    }
+}
@@ -0,0 +1,116 @@
+package com.wpanther.etax.core.metrics;
+
+import com.wpanther.etax.core.metrics.EtaxMetrics.Outcome;
+import com.wpanther.etax.core.metrics.EtaxMetrics.ValidationOutcome;
+import com.wpanther.etax.validation.DocumentSchematron;
+import com.wpanther.etax.validation.SchematronProfile.RuleProfile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("EtaxMetrics Tests")
+public class EtaxMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EtaxMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new MicrometerEtaxMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should time lookups by code list and outcome")
+    public void testRecordLookup() {
+        metrics.recordLookup("iso_currency_code", Outcome.HIT, 1_000);
+        metrics.recordLookup("iso_currency_code", Outcome.HIT, 3_000);
+        metrics.recordLookup("iso_currency_code", Outcome.MISS, 5_000);
+
+        Timer hits = meterRegistry.get(EtaxMetrics.LOOKUP_TIMER)
+                .tags("codelist", "iso_currency_code", "outcome", "hit")
+                .timer();
+        assertEquals(2, hits.count());
+        assertEquals(4_000, hits.totalTime(TimeUnit.NANOSECONDS), 0.1);
+        assertEquals(1, meterRegistry.get(EtaxMetrics.LOOKUP_TIMER)
+                .tags("outcome", "miss").timer().count());
+        assertEquals(0, meterRegistry.get(EtaxMetrics.LOOKUP_TIMER)
+                .tags("outcome", "placeholder").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should count placeholders by code list")
+    public void testRecordPlaceholder() {
+        metrics.recordPlaceholder("iso_currency_code");
+        metrics.recordPlaceholder("iso_currency_code");
+        metrics.recordPlaceholder("tisi_city_name");
+
+        assertEquals(2, meterRegistry.get(EtaxMetrics.PLACEHOLDER_COUNTER)
+                .tag("codelist", "iso_currency_code").counter().count());
+        assertEquals(1, meterRegistry.get(EtaxMetrics.PLACEHOLDER_COUNTER)
+                .tag("codelist", "tisi_city_name").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should time validations and count errors and warnings")
+    public void testRecordValidation() {
+        metrics.recordValidation(DocumentSchematron.RECEIPT, ValidationOutcome.INVALID, 2, 1, 10_000);
+        metrics.recordValidation(DocumentSchematron.RECEIPT, ValidationOutcome.VALID, 0, 0, 20_000);
+
+        assertEquals(1, meterRegistry.get(EtaxMetrics.VALIDATION_TIMER)
+                .tags("document", "RECEIPT", "outcome", "invalid").timer().count());
+        assertEquals(1, meterRegistry.get(EtaxMetrics.VALIDATION_TIMER)
+                .tags("document", "RECEIPT", "outcome", "valid").timer().count());
+        assertEquals(2, meterRegistry.get(EtaxMetrics.VALIDATION_ERRORS).tag("document", "RECEIPT").counter().count());
+        assertEquals(1, meterRegistry.get(EtaxMetrics.VALIDATION_WARNINGS).tag("document", "RECEIPT").counter().count());
+        assertEquals(0, meterRegistry.get(EtaxMetrics.VALIDATION_ERRORS).tag("document", "INVOICE").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should time Schematron rules by document, rule and kind")
+    public void testRecordRule() {
+        metrics.recordRule(DocumentSchematron.TAX_INVOICE, "TIV-DocumentContext-001", RuleProfile.Kind.REPORT, 10_000);
+        metrics.recordRule(DocumentSchematron.TAX_INVOICE, "TIV-DocumentContext-001", RuleProfile.Kind.REPORT, 20_000);
+        metrics.recordRule(DocumentSchematron.TAX_INVOICE, "rule-2", RuleProfile.Kind.CONTEXT, 5_000);
+
+        Timer report = meterRegistry.get(EtaxMetrics.RULE_TIMER)
+                .tags("document", "TAX_INVOICE", "rule", "TIV-DocumentContext-001", "kind", "report").timer();
+        assertEquals(2, report.count());
+        assertEquals(30_000, report.totalTime(TimeUnit.NANOSECONDS), 0.001);
+        assertEquals(1, meterRegistry.get(EtaxMetrics.RULE_TIMER)
+                .tags("rule", "rule-2", "kind", "context").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should record nothing without a MeterRegistry")
+    public void testNoop() {
+        assertFalse(EtaxMetrics.NOOP.isEnabled());
+        assertTrue(metrics.isEnabled());
+
+        EtaxMetrics.NOOP.recordLookup("iso_currency_code", Outcome.HIT, 1);
+        EtaxMetrics.NOOP.recordPlaceholder("iso_currency_code");
+        EtaxMetrics.NOOP.recordValidation(DocumentSchematron.RECEIPT, ValidationOutcome.FAILED, 0, 0, 1);
+        EtaxMetrics.NOOP.recordRule(DocumentSchematron.RECEIPT, "rule-1", RuleProfile.Kind.CONTEXT, 1);
+    }
+
+    @Test
+    @DisplayName("Should use the MeterRegistry bean when available")
+    @SuppressWarnings("unchecked")
+    public void testObjectProvider() {
+        ObjectProvider<MeterRegistry> available = mock(ObjectProvider.class);
+        when(available.getIfAvailable()).thenReturn(meterRegistry);
+        ObjectProvider<MeterRegistry> missing = mock(ObjectProvider.class);
+
+        assertTrue(new MicrometerEtaxMetrics(available).isEnabled());
+        assertFalse(new MicrometerEtaxMetrics(missing).isEnabled());
+    }
+}
@@ -0,0 +1,247 @@
+package com.wpanther.etax.core.pipeline;
+
+import com.wpanther.etax.core.concurrent.VirtualThreads;
+import com.wpanther.etax.core.jaxb.EtaxJaxbContexts;
+import com.wpanther.etax.generated.taxinvoice.rsm.TaxInvoice_CrossIndustryInvoiceType;
+import com.wpanther.etax.validation.DocumentSchematron;
+import com.wpanther.etax.validation.SchemaValidator;
+import com.wpanther.etax.validation.SchematronValidationException;
+import com.wpanther.etax.validation.SchematronValidationResult;
+import com.wpanther.etax.validation.SchematronValidator;
+import com.wpanther.etax.validation.SchematronXsltValidator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("DocumentPipeline Tests")
+public class DocumentPipelineTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+            "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private static EtaxJaxbContexts jaxbContexts;
+    private static SchematronXsltValidator schematronValidator;
+    private static byte[] example;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        jaxbContexts = new EtaxJaxbContexts();
+        schematronValidator = new SchematronXsltValidator();
+        try (InputStream is = DocumentPipelineTest.class.getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            example = is.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("Should detect, validate and unmarshal a document from one parse")
+    public void testProcess() throws Exception {
+        DocumentPipeline pipeline = new DocumentPipeline(schematronValidator, jaxbContexts);
+
+        PipelineResult result = pipeline.process(example);
+
+        assertEquals(DocumentSchematron.TAX_INVOICE, result.getDocumentType());
+        assertTrue(result.isSchemaValid());
+        assertTrue(result.isValid());
+        assertEquals("TaxInvoice_CrossIndustryInvoice", result.getDocument().getDocumentElement().getLocalName());
+        TaxInvoice_CrossIndustryInvoiceType invoice = result.getValue(TaxInvoice_CrossIndustryInvoiceType.class);
+        assertNotNull(invoice.getExchangedDocument());
+    }
+
+    @Test
+    @DisplayName("Should give the same Schematron result as validating the text")
+    public void testSchematronMatchesTextValidation() throws Exception {
+        String xml = new String(example, StandardCharsets.UTF_8)
+                .replace("schemeVersionID=\"v2.1\"", "schemeVersionID=\"v1.0\"");
+        DocumentPipeline pipeline = new DocumentPipeline(schematronValidator, jaxbContexts);
+
+        PipelineResult result = pipeline.process(xml.getBytes(StandardCharsets.UTF_8));
+        SchematronValidationResult text = schematronValidator.validate(xml, DocumentSchematron.TAX_INVOICE);
+
+        assertEquals(text.getWarnings().size(), result.getSchematronResult().getWarnings().size());
+        assertFalse(result.getSchematronResult().getWarnings().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should pass the parsed tree to the Schematron validator")
+    public void testSharesTree() throws Exception {
+        SchematronValidator validator = mock(SchematronValidator.class);
+        when(validator.validate(any(Document.class), eq(DocumentSchematron.TAX_INVOICE)))
+                .thenReturn(SchematronValidationResult.success());
+        DocumentPipeline pipeline = new DocumentPipeline(validator, jaxbContexts);
+
+        PipelineResult result = pipeline.process(new ByteArrayInputStream(example), DocumentSchematron.TAX_INVOICE);
+
+        verify(validator).validate(result.getDocument(), DocumentSchematron.TAX_INVOICE);
+        verify(validator, never()).validate(any(String.class), any());
+        verify(validator, never()).validate(any(InputStream.class), any());
+    }
+
+    @Test
+    @DisplayName("Should validate against the XSD and skip the later steps for invalid documents")
+    public void testSchemaValidation() throws Exception {
+        SchemaValidator schemaValidator = spy(new SchemaValidator());
+        DocumentPipeline pipeline = new DocumentPipeline(schematronValidator, jaxbContexts, schemaValidator);
+
+        assertTrue(pipeline.process(example).isValid());
+
+        String invalid = new String(example, StandardCharsets.UTF_8)
+                .replace("<ram:TypeCode>388</ram:TypeCode>", "<ram:TypeCode>388</ram:TypeCode><ram:Unexpected/>");
+        PipelineResult result = pipeline.process(invalid.getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(result.isSchemaValid());
+        assertFalse(result.isValid());
+        assertNull(result.getSchematronResult());
+        assertNull(result.getValue());
+        assertFalse(result.getSchemaResult().getErrors().isEmpty());
+        verify(schemaValidator, times(2)).validate(any(Document.class), eq(DocumentSchematron.TAX_INVOICE));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed documents, unknown roots and DTDs")
+    public void testRejects() {
+        DocumentPipeline pipeline = new DocumentPipeline(schematronValidator, jaxbContexts);
+
+        assertThrows(SchematronValidationException.class,
+                () -> pipeline.process("<TaxInvoice_CrossIndustryInvoice>".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(SchematronValidationException.class,
+                () -> pipeline.process("<CrossIndustryInvoice/>".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(SchematronValidationException.class, () -> pipeline.process(
+                ("<!DOCTYPE x [<!ENTITY e SYSTEM \"file:///etc/passwd\">]>"
+                        + "<TaxInvoice_CrossIndustryInvoice>&e;</TaxInvoice_CrossIndustryInvoice>")
+                        .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("Should report the unmarshalled type mismatch")
+    public void testGetValueWrongType() throws Exception {
+        PipelineResult result = new DocumentPipeline(schematronValidator, jaxbContexts).process(example);
+
+        assertThrows(IllegalStateException.class, () -> result.getValue(List.class));
+    }
+
+    @Test
+    @DisplayName("Should not process more than maxConcurrent submitted documents at once")
+    public void testSubmitBounded() {
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        SchematronValidator validator = slowValidator(maxConcurrent);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            DocumentPipeline pipeline = new DocumentPipeline(validator, jaxbContexts, null, executor, 3);
+            List<CompletableFuture<PipelineResult>> futures = IntStream.range(0, 24)
+                    .mapToObj(i -> pipeline.submit(example))
+                    .collect(Collectors.toList());
+
+            assertTrue(futures.stream().map(CompletableFuture::join).allMatch(PipelineResult::isValid));
+            pipeline.close();
+
+            assertTrue(maxConcurrent.get() <= 3, "max concurrent: " + maxConcurrent.get());
+            assertTrue(maxConcurrent.get() > 1, "documents should overlap");
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete the future exceptionally for a malformed document")
+    public void testSubmitFailure() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            DocumentPipeline pipeline = new DocumentPipeline(schematronValidator, jaxbContexts, null, executor, 1);
+            CompletableFuture<PipelineResult> future =
+                    pipeline.submit("<TaxInvoice_CrossIndustryInvoice>".getBytes(StandardCharsets.UTF_8),
+                            DocumentSchematron.TAX_INVOICE);
+
+            Exception e = assertThrows(Exception.class, future::join);
+            assertInstanceOf(SchematronValidationException.class, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject submit without an executor and invalid limits")
+    public void testSubmitRejects() {
+        DocumentPipeline pipeline = new DocumentPipeline(schematronValidator, jaxbContexts);
+        assertThrows(IllegalStateException.class, () -> pipeline.submit(example));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DocumentPipeline(schematronValidator, jaxbContexts, null, executor, 0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should process submitted documents on virtual threads on Java 21+")
+    public void testVirtualThreads() {
+        assumeTrue(VirtualThreads.isSupported());
+        AtomicInteger virtual = new AtomicInteger();
+        SchematronValidator validator = mock(SchematronValidator.class);
+        when(validator.validate(any(Document.class), eq(DocumentSchematron.TAX_INVOICE))).thenAnswer(invocation -> {
+            if (VirtualThreads.isVirtual(Thread.currentThread())) {
+                virtual.incrementAndGet();
+            }
+            return SchematronValidationResult.success();
+        });
+
+        try (DocumentPipeline pipeline = DocumentPipeline.withVirtualThreads(validator, jaxbContexts, null, 10)) {
+            List<CompletableFuture<PipelineResult>> futures = IntStream.range(0, 20)
+                    .mapToObj(i -> pipeline.submit(example, DocumentSchematron.TAX_INVOICE))
+                    .collect(Collectors.toList());
+
+            assertTrue(futures.stream().map(CompletableFuture::join).allMatch(PipelineResult::isValid));
+        }
+
+        assertEquals(20, virtual.get());
+    }
+
+    @Test
+    @DisplayName("Should reject virtual threads before Java 21")
+    public void testVirtualThreadsUnsupported() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> DocumentPipeline.withVirtualThreads(schematronValidator, jaxbContexts, null, 10));
+    }
+
+    /**
+     * A Schematron validator that takes 20 ms per document and records the highest number of
+     * documents validated at once.
+     */
+    private static SchematronValidator slowValidator(AtomicInteger maxConcurrent) {
+        AtomicInteger running = new AtomicInteger();
+        SchematronValidator validator = mock(SchematronValidator.class);
+        when(validator.validate(any(Document.class), eq(DocumentSchematron.TAX_INVOICE))).thenAnswer(invocation -> {
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                return SchematronValidationResult.success();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+        return validator;
+    }
+}
@@ -1,5 +1,7 @@
 package com.wpanther.etax.core.repository;
 
+import com.wpanther.etax.core.adapter.common.TISICityNameAdapter;
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
 import com.wpanther.etax.core.config.DatabaseInitializer;
 import com.wpanther.etax.core.config.PostgresTestContainer;
 import com.wpanther.etax.core.entity.TISICityName;
@@ -12,6 +14,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -164,4 +167,28 @@ class TISICityNameRepositoryTest extends PostgresTestContainer {
         }
         // If no data, that's OK for this test
     }
+
+    // === Gazetteer Tests ===
+
+    @Test
+    @DisplayName("Gazetteer entities should match the repository, including generated columns")
+    void gazetteerEntities_shouldMatchRepository() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO tisi_city_name (code, name_th) VALUES "
+                + "('1001', 'เขตพระนคร'), ('5001', 'เมืองเชียงใหม่') ON CONFLICT (code) DO NOTHING");
+
+        TISICityNameAdapter adapter = new TISICityNameAdapter();
+        adapter.setGazetteer(ThaiAddressGazetteer.load());
+        try {
+            for (String code : List.of("1001", "5001")) {
+                TISICityName expected = repository.findByCode(code).orElseThrow();
+                assertThat(adapter.unmarshal(code))
+                        .usingRecursiveComparison()
+                        .ignoringFields("createdAt", "updatedAt")
+                        .isEqualTo(expected);
+            }
+        } finally {
+            adapter.setGazetteer(null);
+        }
+    }
 }
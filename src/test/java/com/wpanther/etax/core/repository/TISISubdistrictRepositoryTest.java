@@ -1,5 +1,7 @@
 package com.wpanther.etax.core.repository;
 
+import com.wpanther.etax.core.adapter.common.TISISubdistrictAdapter;
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
 import com.wpanther.etax.core.config.DatabaseInitializer;
 import com.wpanther.etax.core.config.PostgresTestContainer;
 import com.wpanther.etax.core.entity.TISISubdistrict;
@@ -14,6 +16,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
@@ -203,4 +206,28 @@ class TISISubdistrictRepositoryTest extends PostgresTestContainer {
         }
         // If no data, that's OK for this test
     }
+
+    // === Gazetteer Tests ===
+
+    @Test
+    @DisplayName("Gazetteer entities should match the repository, including generated columns")
+    void gazetteerEntities_shouldMatchRepository() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO tisi_subdistrict (code, name_th) VALUES "
+                + "('100101', 'พระบรมมหาราชวัง'), ('500101', 'ศรีภูมิ') ON CONFLICT (code) DO NOTHING");
+
+        TISISubdistrictAdapter adapter = new TISISubdistrictAdapter();
+        adapter.setGazetteer(ThaiAddressGazetteer.load());
+        try {
+            for (String code : List.of("100101", "500101")) {
+                TISISubdistrict expected = repository.findByCode(code).orElseThrow();
+                assertThat(adapter.unmarshal(code))
+                        .usingRecursiveComparison()
+                        .ignoringFields("createdAt", "updatedAt")
+                        .isEqualTo(expected);
+            }
+        } finally {
+            adapter.setGazetteer(null);
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.address.ThaiAddressGazetteer;
+import com.wpanther.etax.core.address.ThaiAddressHierarchy;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the province, city and subdistrict consistency check of document addresses.
+ */
+@DisplayName("AddressHierarchyValidator Tests")
+class AddressHierarchyValidatorTest {
+
+    private static final String EXAMPLE_ROOT = "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/";
+    private static final String TAX_INVOICE_EXAMPLE = EXAMPLE_ROOT + "Example_TaxInvoice_2p1_v1.xml";
+    private static final String AGREEMENT = "/TaxInvoice_CrossIndustryInvoice/SupplyChainTradeTransaction"
+        + "/ApplicableHeaderTradeAgreement";
+
+    private static AddressHierarchyValidator validator;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        validator = new AddressHierarchyValidator(ThaiAddressHierarchy.of(ThaiAddressGazetteer.load()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Example_TaxInvoice_2p1_v1.xml",
+        "Example_Receipt_2p1_v1.xml",
+        "Example_Invoice_2p1_v1.xml",
+        "Example_DebitNote_2p1_v1.xml",
+        "Example_CreditNote_2p1_v1.xml",
+        "Example_AbbreviatedTaxInvocie_2p1_v1.xml"
+    })
+    @DisplayName("The ETDA examples have consistent addresses")
+    void testExamples(String example) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(EXAMPLE_ROOT + example)) {
+            assertThat(validator.validate(is).isValid()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("A city outside the province is reported at its address")
+    void testCityNotInProvince() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replaceFirst("<ram:CountrySubDivisionID>10<", "<ram:CountrySubDivisionID>20<");
+
+        SchemaValidationResult result = validator.validate(xml);
+
+        assertThat(result.getErrors()).hasSize(1);
+        SchemaError error = result.getErrors().get(0);
+        assertThat(error.getMessage()).contains("City '1017'", "province '20'");
+        assertThat(error.getLocation()).isEqualTo(AGREEMENT + "/SellerTradeParty/PostalTradeAddress");
+        assertThat(error.getLineNumber()).isEqualTo(31);
+    }
+
+    @Test
+    @DisplayName("A subdistrict outside the city is reported for every address")
+    void testSubdistrictNotInCity() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replace("<ram:CityName>1004</ram:CityName>", "<ram:CityName>1017</ram:CityName>");
+
+        SchemaValidationResult result = validator.validate(xml);
+
+        assertThat(result.getErrors())
+            .extracting(SchemaError::getMessage)
+            .containsOnly("address-hierarchy: Subdistrict '100402' is not in city '1017'.");
+        assertThat(result.getErrors()).extracting(SchemaError::getLocation)
+            .containsExactly(AGREEMENT + "/BuyerTradeParty/PostalTradeAddress",
+                "/TaxInvoice_CrossIndustryInvoice/SupplyChainTradeTransaction/ApplicableHeaderTradeDelivery"
+                    + "/ShipToTradeParty/PostalTradeAddress");
+    }
+
+    @Test
+    @DisplayName("Unknown codes are reported")
+    void testUnknownCode() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replace("<ram:CitySubDivisionName>101701<", "<ram:CitySubDivisionName>101799<");
+
+        assertThat(validator.validate(xml).getErrors())
+            .extracting(SchemaError::getMessage)
+            .containsExactly("address-hierarchy: Subdistrict '101799' is not a known subdistrict code.");
+    }
+
+    @Test
+    @DisplayName("Foreign addresses and free-text names are skipped")
+    void testSkipped() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE);
+        String foreign = xml.replaceFirst("<ram:CountrySubDivisionID>10<", "<ram:CountrySubDivisionID>20<")
+            .replaceFirst("alpha-2\">TH<", "alpha-2\">LA<");
+        String freeText = xml.replace("<ram:CityName>1004</ram:CityName>", "<ram:CityName>Bangkok</ram:CityName>");
+
+        assertThat(validator.validate(foreign).isValid()).isTrue();
+        assertThat(validator.validate(freeText).isValid()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Invalid input is rejected")
+    void testInvalidInput() {
+        assertThatThrownBy(() -> validator.validate((String) null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.validate((InputStream) null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.validate("<broken><unclosed>"))
+            .isInstanceOf(SchematronValidationException.class);
+        assertThatThrownBy(() -> new AddressHierarchyValidator(null)).isInstanceOf(NullPointerException.class);
+    }
+
+    private String readResourceAsString(String resourcePath) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new IOException("Resource not found: " + resourcePath);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.concurrent.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("BatchValidator Tests")
+public class BatchValidatorTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+        "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private FakeValidator delegate;
+    private BatchValidator batch;
+
+    @BeforeEach
+    public void setUp() {
+        delegate = new FakeValidator();
+        batch = new BatchValidator(delegate, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        batch.close();
+    }
+
+    @Test
+    @DisplayName("Should return results in input order")
+    public void testOrderedResults() {
+        List<String> documents = IntStream.range(0, 50).mapToObj(i -> "doc-" + i).collect(Collectors.toList());
+
+        List<BatchValidationResult<String>> results;
+        try (Stream<BatchValidationResult<String>> stream =
+                     batch.validateAll(documents.stream(), DocumentSchematron.TAX_INVOICE, BatchValidatorTest::open)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(50, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("doc-" + i, results.get(i).getDocument());
+            assertEquals(i, results.get(i).getIndex());
+            assertTrue(results.get(i).isValid());
+        }
+    }
+
+    @Test
+    @DisplayName("Should report invalid documents and failures without aborting the batch")
+    public void testInvalidAndFailedDocuments() {
+        List<BatchValidationResult<String>> results;
+        try (Stream<BatchValidationResult<String>> stream = batch.validateAll(
+                Stream.of("ok", "bad", "boom", "ok"), DocumentSchematron.RECEIPT, BatchValidatorTest::open)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertTrue(results.get(0).isValid());
+        assertTrue(results.get(1).isCompleted());
+        assertFalse(results.get(1).isValid());
+        assertEquals(1, results.get(1).getResult().getErrors().size());
+        assertFalse(results.get(2).isCompleted());
+        assertNull(results.get(2).getResult());
+        assertInstanceOf(SchematronValidationException.class, results.get(2).getFailure());
+        assertTrue(results.get(3).isValid());
+    }
+
+    @Test
+    @DisplayName("Should report unreadable files as failures")
+    public void testUnreadableFile(@TempDir Path dir) throws IOException {
+        Path present = Files.writeString(dir.resolve("present.xml"), "ok");
+        Path missing = dir.resolve("missing.xml");
+
+        List<BatchValidationResult<Path>> results;
+        try (Stream<BatchValidationResult<Path>> stream =
+                     batch.validateAll(Stream.of(present, missing), DocumentSchematron.INVOICE)) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertTrue(results.get(0).isValid());
+        assertEquals(missing, results.get(1).getDocument());
+        assertInstanceOf(UncheckedIOException.class, results.get(1).getFailure());
+    }
+
+    @Test
+    @DisplayName("Should not run more than the pool size concurrently")
+    public void testBoundedParallelism() {
+        try (Stream<BatchValidationResult<String>> stream = batch.validateAll(
+                IntStream.range(0, 40).mapToObj(i -> "slow-" + i), DocumentSchematron.TAX_INVOICE,
+                BatchValidatorTest::open)) {
+            assertEquals(40, stream.count());
+        }
+
+        assertTrue(delegate.maxConcurrent.get() <= 4, "max concurrent: " + delegate.maxConcurrent.get());
+        assertTrue(delegate.maxConcurrent.get() > 1, "validations should overlap");
+    }
+
+    @Test
+    @DisplayName("Should not read ahead of the consumer by more than maxInFlight documents")
+    public void testBackpressure() {
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<String> documents = IntStream.range(0, 100)
+                .mapToObj(i -> "doc-" + i)
+                .peek(document -> pulled.incrementAndGet());
+
+        try (Stream<BatchValidationResult<String>> stream =
+                     batch.validateAll(documents, DocumentSchematron.TAX_INVOICE, BatchValidatorTest::open)) {
+            assertEquals("doc-0", stream.findFirst().orElseThrow().getDocument());
+        }
+
+        assertEquals(8, batch.getMaxInFlight());
+        assertTrue(pulled.get() <= batch.getMaxInFlight(), "pulled: " + pulled.get());
+    }
+
+    @Test
+    @DisplayName("Should close the input stream when the result stream is closed")
+    public void testClosePropagates() {
+        AtomicInteger closed = new AtomicInteger();
+        Stream<String> documents = Stream.of("a", "b").onClose(closed::incrementAndGet);
+
+        batch.validateAll(documents, DocumentSchematron.TAX_INVOICE, BatchValidatorTest::open).close();
+
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    @DisplayName("Should deliver every result in completion order to the callback")
+    public void testCompletionOrder() {
+        List<BatchValidationResult<String>> results = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+
+        long count = batch.validateAll(
+                IntStream.range(0, 30).mapToObj(i -> (i % 3 == 0 ? "slow-" : "doc-") + i),
+                DocumentSchematron.TAX_INVOICE, BatchValidatorTest::open,
+                result -> {
+                    assertSame(caller, Thread.currentThread());
+                    results.add(result);
+                });
+
+        assertEquals(30, count);
+        assertEquals(30, results.size());
+        assertEquals(IntStream.range(0, 30).boxed().collect(Collectors.toSet()),
+                results.stream().map(r -> (int) r.getIndex()).collect(Collectors.toSet()));
+        assertTrue(delegate.maxConcurrent.get() <= 4);
+    }
+
+    @Test
+    @DisplayName("Should not shut down an executor it does not own")
+    public void testExternalExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BatchValidator external = new BatchValidator(delegate, executor, 3);
+            try (Stream<BatchValidationResult<String>> stream =
+                         external.validateAll(Stream.of("a", "b", "c", "d"), DocumentSchematron.TAX_INVOICE,
+                                 BatchValidatorTest::open)) {
+                assertEquals(4, stream.filter(BatchValidationResult::isValid).count());
+            }
+            external.close();
+
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should validate on virtual threads on Java 21+")
+    public void testVirtualThreads() {
+        assumeTrue(VirtualThreads.isSupported());
+
+        try (BatchValidator virtual = BatchValidator.withVirtualThreads(delegate, 100)) {
+            try (Stream<BatchValidationResult<String>> stream = virtual.validateAll(
+                    IntStream.range(0, 200).mapToObj(i -> "slow-" + i), DocumentSchematron.TAX_INVOICE,
+                    BatchValidatorTest::open)) {
+                assertEquals(200, stream.filter(BatchValidationResult::isValid).count());
+            }
+        }
+
+        // Sleeping documents overlap far beyond the number of carrier threads
+        assertTrue(delegate.maxConcurrent.get() > Runtime.getRuntime().availableProcessors());
+        assertTrue(delegate.maxConcurrent.get() <= 100);
+    }
+
+    @Test
+    @DisplayName("Should reject virtual threads before Java 21")
+    public void testVirtualThreadsUnsupported() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        assertThrows(UnsupportedOperationException.class, () -> BatchValidator.withVirtualThreads(delegate, 100));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid limits")
+    public void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchValidator(delegate, 0));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(IllegalArgumentException.class, () -> new BatchValidator(delegate, executor, 0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should validate example documents with a shared Schematron validator")
+    public void testRealValidator() throws IOException {
+        byte[] xml;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            assertNotNull(in, "Resource not found: " + TAX_INVOICE_EXAMPLE);
+            xml = in.readAllBytes();
+        }
+        SchematronXsltValidator validator = new SchematronXsltValidator();
+        validator.warmUp();
+
+        try (BatchValidator real = new BatchValidator(validator, 4);
+             Stream<BatchValidationResult<byte[]>> stream = real.validateAll(
+                     Stream.generate(() -> xml).limit(12), DocumentSchematron.TAX_INVOICE, ByteArrayInputStream::new)) {
+            assertEquals(12, stream.filter(BatchValidationResult::isValid).count());
+        }
+    }
+
+    private static InputStream open(String document) {
+        return new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Validator whose result depends on the document content: "bad" is invalid, "boom"
+     * throws, "slow" sleeps, anything else is valid.
+     */
+    private static class FakeValidator implements SchematronValidator {
+
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        @Override
+        public SchematronValidationResult validate(String xmlContent, DocumentSchematron docType) {
+            int running = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(running, Math::max);
+            try {
+                if (xmlContent.startsWith("slow")) {
+                    Thread.sleep(20);
+                }
+                if (xmlContent.equals("boom")) {
+                    throw new SchematronValidationException("Failed to parse XML", docType);
+                }
+                if (xmlContent.equals("bad")) {
+                    return SchematronValidationResult.invalid(List.of(
+                            new SchematronError("R-01", "bad", "/", SchematronError.ErrorLevel.ERROR, "false()")));
+                }
+                return SchematronValidationResult.success();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        @Override
+        public SchematronValidationResult validate(InputStream xmlInputStream, DocumentSchematron docType) {
+            try {
+                return validate(new String(xmlInputStream.readAllBytes(), StandardCharsets.UTF_8), docType);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean isSchematronValid(DocumentSchematron docType) {
+            return true;
+        }
+    }
+}
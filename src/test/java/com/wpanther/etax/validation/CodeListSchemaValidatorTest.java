@@ -0,0 +1,157 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.codelist.CodeListRegistry;
+import com.wpanther.etax.core.entity.TISICityName;
+import com.wpanther.etax.core.entity.TISISubdistrict;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for XSD validation with the TISI code lists checked against the registry.
+ */
+@DisplayName("CodeListSchemaValidator Tests")
+class CodeListSchemaValidatorTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+        "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+    private static final String INVOICE_EXAMPLE =
+        "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_Invoice_2p1_v1.xml";
+
+    /** Codes used by the TaxInvoice example */
+    private static final Set<String> CITY_NAMES = Set.of("1017", "1004");
+    private static final Set<String> SUBDISTRICTS = Set.of("101701", "100402");
+
+    private CodeListRegistry registry;
+    private CodeListSchemaValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(CodeListRegistry.class);
+        when(registry.resolveAll(eq(TISICityName.class), anyCollection()))
+            .thenAnswer(invocation -> resolve(invocation.getArgument(1), CITY_NAMES, new TISICityName()));
+        when(registry.resolveAll(eq(TISISubdistrict.class), anyCollection()))
+            .thenAnswer(invocation -> resolve(invocation.getArgument(1), SUBDISTRICTS, new TISISubdistrict()));
+        validator = new CodeListSchemaValidator(registry);
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("All XSDs compile with the relaxed code lists")
+    void testAllSchemasCompile(DocumentSchematron docType) {
+        assertThat(validator.getSchema(docType)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Accepts the example with codes known to the registry, in one query per code list")
+    void testValidDocument() throws IOException {
+        SchemaValidationResult result = validator.validate(readResourceAsString(TAX_INVOICE_EXAMPLE), DocumentSchematron.TAX_INVOICE);
+
+        assertThat(result.isValid()).isTrue();
+        verify(registry).resolveAll(TISICityName.class, Set.of("1017", "1004"));
+        verify(registry).resolveAll(TISISubdistrict.class, Set.of("101701", "100402"));
+    }
+
+    @Test
+    @DisplayName("Reports codes missing from the registry with their position")
+    void testUnknownCodes() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replaceFirst("<ram:CitySubDivisionName>101701</ram:CitySubDivisionName>",
+                "<ram:CitySubDivisionName>109999</ram:CitySubDivisionName>")
+            .replaceFirst("<ram:CityName>1004</ram:CityName>", "<ram:CityName> 9999 </ram:CityName>");
+
+        SchemaValidationResult result = validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getErrors()).hasSize(2);
+        SchemaError subdistrict = result.getErrors().get(0);
+        assertThat(subdistrict.getMessage()).contains("'109999'").contains("tisi_subdistrict");
+        assertThat(subdistrict.getLineNumber()).isPositive();
+        assertThat(subdistrict.getLocation()).startsWith("/TaxInvoice_CrossIndustryInvoice/")
+            .endsWith("/SellerTradeParty/PostalTradeAddress/CitySubDivisionName");
+        SchemaError city = result.getErrors().get(1);
+        assertThat(city.getMessage()).contains("'9999'").contains("tisi_city_name");
+        assertThat(city.getLocation()).endsWith("/BuyerTradeParty/PostalTradeAddress/CityName");
+    }
+
+    @Test
+    @DisplayName("Relaxed code lists still check the shape of the codes")
+    void testMalformedCode() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE).replaceFirst("101701", "10170X");
+
+        SchemaValidationResult result = validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+
+        assertThat(result.getErrors()).anySatisfy(error -> assertThat(error.getMessage()).contains("cvc-pattern-valid"));
+    }
+
+    @Test
+    @DisplayName("Does not check CityName elements that are free text")
+    void testFreeTextCityNames() throws IOException {
+        SchemaValidationResult result = validator.validate(readResourceAsString(INVOICE_EXAMPLE), DocumentSchematron.INVOICE);
+
+        assertThat(result.isValid()).isTrue();
+        verifyNoInteractions(registry);
+    }
+
+    @Test
+    @DisplayName("Checks codes of a parsed DOM")
+    void testDocument() throws Exception {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE).replaceFirst("101701", "109999");
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        SchemaValidationResult result = validator.validate(document, DocumentSchematron.TAX_INVOICE);
+
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getLineNumber()).isEqualTo(-1);
+        assertThat(result.getErrors().get(0).getLocation()).endsWith("/CitySubDivisionName");
+    }
+
+    @Test
+    @DisplayName("Agrees with the full XSD on the example")
+    void testEquivalentToFullSchema() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE);
+        String unknown = xml.replaceFirst("101701", "109999");
+        SchemaValidator full = new SchemaValidator();
+
+        assertThat(validator.validate(xml, DocumentSchematron.TAX_INVOICE).isValid())
+            .isEqualTo(full.validate(xml, DocumentSchematron.TAX_INVOICE).isValid());
+        assertThat(validator.validate(unknown, DocumentSchematron.TAX_INVOICE).isValid())
+            .isEqualTo(full.validate(unknown, DocumentSchematron.TAX_INVOICE).isValid());
+    }
+
+    private static <E> Map<String, E> resolve(Collection<String> codes, Set<String> known, E entity) {
+        Map<String, E> resolved = new LinkedHashMap<>();
+        for (String code : codes) {
+            if (known.contains(code)) {
+                resolved.put(code, entity);
+            }
+        }
+        return resolved;
+    }
+
+    private String readResourceAsString(String resourcePath) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
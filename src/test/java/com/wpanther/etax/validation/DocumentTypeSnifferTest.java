@@ -0,0 +1,143 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DocumentTypeSniffer Tests")
+public class DocumentTypeSnifferTest {
+
+    private static final String EXAMPLE_DIR = "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/";
+
+    private DocumentTypeSniffer sniffer;
+
+    @BeforeEach
+    public void setUp() {
+        sniffer = new DocumentTypeSniffer();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "Example_TaxInvoice_2p1_v1.xml, TAX_INVOICE",
+        "Example_Receipt_2p1_v1.xml, RECEIPT",
+        "Example_DebitNote_2p1_v1.xml, DEBIT_CREDIT_NOTE",
+        "Example_CreditNote_2p1_v1.xml, DEBIT_CREDIT_NOTE",
+        "Example_Invoice_2p1_v1.xml, INVOICE",
+        "Example_AbbreviatedTaxInvocie_2p1_v1.xml, ABBREVIATED_TAX_INVOICE"
+    })
+    @DisplayName("Should detect the document type and version of the example files")
+    public void testExampleFiles(String fileName, DocumentSchematron expected) throws IOException {
+        byte[] xml = readResource(EXAMPLE_DIR + fileName);
+
+        SniffedDocument document = sniffer.sniff(new ByteArrayInputStream(xml));
+
+        assertSame(expected, document.getDocumentType());
+        assertEquals("v2.1", document.getVersion());
+        assertEquals("urn:etda:uncefact:data:standard:" + expected.getDocumentName() + "_CrossIndustryInvoice:2",
+                document.getRootNamespace());
+        assertEquals(expected.getSchematronPath(), document.getSchematronResource());
+        assertArrayEquals(xml, document.getInputStream().readAllBytes());
+    }
+
+    @Test
+    @DisplayName("Should read only the start of a stream")
+    public void testReadsOnlyHeader() throws IOException {
+        byte[] header = readResource(EXAMPLE_DIR + "Example_TaxInvoice_2p1_v1.xml");
+        // Fails if sniffing reads beyond the end of the version element
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("read past header");
+            }
+        };
+        int headerLength = new String(header, StandardCharsets.UTF_8).indexOf("</ram:GuidelineSpecifiedDocumentContextParameter>");
+        assertTrue(headerLength > 0);
+        InputStream in = new SequenceInputStream(new ByteArrayInputStream(header, 0, headerLength), failing);
+
+        SniffedDocument document = sniffer.sniff(in);
+
+        assertSame(DocumentSchematron.TAX_INVOICE, document.getDocumentType());
+        assertEquals("v2.1", document.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should return a new stream on each call for byte content")
+    public void testByteArrayReplay() throws IOException {
+        byte[] xml = readResource(EXAMPLE_DIR + "Example_Invoice_2p1_v1.xml");
+
+        SniffedDocument document = sniffer.sniff(xml);
+
+        assertArrayEquals(xml, document.getInputStream().readAllBytes());
+        assertArrayEquals(xml, document.getInputStream().readAllBytes());
+    }
+
+    @Test
+    @DisplayName("Should detect a document without a version")
+    public void testMissingVersion() {
+        SniffedDocument document = sniffer.sniff(
+                "<rsm:Receipt_CrossIndustryInvoice xmlns:rsm=\"urn:test\"><rsm:ExchangedDocument/></rsm:Receipt_CrossIndustryInvoice>");
+
+        assertSame(DocumentSchematron.RECEIPT, document.getDocumentType());
+        assertNull(document.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should skip siblings that are not on the version path")
+    public void testSkipsSiblings() {
+        SniffedDocument document = sniffer.sniff(
+                "<Invoice_CrossIndustryInvoice><ExchangedDocumentContext>"
+                + "<Other><ID schemeVersionID=\"wrong\"/></Other>"
+                + "<GuidelineSpecifiedDocumentContextParameter><ID schemeVersionID=\"v9\"/>"
+                + "</GuidelineSpecifiedDocumentContextParameter></ExchangedDocumentContext></Invoice_CrossIndustryInvoice>");
+
+        assertEquals("v9", document.getVersion());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown root elements")
+    public void testUnknownRoot() {
+        SchematronValidationException e = assertThrows(SchematronValidationException.class,
+                () -> sniffer.sniff("<CrossIndustryInvoice/>"));
+        assertTrue(e.getMessage().contains("CrossIndustryInvoice"));
+    }
+
+    @Test
+    @DisplayName("Should reject content that is not XML")
+    public void testNotXml() {
+        assertThrows(SchematronValidationException.class, () -> sniffer.sniff("not xml"));
+    }
+
+    @Test
+    @DisplayName("Should reject documents with a DTD")
+    public void testDtdRejected() {
+        String xml = "<!DOCTYPE TaxInvoice_CrossIndustryInvoice [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>"
+                + "<TaxInvoice_CrossIndustryInvoice>&x;</TaxInvoice_CrossIndustryInvoice>";
+
+        assertThrows(SchematronValidationException.class, () -> sniffer.sniff(xml));
+    }
+
+    @Test
+    @DisplayName("Should skip the prolog and comments before the root element")
+    public void testProlog() {
+        SniffedDocument document = sniffer.sniff("<?xml version=\"1.0\"?>\n<!-- comment -->\n<Invoice_CrossIndustryInvoice/>");
+
+        assertSame(DocumentSchematron.INVOICE, document.getDocumentType());
+    }
+
+    private byte[] readResource(String path) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(path)) {
+            assertNotNull(in, "Resource not found: " + path);
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for incremental re-validation of edited documents.
+ */
+@DisplayName("IncrementalSchematronValidator Tests")
+class IncrementalSchematronValidatorTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+        "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+    private static final String AGREEMENT = "/rsm:TaxInvoice_CrossIndustryInvoice"
+        + "/rsm:SupplyChainTradeTransaction/ram:ApplicableHeaderTradeAgreement";
+    private static final String SELLER_POSTCODE = AGREEMENT + "/ram:SellerTradeParty/ram:PostalTradeAddress/ram:PostcodeCode";
+
+    private IncrementalSchematronValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new IncrementalSchematronValidator();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("Full validation matches the XSLT engine for every document type")
+    void testResultsMatchXsltEngine(DocumentSchematron docType) throws IOException {
+        String xml = brokenTaxInvoice();
+
+        SchematronValidationResult xslt = new SchematronXsltValidator().validate(xml, docType);
+        SchematronValidationResult full = validator.validate(xml, docType);
+
+        assertThat(full.isValid()).isEqualTo(xslt.isValid());
+        assertThat(signature(full.getWarnings())).isEqualTo(signature(xslt.getWarnings()));
+    }
+
+    @Test
+    @DisplayName("Fixing a field re-evaluates its rule and keeps the other issues")
+    void testFixField() throws IOException {
+        String broken = brokenTaxInvoice();
+        String fixed = broken.replaceFirst("<ram:PostcodeCode>9", "<ram:PostcodeCode>");
+        SchematronValidationResult previous = validator.validate(broken, DocumentSchematron.TAX_INVOICE);
+
+        SchematronValidationResult result = validator.revalidate(fixed, DocumentSchematron.TAX_INVOICE,
+            previous, List.of(SELLER_POSTCODE));
+
+        assertThat(ruleIds(previous))
+            .containsExactly("TIV-DocumentContext-001", "TIV-SellerTradeParty-007", "TIV-BuyerTradeParty-008");
+        assertThat(ruleIds(result)).containsExactly("TIV-DocumentContext-001", "TIV-BuyerTradeParty-008");
+        assertThat(result).isEqualTo(validator.validate(fixed, DocumentSchematron.TAX_INVOICE));
+    }
+
+    @Test
+    @DisplayName("Breaking a field adds its issue in validation order")
+    void testBreakField() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE);
+        String edited = xml.replace("<ram:TypeCode>388</ram:TypeCode>", "<ram:TypeCode>999</ram:TypeCode>")
+            .replace("schemeVersionID=\"v2.1\"", "schemeVersionID=\"v1.0\"");
+        SchematronValidationResult previous = validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+
+        SchematronValidationResult result = validator.revalidate(edited, DocumentSchematron.TAX_INVOICE, previous,
+            List.of("/rsm:TaxInvoice_CrossIndustryInvoice[1]/rsm:ExchangedDocument[1]/ram:TypeCode[1]",
+                "/rsm:TaxInvoice_CrossIndustryInvoice/rsm:ExchangedDocumentContext"
+                    + "/ram:GuidelineSpecifiedDocumentContextParameter/ram:ID/@schemeVersionID"));
+
+        assertThat(result.getWarnings()).hasSize(previous.getWarnings().size() + 2);
+        assertThat(result).isEqualTo(validator.validate(edited, DocumentSchematron.TAX_INVOICE));
+    }
+
+    @Test
+    @DisplayName("Results of other validators can be re-validated")
+    void testPreviousFromXsltEngine() throws IOException {
+        String broken = brokenTaxInvoice();
+        String fixed = broken.replaceFirst("<ram:PostcodeCode>9", "<ram:PostcodeCode>");
+        SchematronValidationResult previous = new SchematronXsltValidator().validate(broken, DocumentSchematron.TAX_INVOICE);
+
+        SchematronValidationResult result = validator.revalidate(fixed, DocumentSchematron.TAX_INVOICE,
+            previous, List.of(SELLER_POSTCODE));
+
+        assertThat(signature(result.getWarnings()))
+            .isEqualTo(signature(new SchematronXsltValidator().validate(fixed, DocumentSchematron.TAX_INVOICE).getWarnings()));
+    }
+
+    @Test
+    @DisplayName("Only the rules reading a changed path are re-evaluated")
+    void testAffectedChecks() {
+        assertThat(validator.getAffectedChecks(DocumentSchematron.TAX_INVOICE, List.of(SELLER_POSTCODE)))
+            .contains("TIV-SellerTradeParty-007", "report-1")
+            .doesNotContain("TIV-DocumentContext-001", "TIV-BuyerTradeParty-008");
+        assertThat(validator.getAffectedChecks(DocumentSchematron.TAX_INVOICE, List.of("/")))
+            .contains("TIV-DocumentContext-001", "TIV-SellerTradeParty-007", "TIV-BuyerTradeParty-008");
+        assertThat(validator.getAffectedChecks(DocumentSchematron.TAX_INVOICE, List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("No changed paths returns the previous result")
+    void testNoChanges() throws IOException {
+        String xml = brokenTaxInvoice();
+        SchematronValidationResult previous = validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+
+        assertThat(validator.revalidate(xml, DocumentSchematron.TAX_INVOICE, previous, List.of())).isSameAs(previous);
+    }
+
+    @Test
+    @DisplayName("A truncated previous result triggers a full validation")
+    void testTruncatedPrevious() throws IOException {
+        String broken = brokenTaxInvoice();
+        SchematronValidationResult previous = SchematronValidationResult.truncated(List.of(), List.of());
+
+        SchematronValidationResult result = validator.revalidate(broken, DocumentSchematron.TAX_INVOICE,
+            previous, List.of(SELLER_POSTCODE));
+
+        assertThat(result).isEqualTo(validator.validate(broken, DocumentSchematron.TAX_INVOICE));
+    }
+
+    @Test
+    @DisplayName("Previous issues that match no rule are kept")
+    void testUnknownIssuesKept() throws IOException {
+        SchematronError custom = new SchematronError("CUSTOM-001", "custom", "/", SchematronError.ErrorLevel.WARNING, "custom()");
+        SchematronValidationResult previous = SchematronValidationResult.validWithWarnings(List.of(custom));
+
+        SchematronValidationResult result = validator.revalidate(brokenTaxInvoice(), DocumentSchematron.TAX_INVOICE,
+            previous, List.of(SELLER_POSTCODE));
+
+        assertThat(result.getWarnings()).contains(custom);
+    }
+
+    @Test
+    @DisplayName("Invalid arguments are rejected")
+    void testInvalidArguments() throws IOException {
+        String xml = brokenTaxInvoice();
+        SchematronValidationResult previous = SchematronValidationResult.success();
+
+        assertThatThrownBy(() -> validator.revalidate(xml, DocumentSchematron.TAX_INVOICE, previous, List.of("ram:ID")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.revalidate(xml, DocumentSchematron.TAX_INVOICE, null, List.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.revalidate(xml, DocumentSchematron.TAX_INVOICE, previous, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.revalidate("", DocumentSchematron.TAX_INVOICE, previous, List.of()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Malformed XML throws SchematronValidationException")
+    void testMalformedXml() {
+        assertThatThrownBy(() -> validator.revalidate("<broken><unclosed>", DocumentSchematron.TAX_INVOICE,
+            SchematronValidationResult.success(), List.of(SELLER_POSTCODE)))
+            .isInstanceOf(SchematronValidationException.class);
+    }
+
+    /**
+     * The TaxInvoice example with a wrong version and postcodes, so that it fires
+     * TIV-DocumentContext-001, TIV-SellerTradeParty-007 and TIV-BuyerTradeParty-008.
+     */
+    private String brokenTaxInvoice() throws IOException {
+        return readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replace("schemeVersionID=\"v2.1\"", "schemeVersionID=\"v1.0\"")
+            .replace("<ram:PostcodeCode>", "<ram:PostcodeCode>9");
+    }
+
+    private static List<String> ruleIds(SchematronValidationResult result) {
+        return result.getWarnings().stream()
+            .map(SchematronValidationOptions::ruleId)
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> signature(List<SchematronError> issues) {
+        return issues.stream()
+            .map(e -> e.getLevel() + "|" + e.getTestExpression() + "|" + e.getLocation())
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    private String readResourceAsString(String resourcePath) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new IOException("Resource not found: " + resourcePath);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
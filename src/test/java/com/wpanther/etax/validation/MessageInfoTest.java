@@ -0,0 +1,82 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MessageInfo Tests")
+public class MessageInfoTest {
+
+    @Test
+    @DisplayName("Should read the bundled MessageInfo.json")
+    public void testDefault() {
+        MessageInfo info = MessageInfo.getDefault();
+
+        assertEquals("E-Tax Invoice and E-Receipt", info.getStandardName());
+        assertEquals("2.1", info.getVersion());
+        assertSame(info, MessageInfo.getDefault());
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("Should map every document type to its message")
+    public void testMessagePerDocumentType(DocumentSchematron docType) {
+        MessageInfo.Message message = MessageInfo.getDefault().getMessage(docType);
+
+        assertEquals(docType.getDocumentName() + "_CrossIndustryInvoice", message.getRootTagName());
+        assertSame(docType, message.getDocumentType());
+        assertEquals(docType.getSchematronPath(), message.getSchematronResource());
+        assertNotNull(getClass().getClassLoader().getResource(message.getSchemaResource()),
+                "XSD not found: " + message.getSchemaResource());
+    }
+
+    @Test
+    @DisplayName("Should split the version path into elements and attribute")
+    public void testVersionPath() {
+        MessageInfo.Message message = MessageInfo.getDefault().getMessage(DocumentSchematron.TAX_INVOICE);
+
+        assertEquals(java.util.List.of("TaxInvoice_CrossIndustryInvoice", "ExchangedDocumentContext",
+                "GuidelineSpecifiedDocumentContextParameter", "ID"), message.getVersionElementPath());
+        assertEquals("schemeVersionID", message.getVersionAttribute());
+    }
+
+    @Test
+    @DisplayName("Should find messages by root tag name")
+    public void testFindByRootTagName() {
+        MessageInfo info = MessageInfo.getDefault();
+
+        assertEquals(DocumentSchematron.RECEIPT,
+                info.findByRootTagName("Receipt_CrossIndustryInvoice").orElseThrow().getDocumentType());
+        assertTrue(info.findByRootTagName("CrossIndustryInvoice").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep messages without a document type")
+    public void testUnknownMessage() throws Exception {
+        String json = "{ \"version\": \"9\", \"messages\": [ { \"rootTagName\": \"Other_Message\", "
+                + "\"schemaFilePath\": \"/x/Other.xsd\" } ] }";
+
+        MessageInfo info = MessageInfo.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        MessageInfo.Message message = info.findByRootTagName("Other_Message").orElseThrow();
+        assertNull(message.getDocumentType());
+        assertNull(message.getVersionAttribute());
+        assertEquals(MessageInfo.RESOURCE_ROOT + "/x/Other.xsd", message.getSchemaResource());
+        assertThrows(IllegalArgumentException.class, () -> info.getMessage(DocumentSchematron.TAX_INVOICE));
+    }
+
+    @Test
+    @DisplayName("Should reject content without messages")
+    public void testNoMessages() {
+        assertThrows(IllegalStateException.class,
+                () -> MessageInfo.parse(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IllegalStateException.class, () -> MessageInfo.parse(
+                new ByteArrayInputStream("{\"messages\": []}".getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,104 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.MicrometerEtaxMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MeteredSchematronValidator Tests")
+public class MeteredSchematronValidatorTest {
+
+    @Mock
+    private SchematronValidator delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredSchematronValidator validator;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validator = new MeteredSchematronValidator(delegate, new MicrometerEtaxMetrics(meterRegistry));
+    }
+
+    @Test
+    @DisplayName("Should record an invalid result with its error and warning counts")
+    public void testValidateString() {
+        SchematronValidationResult result = SchematronValidationResult.invalid(
+                List.of(new SchematronError("TIV-01", "error", "/a", SchematronError.ErrorLevel.ERROR, "true()"),
+                        new SchematronError("TIV-02", "error", "/b", SchematronError.ErrorLevel.ERROR, "true()")),
+                List.of(new SchematronError("TIV-03", "warning", "/c", SchematronError.ErrorLevel.WARNING, "true()")));
+        when(delegate.validate("<xml/>", DocumentSchematron.TAX_INVOICE)).thenReturn(result);
+
+        assertSame(result, validator.validate("<xml/>", DocumentSchematron.TAX_INVOICE));
+
+        assertEquals(1, meterRegistry.get(EtaxMetrics.VALIDATION_TIMER)
+                .tags("document", "TAX_INVOICE", "outcome", "invalid").timer().count());
+        assertEquals(2, meterRegistry.get(EtaxMetrics.VALIDATION_ERRORS).tag("document", "TAX_INVOICE").counter().count());
+        assertEquals(1, meterRegistry.get(EtaxMetrics.VALIDATION_WARNINGS).tag("document", "TAX_INVOICE").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should record a valid stream result")
+    public void testValidateStream() {
+        InputStream input = new ByteArrayInputStream(new byte[0]);
+        when(delegate.validate(input, DocumentSchematron.RECEIPT)).thenReturn(SchematronValidationResult.success());
+
+        assertTrue(validator.validate(input, DocumentSchematron.RECEIPT).isValid());
+
+        assertEquals(1, meterRegistry.get(EtaxMetrics.VALIDATION_TIMER)
+                .tags("document", "RECEIPT", "outcome", "valid").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should pass validation options to the delegate")
+    public void testValidateWithOptions() {
+        SchematronValidationOptions options = SchematronValidationOptions.failFast();
+        SchematronValidationResult result = SchematronValidationResult.truncated(List.of(),
+                List.of(new SchematronError("TIV-01", "warning", "/a", SchematronError.ErrorLevel.WARNING, "true()")));
+        when(delegate.validate("<xml/>", DocumentSchematron.TAX_INVOICE, options)).thenReturn(result);
+
+        assertSame(result, validator.validate("<xml/>", DocumentSchematron.TAX_INVOICE, options));
+
+        verify(delegate, never()).validate("<xml/>", DocumentSchematron.TAX_INVOICE);
+        assertEquals(1, meterRegistry.get(EtaxMetrics.VALIDATION_WARNINGS).tag("document", "TAX_INVOICE").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should record validations that throw as failed")
+    public void testValidateFailure() {
+        SchematronValidationException failure =
+                new SchematronValidationException("boom", DocumentSchematron.INVOICE, new RuntimeException());
+        when(delegate.validate("<xml/>", DocumentSchematron.INVOICE)).thenThrow(failure);
+        InputStream input = new ByteArrayInputStream(new byte[0]);
+        when(delegate.validate(input, DocumentSchematron.INVOICE)).thenThrow(failure);
+
+        assertSame(failure, assertThrows(SchematronValidationException.class,
+                () -> validator.validate("<xml/>", DocumentSchematron.INVOICE)));
+        assertThrows(SchematronValidationException.class, () -> validator.validate(input, DocumentSchematron.INVOICE));
+
+        assertEquals(2, meterRegistry.get(EtaxMetrics.VALIDATION_TIMER)
+                .tags("document", "INVOICE", "outcome", "failed").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should delegate Schematron checks")
+    public void testIsSchematronValid() {
+        when(delegate.isSchematronValid(DocumentSchematron.RECEIPT)).thenReturn(true);
+
+        assertTrue(validator.isSchematronValid(DocumentSchematron.RECEIPT));
+        assertSame(delegate, validator.getDelegate());
+    }
+}
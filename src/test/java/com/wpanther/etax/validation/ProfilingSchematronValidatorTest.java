@@ -0,0 +1,152 @@
+package com.wpanther.etax.validation;
+
+import com.wpanther.etax.core.metrics.EtaxMetrics;
+import com.wpanther.etax.core.metrics.MicrometerEtaxMetrics;
+import com.wpanther.etax.validation.SchematronProfile.RuleProfile;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for rule-level profiling of Schematron validation.
+ */
+@DisplayName("ProfilingSchematronValidator Tests")
+class ProfilingSchematronValidatorTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+        "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private ProfilingSchematronValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new ProfilingSchematronValidator();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("All Schematron files compile to XPath expressions")
+    void testAllSchematronsCompile(DocumentSchematron docType) {
+        assertThat(validator.isSchematronValid(docType)).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("Reports match the XSLT engine when validating a TaxInvoice against every document type")
+    void testResultsMatchXsltEngine(DocumentSchematron docType) throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replace("schemeVersionID=\"v2.1\"", "schemeVersionID=\"v1.0\"");
+
+        SchematronValidationResult xslt = new SchematronXsltValidator().validate(xml, docType);
+        SchematronValidationResult profiled = validator.validate(xml, docType);
+
+        assertThat(profiled.isValid()).isEqualTo(xslt.isValid());
+        assertThat(signature(profiled.getErrors())).isEqualTo(signature(xslt.getErrors()));
+        assertThat(signature(profiled.getWarnings())).isEqualTo(signature(xslt.getWarnings()));
+    }
+
+    @Test
+    @DisplayName("Reports carry the same location as the XSLT engine")
+    void testLocation() {
+        SchematronValidationResult result = validator.validate("<root/>", DocumentSchematron.TAX_INVOICE);
+
+        assertThat(result.getWarnings()).hasSize(1);
+        assertThat(result.getWarnings().get(0).getLocation()).isEqualTo("/");
+        assertThat(result.getWarnings().get(0).getTestExpression()).isEqualTo("not(rsm:TaxInvoice_CrossIndustryInvoice)");
+    }
+
+    @Test
+    @DisplayName("Profile counts every context and test evaluation, ranked by time")
+    void testProfile() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE);
+        validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+        validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+
+        SchematronProfile profile = validator.getProfile(DocumentSchematron.TAX_INVOICE);
+
+        assertThat(profile.getDocuments()).isEqualTo(2);
+        // 16 active rules with 70 reports
+        assertThat(profile.getEntries()).hasSize(16 + 70);
+        assertThat(profile.getEntries()).extracting(RuleProfile::getTotalNanos)
+            .isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(profile.getEntries()).filteredOn(e -> e.getKind() == RuleProfile.Kind.CONTEXT)
+            .allSatisfy(e -> assertThat(e.getEvaluations()).isEqualTo(2));
+        assertThat(profile.getEntries()).filteredOn(e -> e.getLabel().equals("TIV-DocumentContext-001"))
+            .singleElement()
+            .satisfies(e -> {
+                assertThat(e.getKind()).isEqualTo(RuleProfile.Kind.REPORT);
+                assertThat(e.getEvaluations()).isPositive();
+                assertThat(e.getFired()).isZero();
+            });
+        assertThat(profile.getTotalNanos()).isPositive();
+        assertThat(profile.top(5)).hasSize(5);
+        assertThat(profile.format(5)).contains("TAX_INVOICE").contains("2 document(s)").hasLineCount(7);
+    }
+
+    @Test
+    @DisplayName("Reset clears the timings but keeps the compiled rules")
+    void testReset() {
+        validator.validate("<root/>", DocumentSchematron.TAX_INVOICE);
+        validator.validate("<root/>", DocumentSchematron.RECEIPT);
+        assertThat(validator.getProfiles()).containsOnlyKeys(DocumentSchematron.TAX_INVOICE, DocumentSchematron.RECEIPT);
+
+        validator.reset();
+
+        assertThat(validator.getProfiles()).isEmpty();
+        SchematronProfile profile = validator.getProfile(DocumentSchematron.TAX_INVOICE);
+        assertThat(profile.getDocuments()).isZero();
+        assertThat(profile.getTotalNanos()).isZero();
+        assertThat(profile.getEntries()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Rule timings are recorded as metrics")
+    void testMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        validator = new ProfilingSchematronValidator(new MicrometerEtaxMetrics(meterRegistry));
+
+        validator.validate("<root/>", DocumentSchematron.TAX_INVOICE);
+
+        Timer context = meterRegistry.find(EtaxMetrics.RULE_TIMER)
+            .tag("document", "TAX_INVOICE").tag("rule", "rule-1").tag("kind", "context").timer();
+        assertThat(context).isNotNull();
+        assertThat(context.count()).isEqualTo(1);
+        assertThat(meterRegistry.find(EtaxMetrics.RULE_TIMER).tag("kind", "report").timers()).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Malformed XML throws SchematronValidationException")
+    void testMalformedXml() {
+        assertThatThrownBy(() -> validator.validate("<broken><unclosed>", DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(SchematronValidationException.class);
+    }
+
+    private static List<String> signature(List<SchematronError> issues) {
+        return issues.stream()
+            .map(e -> e.getLevel() + "|" + e.getTestExpression() + "|" + e.getLocation())
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    private String readResourceAsString(String resourcePath) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new IOException("Resource not found: " + resourcePath);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the static analysis of the document paths a Schematron rule depends on.
+ */
+@DisplayName("RuleDependencies Tests")
+class RuleDependenciesTest {
+
+    private static final String ROOT = "/rsm:TaxInvoice_CrossIndustryInvoice";
+    private static final String SELLER = ROOT
+        + "/rsm:SupplyChainTradeTransaction/ram:ApplicableHeaderTradeAgreement/ram:SellerTradeParty";
+
+    @Test
+    @DisplayName("Changed paths are split into local names")
+    void testSteps() {
+        assertThat(RuleDependencies.steps("/rsm:TaxInvoice_CrossIndustryInvoice[1]/rsm:ExchangedDocument[1]/ram:ID/text()"))
+            .containsExactly("TaxInvoice_CrossIndustryInvoice", "ExchangedDocument", "ID");
+        assertThat(RuleDependencies.steps(ROOT + "/ram:ID[@schemeID='TXID']/@schemeVersionID"))
+            .containsExactly("TaxInvoice_CrossIndustryInvoice", "ID", "@schemeVersionID");
+        assertThat(RuleDependencies.steps("/")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Relative and descendant paths are rejected")
+    void testInvalidSteps() {
+        assertThatThrownBy(() -> RuleDependencies.steps("ram:ID")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RuleDependencies.steps("//ram:ID")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RuleDependencies.steps(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Tests depend on the nodes they read, their ancestors and their descendants")
+    void testReads() {
+        RuleDependencies rule = rule(SELLER.substring(1) + "/ram:PostalTradeAddress",
+            "(not(ram:PostcodeCode) or (ram:PostcodeCode = '') or (string-length(ram:PostcodeCode) != 5))");
+
+        assertThat(rule.isUnresolved()).isFalse();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:PostalTradeAddress/ram:PostcodeCode"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "[1]/ram:PostalTradeAddress[1]"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER))).isTrue();
+        assertThat(rule.isAffectedBy(steps("/"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:PostalTradeAddress/ram:CityName"))).isFalse();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:Name"))).isFalse();
+        assertThat(rule.isAffectedBy(steps(ROOT + "/rsm:ExchangedDocument/ram:ID"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Attributes, predicates and text() are resolved against the context")
+    void testAttributesAndPredicates() {
+        RuleDependencies rule = rule(SELLER.substring(1),
+            "(ram:ID/@schemeID = 'NIDN') and substring(ram:SpecifiedTaxRegistration/ram:ID/text(),1,13) = '0'",
+            "not(ram:AdditionalReferencedDocument[ram:ReferenceTypeCode = '388'])");
+
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:ID/@schemeID"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:ID/@schemeAgencyID"))).isFalse();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:SpecifiedTaxRegistration/ram:ID"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:AdditionalReferencedDocument/ram:ReferenceTypeCode"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:AdditionalReferencedDocument/ram:IssuerAssignedID"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:Name"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Contexts depend only on the nodes above them")
+    void testContext() {
+        RuleDependencies rule = rule(SELLER.substring(1), "not(ram:Name)");
+
+        // the context node may be added or removed
+        assertThat(rule.isAffectedBy(steps(ROOT + "/rsm:SupplyChainTradeTransaction"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER))).isTrue();
+        // a change below it that no test reads
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:PostalTradeAddress"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Relative contexts are anchored at their first step")
+    void testRelativeContext() {
+        RuleDependencies rule = rule("rsm:SupplyChainTradeTransaction/ram:ApplicableHeaderTradeAgreement",
+            "not(ram:SellerTradeParty)");
+
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:Name"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(ROOT))).isTrue();
+        assertThat(rule.isAffectedBy(steps(ROOT + "/rsm:ExchangedDocument/ram:ID"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("The root context depends on the root element")
+    void testRootContext() {
+        RuleDependencies rule = rule("/", "not(rsm:TaxInvoice_CrossIndustryInvoice)");
+
+        assertThat(rule.isAffectedBy(steps(ROOT))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:Name"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Descendant paths match at any depth")
+    void testDescendants() {
+        RuleDependencies rule = rule("rsm:TaxInvoice_CrossIndustryInvoice", "count(.//ram:PostcodeCode) > 3");
+
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:PostalTradeAddress/ram:PostcodeCode"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:PostalTradeAddress"))).isTrue();
+        // a PostcodeCode may be added below any changed element of the document
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:Name"))).isTrue();
+        assertThat(rule.isAffectedBy(steps("/rsm:Receipt_CrossIndustryInvoice/ram:Name"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Expressions that cannot be resolved depend on the whole document")
+    void testUnresolved() {
+        assertThat(rule("ram:SellerTradeParty", "ancestor::rsm:ExchangedDocument").isUnresolved()).isTrue();
+        assertThat(rule("ram:SellerTradeParty", "$limit > 3").isUnresolved()).isTrue();
+        assertThat(rule("ram:SellerTradeParty", "(ram:A | ram:B)/ram:ID").isUnresolved()).isTrue();
+        assertThat(rule("ram:SellerTradeParty", "ancestor::ram:X").isAffectedBy(steps(ROOT + "/ram:Y"))).isTrue();
+        assertThat(rule("ram:SellerTradeParty", "../ram:BuyerTradeParty").isUnresolved()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Parent steps and operators are followed")
+    void testParentAndOperators() {
+        RuleDependencies rule = rule(SELLER.substring(1), "../ram:BuyerTradeParty/ram:Name != '' and ram:URIID div 2");
+
+        assertThat(rule.isAffectedBy(steps(ROOT + "/rsm:SupplyChainTradeTransaction/ram:ApplicableHeaderTradeAgreement"
+            + "/ram:BuyerTradeParty/ram:Name"))).isTrue();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:URIID"))).isTrue();
+        // 'div' and 'and' are operators, not element names
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:div"))).isFalse();
+        assertThat(rule.isAffectedBy(steps(SELLER + "/ram:and"))).isFalse();
+    }
+
+    private static RuleDependencies rule(String context, String... tests) {
+        List<SchematronRules.SchCheck> checks = new ArrayList<>();
+        for (int i = 0; i < tests.length; i++) {
+            checks.add(new SchematronRules.SchCheck(true, null, tests[i], "message", "report-" + (i + 1)));
+        }
+        return RuleDependencies.of(new SchematronRules.SchRule(context, "rule-1", checks));
+    }
+
+    private static List<String> steps(String path) {
+        return RuleDependencies.steps(path);
+    }
+}
@@ -0,0 +1,68 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for SchemaValidationResult and SchemaError.
+ */
+@DisplayName("SchemaValidationResult Tests")
+class SchemaValidationResultTest {
+
+    @Test
+    @DisplayName("success() should return valid result without errors")
+    void testSuccess() {
+        SchemaValidationResult result = SchemaValidationResult.success();
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getErrors()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("invalid(errors) should return invalid result with errors")
+    void testInvalid() {
+        SchemaValidationResult result = SchemaValidationResult.invalid(List.of(
+            new SchemaError("cvc-complex-type.2.4.a", 14, 52, null)));
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.toString()).contains("valid=false").contains("errors=1");
+    }
+
+    @Test
+    @DisplayName("invalid() with no errors should be valid")
+    void testInvalidWithoutErrors() {
+        assertThat(SchemaValidationResult.invalid(List.of())).isSameAs(SchemaValidationResult.success());
+    }
+
+    @Test
+    @DisplayName("Errors should be copied and unmodifiable")
+    void testErrorsAreImmutable() {
+        List<SchemaError> errors = new ArrayList<>();
+        errors.add(new SchemaError("error", 1, 1, null));
+        SchemaValidationResult result = SchemaValidationResult.invalid(errors);
+        errors.add(new SchemaError("another", 2, 1, null));
+
+        assertThat(result.getErrors()).hasSize(1);
+        assertThatThrownBy(() -> result.getErrors().add(new SchemaError("x", 1, 1, null)))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("SchemaError should implement equals, hashCode and toString")
+    void testSchemaError() {
+        SchemaError error = new SchemaError("message", 3, 7, "/Root/Child");
+
+        assertThat(error).isEqualTo(new SchemaError("message", 3, 7, "/Root/Child"));
+        assertThat(error.hashCode()).isEqualTo(new SchemaError("message", 3, 7, "/Root/Child").hashCode());
+        assertThat(error).isNotEqualTo(new SchemaError("message", 4, 7, "/Root/Child"));
+        assertThat(error.toString()).contains("line=3").contains("column=7").contains("/Root/Child");
+        assertThat(new SchemaError("message", -1, -1, null).toString()).doesNotContain("location");
+    }
+}
@@ -0,0 +1,206 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.validation.Schema;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for XSD validation with cached schemas.
+ */
+@DisplayName("SchemaValidator Tests")
+class SchemaValidatorTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+        "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private static SchemaValidator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validator = new SchemaValidator();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("All XSDs compile with their imports")
+    void testAllSchemasCompile(DocumentSchematron docType) {
+        assertThat(validator.getSchema(docType)).isNotNull();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = DocumentSchematron.class, names = "CANCELLATION_NOTE", mode = EnumSource.Mode.EXCLUDE)
+    @DisplayName("Example files pass XSD validation")
+    void testExampleFilesPassValidation(DocumentSchematron docType) throws IOException {
+        SchemaValidationResult result = validator.validate(readResourceAsString(exampleFile(docType)), docType);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getErrors()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reports unexpected elements with their position")
+    void testInvalidDocument() throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replace("<ram:TypeCode>388</ram:TypeCode>", "<ram:TypeCode>388</ram:TypeCode><ram:Unexpected/>");
+
+        SchemaValidationResult result = validator.validate(xml, DocumentSchematron.TAX_INVOICE);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getErrors()).hasSize(1);
+        SchemaError error = result.getErrors().get(0);
+        assertThat(error.getMessage()).contains("Unexpected");
+        assertThat(error.getLineNumber()).isPositive();
+        assertThat(error.getColumnNumber()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Rejects a document of another type")
+    void testWrongDocumentType() throws IOException {
+        SchemaValidationResult result =
+            validator.validate(readResourceAsString(TAX_INVOICE_EXAMPLE), DocumentSchematron.RECEIPT);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getErrors().get(0).getMessage()).contains("TaxInvoice_CrossIndustryInvoice");
+    }
+
+    @Test
+    @DisplayName("Validates input streams and closes them")
+    void testInputStream() throws IOException {
+        AtomicInteger closed = new AtomicInteger();
+        InputStream in = new ByteArrayInputStream(readResourceAsString(TAX_INVOICE_EXAMPLE).getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        };
+
+        assertThat(validator.validate(in, DocumentSchematron.TAX_INVOICE).isValid()).isTrue();
+        assertThat(closed.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Validates a parsed DOM")
+    void testDocument() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document;
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(TAX_INVOICE_EXAMPLE)) {
+            document = factory.newDocumentBuilder().parse(is);
+        }
+
+        assertThat(validator.validate(document, DocumentSchematron.TAX_INVOICE).isValid()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Rejects malformed XML and DTDs")
+    void testRejectsMalformedXmlAndDtd() {
+        assertThatThrownBy(() -> validator.validate("<x>", DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(SchematronValidationException.class);
+        assertThatThrownBy(() -> validator.validate(
+                "<?xml version=\"1.0\"?><!DOCTYPE x [<!ENTITY e \"e\">]><x>&e;</x>", DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(SchematronValidationException.class)
+            .hasMessageContaining("DOCTYPE");
+        assertThatThrownBy(() -> validator.validate(" ", DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Compiles each schema once")
+    void testSchemaIsCached() {
+        AtomicInteger compilations = new AtomicInteger();
+        SchemaValidator counting = new SchemaValidator() {
+            @Override
+            protected Schema compileSchema(DocumentSchematron docType) {
+                compilations.incrementAndGet();
+                return super.compileSchema(docType);
+            }
+        };
+
+        Schema schema = counting.getSchema(DocumentSchematron.INVOICE);
+        counting.warmUp(DocumentSchematron.INVOICE);
+        assertThat(counting.getSchema(DocumentSchematron.INVOICE)).isSameAs(schema);
+        assertThat(compilations.get()).isEqualTo(1);
+
+        counting.clearCache();
+        assertThat(counting.getSchema(DocumentSchematron.INVOICE)).isNotSameAs(schema);
+        assertThat(compilations.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Wraps compile failures")
+    void testCompileFailure() {
+        SchemaValidator failing = new SchemaValidator() {
+            @Override
+            protected Schema compileSchema(DocumentSchematron docType) {
+                throw new SchematronValidationException("Failed to compile XSD", docType);
+            }
+        };
+
+        assertThatThrownBy(() -> failing.validate("<x/>", DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(SchematronValidationException.class);
+    }
+
+    @Test
+    @DisplayName("Validates concurrently with pooled validators")
+    void testConcurrentValidation() throws Exception {
+        String valid = readResourceAsString(TAX_INVOICE_EXAMPLE);
+        String invalid = valid.replace("<ram:TypeCode>388</ram:TypeCode>",
+            "<ram:TypeCode>388</ram:TypeCode><ram:Unexpected/>");
+        SchemaValidator pooled = new SchemaValidator(2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String xml = i % 2 == 0 ? valid : invalid;
+                results.add(executor.submit(() -> pooled.validate(xml, DocumentSchematron.TAX_INVOICE).isValid()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(i % 2 == 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects an invalid pool size")
+    void testInvalidPoolSize() {
+        assertThatThrownBy(() -> new SchemaValidator(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String exampleFile(DocumentSchematron docType) {
+        return switch (docType) {
+            case TAX_INVOICE -> TAX_INVOICE_EXAMPLE;
+            case RECEIPT -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_Receipt_2p1_v1.xml";
+            case DEBIT_CREDIT_NOTE -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_DebitNote_2p1_v1.xml";
+            case INVOICE -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_Invoice_2p1_v1.xml";
+            case ABBREVIATED_TAX_INVOICE -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_AbbreviatedTaxInvocie_2p1_v1.xml";
+            case CANCELLATION_NOTE -> throw new IllegalArgumentException("No example for " + docType);
+        };
+    }
+
+    private String readResourceAsString(String resourcePath) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the Schematron rule model shared by the XSLT and profiling engines.
+ */
+@DisplayName("SchematronRules Tests")
+class SchematronRulesTest {
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("Every rule and check of the ETDA files gets a unique label")
+    void testUniqueLabels(DocumentSchematron docType) throws IOException {
+        SchematronRules rules = parse(docType);
+
+        List<String> labels = rules.getPatterns().stream()
+            .flatMap(pattern -> pattern.getRules().stream())
+            .flatMap(rule -> Stream.concat(Stream.of(rule.getLabel()),
+                rule.getChecks().stream().map(SchematronRules.SchCheck::getLabel)))
+            .collect(Collectors.toList());
+
+        assertThat(labels).isNotEmpty().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Checks are labelled with the rule identifier of their message")
+    void testLabels() throws IOException {
+        SchematronRules rules = parse(DocumentSchematron.TAX_INVOICE);
+
+        assertThat(rules.getNamespaces()).containsKeys("rsm", "ram");
+        SchematronRules.SchRule first = rules.getPatterns().get(0).getRules().get(0);
+        assertThat(first.getLabel()).isEqualTo("rule-1");
+        assertThat(first.getChecks().get(0).getLabel()).isEqualTo("report-1");
+
+        List<String> labels = rules.getPatterns().stream()
+            .flatMap(pattern -> pattern.getRules().stream())
+            .flatMap(rule -> rule.getChecks().stream())
+            .map(SchematronRules.SchCheck::getLabel)
+            .collect(Collectors.toList());
+        assertThat(labels).contains("TIV-DocumentContext-001", "TIV-BuyerTradeParty-001", "TIV-BuyerTradeParty-001#2");
+    }
+
+    @Test
+    @DisplayName("Relative contexts are selected from the root")
+    void testSelect() {
+        SchematronRules rules = parse("<sch:rule context=\"a/b\"><sch:assert test=\"c\">x</sch:assert></sch:rule>"
+            + "<sch:rule context=\"/a\"><sch:report id=\"R1\" test=\"d\">y</sch:report></sch:rule>");
+
+        List<SchematronRules.SchRule> parsed = rules.getPatterns().get(0).getRules();
+        assertThat(parsed.get(0).getSelect()).isEqualTo("//a/b");
+        assertThat(parsed.get(0).getChecks().get(0).isReport()).isFalse();
+        assertThat(parsed.get(0).getChecks().get(0).getLabel()).isEqualTo("assert-1");
+        assertThat(parsed.get(1).getSelect()).isEqualTo("/a");
+        assertThat(parsed.get(1).getChecks().get(0).getLabel()).isEqualTo("R1");
+    }
+
+    @Test
+    @DisplayName("Rule identifiers are read from the start of messages")
+    void testMessageRuleId() {
+        assertThat(SchematronRules.messageRuleId("TIV-DocumentContext-001 : bad version")).isEqualTo("TIV-DocumentContext-001");
+        assertThat(SchematronRules.messageRuleId("( RCT-Header-002) missing")).isEqualTo("RCT-Header-002");
+        assertThat(SchematronRules.messageRuleId("Root element is not a TaxInvoice")).isNull();
+    }
+
+    @Test
+    @DisplayName("Unsupported Schematron elements and rules without context are rejected")
+    void testInvalidSchematron() {
+        assertThatThrownBy(() -> parse("<sch:rule context=\"a\"><sch:let name=\"x\" value=\"1\"/></sch:rule>"))
+            .isInstanceOf(SchematronValidationException.class)
+            .hasMessageContaining("sch:let");
+        assertThatThrownBy(() -> parse("<sch:rule><sch:assert test=\"c\">x</sch:assert></sch:rule>"))
+            .isInstanceOf(SchematronValidationException.class)
+            .hasMessageContaining("context");
+    }
+
+    private static SchematronRules parse(String rules) {
+        String sch = "<sch:schema xmlns:sch=\"http://purl.oclc.org/dsdl/schematron\"><sch:pattern>"
+            + rules + "</sch:pattern></sch:schema>";
+        return SchematronRules.parse(new ByteArrayInputStream(sch.getBytes(StandardCharsets.UTF_8)), DocumentSchematron.INVOICE);
+    }
+
+    private SchematronRules parse(DocumentSchematron docType) throws IOException {
+        try (InputStream sch = getClass().getClassLoader().getResourceAsStream(docType.getSchematronPath())) {
+            return SchematronRules.parse(sch, docType);
+        }
+    }
+}
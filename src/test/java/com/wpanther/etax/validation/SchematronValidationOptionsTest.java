@@ -0,0 +1,120 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for SchematronValidationOptions.
+ */
+@DisplayName("SchematronValidationOptions Tests")
+class SchematronValidationOptionsTest {
+
+    private static final SchematronError CONTEXT = warning(null, "TIV-DocumentContext-001 wrong version");
+    private static final SchematronError SELLER = warning(null, "(TIV-SellerTradeParty-007) wrong postcode");
+    private static final SchematronError BUYER = warning("TIV-BuyerTradeParty-008", "wrong postcode");
+    private static final SchematronError ROOT = warning(null, "wrong document type");
+
+    @Test
+    @DisplayName("Defaults run everything")
+    void testDefaults() {
+        SchematronValidationOptions options = SchematronValidationOptions.defaults();
+        SchematronValidationResult result = SchematronValidationResult.validWithWarnings(List.of(CONTEXT, ROOT));
+
+        assertThat(options.isDefault()).isTrue();
+        assertThat(options.getMaxIssues()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(options.includes(null)).isTrue();
+        assertThat(options.apply(result)).isSameAs(result);
+    }
+
+    @Test
+    @DisplayName("Rule IDs are read from the id, else from the message")
+    void testRuleId() {
+        assertThat(SchematronValidationOptions.ruleId(CONTEXT)).isEqualTo("TIV-DocumentContext-001");
+        assertThat(SchematronValidationOptions.ruleId(SELLER)).isEqualTo("TIV-SellerTradeParty-007");
+        assertThat(SchematronValidationOptions.ruleId(BUYER)).isEqualTo("TIV-BuyerTradeParty-008");
+        assertThat(SchematronValidationOptions.ruleId(ROOT)).isNull();
+    }
+
+    @Test
+    @DisplayName("Rule subsets match IDs exactly or by prefix")
+    void testIncludes() {
+        SchematronValidationOptions options = SchematronValidationOptions.defaults()
+            .withRules("TIV-DocumentContext-*", "TIV-BuyerTradeParty-008");
+
+        assertThat(options.isDefault()).isFalse();
+        assertThat(options.includes("TIV-DocumentContext-001")).isTrue();
+        assertThat(options.includes("TIV-BuyerTradeParty-008")).isTrue();
+        assertThat(options.includes("TIV-BuyerTradeParty-009")).isFalse();
+        assertThat(options.includes("TIV-DocumentContextX-001")).isFalse();
+        assertThat(options.includes(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("apply() filters by subset and truncates at the first stop")
+    void testApply() {
+        SchematronValidationResult full = SchematronValidationResult.validWithWarnings(List.of(ROOT, CONTEXT, SELLER, BUYER));
+
+        SchematronValidationResult failFast = SchematronValidationOptions.failFast().apply(full);
+        SchematronValidationResult stopRule = SchematronValidationOptions.defaults()
+            .withStopRules("TIV-SellerTradeParty-007").apply(full);
+        SchematronValidationResult subset = SchematronValidationOptions.defaults()
+            .withRules("TIV-*").withMaxIssues(5).apply(full);
+
+        assertThat(failFast.isTruncated()).isTrue();
+        assertThat(failFast.getWarnings()).containsExactly(ROOT);
+        assertThat(stopRule.isTruncated()).isTrue();
+        assertThat(stopRule.getWarnings()).containsExactly(ROOT, CONTEXT, SELLER);
+        assertThat(subset.isTruncated()).isFalse();
+        assertThat(subset.getWarnings()).containsExactly(CONTEXT, SELLER, BUYER);
+    }
+
+    @Test
+    @DisplayName("apply() takes errors before warnings")
+    void testApplyErrorsFirst() {
+        SchematronError error = new SchematronError("ERR-001", "failed", "/", SchematronError.ErrorLevel.ERROR, "x");
+        SchematronValidationResult full = SchematronValidationResult.invalid(List.of(error), List.of(CONTEXT));
+
+        SchematronValidationResult result = SchematronValidationOptions.failFast().apply(full);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getErrors()).containsExactly(error);
+        assertThat(result.getWarnings()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Options are immutable values")
+    void testValueSemantics() {
+        SchematronValidationOptions base = SchematronValidationOptions.defaults();
+        SchematronValidationOptions limited = base.withMaxIssues(3).withRules("RCT-*").withStopRules("RCT-Header-001");
+
+        assertThat(base.isDefault()).isTrue();
+        assertThat(limited.getMaxIssues()).isEqualTo(3);
+        assertThat(limited.getRules()).containsExactly("RCT-*");
+        assertThat(limited.getStopRules()).containsExactly("RCT-Header-001");
+        assertThat(limited).isEqualTo(base.withRules("RCT-*").withStopRules("RCT-Header-001").withMaxIssues(3));
+        assertThat(limited.hashCode())
+            .isEqualTo(base.withRules("RCT-*").withStopRules("RCT-Header-001").withMaxIssues(3).hashCode());
+        assertThat(limited.toString()).contains("maxIssues=3").contains("RCT-*");
+        assertThat(base.toString()).contains("maxIssues=unlimited");
+    }
+
+    @Test
+    @DisplayName("Invalid limits and rule IDs are rejected")
+    void testInvalidArguments() {
+        SchematronValidationOptions options = SchematronValidationOptions.defaults();
+
+        assertThatThrownBy(() -> options.withMaxIssues(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> options.withRules(" ")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> options.withStopRules((String) null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static SchematronError warning(String ruleId, String message) {
+        return new SchematronError(ruleId, message, "/", SchematronError.ErrorLevel.WARNING, "test()");
+    }
+}
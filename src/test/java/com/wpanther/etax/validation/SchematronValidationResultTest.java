@@ -218,6 +218,23 @@ class SchematronValidationResultTest {
         assertThat(result1.hashCode()).isEqualTo(result2.hashCode());
     }
 
+    @Test
+    @DisplayName("truncated() should mark the result as stopped at a limit")
+    void testTruncatedFactoryMethod() {
+        List<SchematronError> warnings = List.of(
+            new SchematronError("TIV-001", "Report", "/path", SchematronError.ErrorLevel.WARNING, "test()"));
+
+        SchematronValidationResult result = SchematronValidationResult.truncated(List.of(), warnings);
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getWarnings()).isEqualTo(warnings);
+        assertThat(result).isNotEqualTo(SchematronValidationResult.validWithWarnings(warnings));
+        assertThat(result.toString()).contains("truncated=true");
+        assertThat(SchematronValidationResult.validWithWarnings(warnings).isTruncated()).isFalse();
+        assertThat(SchematronValidationResult.success().toString()).doesNotContain("truncated");
+    }
+
     // toString tests
 
     @Test
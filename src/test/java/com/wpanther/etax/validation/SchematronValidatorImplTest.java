@@ -1,5 +1,9 @@
 package com.wpanther.etax.validation;
 
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.schematron.pure.SchematronResourcePure;
+import com.helger.schematron.svrl.jaxb.ActivePattern;
+import com.helger.schematron.svrl.jaxb.FiredRule;
 import com.helger.schematron.svrl.jaxb.SchematronOutputType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,7 +43,7 @@ class SchematronValidatorImplTest {
             // Create a subclass that throws on loadSchematron
             SchematronValidatorImpl throwingValidator = new SchematronValidatorImpl() {
                 @Override
-                protected com.helger.schematron.pure.SchematronResourcePure loadSchematron(DocumentSchematron docType) {
+                protected SchematronResourcePure loadSchematron(DocumentSchematron docType) {
                     throw new RuntimeException("Simulated load failure");
                 }
             };
@@ -49,6 +54,83 @@ class SchematronValidatorImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Schematron cache tests")
+    class SchematronCacheTests {
+
+        @Test
+        @DisplayName("Schematron is loaded once per document type across validations")
+        void testSchematronLoadedOncePerDocumentType() {
+            AtomicInteger loadCount = new AtomicInteger();
+            SchematronValidatorImpl countingValidator = new SchematronValidatorImpl() {
+                @Override
+                protected SchematronResourcePure loadSchematron(DocumentSchematron docType) {
+                    loadCount.incrementAndGet();
+                    return super.loadSchematron(docType);
+                }
+            };
+
+            String xml = "<root/>";
+            countingValidator.validate(xml, DocumentSchematron.CANCELLATION_NOTE);
+            countingValidator.validate(xml, DocumentSchematron.CANCELLATION_NOTE);
+            countingValidator.isSchematronValid(DocumentSchematron.CANCELLATION_NOTE);
+
+            assertThat(loadCount.get()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("getSchematron returns the same instance for repeated calls")
+        void testGetSchematronReturnsCachedInstance() {
+            assertThat(validator.getSchematron(DocumentSchematron.INVOICE))
+                .isSameAs(validator.getSchematron(DocumentSchematron.INVOICE));
+        }
+
+        @Test
+        @DisplayName("clearCache forces the Schematron to be reloaded")
+        void testClearCacheForcesReload() {
+            SchematronResourcePure first = validator.getSchematron(DocumentSchematron.INVOICE);
+
+            validator.clearCache();
+
+            assertThat(validator.getSchematron(DocumentSchematron.INVOICE)).isNotSameAs(first);
+        }
+
+        @Test
+        @DisplayName("warmUp loads and compiles all document types")
+        void testWarmUpLoadsAllDocumentTypes() {
+            AtomicInteger loadCount = new AtomicInteger();
+            SchematronValidatorImpl countingValidator = new SchematronValidatorImpl() {
+                @Override
+                protected SchematronResourcePure loadSchematron(DocumentSchematron docType) {
+                    loadCount.incrementAndGet();
+                    return super.loadSchematron(docType);
+                }
+            };
+
+            countingValidator.warmUp();
+            countingValidator.warmUp();
+
+            assertThat(loadCount.get()).isEqualTo(DocumentSchematron.values().length);
+        }
+
+        @Test
+        @DisplayName("Failed loads are not cached")
+        void testFailedLoadIsNotCached() {
+            AtomicInteger loadCount = new AtomicInteger();
+            SchematronValidatorImpl throwingValidator = new SchematronValidatorImpl() {
+                @Override
+                protected SchematronResourcePure loadSchematron(DocumentSchematron docType) {
+                    loadCount.incrementAndGet();
+                    throw new SchematronValidationException("Simulated load failure", docType);
+                }
+            };
+
+            assertThat(throwingValidator.isSchematronValid(DocumentSchematron.TAX_INVOICE)).isFalse();
+            assertThat(throwingValidator.isSchematronValid(DocumentSchematron.TAX_INVOICE)).isFalse();
+            assertThat(loadCount.get()).isEqualTo(2);
+        }
+    }
+
     @Nested
     @DisplayName("loadSchematron tests")
     class LoadSchematronTests {
@@ -82,13 +164,9 @@ class SchematronValidatorImplTest {
 
         @Test
         @DisplayName("parseSchematronOutput returns success for null output")
-        void testParseNullSchematronOutputReturnsSuccess() throws Exception {
-            Method parseMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "parseSchematronOutput", SchematronOutputType.class, DocumentSchematron.class);
-            parseMethod.setAccessible(true);
-
-            SchematronValidationResult result = (SchematronValidationResult)
-                parseMethod.invoke(validator, null, DocumentSchematron.TAX_INVOICE);
+        void testParseNullSchematronOutputReturnsSuccess() {
+            SchematronValidationResult result =
+                SchematronValidatorImpl.parseSchematronOutput(null, DocumentSchematron.TAX_INVOICE);
 
             assertThat(result.isValid()).isTrue();
             assertThat(result.getErrors()).isEmpty();
@@ -96,262 +174,72 @@ class SchematronValidatorImplTest {
         }
 
         @Test
-        @DisplayName("parseSchematronOutput returns success when output has null list")
-        void testParseSchematronOutputWithNullListReturnsSuccess() throws Exception {
-            Method parseMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "parseSchematronOutput", SchematronOutputType.class, DocumentSchematron.class);
-            parseMethod.setAccessible(true);
-
-            // Create a SchematronOutputType with null list
-            SchematronOutputType output = new SchematronOutputType();
+        @DisplayName("parseSchematronOutput returns success for empty output")
+        void testParseEmptySchematronOutputReturnsSuccess() {
             // getActivePatternAndFiredRuleAndFailedAssert() returns an empty list by default, not null
-            // The null check in the code is for the output itself being null
-
-            SchematronValidationResult result = (SchematronValidationResult)
-                parseMethod.invoke(validator, output, DocumentSchematron.TAX_INVOICE);
+            SchematronValidationResult result = SchematronValidatorImpl.parseSchematronOutput(
+                new SchematronOutputType(), DocumentSchematron.TAX_INVOICE);
 
             assertThat(result.isValid()).isTrue();
             assertThat(result.getErrors()).isEmpty();
         }
-    }
-
-    @Nested
-    @DisplayName("extractWarningFromObject tests")
-    class ExtractWarningFromObjectTests {
-
-        @Test
-        @DisplayName("extractWarningFromObject returns fallback when reflection fails")
-        void testExtractWarningFallbackOnReflectionFailure() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractWarningFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Pass an object that doesn't have getId/getLocation/getTest methods
-            Object badObject = new Object();
-
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, badObject);
-
-            assertThat(result.getRuleId()).isEqualTo("UNKNOWN");
-            assertThat(result.getMessage()).isEqualTo("Failed to extract warning details");
-            assertThat(result.getLevel()).isEqualTo(SchematronError.ErrorLevel.WARNING);
-        }
-
-        @Test
-        @DisplayName("extractWarningFromObject handles object with null getText result")
-        void testExtractWarningWithNullTextResult() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractWarningFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Create a mock object with the required methods but getText returns null
-            MockSuccessfulReport mockReport = new MockSuccessfulReport("TEST-001", "/test/path", "test expression", null);
-
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, mockReport);
-
-            assertThat(result.getRuleId()).isEqualTo("TEST-001");
-            assertThat(result.getLocation()).isEqualTo("/test/path");
-            assertThat(result.getTestExpression()).isEqualTo("test expression");
-            assertThat(result.getMessage()).isEmpty();
-            assertThat(result.getLevel()).isEqualTo(SchematronError.ErrorLevel.WARNING);
-        }
-
-        @Test
-        @DisplayName("extractWarningFromObject falls back to toString when getValue not available")
-        void testExtractWarningFallsBackToToString() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractWarningFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Create a mock object where getText returns an object without getValue method
-            MockSuccessfulReport mockReport = new MockSuccessfulReport(
-                "TEST-002", "/test/path", "test expression",
-                new TextWithoutGetValue("message via toString")
-            );
-
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, mockReport);
-
-            assertThat(result.getRuleId()).isEqualTo("TEST-002");
-            assertThat(result.getMessage()).contains("toString");
-        }
 
         @Test
-        @DisplayName("extractWarningFromObject extracts message via getValue")
-        void testExtractWarningWithGetValue() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractWarningFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Create a mock object where getText returns an object with getValue method
-            MockSuccessfulReport mockReport = new MockSuccessfulReport(
-                "TEST-003", "/test/path", "test expression",
-                new TextWithGetValue("message via getValue")
-            );
-
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, mockReport);
-
-            assertThat(result.getRuleId()).isEqualTo("TEST-003");
-            assertThat(result.getMessage()).isEqualTo("message via getValue");
-        }
-    }
-
-    @Nested
-    @DisplayName("extractErrorFromObject tests")
-    class ExtractErrorFromObjectTests {
-
-        @Test
-        @DisplayName("extractErrorFromObject returns fallback when reflection fails")
-        void testExtractErrorFallbackOnReflectionFailure() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractErrorFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Pass an object that doesn't have getId/getLocation/getTest methods
-            Object badObject = new Object();
+        @DisplayName("parseSchematronOutput skips active patterns and fired rules")
+        void testParseSkipsPatternsAndRules() {
+            SchematronOutputType output = new SchematronOutputType();
+            output.getActivePatternAndFiredRuleAndFailedAssert().add(new ActivePattern());
+            output.getActivePatternAndFiredRuleAndFailedAssert().add(new FiredRule());
 
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, badObject);
+            SchematronValidationResult result =
+                SchematronValidatorImpl.parseSchematronOutput(output, DocumentSchematron.TAX_INVOICE);
 
-            assertThat(result.getRuleId()).isEqualTo("UNKNOWN");
-            assertThat(result.getMessage()).isEqualTo("Failed to extract error details");
-            assertThat(result.getLevel()).isEqualTo(SchematronError.ErrorLevel.ERROR);
+            assertThat(result).isEqualTo(SchematronValidationResult.success());
         }
 
         @Test
-        @DisplayName("extractErrorFromObject handles object with null getText result")
-        void testExtractErrorWithNullTextResult() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractErrorFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Create a mock object with the required methods but getText returns null
-            MockFailedAssert mockAssert = new MockFailedAssert("ERR-001", "/error/path", "error expression", null);
-
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, mockAssert);
-
-            assertThat(result.getRuleId()).isEqualTo("ERR-001");
-            assertThat(result.getLocation()).isEqualTo("/error/path");
-            assertThat(result.getTestExpression()).isEqualTo("error expression");
-            assertThat(result.getMessage()).isEmpty();
-            assertThat(result.getLevel()).isEqualTo(SchematronError.ErrorLevel.ERROR);
-        }
+        @DisplayName("Report messages are the svrl:text content, as reported by the XSLT engine")
+        void testReportMessageText() {
+            SchematronValidationResult pure = validator.validate("<root/>", DocumentSchematron.TAX_INVOICE);
+            SchematronValidationResult xslt = new SchematronXsltValidator().validate("<root/>", DocumentSchematron.TAX_INVOICE);
 
-        @Test
-        @DisplayName("extractErrorFromObject falls back to toString when getValue not available")
-        void testExtractErrorFallsBackToToString() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractErrorFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Create a mock object where getText returns an object without getValue method
-            MockFailedAssert mockAssert = new MockFailedAssert(
-                "ERR-002", "/error/path", "error expression",
-                new TextWithoutGetValue("error via toString")
-            );
-
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, mockAssert);
-
-            assertThat(result.getRuleId()).isEqualTo("ERR-002");
-            assertThat(result.getMessage()).contains("toString");
+            assertThat(pure.getWarnings()).hasSize(1);
+            SchematronError warning = pure.getWarnings().get(0);
+            assertThat(warning.getLevel()).isEqualTo(SchematronError.ErrorLevel.WARNING);
+            assertThat(warning.getTestExpression()).isEqualTo("not(rsm:TaxInvoice_CrossIndustryInvoice)");
+            assertThat(warning.getRuleId()).isNull();
+            assertThat(normalize(warning.getMessage())).isEqualTo(normalize(xslt.getWarnings().get(0).getMessage()));
         }
 
         @Test
-        @DisplayName("extractErrorFromObject extracts message via getValue")
-        void testExtractErrorWithGetValue() throws Exception {
-            Method extractMethod = SchematronValidatorImpl.class.getDeclaredMethod(
-                "extractErrorFromObject", Object.class);
-            extractMethod.setAccessible(true);
-
-            // Create a mock object where getText returns an object with getValue method
-            MockFailedAssert mockAssert = new MockFailedAssert(
-                "ERR-003", "/error/path", "error expression",
-                new TextWithGetValue("error via getValue")
-            );
-
-            SchematronError result = (SchematronError) extractMethod.invoke(validator, mockAssert);
-
-            assertThat(result.getRuleId()).isEqualTo("ERR-003");
-            assertThat(result.getMessage()).isEqualTo("error via getValue");
-        }
-    }
-
-    // Helper classes for testing reflection-based extraction
-
-    /**
-     * Mock SuccessfulReport-like object for testing extractWarningFromObject
-     */
-    static class MockSuccessfulReport {
-        private final String id;
-        private final String location;
-        private final String test;
-        private final Object text;
-
-        MockSuccessfulReport(String id, String location, String test, Object text) {
-            this.id = id;
-            this.location = location;
-            this.test = test;
-            this.text = text;
-        }
-
-        public String getId() { return id; }
-        public String getLocation() { return location; }
-        public String getTest() { return test; }
-        public Object getText() { return text; }
-    }
-
-    /**
-     * Mock FailedAssert-like object for testing extractErrorFromObject
-     */
-    static class MockFailedAssert {
-        private final String id;
-        private final String location;
-        private final String test;
-        private final Object text;
-
-        MockFailedAssert(String id, String location, String test, Object text) {
-            this.id = id;
-            this.location = location;
-            this.test = test;
-            this.text = text;
-        }
-
-        public String getId() { return id; }
-        public String getLocation() { return location; }
-        public String getTest() { return test; }
-        public Object getText() { return text; }
-    }
-
-    /**
-     * Mock text object without getValue method (falls back to toString)
-     */
-    static class TextWithoutGetValue {
-        private final String value;
-
-        TextWithoutGetValue(String value) {
-            this.value = value;
-        }
-
-        @Override
-        public String toString() {
-            return "toString: " + value;
-        }
-    }
-
-    /**
-     * Mock text object with getValue method
-     */
-    static class TextWithGetValue {
-        private final String value;
+        @DisplayName("Failed assertions are reported as errors with rule ID, location and test")
+        void testFailedAssertIsError() {
+            SchematronValidatorImpl assertValidator = new SchematronValidatorImpl() {
+                @Override
+                protected SchematronResourcePure loadSchematron(DocumentSchematron docType) {
+                    return new SchematronResourcePure(new ClassPathResource("schematron/failed-assert.sch"));
+                }
+            };
+            String xml = "<t:Invoice xmlns:t=\"urn:etax:test\">"
+                + "<t:Line><t:Amount>10</t:Amount></t:Line>"
+                + "<t:Line><t:Amount>-5</t:Amount></t:Line>"
+                + "</t:Invoice>";
 
-        TextWithGetValue(String value) {
-            this.value = value;
-        }
+            SchematronValidationResult result = assertValidator.validate(xml, DocumentSchematron.INVOICE);
 
-        public String getValue() {
-            return value;
+            assertThat(result.isValid()).isFalse();
+            assertThat(result.getWarnings()).isEmpty();
+            assertThat(result.getErrors()).hasSize(1);
+            SchematronError error = result.getErrors().get(0);
+            assertThat(error.getLevel()).isEqualTo(SchematronError.ErrorLevel.ERROR);
+            assertThat(error.getRuleId()).isEqualTo("TST-Line-001");
+            assertThat(error.getTestExpression()).isEqualTo("number(t:Amount) >= 0");
+            assertThat(error.getLocation()).contains("Line").endsWith("[2]");
+            assertThat(normalize(error.getMessage())).isEqualTo("TST-Line-001 Amount must not be negative");
         }
 
-        @Override
-        public String toString() {
-            return "TextWithGetValue{" + value + "}";
+        private String normalize(String message) {
+            return message.replaceAll("\\s+", " ").trim();
         }
     }
 }
@@ -0,0 +1,263 @@
+package com.wpanther.etax.validation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the precompiled XSLT Schematron engine, including equivalence with
+ * the pure ph-schematron engine.
+ */
+class SchematronXsltValidatorTest {
+
+    private static final String TAX_INVOICE_EXAMPLE =
+        "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_TaxInvoice_2p1_v1.xml";
+
+    private SchematronXsltValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new SchematronXsltValidator();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("All Schematron files compile to XSLT")
+    void testAllSchematronsCompile(DocumentSchematron docType) {
+        assertThat(validator.isSchematronValid(docType)).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = DocumentSchematron.class, names = {"TAX_INVOICE", "RECEIPT", "DEBIT_CREDIT_NOTE", "INVOICE"})
+    @DisplayName("Example files pass validation")
+    void testExampleFilesPassValidation(DocumentSchematron docType) throws IOException {
+        SchematronValidationResult result = validator.validate(readResourceAsString(exampleFile(docType)), docType);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getErrors()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentSchematron.class)
+    @DisplayName("Reports match the pure engine when validating a TaxInvoice against every document type")
+    void testResultsMatchPureEngine(DocumentSchematron docType) throws IOException {
+        String xml = readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replace("schemeVersionID=\"v2.1\"", "schemeVersionID=\"v1.0\"");
+
+        SchematronValidationResult pure = new SchematronValidatorImpl().validate(xml, docType);
+        SchematronValidationResult xslt = validator.validate(xml, docType);
+
+        assertThat(xslt.isValid()).isEqualTo(pure.isValid());
+        assertThat(signature(xslt.getErrors())).isEqualTo(signature(pure.getErrors()));
+        assertThat(signature(xslt.getWarnings())).isEqualTo(signature(pure.getWarnings()));
+    }
+
+    @Test
+    @DisplayName("Wrong root element produces a report with message text")
+    void testWrongRootElementReportsMessage() {
+        SchematronValidationResult result = validator.validate("<root/>", DocumentSchematron.TAX_INVOICE);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getWarnings()).hasSize(1);
+        assertThat(result.getWarnings().get(0).getTestExpression()).isEqualTo("not(rsm:TaxInvoice_CrossIndustryInvoice)");
+        assertThat(result.getWarnings().get(0).getMessage()).contains("Schematron");
+    }
+
+    @Test
+    @DisplayName("validate(InputStream) closes the stream")
+    void testValidateInputStreamClosesStream() {
+        AtomicInteger closeCount = new AtomicInteger();
+        InputStream is = new ByteArrayInputStream("<root/>".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() throws IOException {
+                closeCount.incrementAndGet();
+                super.close();
+            }
+        };
+
+        validator.validate(is, DocumentSchematron.INVOICE);
+
+        assertThat(closeCount.get()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Malformed XML throws SchematronValidationException")
+    void testMalformedXml() {
+        assertThatThrownBy(() -> validator.validate("<broken><unclosed>", DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(SchematronValidationException.class);
+    }
+
+    @Test
+    @DisplayName("Null and blank input are rejected")
+    void testInvalidArguments() {
+        assertThatThrownBy(() -> validator.validate((String) null, DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.validate(" ", DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> validator.validate((InputStream) null, DocumentSchematron.TAX_INVOICE))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Each Schematron is compiled once")
+    void testCompiledOnce() {
+        AtomicInteger compileCount = new AtomicInteger();
+        SchematronXsltValidator countingValidator = new SchematronXsltValidator() {
+            @Override
+            protected net.sf.saxon.s9api.XsltExecutable compileSchematron(DocumentSchematron docType) {
+                compileCount.incrementAndGet();
+                return super.compileSchematron(docType);
+            }
+        };
+
+        countingValidator.warmUp();
+        countingValidator.validate("<root/>", DocumentSchematron.TAX_INVOICE);
+
+        assertThat(compileCount.get()).isEqualTo(DocumentSchematron.values().length);
+    }
+
+    @Test
+    @DisplayName("Unsupported Schematron elements are rejected")
+    void testUnsupportedElementRejected() {
+        String sch = "<sch:schema xmlns:sch=\"http://purl.oclc.org/dsdl/schematron\">"
+            + "<sch:let name=\"x\" value=\"1\"/></sch:schema>";
+
+        assertThatThrownBy(() -> SchematronXsltCompiler.toXslt(
+                new ByteArrayInputStream(sch.getBytes(StandardCharsets.UTF_8)), DocumentSchematron.INVOICE))
+            .isInstanceOf(SchematronValidationException.class)
+            .hasMessageContaining("sch:let");
+    }
+
+    @Test
+    @DisplayName("Fail-fast stops at the first report")
+    void testFailFast() throws IOException {
+        SchematronValidationResult result = validator.validate(brokenTaxInvoice(), DocumentSchematron.TAX_INVOICE,
+            SchematronValidationOptions.failFast());
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(ruleIds(result)).containsExactly("TIV-DocumentContext-001");
+    }
+
+    @Test
+    @DisplayName("Issue limit and stop rules truncate the result")
+    void testIssueLimitAndStopRule() throws IOException {
+        String xml = brokenTaxInvoice();
+
+        SchematronValidationResult limited = validator.validate(xml, DocumentSchematron.TAX_INVOICE,
+            SchematronValidationOptions.defaults().withMaxIssues(2));
+        SchematronValidationResult stopped = validator.validate(xml, DocumentSchematron.TAX_INVOICE,
+            SchematronValidationOptions.defaults().withStopRules("TIV-SellerTradeParty-007"));
+        SchematronValidationResult unreached = validator.validate(xml, DocumentSchematron.TAX_INVOICE,
+            SchematronValidationOptions.defaults().withMaxIssues(10));
+
+        assertThat(limited.isTruncated()).isTrue();
+        assertThat(ruleIds(limited)).containsExactly("TIV-DocumentContext-001", "TIV-SellerTradeParty-007");
+        assertThat(stopped.isTruncated()).isTrue();
+        assertThat(ruleIds(stopped)).containsExactly("TIV-DocumentContext-001", "TIV-SellerTradeParty-007");
+        assertThat(unreached.isTruncated()).isFalse();
+        assertThat(unreached).isEqualTo(validator.validate(xml, DocumentSchematron.TAX_INVOICE));
+    }
+
+    @Test
+    @DisplayName("A rule subset runs only the matching rules")
+    void testRuleSubset() throws IOException {
+        String xml = brokenTaxInvoice();
+        SchematronValidationOptions options = SchematronValidationOptions.defaults().withRules("TIV-BuyerTradeParty-*");
+
+        SchematronValidationResult result = validator.validate(xml, DocumentSchematron.TAX_INVOICE, options);
+
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(ruleIds(result)).containsExactly("TIV-BuyerTradeParty-008");
+        assertThat(result).isEqualTo(options.apply(validator.validate(xml, DocumentSchematron.TAX_INVOICE)));
+        // Checks without a rule ID are outside any subset
+        assertThat(validator.validate("<root/>", DocumentSchematron.TAX_INVOICE, options).getWarnings()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Rule subset stylesheets are shared across pattern order and bounded in number")
+    void testRuleSubsetCacheBounded() throws IOException {
+        String xml = brokenTaxInvoice();
+        SchematronValidationOptions options = SchematronValidationOptions.defaults()
+            .withRules("TIV-BuyerTradeParty-*", "TIV-SellerTradeParty-*");
+        SchematronValidationOptions reordered = SchematronValidationOptions.defaults()
+            .withRules("TIV-SellerTradeParty-*", "TIV-BuyerTradeParty-*", "TIV-SellerTradeParty-*");
+
+        SchematronValidationResult result = validator.validate(xml, DocumentSchematron.TAX_INVOICE, options);
+
+        assertThat(validator.validate(xml, DocumentSchematron.TAX_INVOICE, reordered)).isEqualTo(result);
+        assertThat(validator.subsetCacheSize()).isEqualTo(1);
+
+        for (int i = 0; i < SchematronXsltValidator.MAX_SUBSETS + 5; i++) {
+            validator.validate("<root/>", DocumentSchematron.TAX_INVOICE,
+                SchematronValidationOptions.defaults().withRules("UNKNOWN-" + i));
+        }
+
+        assertThat(validator.subsetCacheSize()).isEqualTo(SchematronXsltValidator.MAX_SUBSETS);
+        assertThat(validator.validate(xml, DocumentSchematron.TAX_INVOICE, options)).isEqualTo(result);
+    }
+
+    @Test
+    @DisplayName("Default options run the whole validation")
+    void testDefaultOptions() throws IOException {
+        String xml = brokenTaxInvoice();
+
+        assertThat(validator.validate(xml, DocumentSchematron.TAX_INVOICE, SchematronValidationOptions.defaults()))
+            .isEqualTo(validator.validate(xml, DocumentSchematron.TAX_INVOICE));
+    }
+
+    /**
+     * The TaxInvoice example with a wrong version and 6-digit postcodes, which fires
+     * TIV-DocumentContext-001, TIV-SellerTradeParty-007 and TIV-BuyerTradeParty-008 in that order.
+     */
+    private String brokenTaxInvoice() throws IOException {
+        return readResourceAsString(TAX_INVOICE_EXAMPLE)
+            .replace("schemeVersionID=\"v2.1\"", "schemeVersionID=\"v1.0\"")
+            .replace("<ram:PostcodeCode>", "<ram:PostcodeCode>9");
+    }
+
+    private static List<String> ruleIds(SchematronValidationResult result) {
+        return result.getWarnings().stream()
+            .map(SchematronValidationOptions::ruleId)
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> signature(List<SchematronError> issues) {
+        return issues.stream()
+            .map(e -> e.getLevel() + "|" + e.getRuleId() + "|" + e.getTestExpression() + "|" + e.getMessage().trim())
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    private static String exampleFile(DocumentSchematron docType) {
+        return switch (docType) {
+            case TAX_INVOICE -> TAX_INVOICE_EXAMPLE;
+            case RECEIPT -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_Receipt_2p1_v1.xml";
+            case DEBIT_CREDIT_NOTE -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_DebitNote_2p1_v1.xml";
+            case INVOICE -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_Invoice_2p1_v1.xml";
+            case CANCELLATION_NOTE -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_CreditNote_2p1_v1.xml";
+            case ABBREVIATED_TAX_INVOICE -> "e-tax-invoice-receipt-v2.1/ETDA/ExampleFile/Example_AbbreviatedTaxInvocie_2p1_v1.xml";
+        };
+    }
+
+    private String readResourceAsString(String resourcePath) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new IOException("Resource not found: " + resourcePath);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}